@@ -0,0 +1,213 @@
+package io.citrine.jcc.benchmarks;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.citrine.jcc.core.SearchCodecs;
+import io.citrine.jcc.search.core.query.DataQuery;
+import io.citrine.jcc.search.core.query.Filter;
+import io.citrine.jcc.search.core.query.Logic;
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.dataset.query.DatasetQuery;
+import io.citrine.jcc.search.pif.query.PifSystemQuery;
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import io.citrine.jcc.search.pif.query.chemical.ChemicalFieldQuery;
+import io.citrine.jcc.search.pif.query.chemical.ChemicalFilter;
+import io.citrine.jcc.search.pif.query.core.FieldQuery;
+import io.citrine.jcc.search.pif.query.core.PropertyQuery;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Builds the queries and search responses that the benchmarks run on. Everything is generated from a fixed seed so
+ * that every run, and every fork of a run, works on the same data.
+ *
+ * @author Kyle Michel
+ */
+final class BenchmarkData {
+
+    // Make sure that objects of this class cannot be instantiated
+    private BenchmarkData() {}
+
+    /**
+     * Build a query of the shape that is typical for screening studies: a dataset filter, a chemical formula filter,
+     * and two property filters whose values are extracted.
+     *
+     * @param index Index of the query, used to vary its values.
+     * @return {@link PifSystemReturningQuery} with the query.
+     */
+    static PifSystemReturningQuery buildQuery(final int index) {
+        return new PifSystemReturningQuery()
+                .setSize(100)
+                .setFrom(index * 100)
+                .setReturnSystem(false)
+                .setScoreRelevance(false)
+                .addQuery(new DataQuery()
+                        .addDataset(new DatasetQuery()
+                                .addId(new Filter().setEqual(Integer.toString(1 + index % 10))))
+                        .addSystem(new PifSystemQuery()
+                                .addChemicalFormula(new ChemicalFieldQuery()
+                                        .setExtractAs(CHEMICAL_FORMULA)
+                                        .addFilter(new ChemicalFilter().setEqual("GaAs").setPartial(true)))
+                                .addProperties(new PropertyQuery()
+                                        .addName(new FieldQuery()
+                                                .addFilter(new Filter().setEqual(BAND_GAP)))
+                                        .addValue(new FieldQuery()
+                                                .setExtractAs(BAND_GAP)
+                                                .addFilter(new Filter().setMin(0.5 + index).setMax(3.5 + index))))
+                                .addProperties(new PropertyQuery()
+                                        .setLogic(Logic.OPTIONAL)
+                                        .addName(new FieldQuery()
+                                                .addFilter(new Filter().setEqual(FORMATION_ENERGY)))
+                                        .addValue(new FieldQuery()
+                                                .setExtractAs(FORMATION_ENERGY)
+                                                .addFilter(new Filter().setExists(true))))));
+    }
+
+    /**
+     * Build a multi-query with a number of queries from {@link #buildQuery(int)}.
+     *
+     * @param numQueries Number of queries.
+     * @return {@link MultiQuery} with the queries.
+     */
+    static MultiQuery<PifSystemReturningQuery> buildMultiQuery(final int numQueries) {
+        final MultiQuery<PifSystemReturningQuery> multiQuery = new MultiQuery<>();
+        for (int i = 0; i < numQueries; ++i) {
+            multiQuery.addQueries(buildQuery(i));
+        }
+        return multiQuery;
+    }
+
+    /**
+     * Build the JSON body of a page of search results. The body is the object that is under the {@code results}
+     * field of a search response.
+     *
+     * @param numHits Number of hits on the page.
+     * @param withSystem Whether each hit includes the PIF system that was matched.
+     * @param withExtracted Whether each hit includes extracted values.
+     * @return Array with the JSON body.
+     * @throws IOException if the body cannot be written.
+     */
+    static byte[] buildResultJson(final int numHits, final boolean withSystem, final boolean withExtracted)
+            throws IOException {
+        final Random random = new Random(SEED);
+        final ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.put("took", 12);
+        result.put("totalNumHits", 100000);
+        result.put("maxScore", 1.0);
+        final ArrayNode hits = result.putArray("hits");
+        for (int i = 0; i < numHits; ++i) {
+            final String dataset = Integer.toString(1 + i % 10);
+            final String formula = ELEMENTS[random.nextInt(ELEMENTS.length)]
+                    + ELEMENTS[random.nextInt(ELEMENTS.length)] + (1 + random.nextInt(3));
+            final double bandGap = Math.round(random.nextDouble() * 600) / 100.0;
+            final double formationEnergy = -Math.round(random.nextDouble() * 400) / 100.0;
+
+            final ObjectNode hit = hits.addObject();
+            hit.put("id", dataset + "/3/" + i);
+            hit.put("dataset", dataset);
+            hit.put("datasetVersion", 3);
+            hit.put("score", 1.0 / (1 + i));
+            hit.put("updatedAt", "2018-06-01T12:00:00.000Z");
+            if (withSystem) {
+                hit.set("system", buildSystem(i, formula, bandGap, formationEnergy));
+            }
+            if (withExtracted) {
+                final ObjectNode extracted = hit.putObject("extracted");
+                extracted.put(CHEMICAL_FORMULA, formula);
+                extracted.putObject(BAND_GAP).put("value", Double.toString(bandGap)).put("units", "eV");
+                extracted.putObject(FORMATION_ENERGY).put("value", Double.toString(formationEnergy))
+                        .put("units", "eV/atom");
+                final ObjectNode extractedPath = hit.putObject("extractedPath");
+                extractedPath.put(CHEMICAL_FORMULA, "system.chemicalFormula");
+                extractedPath.put(BAND_GAP, "system.properties[0].scalars[0]");
+                extractedPath.put(FORMATION_ENERGY, "system.properties[1].scalars[0]");
+            }
+        }
+        return SearchCodecs.JSON.getObjectMapper().writeValueAsBytes(result);
+    }
+
+    /**
+     * Build a page of search results by reading the body from {@link #buildResultJson(int, boolean, boolean)}.
+     *
+     * @param numHits Number of hits on the page.
+     * @param withSystem Whether each hit includes the PIF system that was matched.
+     * @param withExtracted Whether each hit includes extracted values.
+     * @return {@link PifSearchResult} with the page.
+     * @throws IOException if the page cannot be read.
+     */
+    static PifSearchResult buildResult(final int numHits, final boolean withSystem, final boolean withExtracted)
+            throws IOException {
+        return SearchCodecs.JSON.getObjectMapper().readValue(buildResultJson(numHits, withSystem, withExtracted),
+                PifSearchResult.class);
+    }
+
+    /**
+     * Build a PIF system of the size that is typical for computed materials records.
+     *
+     * @param index Index of the record.
+     * @param formula String with the chemical formula of the record.
+     * @param bandGap Band gap of the record.
+     * @param formationEnergy Formation energy of the record.
+     * @return {@link ObjectNode} with the system.
+     */
+    private static ObjectNode buildSystem(final int index, final String formula, final double bandGap,
+                                          final double formationEnergy) {
+        final ObjectNode system = JsonNodeFactory.instance.objectNode();
+        system.put("category", "system.chemical");
+        system.put("uid", "record-" + index);
+        system.putArray("names").add(formula).add("Record " + index);
+        system.put("chemicalFormula", formula);
+        final ArrayNode properties = system.putArray("properties");
+        addProperty(properties, BAND_GAP, bandGap, "eV");
+        addProperty(properties, FORMATION_ENERGY, formationEnergy, "eV/atom");
+        addProperty(properties, "Density", 2.0 + (index % 50) / 10.0, "g/cm^3");
+        final ObjectNode method = system.putArray("preparation").addObject();
+        method.put("name", "Relaxation");
+        method.putArray("details").addObject().put("name", "Functional").putArray("scalars").addObject()
+                .put("value", "PBE");
+        final ObjectNode reference = system.putArray("references").addObject();
+        reference.put("doi", "10.1000/benchmark." + index);
+        reference.put("title", "Synthetic record " + index);
+        reference.put("year", 2018);
+        return system;
+    }
+
+    /**
+     * Add a scalar property with a temperature condition to a list of properties.
+     *
+     * @param properties {@link ArrayNode} with the properties.
+     * @param name String with the name of the property.
+     * @param value Value of the property.
+     * @param units String with the units of the property.
+     */
+    private static void addProperty(final ArrayNode properties, final String name, final double value,
+                                    final String units) {
+        final ObjectNode property = properties.addObject();
+        property.put("name", name);
+        property.putArray("scalars").addObject().put("value", Double.toString(value));
+        property.put("units", units);
+        property.put("dataType", "COMPUTATIONAL");
+        final ObjectNode condition = property.putArray("conditions").addObject();
+        condition.put("name", "Temperature");
+        condition.putArray("scalars").addObject().put("value", "300");
+        condition.put("units", "K");
+    }
+
+    /** Name of the extracted chemical formula. */
+    static final String CHEMICAL_FORMULA = "Chemical formula";
+
+    /** Name of the band gap property and extracted value. */
+    static final String BAND_GAP = "Band gap";
+
+    /** Name of the formation energy property and extracted value. */
+    static final String FORMATION_ENERGY = "Formation energy";
+
+    /** Seed of the random values in search results. */
+    private static final long SEED = 20180601L;
+
+    /** Elements that chemical formulas are built from. */
+    private static final String[] ELEMENTS = {"Si", "Ge", "Ga", "As", "In", "P", "Zn", "O", "Ti", "N"};
+}
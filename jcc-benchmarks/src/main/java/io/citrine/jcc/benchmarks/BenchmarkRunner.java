@@ -0,0 +1,48 @@
+package io.citrine.jcc.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. This runs JMH with the GC profiler attached, so that the allocation rate of
+ * each benchmark is reported next to its time, and writes the results as JSON to compare against the baselines.
+ * Any JMH command line options can be passed and take precedence, for example a regular expression to select
+ * benchmarks or {@code -rff} to change the results file.
+ *
+ * @author Kyle Michel
+ */
+public final class BenchmarkRunner {
+
+    // Make sure that objects of this class cannot be instantiated
+    private BenchmarkRunner() {}
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Array with JMH command line options.
+     * @throws CommandLineOptionException if the options cannot be parsed.
+     * @throws RunnerException if the benchmarks fail.
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        final ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+
+    /** File that results are written to if none is given on the command line. */
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+}
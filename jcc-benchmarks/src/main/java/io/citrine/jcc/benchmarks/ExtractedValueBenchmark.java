@@ -0,0 +1,95 @@
+package io.citrine.jcc.benchmarks;
+
+import io.citrine.jcc.search.pif.result.PifSearchHit;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import io.citrine.jpif.obj.common.Scalar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link PifSearchHit#getExtractedValue(String, Class)} over every hit of a page.
+ *
+ * <p>Converted values are cached on each hit, so {@link #convert()} resets the extracted values of each hit before
+ * reading it to measure the conversion, and {@link #convertCached()} measures reads that are served from the cache.
+ *
+ * @author Kyle Michel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractedValueBenchmark {
+
+    /**
+     * Build the page of hits.
+     *
+     * @throws IOException if the page cannot be built.
+     */
+    @Setup
+    public void setup() throws IOException {
+        final PifSearchResult result = BenchmarkData.buildResult(this.numHits, false, true);
+        this.hits = result.getHits();
+        this.extracted = new ArrayList<>(this.hits.size());
+        for (final PifSearchHit hit : this.hits) {
+            final Map<String, Object> values = new HashMap<>();
+            for (final String key : hit.getExtractedKeys()) {
+                values.put(key, hit.getExtractedValue(key));
+            }
+            this.extracted.add(values);
+        }
+    }
+
+    /**
+     * Convert the band gap of every hit to a {@link Scalar}.
+     *
+     * @param blackhole {@link Blackhole} that consumes the converted values.
+     */
+    @Benchmark
+    public void convert(final Blackhole blackhole) {
+        for (int i = 0; i < this.hits.size(); ++i) {
+            final PifSearchHit hit = this.hits.get(i).setExtracted(this.extracted.get(i));
+            blackhole.consume(hit.getExtractedValue(BenchmarkData.BAND_GAP, Scalar.class));
+        }
+    }
+
+    /**
+     * Read the band gap of every hit as a {@link Scalar} after it has been converted.
+     *
+     * @param blackhole {@link Blackhole} that consumes the converted values.
+     */
+    @Benchmark
+    public void convertCached(final Blackhole blackhole) {
+        for (final PifSearchHit hit : this.hits) {
+            blackhole.consume(hit.getExtractedValue(BenchmarkData.BAND_GAP, Scalar.class));
+        }
+    }
+
+    /** Number of hits on the page. */
+    @Param({"10", "100", "1000"})
+    public int numHits;
+
+    /** Hits on the page. */
+    private List<PifSearchHit> hits;
+
+    /** Extracted values of each hit, used to clear the cached conversions. */
+    private List<Map<String, Object>> extracted;
+}
@@ -0,0 +1,86 @@
+package io.citrine.jcc.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.citrine.jcc.core.SearchCodec;
+import io.citrine.jcc.core.SearchCodecs;
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for writing queries with the object writers that {@link io.citrine.jcc.core.CitrinationClient} uses
+ * for request bodies.
+ *
+ * @author Kyle Michel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuerySerializationBenchmark {
+
+    /**
+     * Build the queries and the writer.
+     */
+    @Setup
+    public void setup() {
+        final SearchCodec searchCodec = "smile".equals(this.codec) ? SearchCodecs.SMILE : SearchCodecs.JSON;
+        this.writer = searchCodec.getObjectMapper().writer();
+        this.query = BenchmarkData.buildQuery(0);
+        this.multiQuery = BenchmarkData.buildMultiQuery(this.numQueries);
+    }
+
+    /**
+     * Write a single query.
+     *
+     * @return Array with the encoded query.
+     * @throws JsonProcessingException if the query cannot be written.
+     */
+    @Benchmark
+    public byte[] writeQuery() throws JsonProcessingException {
+        return this.writer.writeValueAsBytes(this.query);
+    }
+
+    /**
+     * Write a multi-query.
+     *
+     * @return Array with the encoded multi-query.
+     * @throws JsonProcessingException if the multi-query cannot be written.
+     */
+    @Benchmark
+    public byte[] writeMultiQuery() throws JsonProcessingException {
+        return this.writer.writeValueAsBytes(this.multiQuery);
+    }
+
+    /** Number of queries in the multi-query. */
+    @Param({"1", "10", "100"})
+    public int numQueries;
+
+    /** Name of the codec to write with. */
+    @Param({"json", "smile"})
+    public String codec;
+
+    /** Writer for the selected codec. */
+    private ObjectWriter writer;
+
+    /** Single query to write. */
+    private PifSystemReturningQuery query;
+
+    /** Multi-query to write. */
+    private MultiQuery<PifSystemReturningQuery> multiQuery;
+}
@@ -0,0 +1,92 @@
+package io.citrine.jcc.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.citrine.jcc.core.SearchCodecs;
+import io.citrine.jcc.search.pif.result.PifSearchHit;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for reading pages of search results with the object mapper that
+ * {@link io.citrine.jcc.core.CitrinationClient} uses for response bodies.
+ *
+ * <p>Systems are bound lazily by {@link PifSearchHit#getSystem()}, so {@link #readPage()} only pays to buffer their
+ * tokens. {@link #readPageAndBindSystems()} adds the cost of binding every system, which is what a caller that reads
+ * each system pays.
+ *
+ * @author Kyle Michel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultDeserializationBenchmark {
+
+    /**
+     * Build the page and the reader.
+     *
+     * @throws IOException if the page cannot be built.
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.body = BenchmarkData.buildResultJson(this.numHits,
+                "system".equals(this.content) || "both".equals(this.content),
+                "extracted".equals(this.content) || "both".equals(this.content));
+        this.reader = SearchCodecs.JSON.getObjectMapper().readerFor(PifSearchResult.class);
+    }
+
+    /**
+     * Read a page of results.
+     *
+     * @return {@link PifSearchResult} that was read.
+     * @throws IOException if the page cannot be read.
+     */
+    @Benchmark
+    public PifSearchResult readPage() throws IOException {
+        return this.reader.readValue(this.body);
+    }
+
+    /**
+     * Read a page of results and bind the system of every hit.
+     *
+     * @return {@link PifSearchResult} that was read.
+     * @throws IOException if the page cannot be read.
+     */
+    @Benchmark
+    public PifSearchResult readPageAndBindSystems() throws IOException {
+        final PifSearchResult result = this.reader.readValue(this.body);
+        for (final PifSearchHit hit : result) {
+            hit.getSystem();
+        }
+        return result;
+    }
+
+    /** Number of hits on the page. */
+    @Param({"10", "100", "1000"})
+    public int numHits;
+
+    /** Content of each hit in addition to its metadata: none, system, extracted or both. */
+    @Param({"none", "system", "extracted", "both"})
+    public String content;
+
+    /** JSON body of the page. */
+    private byte[] body;
+
+    /** Reader for pages of results. */
+    private ObjectReader reader;
+}
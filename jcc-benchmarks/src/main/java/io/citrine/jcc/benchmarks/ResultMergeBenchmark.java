@@ -0,0 +1,70 @@
+package io.citrine.jcc.benchmarks;
+
+import io.citrine.jcc.search.core.result.BaseSearchResult;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link BaseSearchResult#add(BaseSearchResult)}, which combines pages of results into one.
+ *
+ * @author Kyle Michel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultMergeBenchmark {
+
+    /**
+     * Build the pages to merge.
+     *
+     * @throws IOException if a page cannot be built.
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.pages = new PifSearchResult[this.numPages];
+        for (int i = 0; i < this.numPages; ++i) {
+            this.pages[i] = BenchmarkData.buildResult(this.numHits, false, false);
+        }
+    }
+
+    /**
+     * Merge every page into a new result.
+     *
+     * @return {@link PifSearchResult} with the hits of every page.
+     */
+    @Benchmark
+    public PifSearchResult merge() {
+        final PifSearchResult result = new PifSearchResult();
+        for (final PifSearchResult page : this.pages) {
+            result.add(page);
+        }
+        return result;
+    }
+
+    /** Number of hits on each page. */
+    @Param({"10", "100", "1000"})
+    public int numHits;
+
+    /** Number of pages to merge. */
+    @Param({"10"})
+    public int numPages;
+
+    /** Pages to merge. */
+    private PifSearchResult[] pages;
+}
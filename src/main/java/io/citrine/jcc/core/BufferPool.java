@@ -0,0 +1,79 @@
+package io.citrine.jcc.core;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of fixed-size byte arrays that are reused for serializing request bodies. Reusing arrays keeps short-lived
+ * request buffers from being allocated over and over, which matters most for large multi-search payloads whose
+ * buffers would otherwise be big enough to be promoted out of the young generation. The pool retains a bounded
+ * number of arrays; arrays that are released while the pool is full are left to the garbage collector.
+ *
+ * @author Kyle Michel
+ */
+class BufferPool {
+
+    /**
+     * Constructor.
+     *
+     * @param segmentSize Number of bytes in each array.
+     * @param maxRetainedBytes Maximum number of bytes to keep in the pool, or zero to never reuse arrays.
+     */
+    BufferPool(final int segmentSize, final long maxRetainedBytes) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        if (maxRetainedBytes < 0) {
+            throw new IllegalArgumentException("Maximum retained bytes cannot be negative");
+        }
+        this.segmentSize = segmentSize;
+        final int capacity = (int) Math.min(Integer.MAX_VALUE, maxRetainedBytes / segmentSize);
+        this.free = (capacity == 0) ? null : new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Get the number of bytes in each array.
+     *
+     * @return Size of the arrays in the pool.
+     */
+    int getSegmentSize() {
+        return this.segmentSize;
+    }
+
+    /**
+     * Take an array from the pool, allocating a new one if the pool is empty. The contents of the array are
+     * undefined.
+     *
+     * @return Array with {@link #getSegmentSize()} bytes.
+     */
+    byte[] acquire() {
+        final byte[] segment = (this.free == null) ? null : this.free.poll();
+        return (segment == null) ? new byte[this.segmentSize] : segment;
+    }
+
+    /**
+     * Return an array to the pool. The array must not be used by the caller after this call.
+     *
+     * @param segment Array that was taken from this pool.
+     */
+    void release(final byte[] segment) {
+        if ((this.free != null) && (segment.length == this.segmentSize)) {
+            this.free.offer(segment);
+        }
+    }
+
+    /**
+     * Get the number of arrays that are waiting in the pool to be reused.
+     *
+     * @return Number of free arrays.
+     */
+    int getFreeCount() {
+        return (this.free == null) ? 0 : this.free.size();
+    }
+
+    /** Number of bytes in each array. */
+    private final int segmentSize;
+
+    /** Arrays that are free to be reused, or a null pointer if arrays are never reused. */
+    private final BlockingQueue<byte[]> free;
+}
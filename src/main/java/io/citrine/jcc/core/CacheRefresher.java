@@ -0,0 +1,141 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.core.cache.SearchCacheKey;
+import io.citrine.jcc.core.cache.SearchResultCache;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Starts background refreshes of entries in the result cache that are stale, or that are read often and are about to
+ * become stale. See {@link RefreshPolicy} for the settings.
+ *
+ * <p>At most one refresh runs for each key, and the total number of refreshes in flight is capped by a fixed number
+ * of permits. A refresh that cannot get a permit is skipped rather than queued, since the entry will be read, and
+ * the refresh tried again, soon enough if it is popular.
+ *
+ * @author Kyle Michel
+ */
+class CacheRefresher {
+
+    /**
+     * Constructor.
+     *
+     * @param policy {@link RefreshPolicy} with the settings.
+     * @param executor {@link Executor} that starts the refreshes.
+     * @param clock {@link LongSupplier} that returns the current time in milliseconds.
+     */
+    CacheRefresher(final RefreshPolicy policy, final Executor executor, final LongSupplier clock) {
+        this.policy = policy;
+        this.executor = executor;
+        this.clock = clock;
+        this.permits = new Semaphore(policy.getMaxConcurrentRefreshes());
+    }
+
+    /**
+     * Handle a read of a cache entry, starting a refresh of it in the background if it is due.
+     *
+     * @param key {@link SearchCacheKey} of the entry.
+     * @param entry {@link SearchResultCache.Entry} that was read.
+     * @param refresh {@link Supplier} that sends the request again and saves its result in the cache.
+     * @return True if a refresh was started.
+     */
+    boolean onHit(final SearchCacheKey key, final SearchResultCache.Entry entry,
+                  final Supplier<? extends CompletableFuture<?>> refresh) {
+        if (!isDue(entry) || !this.refreshing.add(key)) {
+            return false;
+        }
+        if (!this.permits.tryAcquire()) {
+            this.refreshing.remove(key);
+            this.skippedCount.increment();
+            return false;
+        }
+        try {
+            this.executor.execute(() -> {
+                try {
+                    refresh.get().whenComplete((body, throwable) -> release(key));
+                }
+                catch (RuntimeException e) {
+                    release(key);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            release(key);
+            return false;
+        }
+        this.refreshCount.increment();
+        return true;
+    }
+
+    /**
+     * Get the number of refreshes that have been started.
+     *
+     * @return Number of refreshes.
+     */
+    long getRefreshCount() {
+        return this.refreshCount.sum();
+    }
+
+    /**
+     * Get the number of refreshes that were skipped because too many were already in flight.
+     *
+     * @return Number of skipped refreshes.
+     */
+    long getSkippedCount() {
+        return this.skippedCount.sum();
+    }
+
+    /**
+     * Determine whether an entry should be refreshed.
+     *
+     * @param entry {@link SearchResultCache.Entry} to check.
+     * @return True if the entry is stale, or if it is read often and about to become stale.
+     */
+    private boolean isDue(final SearchResultCache.Entry entry) {
+        final long ageMillis = this.clock.getAsLong() - entry.getWrittenAtMillis();
+        if (ageMillis >= this.policy.getStaleAfterMillis()) {
+            return true;
+        }
+        return (ageMillis >= this.policy.getStaleAfterMillis() - this.policy.getRefreshAheadMillis())
+                && (entry.getHitCount() >= this.policy.getRefreshAheadMinHits());
+    }
+
+    /**
+     * Release the permit of a refresh that has finished.
+     *
+     * @param key {@link SearchCacheKey} of the entry that was refreshed.
+     */
+    private void release(final SearchCacheKey key) {
+        this.refreshing.remove(key);
+        this.permits.release();
+    }
+
+    /** Settings for refreshes. */
+    private final RefreshPolicy policy;
+
+    /** Executor that starts the refreshes. */
+    private final Executor executor;
+
+    /** Function that returns the current time in milliseconds. */
+    private final LongSupplier clock;
+
+    /** Permits for refreshes in flight. */
+    private final Semaphore permits;
+
+    /** Keys that are being refreshed. */
+    private final Set<SearchCacheKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    /** Number of refreshes that have been started. */
+    private final LongAdder refreshCount = new LongAdder();
+
+    /** Number of refreshes that were skipped. */
+    private final LongAdder skippedCount = new LongAdder();
+}
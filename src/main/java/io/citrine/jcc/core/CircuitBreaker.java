@@ -0,0 +1,119 @@
+package io.citrine.jcc.core;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for a single host. See {@link CircuitBreakerPolicy} for how it moves between states.
+ *
+ * @author Kyle Michel
+ */
+class CircuitBreaker {
+
+    /**
+     * Constructor.
+     *
+     * @param policy {@link CircuitBreakerPolicy} with the settings of the breaker.
+     * @param clock {@link LongSupplier} that returns the current time in milliseconds.
+     */
+    CircuitBreaker(final CircuitBreakerPolicy policy, final LongSupplier clock) {
+        this.failureThreshold = policy.getFailureThreshold();
+        this.openMillis = policy.getOpenMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Ask for permission to send a request. Every call that returns true must be followed by a call to
+     * {@link #onSuccess()} or {@link #onFailure()} once the outcome of the request is known.
+     *
+     * @return True if the request can be sent or false if it should fail immediately.
+     */
+    synchronized boolean tryAcquire() {
+        switch (this.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (this.clock.getAsLong() < this.openUntilMillis) {
+                    return false;
+                }
+                this.state = State.HALF_OPEN;
+                return true;
+            default:
+
+                // Only one trial request is allowed while half open
+                return false;
+        }
+    }
+
+    /**
+     * Record that a request reached a healthy server.
+     */
+    synchronized void onSuccess() {
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+    }
+
+    /**
+     * Record that a request failed in a way that suggests that the server is unhealthy.
+     */
+    synchronized void onFailure() {
+        this.consecutiveFailures++;
+        if ((this.state == State.HALF_OPEN) || (this.consecutiveFailures >= this.failureThreshold)) {
+            this.state = State.OPEN;
+            this.openUntilMillis = this.clock.getAsLong() + this.openMillis;
+        }
+    }
+
+    /**
+     * Record that a request was abandoned before its outcome was known. If it was the trial request of a half open
+     * circuit then the next request becomes the trial instead.
+     */
+    synchronized void onAbandoned() {
+        if (this.state == State.HALF_OPEN) {
+            this.state = State.OPEN;
+        }
+    }
+
+    /**
+     * Get whether the breaker is currently rejecting requests.
+     *
+     * @return True if the circuit is open or half open.
+     */
+    synchronized boolean isOpen() {
+        return this.state != State.CLOSED;
+    }
+
+    /** Number of consecutive failures that open the circuit. */
+    private final int failureThreshold;
+
+    /** Time in milliseconds that the circuit stays open. */
+    private final long openMillis;
+
+    /** Source of the current time in milliseconds. */
+    private final LongSupplier clock;
+
+    /** Current state of the breaker. */
+    private State state = State.CLOSED;
+
+    /** Number of consecutive failures. */
+    private int consecutiveFailures;
+
+    /** Time in milliseconds at which an open circuit lets a trial request through. */
+    private long openUntilMillis;
+
+    /**
+     * States of the breaker.
+     *
+     * @author Kyle Michel
+     */
+    private enum State {
+
+        /** Requests are sent normally. */
+        CLOSED,
+
+        /** Requests fail immediately. */
+        OPEN,
+
+        /** A single trial request is in flight. */
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,86 @@
+package io.citrine.jcc.core;
+
+import java.util.Objects;
+
+/**
+ * Policy that controls when {@link CitrinationClient} stops sending requests to a host that is failing. After the
+ * set number of consecutive retryable failures the circuit opens and requests fail immediately with a
+ * {@link CircuitOpenException}. Once the open time has passed a single trial request is let through: if it succeeds
+ * the circuit closes again, otherwise it stays open for another period.
+ *
+ * @author Kyle Michel
+ */
+public class CircuitBreakerPolicy {
+
+    /**
+     * Set the number of consecutive retryable failures that open the circuit.
+     *
+     * @param failureThreshold Number of consecutive failures.
+     * @return This object.
+     * @throws IllegalArgumentException if the threshold is not positive.
+     */
+    public CircuitBreakerPolicy setFailureThreshold(final int failureThreshold) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        return this;
+    }
+
+    /**
+     * Get the number of consecutive retryable failures that open the circuit.
+     *
+     * @return Number of consecutive failures.
+     */
+    public int getFailureThreshold() {
+        return this.failureThreshold;
+    }
+
+    /**
+     * Set the number of milliseconds that the circuit stays open before a trial request is let through.
+     *
+     * @param openMillis Time in milliseconds that the circuit stays open.
+     * @return This object.
+     * @throws IllegalArgumentException if the time is negative.
+     */
+    public CircuitBreakerPolicy setOpenMillis(final long openMillis) {
+        if (openMillis < 0) {
+            throw new IllegalArgumentException("Open time cannot be negative");
+        }
+        this.openMillis = openMillis;
+        return this;
+    }
+
+    /**
+     * Get the number of milliseconds that the circuit stays open before a trial request is let through.
+     *
+     * @return Time in milliseconds that the circuit stays open.
+     */
+    public long getOpenMillis() {
+        return this.openMillis;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof CircuitBreakerPolicy)) {
+            return false;
+        }
+        final CircuitBreakerPolicy rhsPolicy = (CircuitBreakerPolicy) rhs;
+        return (this.failureThreshold == rhsPolicy.failureThreshold)
+                && (this.openMillis == rhsPolicy.openMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.failureThreshold, this.openMillis);
+    }
+
+    /** Number of consecutive failures that open the circuit. */
+    private int failureThreshold = 5;
+
+    /** Time in milliseconds that the circuit stays open. */
+    private long openMillis = 30000;
+}
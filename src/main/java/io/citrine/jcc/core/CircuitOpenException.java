@@ -0,0 +1,21 @@
+package io.citrine.jcc.core;
+
+/**
+ * Error that is thrown without contacting the server because recent requests to it have been failing. The request
+ * can be retried once the circuit breaker lets requests through again.
+ *
+ * @author Kyle Michel
+ */
+public class CircuitOpenException extends CitrinationException {
+
+    /**
+     * Constructor.
+     *
+     * @param host String with the host that requests are being blocked for.
+     */
+    public CircuitOpenException(final String host) {
+        super("Circuit breaker is open for " + host, true);
+    }
+
+    private static final long serialVersionUID = -3080512958440962458L;
+}
@@ -1,296 +1,2133 @@
 package io.citrine.jcc.core;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.citrine.jcc.core.cache.DatasetVersionIndex;
+import io.citrine.jcc.core.cache.DiskSearchCache;
+import io.citrine.jcc.core.cache.SearchCacheKey;
+import io.citrine.jcc.core.cache.SearchCacheStats;
+import io.citrine.jcc.core.cache.SearchResultCache;
 import io.citrine.jcc.search.core.query.MultiQuery;
 import io.citrine.jcc.search.core.result.MultiSearchResult;
 import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import io.citrine.jcc.search.pif.result.ColumnarSearchResult;
+import io.citrine.jcc.search.pif.result.PifSearchHit;
+import io.citrine.jcc.search.pif.result.PifSearchHitStream;
 import io.citrine.jcc.search.pif.result.PifSearchResult;
+import io.citrine.jcc.search.pif.result.ProjectedSearchHit;
+import io.citrine.jcc.search.pif.result.ProjectedSearchResult;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.ByteArrayEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.util.Optional;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Client for working with a Citrination.com site.
+ * Client for working with a Citrination.com site. Each client owns a pool of HTTP connections that is reused across
+ * requests, so a single instance should be shared by all threads that talk to the same site and closed when it is no
+ * longer needed. Requests are made on a non-blocking I/O engine, so many searches can be in flight at once using the
+ * asynchronous methods without a thread for each.
  *
  * @author Kyle Michel
  */
-public class CitrinationClient {
+public class CitrinationClient implements Closeable {
 
     /**
-     * Run a search using the input query.
+     * Run a search using the input query. This blocks until the search has finished.
      *
      * @param pifQuery {@link PifSystemReturningQuery} to make against the site.
      * @return {@link PifSearchResult} with the result of the query.
-     * @throws IOException      if thrown from within this function.
-     * @throws RuntimeException if a non-200 response is received.
+     * @throws IOException if thrown from within this function.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     * @throws CircuitOpenException if the circuit breaker is open.
      */
     public PifSearchResult search(final PifSystemReturningQuery pifQuery) throws IOException {
-        final HttpPost post = buildSearchRequest(pifQuery);
-        try (final CloseableHttpClient client = buildHttpClient()) {
-            try (final CloseableHttpResponse response = client.execute(post)) {
-                return buildSearchResult(response);
-            }
-        }
+        return await(searchAsync(pifQuery));
     }
 
     /**
-     * Execute a multi-search request.
+     * Execute a multi-search request. This blocks until the search has finished.
      *
      * @param multiQuery {@link MultiQuery} to run.
      * @return {@link MultiSearchResult} with all of the results.
      * @throws IOException if thrown from within this function.
-     * @throws RuntimeException if a non-200 response is received.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     * @throws CircuitOpenException if the circuit breaker is open.
      */
     public MultiSearchResult<PifSearchResult> search(
             final MultiQuery<PifSystemReturningQuery> multiQuery) throws IOException {
-        final HttpPost post = buildMultiSearchRequest(multiQuery);
-        try (final CloseableHttpClient client = buildHttpClient()) {
-            try (final CloseableHttpResponse response = client.execute(post)) {
-                return buildMultiSearchResult(response);
-            }
+        return await(searchAsync(multiQuery));
+    }
+
+    /**
+     * Run a search using the input query without blocking the calling thread. The returned future completes
+     * exceptionally with an {@link IOException} if the request fails, with a {@link CitrinationHttpException} if a
+     * non-200 response is received or with a {@link CircuitOpenException} if the circuit breaker is open.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to make against the site.
+     * @return {@link CompletableFuture} with the {@link PifSearchResult} of the query.
+     */
+    public CompletableFuture<PifSearchResult> searchAsync(final PifSystemReturningQuery pifQuery) {
+        return searchAsync(pifQuery, this::buildSearchResult);
+    }
+
+    /**
+     * Run a search and bind the extracted values of each hit to an object of the input record class. This blocks
+     * until the search has finished. See {@link ProjectedSearchHit} for how the fields of the record class are
+     * matched to extracted values.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to make against the site.
+     * @param recordClass Class that the extracted values of each hit are bound to.
+     * @param <R> Type of the record class.
+     * @return {@link ProjectedSearchResult} with the result of the query.
+     * @throws IOException if thrown from within this function.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     * @throws CircuitOpenException if the circuit breaker is open.
+     */
+    public <R> ProjectedSearchResult<R> search(final PifSystemReturningQuery pifQuery, final Class<R> recordClass)
+            throws IOException {
+        return await(searchAsync(pifQuery, recordClass));
+    }
+
+    /**
+     * Run a search and bind the extracted values of each hit to an object of the input record class without blocking
+     * the calling thread. Extracted values are read straight into the record class as the response is parsed, so no
+     * intermediate map is built for each hit. The returned future fails in the same way as
+     * {@link #searchAsync(PifSystemReturningQuery)}.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to make against the site.
+     * @param recordClass Class that the extracted values of each hit are bound to.
+     * @param <R> Type of the record class.
+     * @return {@link CompletableFuture} with the {@link ProjectedSearchResult} of the query.
+     */
+    public <R> CompletableFuture<ProjectedSearchResult<R>> searchAsync(final PifSystemReturningQuery pifQuery,
+                                                                       final Class<R> recordClass) {
+        return searchAsync(pifQuery, body -> buildProjectedSearchResult(body, recordClass));
+    }
+
+    /**
+     * Run a search and decode its body with the input decoder.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to make against the site.
+     * @param decoder {@link ResponseDecoder} to run on the body of the response.
+     * @param <T> Type of the decoded result.
+     * @return {@link CompletableFuture} with the decoded result of the query.
+     */
+    private <T> CompletableFuture<T> searchAsync(final PifSystemReturningQuery pifQuery,
+                                                 final ResponseDecoder<T> decoder) {
+        final HttpPost post;
+        try {
+            post = buildSearchRequest(pifQuery);
         }
+        catch (IOException e) {
+            return failedFuture(e);
+        }
+        final CompletableFuture<byte[]> body = fetchSearchBody(pifQuery, post);
+        return propagateCancel(body.thenApplyAsync(i -> decode(i, decoder), this.executor), body);
+    }
+
+    /**
+     * Execute a multi-search request without blocking the calling thread. The returned future completes
+     * exceptionally with an {@link IOException} if the request fails, with a {@link CitrinationHttpException} if a
+     * non-200 response is received or with a {@link CircuitOpenException} if the circuit breaker is open.
+     *
+     * <p>If the multi-query is larger than the limits set with {@link Builder#setMultiSearchMaxQueries(int)} or
+     * {@link Builder#setMultiSearchMaxPayloadBytes(long)} then it is split into several requests that run in
+     * parallel. Their results are combined in the original order, and the queries of any request that fails with a
+     * retryable error are returned with a status of
+     * {@link io.citrine.jcc.search.core.result.MultiSearchResultElement.Status#ERROR} and the error of the request in
+     * {@link io.citrine.jcc.search.core.result.MultiSearchResultElement#getError()}. The whole search fails instead
+     * if every request fails, or if any request fails with an error that is not retryable or is rejected by the client
+     * without reaching the server, since sending its queries again would fail the same way.
+     *
+     * <p>If a retry policy was set with {@link Builder#setMultiSearchRetryPolicy(RetryPolicy)} then the
+     * queries whose elements have a status of ERROR or NOT_EXECUTED are sent again, without the queries that
+     * succeeded, and the outcome of each retry replaces the element at the index of its query. A retry that fails
+     * as a whole with a retryable error marks its queries as ERROR with that error, while a retry that fails with an
+     * error that is not retryable fails the whole search with it.
+     *
+     * @param multiQuery {@link MultiQuery} to run.
+     * @return {@link CompletableFuture} with the {@link MultiSearchResult} of the query.
+     */
+    public CompletableFuture<MultiSearchResult<PifSearchResult>> searchAsync(
+            final MultiQuery<PifSystemReturningQuery> multiQuery) {
+        return (this.multiSearchRetrier == null)
+                ? searchShards(multiQuery)
+                : this.multiSearchRetrier.execute(multiQuery);
     }
 
     /**
-     * Get an HTTP client to use.
+     * Run a multi-search, splitting it into several requests if it is larger than the configured limits.
      *
-     * @return {@link CloseableHttpClient} to use.
+     * @param multiQuery {@link MultiQuery} to run.
+     * @return {@link CompletableFuture} with the {@link MultiSearchResult} of the query.
      */
-    CloseableHttpClient buildHttpClient() {
-        return createDefaultHttpClientBuilder().build();
+    private CompletableFuture<MultiSearchResult<PifSearchResult>> searchShards(
+            final MultiQuery<PifSystemReturningQuery> multiQuery) {
+        final List<MultiQuery<PifSystemReturningQuery>> shards;
+        try {
+            shards = MultiQuerySplitter.split(multiQuery, this.multiSearchMaxQueries, this.multiSearchMaxPayloadBytes,
+                    CitrinationClient::payloadSize);
+        }
+        catch (UncheckedIOException e) {
+            return failedFuture(e.getCause());
+        }
+        if (shards.size() == 1) {
+            return sendMultiSearch(multiQuery);
+        }
+        final List<CompletableFuture<MultiSearchResult<PifSearchResult>>> sent = new ArrayList<>(shards.size());
+        shards.forEach(i -> sent.add(sendMultiSearch(i)));
+        final CompletableFuture<MultiSearchResult<PifSearchResult>> merged = CompletableFuture
+                .allOf(sent.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, throwable) -> mergeShards(shards, sent));
+        merged.whenComplete((result, throwable) -> {
+            if (merged.isCancelled()) {
+                sent.forEach(i -> i.cancel(true));
+            }
+        });
+        return merged;
     }
 
     /**
-     * Get the default HTTP client to use.
+     * Combine the outcomes of the requests that a multi-search was split into.
      *
-     * @return {@link HttpClientBuilder} to use.
+     * @param shards List of {@link MultiQuery} objects with the queries of each request.
+     * @param sent List of {@link CompletableFuture} objects with the completed result of each request.
+     * @return {@link MultiSearchResult} with the results of all queries in their original order.
+     * @throws CompletionException if every request failed, or if any request failed with an error that is not
+     * retryable or was rejected by the client.
      */
-    HttpClientBuilder createDefaultHttpClientBuilder() {
-        return HttpClientBuilder.create().setRedirectStrategy(new LaxRedirectStrategy());
+    private static MultiSearchResult<PifSearchResult> mergeShards(
+            final List<MultiQuery<PifSystemReturningQuery>> shards,
+            final List<CompletableFuture<MultiSearchResult<PifSearchResult>>> sent) {
+        final List<MultiSearchResult<PifSearchResult>> results = new ArrayList<>(sent.size());
+        final List<Throwable> errors = new ArrayList<>(sent.size());
+        Throwable fatal = null;
+        for (CompletableFuture<MultiSearchResult<PifSearchResult>> shardResult : sent) {
+            try {
+                results.add(shardResult.join());
+                errors.add(null);
+            }
+            catch (CompletionException | CancellationException e) {
+                final Throwable cause = unwrap(e);
+                results.add(null);
+                errors.add(cause);
+                if ((fatal == null) && (!RequestRetrier.isRetryable(cause)
+                        || RequestRetrier.isClientRejection(cause))) {
+                    fatal = cause;
+                }
+            }
+        }
+        if ((fatal == null) && (errors.indexOf(null) < 0)) {
+            fatal = errors.get(0);
+        }
+        if (fatal != null) {
+            throw new CompletionException(fatal);
+        }
+        return MultiQuerySplitter.merge(shards, results, errors);
     }
 
     /**
-     * Build the POST request with the query to execute.
+     * Run a search and stream the hits as they are received. Hits are decoded one at a time, so memory use does not
+     * grow with the size of the page and the first hit is available before the full response has arrived. The
+     * returned object must be closed; closing it before all hits have been read aborts the request.
      *
-     * @param pifQuery {@link PifSystemReturningQuery} to run.
-     * @return {@link HttpPost} object with the POST request to make.
+     * @param pifQuery {@link PifSystemReturningQuery} to make against the site.
+     * @return {@link PifSearchHitStream} over the hits of the query.
      * @throws IOException if thrown from within this function.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     * @throws CircuitOpenException if the circuit breaker is open.
      */
-    HttpPost buildSearchRequest(final PifSystemReturningQuery pifQuery) throws IOException {
-        return createCommonSearchRequest(pifQuery);
+    public PifSearchHitStream searchStreaming(final PifSystemReturningQuery pifQuery) throws IOException {
+        final HttpPost post = buildSearchRequest(pifQuery);
+        try {
+            return searchStreaming(post);
+        }
+        catch (CitrinationHttpException e) {
+            if ((e.getStatusCode() != HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE) || !isBinaryRequest(post)) {
+                throw e;
+            }
+
+            // The server does not support the binary format, so fall back to JSON from now on
+            this.codecRejected = true;
+            return searchStreaming(buildSearchRequest(pifQuery));
+        }
     }
 
     /**
-     * Build the POST request with the query to execute.
+     * Send a search request and stream the hits of the response as they are received.
      *
-     * @param pifQuery {@link PifSystemReturningQuery} to run.
-     * @return {@link HttpPost} object with the POST request to make.
+     * @param post {@link HttpPost} with the search request.
+     * @return {@link PifSearchHitStream} over the hits of the query.
      * @throws IOException if thrown from within this function.
+     * @throws CitrinationHttpException if a non-200 response is received.
      */
-    HttpPost createCommonSearchRequest(final PifSystemReturningQuery pifQuery) throws IOException {
-        final HttpPost post = new HttpPost(this.host + "/api/search/pif_search");
-        post.addHeader("X-API-Key", this.apiKey);
-        post.addHeader("Content-type", "application/json");
-        post.setEntity(new ByteArrayEntity(OBJECT_MAPPER.writeValueAsBytes(pifQuery)));
-        return post;
+    private PifSearchHitStream searchStreaming(final HttpPost post) throws IOException {
+        final HttpResponse response = await(this.transport.executeStreaming(post));
+        final Closeable content = (response.getEntity() == null) ? null : response.getEntity().getContent();
+        try {
+            return buildSearchHitStream(response, content);
+        }
+        catch (IOException | RuntimeException e) {
+            if (content != null) {
+                content.close();
+            }
+            throw e;
+        }
     }
 
     /**
-     * Build the POST request with the multi-query to execute.
+     * Lazily scan over every hit of a query, starting at the query's from index. Pages are requested as the
+     * returned stream is consumed, with up to {@link ScanOptions#getPrefetchPages()} pages fetched concurrently ahead
+     * of the consumer. Hits are returned in order. The size set on the query is ignored in favor of the page size in
+     * the options. Queries that return random results should set a random seed so that pages are consistent. The
+     * returned stream should be closed if it is not fully consumed so that pending pages are cancelled.
      *
-     * @param multiQuery {@link MultiQuery} to run.
-     * @return {@link HttpPost} object with the POST request to make.
+     * @param pifQuery {@link PifSystemReturningQuery} to scan.
+     * @param options {@link ScanOptions} that control the scan.
+     * @return {@link Stream} over all {@link PifSearchHit} objects that match the query.
+     * @throws UncheckedIOException if the query cannot be serialized or a page cannot be fetched.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     */
+    public Stream<PifSearchHit> scan(final PifSystemReturningQuery pifQuery, final ScanOptions options) {
+        final JsonNode template = OBJECT_MAPPER.valueToTree(pifQuery);
+        final PifSearchHitScanner scanner = new PifSearchHitScanner((from, size) -> {
+            try {
+                return searchAsync(OBJECT_MAPPER.treeToValue(template, PifSystemReturningQuery.class)
+                        .setFrom(from)
+                        .setSize(size));
+            }
+            catch (IOException e) {
+                return failedFuture(e);
+            }
+        }, (pifQuery.getFrom() == null) ? 0 : pifQuery.getFrom(), options);
+        return StreamSupport.stream(scanner, false).onClose(scanner::close);
+    }
+
+    /**
+     * Run a search and read its hits into columns. This blocks until the search has finished. Extracted values are
+     * read from the response straight into one primitive array per key, so no hit objects are created.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to make against the site.
+     * @return {@link ColumnarSearchResult} with the hits of the query.
      * @throws IOException if thrown from within this function.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     * @throws CircuitOpenException if the circuit breaker is open.
      */
-    HttpPost buildMultiSearchRequest(final MultiQuery<PifSystemReturningQuery> multiQuery) throws IOException {
-        return createCommonMultiSearchRequest(multiQuery);
+    public ColumnarSearchResult searchColumnar(final PifSystemReturningQuery pifQuery) throws IOException {
+        return await(searchAsync(pifQuery, body -> {
+            final ColumnarSearchResult.Builder builder = new ColumnarSearchResult.Builder();
+            ColumnarScanner.readPage(body, builder);
+            return builder.build();
+        }));
     }
 
     /**
-     * Build the POST request with the multi-query to execute.
+     * Read every hit of a query into columns, starting at the query's from index. Pages are requested in the same
+     * way as {@link #scan(PifSystemReturningQuery, ScanOptions)}, and each page is read into the columns of a single
+     * result as it arrives. This blocks until all pages have been read.
      *
-     * @param multiQuery {@link MultiQuery} to run.
-     * @return {@link HttpPost} object with the POST request to make.
+     * @param pifQuery {@link PifSystemReturningQuery} to scan.
+     * @param options {@link ScanOptions} that control the scan.
+     * @return {@link ColumnarSearchResult} with all hits that match the query.
+     * @throws IOException if the query cannot be serialized or a page cannot be fetched.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     * @throws CircuitOpenException if the circuit breaker is open.
+     */
+    public ColumnarSearchResult scanColumnar(final PifSystemReturningQuery pifQuery, final ScanOptions options)
+            throws IOException {
+        final JsonNode template = OBJECT_MAPPER.valueToTree(pifQuery);
+        return new ColumnarScanner((from, size) -> {
+            try {
+                final PifSystemReturningQuery page = OBJECT_MAPPER.treeToValue(template, PifSystemReturningQuery.class)
+                        .setFrom(from)
+                        .setSize(size);
+                return fetchSearchBody(page, buildSearchRequest(page));
+            }
+            catch (IOException e) {
+                return failedFuture(e);
+            }
+        }, (pifQuery.getFrom() == null) ? 0 : pifQuery.getFrom(), options).scan();
+    }
+
+    /**
+     * Close the connection pool used by this client. Any requests that are in flight when this is called will fail.
+     *
+     * @throws IOException if thrown while shutting down the connection pool.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.batcher != null) {
+            this.batcher.abort(new IOException("Client was closed before the search was sent"));
+        }
+        this.scheduler.shutdownNow();
+        try {
+            this.transport.close();
+        }
+        finally {
+            if (this.diskCache != null) {
+                this.diskCache.close();
+            }
+        }
+    }
+
+    /**
+     * Get the current counters of the result cache.
+     *
+     * @return {@link SearchCacheStats} with the counters or a null pointer if caching is not enabled.
+     */
+    public SearchCacheStats getCacheStats() {
+        return (this.resultCache == null) ? null : this.resultCache.getStats();
+    }
+
+    /**
+     * Get the current counters of the disk cache.
+     *
+     * @return {@link SearchCacheStats} with the counters or a null pointer if the disk cache is not enabled.
+     */
+    public SearchCacheStats getDiskCacheStats() {
+        return (this.diskCache == null) ? null : this.diskCache.getStats();
+    }
+
+    /**
+     * Check the current version of every dataset behind the cached results and remove the results that were built
+     * from an older version. This blocks until the check has finished. See {@link #revalidateCacheAsync()}.
+     *
+     * @return Number of cached results that were removed.
      * @throws IOException if thrown from within this function.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     * @throws CircuitOpenException if the circuit breaker is open.
      */
-    HttpPost createCommonMultiSearchRequest(final MultiQuery<PifSystemReturningQuery> multiQuery) throws IOException {
-        final HttpPost post = new HttpPost(this.host + "/api/search/pif/multi_pif_search");
-        post.addHeader("X-API-Key", this.apiKey);
-        post.addHeader("Content-type", "application/json");
-        post.setEntity(new ByteArrayEntity(OBJECT_MAPPER.writeValueAsBytes(multiQuery)));
-        return post;
+    public int revalidateCache() throws IOException {
+        return await(revalidateCacheAsync());
     }
 
     /**
-     * Convert the response from a search result to a {@link PifSearchResult} object.
+     * Check the current version of every dataset behind the cached results without blocking the calling thread, and
+     * remove the results that were built from an older version. Results from datasets that have not changed are
+     * kept. The versions of all datasets are found with a single multi-search, which is split in the same way as
+     * {@link #searchAsync(MultiQuery)}. Datasets whose versions could not be found are checked again next time.
      *
-     * @param response {@link HttpResponse} with the result of the query.
-     * @return {@link PifSearchResult} with the result of the query.
-     * @throws IOException      if thrown from within this function.
-     * @throws RuntimeException if a non-200 response is received.
+     * <p>This does nothing unless dataset versions are tracked, which is enabled with
+     * {@link Builder#setTrackDatasetVersions(boolean)} or
+     * {@link Builder#setDatasetVersionCheckIntervalMillis(long)}.
+     *
+     * @return {@link CompletableFuture} with the number of cached results that were removed.
      */
-    private PifSearchResult buildSearchResult(final HttpResponse response) throws IOException {
-        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
-            throw new RuntimeException("Received " + response.getStatusLine().getStatusCode() + " response: "
-                    + response.getStatusLine().getReasonPhrase());
+    public CompletableFuture<Integer> revalidateCacheAsync() {
+        if (this.datasetVersionIndex == null) {
+            return CompletableFuture.completedFuture(0);
         }
-        return OBJECT_MAPPER.readValue(response.getEntity().getContent(), PifSearchResponseWrapper.class)
-                .pifSearchResult;
+        this.datasetVersionIndex.retainAll(this::isCached);
+        final List<String> datasets = this.datasetVersionIndex.getDatasets();
+        if (datasets.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return searchAsync(DatasetVersionProbe.buildQuery(datasets)).thenApplyAsync(result -> {
+            final Set<SearchCacheKey> stale = this.datasetVersionIndex.update(
+                    DatasetVersionProbe.readResult(datasets, result));
+            stale.forEach(this::invalidateCached);
+            return stale.size();
+        }, this.executor);
     }
 
     /**
-     * Convert the response from a search result to a {@link MultiSearchResult} object.
+     * Get the number of bytes that this client has sent in request bodies and received in response bodies, before
+     * and after compression. Responses that are served from the result cache are not counted.
      *
-     * @param response {@link HttpResponse} with the result of the query.
-     * @return {@link MultiSearchResult} with the result of the query.
-     * @throws IOException      if thrown from within this function.
-     * @throws RuntimeException if a non-200 response is received.
+     * @return {@link TransferStats} with the current counters.
+     */
+    public TransferStats getTransferStats() {
+        return this.transferMetrics.snapshot();
+    }
+
+    /**
+     * Get the body of the response to a search. If the query can be cached then the result cache is checked first,
+     * if it is enabled, and identical queries that are already in flight are joined rather than sent again, if
+     * coalescing is enabled. Queries that ask for random results without a seed always go to the server.
+     *
+     * <p>If a refresh policy is set then a stale result in the result cache is still returned right away, and a
+     * refresh of it is started in the background.
+     *
+     * <p>The returned body may be shared between several callers, so it must not be modified. Each caller decodes
+     * it into its own result object.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} that is being run.
+     * @param post {@link HttpPost} with the serialized query.
+     * @return {@link CompletableFuture} with the body of the response.
      */
-    private MultiSearchResult<PifSearchResult> buildMultiSearchResult(final HttpResponse response) throws IOException {
-        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
-            throw new RuntimeException("Received " + response.getStatusLine().getStatusCode() + " response: "
-                    + response.getStatusLine().getReasonPhrase());
+    private CompletableFuture<byte[]> fetchSearchBody(final PifSystemReturningQuery pifQuery, final HttpPost post) {
+        if (((this.resultCache == null) && (this.diskCache == null) && (this.singleFlight == null))
+                || !isCacheable(pifQuery)) {
+            return sendSearch(pifQuery, post);
         }
-        return OBJECT_MAPPER.readValue(response.getEntity().getContent(), PifMultiSearchResponseWrapper.class)
-                .pifMultiSearchResult;
+        final SearchCacheKey key;
+        try {
+            key = new SearchCacheKey(post.getURI().toString(), toJsonBytes(pifQuery, post));
+        }
+        catch (IOException e) {
+            return failedFuture(e);
+        }
+        if (this.resultCache != null) {
+            final SearchResultCache.Entry cached = this.resultCache.getEntry(key);
+            if (cached != null) {
+                if (this.cacheRefresher != null) {
+                    this.cacheRefresher.onHit(key, cached, () -> fetchCoalescedBody(pifQuery, key, post));
+                }
+                return CompletableFuture.completedFuture(cached.getBody());
+            }
+        }
+        if (this.diskCache != null) {
+            final byte[] stored = this.diskCache.get(key);
+            if ((stored != null) && recordDatasetVersions(key, readDatasetVersions(stored))) {
+                if (this.resultCache != null) {
+                    this.resultCache.put(key, stored);
+                }
+                return CompletableFuture.completedFuture(stored);
+            }
+        }
+        return fetchCoalescedBody(pifQuery, key, post);
     }
 
     /**
-     * Constructor.
+     * Send a search that missed the caches, or that is being refreshed, and save the body of the response. The
+     * request is joined with an identical one that is already in flight if coalescing is enabled.
      *
-     * @param project String with the project to connect to.
-     * @param host    String with the full host to connect to.
-     * @param apiKey  String with the api key to use.
-     * @throws IllegalArgumentException if project and host are both set.
-     * @throws IllegalArgumentException if apiKey is not set.
+     * @param pifQuery {@link PifSystemReturningQuery} that is being run.
+     * @param key {@link SearchCacheKey} of the request.
+     * @param post {@link HttpPost} with the serialized query.
+     * @return {@link CompletableFuture} with the body of the response.
      */
-    CitrinationClient(final String project, final String host, final String apiKey) {
-        if ((project != null) && (host != null)) {
-            throw new IllegalArgumentException("Cannot set both 'project' and 'host'");
+    private CompletableFuture<byte[]> fetchCoalescedBody(final PifSystemReturningQuery pifQuery,
+                                                         final SearchCacheKey key, final HttpPost post) {
+        return (this.singleFlight == null)
+                ? fetchAndCacheBody(pifQuery, key, post)
+                : this.singleFlight.execute(key, () -> fetchAndCacheBody(pifQuery, key, post));
+    }
+
+    /**
+     * Send a search and save the body of the response in the result cache and the disk cache if they are enabled.
+     * The body is written to the disk cache on the executor so that the caller does not wait for the disk. If dataset
+     * versions are tracked then the body is only saved if it was built from the newest known version of each of its
+     * datasets. The versions are checked again after each cache has been written, so a body that a revalidation
+     * found to be stale while it was being saved is removed rather than left behind.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} that is being run.
+     * @param key {@link SearchCacheKey} of the request.
+     * @param post {@link HttpPost} with the serialized query.
+     * @return {@link CompletableFuture} with the body of the response.
+     */
+    private CompletableFuture<byte[]> fetchAndCacheBody(final PifSystemReturningQuery pifQuery,
+                                                        final SearchCacheKey key, final HttpPost post) {
+        if ((this.resultCache == null) && (this.diskCache == null)) {
+            return sendSearch(pifQuery, post);
         }
-        if (apiKey == null) {
-            throw new IllegalArgumentException("Must set 'apiKey'");
+        final CompletableFuture<byte[]> sent = sendSearch(pifQuery, post);
+        return propagateCancel(sent.thenApply(body -> {
+            final Map<String, Long> versions = readDatasetVersions(body);
+            if (!recordDatasetVersions(key, versions)) {
+                return body;
+            }
+            if (this.resultCache != null) {
+                this.resultCache.put(key, body);
+                recordDatasetVersions(key, versions);
+            }
+            if (this.diskCache != null) {
+                this.executor.execute(() -> {
+                    try {
+                        this.diskCache.put(key, body, versions);
+                    }
+                    catch (IOException e) {
+                        // The disk cache is best effort, so the search still succeeds if the body cannot be saved
+                    }
+
+                    // A revalidation that ran while the body was being saved could not remove it from the disk
+                    recordDatasetVersions(key, versions);
+                });
+            }
+            return body;
+        }), sent);
+    }
+
+    /**
+     * Read the dataset versions of a response, if dataset versions are tracked.
+     *
+     * @param body Array with the body of the response.
+     * @return Map from each dataset in the response to its version, an empty map if dataset versions are not
+     * tracked, or a null pointer if the response cannot be read.
+     */
+    private Map<String, Long> readDatasetVersions(final byte[] body) {
+        if (this.datasetVersionIndex == null) {
+            return Collections.emptyMap();
         }
-        if (host != null) {
-            this.host = host;
-        } else if (project != null) {
-            this.host = "https://" + project + ".citrination.com";
-        } else {
-            this.host = "https://citrination.com";
+        try {
+            return DatasetVersionProbe.readVersions(body);
+        }
+        catch (IOException e) {
+            return null;
         }
-        this.apiKey = apiKey;
     }
 
-    @Override
-    public boolean equals(final Object rhs) {
-        if (this == rhs) {
+    /**
+     * Record the dataset versions of a response that is about to be served from or saved to a cache, if dataset
+     * versions are tracked. A response from an older version of one of its datasets is removed from the caches and
+     * must not be served from them. Responses that cannot be read are treated the same way.
+     *
+     * @param key {@link SearchCacheKey} of the request.
+     * @param versions Map from each dataset in the response to its version, or a null pointer if the response
+     *                 cannot be read.
+     * @return True if the response can be cached and served from the caches.
+     */
+    private boolean recordDatasetVersions(final SearchCacheKey key, final Map<String, Long> versions) {
+        if (this.datasetVersionIndex == null) {
             return true;
         }
-        if ((rhs == null) || !(rhs instanceof CitrinationClient)) {
-            return false;
+        final boolean current = (versions != null) && this.datasetVersionIndex.record(key, versions);
+        if (!current) {
+            invalidateCached(key);
         }
-        final CitrinationClient rhsClient = (CitrinationClient) rhs;
-        return Optional.ofNullable(this.host).equals(Optional.ofNullable(rhsClient.host))
-                && Optional.ofNullable(this.apiKey).equals(Optional.ofNullable(rhsClient.apiKey));
+        return current;
     }
 
-    /** Host to connect to. */
-    final String host;
-
-    /** API key for making the connection. */
-    final String apiKey;
-
-    /** ObjectMapper for serializing queries. */
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
-            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-            .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true)
-            .configure(DeserializationFeature.UNWRAP_SINGLE_VALUE_ARRAYS, true);
-
     /**
-     * Builder class to generate a new client.
+     * Determine whether a key has an entry in the result cache or the disk cache.
      *
-     * @author Kyle Michel
+     * @param key {@link SearchCacheKey} to check.
+     * @return True if either cache may hold an entry for the key.
      */
-    public static class Builder {
+    private boolean isCached(final SearchCacheKey key) {
+        return ((this.resultCache != null) && this.resultCache.containsKey(key))
+                || ((this.diskCache != null) && this.diskCache.containsKey(key));
+    }
 
-        /**
-         * Generate a new {@link CitrinationClient} object from the content of this object.
-         *
-         * @return New {@link CitrinationClient} object.
-         */
-        public CitrinationClient build() {
-            return new CitrinationClient(this.project, this.host, this.apiKey);
+    /**
+     * Remove a key from the result cache and the disk cache.
+     *
+     * @param key {@link SearchCacheKey} to remove.
+     */
+    private void invalidateCached(final SearchCacheKey key) {
+        if (this.resultCache != null) {
+            this.resultCache.invalidate(key);
+        }
+        if (this.diskCache != null) {
+            try {
+                this.diskCache.invalidate(key);
+            }
+            catch (IOException e) {
+                // A stale entry that is left on the disk is rejected by the dataset version index when it is read
+            }
         }
+    }
 
-        /**
-         * Set the host. This should contain the entire url for the connection.
-         *
-         * @param host String with the host to connect to.
-         * @return This object.
-         */
-        public Builder setHost(final String host) {
-            this.host = host;
-            return this;
+    /**
+     * Send a search to the server, either on its own or as part of a batch if batching is enabled. Searches that are
+     * sent on their own are hedged if hedging is enabled. Searches that are batched go through the circuit breaker
+     * and the retry policy one at a time, in the same way as searches that are sent on their own, so a query that
+     * fails with a retryable error is added to a later batch.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} that is being run.
+     * @param post {@link HttpPost} with the serialized query.
+     * @return {@link CompletableFuture} with the body of the response.
+     */
+    private CompletableFuture<byte[]> sendSearch(final PifSystemReturningQuery pifQuery, final HttpPost post) {
+        if (this.batcher == null) {
+            return fetchBody(post, true);
         }
+        return (this.requestRetrier == null)
+                ? this.batcher.submit(pifQuery)
+                : this.requestRetrier.execute(() -> this.batcher.submit(pifQuery));
+    }
 
-        /**
-         * Set the project. This is "project" in "https://project.citrination.com".
-         *
-         * @param project String with the project to connect to.
-         * @return This object.
-         */
-        public Builder setProject(final String project) {
-            this.project = project;
-            return this;
+    /**
+     * Send a multi-query as a single request.
+     *
+     * @param multiQuery {@link MultiQuery} to send.
+     * @return {@link CompletableFuture} with the decoded result.
+     */
+    private CompletableFuture<MultiSearchResult<PifSearchResult>> sendMultiSearch(
+            final MultiQuery<PifSystemReturningQuery> multiQuery) {
+        final HttpPost post;
+        try {
+            post = buildMultiSearchRequest(multiQuery);
+        }
+        catch (IOException e) {
+            return failedFuture(e);
         }
+        final CompletableFuture<byte[]> body = fetchBody(post);
+        return propagateCancel(body.thenApplyAsync(i -> decode(i, this::buildMultiSearchResult), this.executor), body);
+    }
 
-        /**
-         * Set the API key for your account.
-         *
-         * @param apiKey String with the API key to use.
-         * @return This object.
-         */
-        public Builder setApiKey(final String apiKey) {
-            this.apiKey = apiKey;
-            return this;
+    /**
+     * Get the number of bytes that a query adds to the payload of a multi-search request.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to measure.
+     * @return Number of bytes in the serialized query.
+     * @throws UncheckedIOException if the query cannot be serialized.
+     */
+    private static long payloadSize(final PifSystemReturningQuery pifQuery) {
+        try {
+            return JsonEntity.measure(OBJECT_WRITER, pifQuery, Long.MAX_VALUE) + 1;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        /** Host to connect to. */
-        private String host;
+    /**
+     * Send a batch of searches as a single multi-search request. The request is not retried on its own, since each
+     * search in the batch is retried by {@link #sendSearch(PifSystemReturningQuery, HttpPost)}.
+     *
+     * @param multiQuery {@link MultiQuery} with the batched queries.
+     * @return {@link CompletableFuture} with the body of the response.
+     */
+    private CompletableFuture<byte[]> sendBatch(final MultiQuery<PifSystemReturningQuery> multiQuery) {
+        try {
+            return fetchBodyWithinLimits(buildMultiSearchRequest(multiQuery));
+        }
+        catch (IOException e) {
+            return failedFuture(e);
+        }
+    }
 
-        /** Project to connect to. */
-        private String project;
+    /**
+     * Determine whether the result of a query can be cached.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to check.
+     * @return True if the query always returns the same result.
+     */
+    private static boolean isCacheable(final PifSystemReturningQuery pifQuery) {
+        return !Boolean.TRUE.equals(pifQuery.getRandomResults()) || (pifQuery.getRandomSeed() != null);
+    }
 
-        /** API key for making the connection. */
-        private String apiKey;
+    /**
+     * Send a request and read the full body of a successful response. The request goes through the circuit breaker,
+     * is retried according to the retry policy and waits for the flow control limits, if those are enabled.
+     *
+     * @param request {@link HttpUriRequest} to send.
+     * @return {@link CompletableFuture} with the body of the response. This completes exceptionally with a
+     * {@link CitrinationHttpException} if a non-200 response is received, with a {@link CircuitOpenException} if the
+     * circuit breaker is open, with a {@link RequestThrottledException} if the request could not be sent in time, or
+     * with an {@link IOException} if the request fails.
+     */
+    CompletableFuture<byte[]> fetchBody(final HttpUriRequest request) {
+        return fetchBody(request, false);
     }
 
     /**
-     * Object that wraps the response received from an API request.
+     * Send a request and read the full body of a successful response, optionally hedging each attempt.
      *
-     * @author Kyle Michel
+     * @param request {@link HttpUriRequest} to send.
+     * @param hedge Whether to hedge the request if hedging is enabled.
+     * @return {@link CompletableFuture} with the body of the response.
      */
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class PifSearchResponseWrapper {
+    private CompletableFuture<byte[]> fetchBody(final HttpUriRequest request, final boolean hedge) {
+        final Supplier<CompletableFuture<byte[]>> send = () -> fetchBodyWithinLimits(request);
+        final Supplier<CompletableFuture<byte[]>> attempt = (hedge && (this.requestHedger != null))
+                ? () -> this.requestHedger.execute(send)
+                : send;
+        return (this.requestRetrier == null) ? attempt.get() : this.requestRetrier.execute(attempt);
+    }
 
-        /** Results field. */
+    /**
+     * Send a request a single time once the flow control limits allow it, if flow control is enabled, and read the
+     * full body of a successful response.
+     *
+     * @param request {@link HttpUriRequest} to send.
+     * @return {@link CompletableFuture} with the body of the response.
+     */
+    private CompletableFuture<byte[]> fetchBodyWithinLimits(final HttpUriRequest request) {
+        return (this.flowController == null)
+                ? fetchBodyOnce(request)
+                : this.flowController.execute(() -> fetchBodyOnce(request));
+    }
+
+    /**
+     * Send a request a single time and read the full body of a successful response. Cancelling the returned future
+     * aborts the request on the transport, so a request that is abandoned, for example the slower copy of a hedged
+     * search, does not keep holding a connection.
+     *
+     * <p>A compressed body is inflated as it is read, but the whole inflated body is held in memory before anything
+     * decodes it, because the callers of this method retry, share, split and cache the raw bytes.
+     *
+     * @param request {@link HttpUriRequest} to send.
+     * @return {@link CompletableFuture} with the body of the response.
+     */
+    private CompletableFuture<byte[]> fetchBodyOnce(final HttpUriRequest request) {
+        final HttpUriRequest encoded;
+        try {
+            encoded = this.codecRejected ? toJsonRequest(request) : request;
+        }
+        catch (IOException e) {
+            return failedFuture(e);
+        }
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse> pending = this.transport.execute(encoded);
+        result.whenComplete((body, throwable) -> pending.cancel(true));
+        pending.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+            try {
+                if ((response.getStatusLine().getStatusCode() == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE)
+                        && isBinaryRequest(encoded)) {
+
+                    // The server does not support the binary format, so fall back to JSON from now on
+                    this.codecRejected = true;
+                    final CompletableFuture<byte[]> fallback = fetchBodyOnce(request);
+                    result.whenComplete((body, fallbackThrowable) -> fallback.cancel(true));
+                    fallback.whenComplete((body, fallbackThrowable) -> {
+                        if (fallbackThrowable == null) {
+                            result.complete(body);
+                        }
+                        else {
+                            result.completeExceptionally(fallbackThrowable);
+                        }
+                    });
+                    return;
+                }
+                checkStatus(response);
+                result.complete(
+                        EntityUtils.toByteArray(ContentEncodings.decode(response.getEntity(), this.transferMetrics)));
+            }
+            catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            finally {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get an HTTP client to use. This is called once when the client is constructed, unless another transport was
+     * set, and the result is shared by all requests that are made.
+     *
+     * @return {@link CloseableHttpAsyncClient} to use.
+     */
+    CloseableHttpAsyncClient buildHttpClient() {
+        final CloseableHttpAsyncClient client = createDefaultHttpClientBuilder().build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * Get the default HTTP client to use. The returned builder uses the pooled connection manager that belongs to
+     * this client.
+     *
+     * @return {@link HttpAsyncClientBuilder} to use.
+     */
+    HttpAsyncClientBuilder createDefaultHttpClientBuilder() {
+        return HttpAsyncClientBuilder.create()
+                .setRedirectStrategy(new LaxRedirectStrategy())
+                .setConnectionManager(this.connectionManager)
+                .setKeepAliveStrategy(buildKeepAliveStrategy());
+    }
+
+    /**
+     * Open the disk cache if a directory was set.
+     *
+     * @param builder {@link Builder} with the disk cache settings to apply.
+     * @return {@link DiskSearchCache} or a null pointer if the disk cache is disabled.
+     * @throws UncheckedIOException if the disk cache cannot be opened.
+     */
+    private static DiskSearchCache openDiskCache(final Builder builder) {
+        if (builder.diskCacheDirectory == null) {
+            return null;
+        }
+        try {
+            return new DiskSearchCache(builder.diskCacheDirectory, builder.diskCacheMaximumBytes,
+                    Math.min(DiskSearchCache.DEFAULT_SEGMENT_BYTES, builder.diskCacheMaximumBytes / 4 + 1),
+                    builder.diskCacheTimeToLiveMillis);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to open disk cache", e);
+        }
+    }
+
+    /**
+     * Build the connection manager that pools connections for this client.
+     *
+     * @param builder {@link Builder} with the pool settings to apply.
+     * @return {@link PoolingNHttpClientConnectionManager} to share across requests.
+     * @throws RuntimeException if the I/O reactor cannot be created.
+     */
+    private static PoolingNHttpClientConnectionManager buildConnectionManager(final Builder builder) {
+        final ConnectingIOReactor ioReactor;
+        try {
+            ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.custom()
+                    .setIoThreadCount(builder.ioThreadCount)
+                    .setSoKeepAlive(true)
+                    .build());
+        }
+        catch (IOReactorException e) {
+            throw new RuntimeException("Failed to create I/O reactor", e);
+        }
+        final Registry<SchemeIOSessionStrategy> sessionStrategies = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", SSLIOSessionStrategy.getDefaultStrategy())
+                .build();
+        final PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+                ioReactor, null, sessionStrategies, null, null,
+                builder.connectionTimeToLiveMillis, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(builder.maxConnections);
+        connectionManager.setDefaultMaxPerRoute(builder.maxConnectionsPerRoute);
+        return connectionManager;
+    }
+
+    /**
+     * Start the scheduler for background tasks of this client, along with a task that closes pooled connections that
+     * have expired or sat idle for too long if the default transport is used.
+     *
+     * @return {@link ScheduledExecutorService} that runs background tasks.
+     */
+    private ScheduledExecutorService startScheduler() {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "citrination-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (this.connectionManager != null) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                this.connectionManager.closeExpiredConnections();
+                if (this.idleConnectionTimeoutMillis > 0) {
+                    this.connectionManager.closeIdleConnections(this.idleConnectionTimeoutMillis,
+                            TimeUnit.MILLISECONDS);
+                }
+            }, EVICTION_INTERVAL_MILLIS, EVICTION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Build the strategy that determines how long an idle connection can be kept alive. The keep-alive time sent by
+     * the server is used when present, otherwise the time configured on this client is used.
+     *
+     * @return {@link ConnectionKeepAliveStrategy} to use.
+     */
+    private ConnectionKeepAliveStrategy buildKeepAliveStrategy() {
+        return (response, context) -> {
+            final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                    .getKeepAliveDuration(response, context);
+            return (serverKeepAlive > 0) ? serverKeepAlive : this.keepAliveMillis;
+        };
+    }
+
+    /**
+     * Wait for a future to complete and return its value, rethrowing any failure in the same form that the blocking
+     * API has always used. If the wait is interrupted then the future is cancelled, which aborts its request unless
+     * the request is shared with other callers.
+     *
+     * @param future {@link CompletableFuture} to wait for.
+     * @param <T> Type of the value in the future.
+     * @return Value of the completed future.
+     * @throws IOException if the future failed with an {@link IOException} or the wait was interrupted.
+     * @throws RuntimeException if the future failed with a {@link RuntimeException}.
+     */
+    static <T> T await(final CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for search to finish");
+        }
+        catch (ExecutionException e) {
+            final Throwable cause = unwrap(e);
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Get the root cause of a failure that has been wrapped while passing through a chain of futures.
+     *
+     * @param throwable {@link Throwable} to unwrap.
+     * @return The first cause that is not a {@link CompletionException} or {@link ExecutionException}.
+     */
+    static Throwable unwrap(Throwable throwable) {
+        while (((throwable instanceof CompletionException) || (throwable instanceof ExecutionException))
+                && (throwable.getCause() != null)) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * Get a future that has already failed with the input exception.
+     *
+     * @param throwable {@link Throwable} that caused the failure.
+     * @param <T> Type of the value in the future.
+     * @return {@link CompletableFuture} that completed exceptionally.
+     */
+    static <T> CompletableFuture<T> failedFuture(final Throwable throwable) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(throwable);
+        return result;
+    }
+
+    /**
+     * Cancel a future when a stage that was built from it is cancelled. Cancelling a dependent stage does not reach
+     * the future that it depends on, so without this a caller that gives up on a search would leave its request
+     * running.
+     *
+     * @param stage {@link CompletableFuture} that is returned to the caller.
+     * @param source {@link CompletableFuture} that the stage was built from.
+     * @param <T> Type of the value in the stage.
+     * @return The input stage.
+     */
+    static <T> CompletableFuture<T> propagateCancel(final CompletableFuture<T> stage,
+                                                    final CompletableFuture<?> source) {
+        stage.whenComplete((value, throwable) -> {
+            if (stage.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return stage;
+    }
+
+    /**
+     * Decode the body of a response, rethrowing any {@link IOException} as a {@link CompletionException} so that
+     * this can be used inside of a chain of futures.
+     *
+     * @param body Array with the body of the response.
+     * @param decoder {@link ResponseDecoder} to run on the body.
+     * @param <T> Type of the decoded value.
+     * @return Decoded value.
+     */
+    private static <T> T decode(final byte[] body, final ResponseDecoder<T> decoder) {
+        try {
+            return decoder.decode(body);
+        }
+        catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Build the POST request with the query to execute.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to run.
+     * @return {@link HttpPost} object with the POST request to make.
+     * @throws IOException if thrown from within this function.
+     */
+    HttpPost buildSearchRequest(final PifSystemReturningQuery pifQuery) throws IOException {
+        return createCommonSearchRequest(pifQuery);
+    }
+
+    /**
+     * Build the POST request with the query to execute.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to run.
+     * @return {@link HttpPost} object with the POST request to make.
+     * @throws IOException if thrown from within this function.
+     */
+    HttpPost createCommonSearchRequest(final PifSystemReturningQuery pifQuery) throws IOException {
+        return createCommonRequest(this.host + "/api/search/pif_search", pifQuery, requestCodec());
+    }
+
+    /**
+     * Build the POST request with the multi-query to execute.
+     *
+     * @param multiQuery {@link MultiQuery} to run.
+     * @return {@link HttpPost} object with the POST request to make.
+     * @throws IOException if thrown from within this function.
+     */
+    HttpPost buildMultiSearchRequest(final MultiQuery<PifSystemReturningQuery> multiQuery) throws IOException {
+        return createCommonMultiSearchRequest(multiQuery);
+    }
+
+    /**
+     * Build the POST request with the multi-query to execute.
+     *
+     * @param multiQuery {@link MultiQuery} to run.
+     * @return {@link HttpPost} object with the POST request to make.
+     * @throws IOException if thrown from within this function.
+     */
+    HttpPost createCommonMultiSearchRequest(final MultiQuery<PifSystemReturningQuery> multiQuery) throws IOException {
+        return createCommonRequest(this.host + "/api/search/pif/multi_pif_search", multiQuery, requestCodec());
+    }
+
+    /**
+     * Build a POST request with a body in the input format.
+     *
+     * @param uri String with the URI to send the request to.
+     * @param value Object to send in the body of the request.
+     * @param codec {@link SearchCodec} to encode the body with.
+     * @return {@link HttpPost} object with the POST request to make.
+     * @throws IOException if thrown from within this function.
+     */
+    private HttpPost createCommonRequest(final String uri, final Object value, final SearchCodec codec)
+            throws IOException {
+        final HttpPost post = new HttpPost(uri);
+        post.addHeader("X-API-Key", this.apiKey);
+        post.addHeader("Content-type", codec.getMediaType());
+        if (codec != SearchCodecs.JSON) {
+            post.addHeader(HttpHeaders.ACCEPT, codec.getMediaType() + ", " + SearchCodecs.JSON.getMediaType()
+                    + ";q=0.5");
+        }
+        if (this.acceptEncoding != null) {
+            post.addHeader(HttpHeaders.ACCEPT_ENCODING, this.acceptEncoding);
+        }
+        post.setEntity(new JsonEntity(codec.getObjectMapper().writer(), value, this.requestBufferPool,
+                this.requestCompressionThresholdBytes, this.transferMetrics));
+        return post;
+    }
+
+    /**
+     * Get the codec to encode requests with. This is the codec of the client unless the server has rejected it, in
+     * which case JSON is used.
+     *
+     * @return {@link SearchCodec} to use.
+     */
+    private SearchCodec requestCodec() {
+        return this.codecRejected ? SearchCodecs.JSON : this.codec;
+    }
+
+    /**
+     * Get a copy of a request with its body encoded as JSON, if it was built with another codec.
+     *
+     * @param request {@link HttpUriRequest} to convert.
+     * @return {@link HttpUriRequest} with a JSON body, which is the input request if it already has one.
+     * @throws IOException if thrown from within this function.
+     */
+    private HttpUriRequest toJsonRequest(final HttpUriRequest request) throws IOException {
+        if (!isBinaryRequest(request)) {
+            return request;
+        }
+        final HttpPost post = createCommonRequest(request.getURI().toString(),
+                ((JsonEntity) ((HttpPost) request).getEntity()).getValue(), SearchCodecs.JSON);
+        post.setConfig(((HttpPost) request).getConfig());
+        return post;
+    }
+
+    /**
+     * Get the JSON form of a query, reusing the body of the request that carries it if that body is JSON and was kept
+     * when the request was built.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to serialize.
+     * @param post {@link HttpPost} with the serialized query.
+     * @return Array with the query serialized as JSON. It must not be modified.
+     * @throws IOException if the query cannot be serialized.
+     */
+    private static byte[] toJsonBytes(final PifSystemReturningQuery pifQuery, final HttpPost post) throws IOException {
+        if ((post.getEntity() instanceof JsonEntity) && !isBinaryRequest(post)) {
+            final byte[] body = ((JsonEntity) post.getEntity()).getBody();
+            if (body != null) {
+                return body;
+            }
+        }
+        return OBJECT_WRITER.writeValueAsBytes(pifQuery);
+    }
+
+    /**
+     * Determine whether a request has a body that was encoded with a codec other than JSON.
+     *
+     * @param request {@link HttpUriRequest} to check.
+     * @return True if the body of the request is in a binary format.
+     */
+    private static boolean isBinaryRequest(final HttpUriRequest request) {
+        if (!(request instanceof HttpPost) || !(((HttpPost) request).getEntity() instanceof JsonEntity)) {
+            return false;
+        }
+        final Header contentType = request.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+        return (contentType != null) && (SearchCodecs.forContentType(contentType.getValue()) != SearchCodecs.JSON);
+    }
+
+    /**
+     * Convert the body of a search response to a {@link PifSearchResult} object.
+     *
+     * @param body Array with the body of a successful response.
+     * @return {@link PifSearchResult} with the result of the query.
+     * @throws IOException if thrown from within this function.
+     */
+    private PifSearchResult buildSearchResult(final byte[] body) throws IOException {
+        return SearchCodecs.forBody(body).getObjectMapper()
+                .readValue(body, PifSearchResponseWrapper.class).pifSearchResult;
+    }
+
+    /**
+     * Convert the body of a search response to a {@link ProjectedSearchResult} object. The deserializer for each
+     * record class is built on first use and cached by the object mapper of the codec.
+     *
+     * @param body Array with the body of a successful response.
+     * @param recordClass Class that the extracted values of each hit are bound to.
+     * @param <R> Type of the record class.
+     * @return {@link ProjectedSearchResult} with the result of the query.
+     * @throws IOException if thrown from within this function.
+     */
+    private static <R> ProjectedSearchResult<R> buildProjectedSearchResult(final byte[] body,
+                                                                           final Class<R> recordClass)
+            throws IOException {
+        final ObjectMapper objectMapper = SearchCodecs.forBody(body).getObjectMapper();
+        final ProjectedSearchResponseWrapper<R> wrapper = objectMapper.readValue(body, objectMapper.getTypeFactory()
+                .constructParametricType(ProjectedSearchResponseWrapper.class, recordClass));
+        return wrapper.projectedSearchResult;
+    }
+
+    /**
+     * Open a {@link PifSearchHitStream} on a response that is still being received.
+     *
+     * @param response {@link HttpResponse} with the result of the query.
+     * @param resource {@link Closeable} that aborts the request if the stream is closed early.
+     * @return {@link PifSearchHitStream} over the hits in the response.
+     * @throws IOException if thrown from within this function.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     */
+    private PifSearchHitStream buildSearchHitStream(final HttpResponse response, final Closeable resource)
+            throws IOException {
+        checkStatus(response);
+        final Header contentType = response.getEntity().getContentType();
+        final ObjectMapper objectMapper = SearchCodecs.forContentType((contentType == null)
+                ? null
+                : contentType.getValue()).getObjectMapper();
+        final JsonParser parser = objectMapper.getFactory()
+                .createParser(ContentEncodings.decode(response.getEntity(), this.transferMetrics).getContent())
+                .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Search response is not an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final JsonToken valueToken = parser.nextToken();
+                if (RESULTS_FIELD.equals(parser.getCurrentName()) && (valueToken == JsonToken.START_OBJECT)) {
+                    return new PifSearchHitStream(parser, objectMapper, resource);
+                }
+                parser.skipChildren();
+            }
+            throw new IOException("Search response does not contain results");
+        }
+        catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Check that a response was successful.
+     *
+     * @param response {@link HttpResponse} to check.
+     * @throws CitrinationHttpException if a non-200 response is received.
+     */
+    private static void checkStatus(final HttpResponse response) {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode != HttpStatus.SC_OK) {
+            throw new CitrinationHttpException(statusCode, response.getStatusLine().getReasonPhrase(),
+                    parseRetryAfterMillis(response));
+        }
+    }
+
+    /**
+     * Read the Retry-After header of a response. The header can hold either a number of seconds or a date.
+     *
+     * @param response {@link HttpResponse} to read.
+     * @return Number of milliseconds that the server asked the client to wait or a null pointer if the header is
+     * missing or cannot be read.
+     */
+    static Long parseRetryAfterMillis(final HttpResponse response) {
+        final Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null) {
+            return null;
+        }
+        final String value = header.getValue().trim();
+        try {
+            return Math.max(0, Long.parseLong(value)) * 1000;
+        }
+        catch (NumberFormatException e) {
+            final Date date = DateUtils.parseDate(value);
+            return (date == null) ? null : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Convert the body of a multi-search response to a {@link MultiSearchResult} object.
+     *
+     * @param body Array with the body of a successful response.
+     * @return {@link MultiSearchResult} with the result of the query.
+     * @throws IOException if thrown from within this function.
+     */
+    private MultiSearchResult<PifSearchResult> buildMultiSearchResult(final byte[] body) throws IOException {
+        return SearchCodecs.forBody(body).getObjectMapper()
+                .readValue(body, PifMultiSearchResponseWrapper.class).pifMultiSearchResult;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param builder {@link Builder} with the settings for the client.
+     * @throws IllegalArgumentException if project and host are both set.
+     * @throws IllegalArgumentException if apiKey is not set.
+     * @throws IllegalArgumentException if the connection pool limits are not positive.
+     * @throws IllegalArgumentException if the batch linger time is negative.
+     * @throws IllegalArgumentException if the request buffer pool size is negative.
+     */
+    CitrinationClient(final Builder builder) {
+        if ((builder.project != null) && (builder.host != null)) {
+            throw new IllegalArgumentException("Cannot set both 'project' and 'host'");
+        }
+        if (builder.apiKey == null) {
+            throw new IllegalArgumentException("Must set 'apiKey'");
+        }
+        if ((builder.maxConnections <= 0) || (builder.maxConnectionsPerRoute <= 0)) {
+            throw new IllegalArgumentException("Connection pool limits must be positive");
+        }
+        if (builder.batchLingerMillis < 0) {
+            throw new IllegalArgumentException("Batch linger time cannot be negative");
+        }
+        if (builder.requestBufferPoolBytes < 0) {
+            throw new IllegalArgumentException("Request buffer pool size cannot be negative");
+        }
+        if (builder.host != null) {
+            this.host = builder.host;
+        } else if (builder.project != null) {
+            this.host = "https://" + builder.project + ".citrination.com";
+        } else {
+            this.host = "https://citrination.com";
+        }
+        this.apiKey = builder.apiKey;
+        this.keepAliveMillis = builder.keepAliveMillis;
+        this.idleConnectionTimeoutMillis = builder.idleConnectionTimeoutMillis;
+        this.executor = (builder.executor == null) ? ForkJoinPool.commonPool() : builder.executor;
+        this.resultCache = (builder.cacheMaximumWeightBytes > 0)
+                ? new SearchResultCache(builder.cacheMaximumWeightBytes, builder.cacheTimeToLiveMillis)
+                : null;
+        this.diskCache = openDiskCache(builder);
+        try {
+            this.cacheRefresher = ((this.resultCache != null) && (builder.refreshPolicy != null))
+                    ? new CacheRefresher(builder.refreshPolicy, this.executor, System::currentTimeMillis)
+                    : null;
+            this.singleFlight = builder.coalesceRequests ? new SingleFlight<>() : null;
+            this.codec = (builder.codec == null) ? SearchCodecs.JSON : builder.codec;
+            this.requestBufferPool = new BufferPool(REQUEST_SEGMENT_SIZE, builder.requestBufferPoolBytes);
+            this.acceptEncoding = (builder.compressionPolicy == null)
+                    ? null
+                    : builder.compressionPolicy.getAcceptEncoding();
+            this.requestCompressionThresholdBytes = (builder.compressionPolicy == null)
+                    ? 0
+                    : builder.compressionPolicy.getRequestCompressionThresholdBytes();
+            this.connectionManager = (builder.transport == null) ? buildConnectionManager(builder) : null;
+            this.transport = (builder.transport == null)
+                    ? new HttpSearchTransport(buildHttpClient())
+                    : builder.transport;
+            this.multiSearchMaxQueries = builder.multiSearchMaxQueries;
+            this.multiSearchMaxPayloadBytes = builder.multiSearchMaxPayloadBytes;
+            this.scheduler = startScheduler();
+            this.requestRetrier = ((builder.retryPolicy == null) && (builder.circuitBreakerPolicy == null))
+                    ? null
+                    : new RequestRetrier(builder.retryPolicy, (builder.circuitBreakerPolicy == null)
+                            ? null
+                            : new CircuitBreaker(builder.circuitBreakerPolicy, System::currentTimeMillis),
+                            this.host, this.scheduler);
+            this.requestHedger = (builder.hedgingPolicy == null)
+                    ? null
+                    : new RequestHedger(builder.hedgingPolicy, this.scheduler, System::currentTimeMillis);
+            this.flowController = (builder.flowControlPolicy == null)
+                    ? null
+                    : new FlowController(builder.flowControlPolicy, this.scheduler, System::currentTimeMillis);
+            this.multiSearchRetrier = (builder.multiSearchRetryPolicy == null)
+                    ? null
+                    : new MultiSearchRetrier<>(this::searchShards, this.scheduler, builder.multiSearchRetryPolicy);
+            this.batcher = (builder.batchMaxSize > 1)
+                    ? new SearchBatcher(this::sendBatch, this.scheduler, builder.batchMaxSize,
+                            builder.batchLingerMillis)
+                    : null;
+            this.datasetVersionIndex = (((this.resultCache != null) || (this.diskCache != null))
+                    && (builder.trackDatasetVersions || (builder.datasetVersionCheckIntervalMillis > 0)))
+                    ? new DatasetVersionIndex()
+                    : null;
+            if ((this.datasetVersionIndex != null) && (this.diskCache != null)) {
+                this.diskCache.getDatasetVersions().forEach(this::recordDatasetVersions);
+            }
+            if ((this.datasetVersionIndex != null) && (builder.datasetVersionCheckIntervalMillis > 0)) {
+                this.scheduler.scheduleWithFixedDelay(this::startScheduledRevalidation,
+                        builder.datasetVersionCheckIntervalMillis, builder.datasetVersionCheckIntervalMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (RuntimeException e) {
+            releaseAfterFailedStart(builder, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Release what a constructor that failed part of the way through had already set up, so that the lock on the disk
+     * cache directory, the scheduler thread and the I/O reactor do not outlive the client that was never returned.
+     * Failures while releasing are added to the original failure as suppressed exceptions.
+     *
+     * @param builder {@link Builder} that the client was being built from.
+     * @param cause {@link RuntimeException} that stopped the constructor.
+     */
+    private void releaseAfterFailedStart(final Builder builder, final RuntimeException cause) {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+        }
+        try {
+            if ((builder.transport == null) && (this.transport != null)) {
+                this.transport.close();
+            }
+            else if (this.connectionManager != null) {
+                this.connectionManager.shutdown();
+            }
+        }
+        catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+        try {
+            if (this.diskCache != null) {
+                this.diskCache.close();
+            }
+        }
+        catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Start a check of the dataset versions behind the cached results from the scheduler, unless the previous check
+     * is still running.
+     */
+    private void startScheduledRevalidation() {
+        if (this.revalidating.compareAndSet(false, true)) {
+            revalidateCacheAsync().whenComplete((removed, throwable) -> this.revalidating.set(false));
+        }
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof CitrinationClient)) {
+            return false;
+        }
+        final CitrinationClient rhsClient = (CitrinationClient) rhs;
+        return Objects.equals(this.host, rhsClient.host)
+                && Objects.equals(this.apiKey, rhsClient.apiKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.host, this.apiKey);
+    }
+
+    /** Host to connect to. */
+    final String host;
+
+    /** API key for making the connection. */
+    final String apiKey;
+
+    /** Number of milliseconds to keep an idle connection alive if the server does not say otherwise. */
+    private final long keepAliveMillis;
+
+    /** Number of milliseconds that a connection can sit idle in the pool before it is evicted. */
+    private final long idleConnectionTimeoutMillis;
+
+    /** Executor that decodes responses and completes the futures returned to callers. */
+    private final Executor executor;
+
+    /** Cache of search responses or a null pointer if caching is disabled. */
+    private final SearchResultCache resultCache;
+
+    /** Persistent cache of search responses or a null pointer if the disk cache is disabled. */
+    private final DiskSearchCache diskCache;
+
+    /** Starts background refreshes of cached results or a null pointer if refreshes are disabled. */
+    private final CacheRefresher cacheRefresher;
+
+    /** Dataset versions behind the cached results or a null pointer if they are not tracked. */
+    private final DatasetVersionIndex datasetVersionIndex;
+
+    /** Whether a scheduled check of the dataset versions is running. */
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+
+    /** Identical searches that are in flight or a null pointer if coalescing is disabled. */
+    private final SingleFlight<SearchCacheKey, byte[]> singleFlight;
+
+    /** Pool of connections shared by all requests, or a null pointer if another transport was set. */
+    private final PoolingNHttpClientConnectionManager connectionManager;
+
+    /** Transport that sends all requests made with this client. */
+    private final SearchTransport transport;
+
+    /** Scheduler for background tasks, such as evicting expired and idle connections from the pool. */
+    private final ScheduledExecutorService scheduler;
+
+    /** Maximum number of queries in a single multi-search request. */
+    private final int multiSearchMaxQueries;
+
+    /** Maximum number of bytes in the payload of a single multi-search request. */
+    private final long multiSearchMaxPayloadBytes;
+
+    /** Retry and circuit breaker logic for requests or a null pointer if neither is enabled. */
+    private final RequestRetrier requestRetrier;
+
+    /** Hedging logic for single searches or a null pointer if hedging is disabled. */
+    private final RequestHedger requestHedger;
+
+    /** Wire format to use for requests and responses. */
+    private final SearchCodec codec;
+
+    /** Whether the server has rejected the codec, so that JSON is used instead. */
+    private volatile boolean codecRejected;
+
+    /** Pool of segments that request bodies are serialized into. */
+    private final BufferPool requestBufferPool;
+
+    /** Value of the Accept-Encoding header or a null pointer if responses are not compressed. */
+    private final String acceptEncoding;
+
+    /** Size above which request bodies are compressed, or a non-positive value if they are never compressed. */
+    private final long requestCompressionThresholdBytes;
+
+    /** Number of bytes sent and received. */
+    private final TransferMetrics transferMetrics = new TransferMetrics();
+
+    /** Rate and concurrency limits for requests or a null pointer if flow control is disabled. */
+    private final FlowController flowController;
+
+    /** Retrier for failed multi-search queries or a null pointer if they are not retried. */
+    private final MultiSearchRetrier<PifSystemReturningQuery, PifSearchResult> multiSearchRetrier;
+
+    /** Batcher for single searches or a null pointer if batching is disabled. */
+    private final SearchBatcher batcher;
+
+    /** Name of the field in a response that holds the results. */
+    private static final String RESULTS_FIELD = "results";
+
+    /** Number of bytes in each segment of a serialized request body. */
+    private static final int REQUEST_SEGMENT_SIZE = 16 * 1024;
+
+    /** Number of milliseconds between runs of the connection eviction task. */
+    private static final long EVICTION_INTERVAL_MILLIS = 5000;
+
+    /** ObjectMapper for JSON. */
+    private static final ObjectMapper OBJECT_MAPPER = SearchCodecs.JSON.getObjectMapper();
+
+    /** ObjectWriter for JSON, used for cache keys and payload sizes. */
+    private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writer();
+
+    /**
+     * Builder class to generate a new client.
+     *
+     * @author Kyle Michel
+     */
+    public static class Builder {
+
+        /**
+         * Generate a new {@link CitrinationClient} object from the content of this object.
+         *
+         * @return New {@link CitrinationClient} object.
+         */
+        public CitrinationClient build() {
+            return new CitrinationClient(this);
+        }
+
+        /**
+         * Set the host. This should contain the entire url for the connection.
+         *
+         * @param host String with the host to connect to.
+         * @return This object.
+         */
+        public Builder setHost(final String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Set the project. This is "project" in "https://project.citrination.com".
+         *
+         * @param project String with the project to connect to.
+         * @return This object.
+         */
+        public Builder setProject(final String project) {
+            this.project = project;
+            return this;
+        }
+
+        /**
+         * Set the API key for your account.
+         *
+         * @param apiKey String with the API key to use.
+         * @return This object.
+         */
+        public Builder setApiKey(final String apiKey) {
+            this.apiKey = apiKey;
+            return this;
+        }
+
+        /**
+         * Set the transport that sends the requests of the client. By default requests are sent over HTTP with a
+         * pooled connection manager that uses the connection settings of this builder. Those settings are ignored when
+         * another transport is set. The client closes the transport when it is closed.
+         *
+         * @param transport {@link SearchTransport} to use or a null pointer to use the default HTTP transport.
+         * @return This object.
+         */
+        public Builder setTransport(final SearchTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of connections that the client can have open at one time.
+         *
+         * @param maxConnections Maximum number of open connections.
+         * @return This object.
+         */
+        public Builder setMaxConnections(final int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of connections that the client can have open to a single route at one time.
+         *
+         * @param maxConnectionsPerRoute Maximum number of open connections per route.
+         * @return This object.
+         */
+        public Builder setMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of milliseconds that a pooled connection can live, regardless of activity. A
+         * non-positive value means that connections never expire.
+         *
+         * @param connectionTimeToLiveMillis Maximum lifetime of a connection in milliseconds.
+         * @return This object.
+         */
+        public Builder setConnectionTimeToLiveMillis(final long connectionTimeToLiveMillis) {
+            this.connectionTimeToLiveMillis = connectionTimeToLiveMillis;
+            return this;
+        }
+
+        /**
+         * Set the number of milliseconds to keep an idle connection alive when the server does not send a
+         * Keep-Alive header.
+         *
+         * @param keepAliveMillis Keep-alive time in milliseconds.
+         * @return This object.
+         */
+        public Builder setKeepAliveMillis(final long keepAliveMillis) {
+            this.keepAliveMillis = keepAliveMillis;
+            return this;
+        }
+
+        /**
+         * Set the number of milliseconds that a connection can sit idle in the pool before it is closed. A
+         * non-positive value disables idle eviction.
+         *
+         * @param idleConnectionTimeoutMillis Idle timeout in milliseconds.
+         * @return This object.
+         */
+        public Builder setIdleConnectionTimeoutMillis(final long idleConnectionTimeoutMillis) {
+            this.idleConnectionTimeoutMillis = idleConnectionTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Set the number of threads that run the non-blocking I/O reactor. This defaults to the number of available
+         * processors.
+         *
+         * @param ioThreadCount Number of I/O threads.
+         * @return This object.
+         * @throws IllegalArgumentException if the number of threads is not positive.
+         */
+        public Builder setIoThreadCount(final int ioThreadCount) {
+            if (ioThreadCount <= 0) {
+                throw new IllegalArgumentException("I/O thread count must be positive");
+            }
+            this.ioThreadCount = ioThreadCount;
+            return this;
+        }
+
+        /**
+         * Set the executor that decodes responses and completes the futures returned by asynchronous searches. This
+         * defaults to {@link ForkJoinPool#commonPool()}.
+         *
+         * @param executor {@link Executor} to use.
+         * @return This object.
+         */
+        public Builder setExecutor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Enable the in-process result cache for PIF searches and set the maximum number of bytes of responses that
+         * it can hold. A non-positive value disables the cache, which is the default.
+         *
+         * @param cacheMaximumWeightBytes Maximum number of bytes to cache.
+         * @return This object.
+         */
+        public Builder setCacheMaximumWeightBytes(final long cacheMaximumWeightBytes) {
+            this.cacheMaximumWeightBytes = cacheMaximumWeightBytes;
+            return this;
+        }
+
+        /**
+         * Set the number of milliseconds that a cached result stays valid. A non-positive value means that entries
+         * only leave the cache when they are evicted to make room.
+         *
+         * @param cacheTimeToLiveMillis Time to live of a cache entry in milliseconds.
+         * @return This object.
+         */
+        public Builder setCacheTimeToLiveMillis(final long cacheTimeToLiveMillis) {
+            this.cacheTimeToLiveMillis = cacheTimeToLiveMillis;
+            return this;
+        }
+
+        /**
+         * Enable background refreshes of results in the result cache. A result that is older than the stale age of
+         * the policy is still served from the cache until it expires, while a single refresh of it runs in the
+         * background, and results that are read often are refreshed shortly before they become stale. This has no
+         * effect unless the result cache is enabled and is disabled by default.
+         *
+         * @param refreshPolicy {@link RefreshPolicy} to use or a null pointer to disable refreshes.
+         * @return This object.
+         */
+        public Builder setRefreshPolicy(final RefreshPolicy refreshPolicy) {
+            this.refreshPolicy = refreshPolicy;
+            return this;
+        }
+
+        /**
+         * Enable the disk cache for PIF searches and set the directory that it is kept in. Responses are saved to
+         * this directory and are served from it, after the in-process result cache, until they expire, including
+         * after the client is restarted. The disk cache is disabled by default. Only one client at a time can use a
+         * directory.
+         *
+         * @param diskCacheDirectory {@link Path} of the directory or a null pointer to disable the disk cache.
+         * @return This object.
+         */
+        public Builder setDiskCacheDirectory(final Path diskCacheDirectory) {
+            this.diskCacheDirectory = diskCacheDirectory;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of bytes that the disk cache can hold. The default is 1 GiB.
+         *
+         * @param diskCacheMaximumBytes Maximum number of bytes on disk.
+         * @return This object.
+         */
+        public Builder setDiskCacheMaximumBytes(final long diskCacheMaximumBytes) {
+            this.diskCacheMaximumBytes = diskCacheMaximumBytes;
+            return this;
+        }
+
+        /**
+         * Set the number of milliseconds that a result saved in the disk cache stays valid. A non-positive value means
+         * that entries only leave the cache when they are compacted to make room. The default is one day.
+         *
+         * @param diskCacheTimeToLiveMillis Time to live of a disk cache entry in milliseconds.
+         * @return This object.
+         */
+        public Builder setDiskCacheTimeToLiveMillis(final long diskCacheTimeToLiveMillis) {
+            this.diskCacheTimeToLiveMillis = diskCacheTimeToLiveMillis;
+            return this;
+        }
+
+        /**
+         * Set whether to record the dataset versions behind each result that is saved in the result cache or the
+         * disk cache. Stale results can then be removed with {@link CitrinationClient#revalidateCache()} without
+         * dropping results from datasets that have not changed, which allows much longer cache times to live. The
+         * versions are saved with each disk cache entry, so results that were saved before a restart are checked as
+         * well. This has no effect if neither cache is enabled and is disabled by default.
+         *
+         * @param trackDatasetVersions True to record the dataset versions of cached results.
+         * @return This object.
+         */
+        public Builder setTrackDatasetVersions(final boolean trackDatasetVersions) {
+            this.trackDatasetVersions = trackDatasetVersions;
+            return this;
+        }
+
+        /**
+         * Set the number of milliseconds between background checks of the dataset versions behind cached results.
+         * A positive value also enables {@link #setTrackDatasetVersions(boolean)}. A non-positive value disables the
+         * background checks, which is the default.
+         *
+         * @param datasetVersionCheckIntervalMillis Number of milliseconds between checks.
+         * @return This object.
+         */
+        public Builder setDatasetVersionCheckIntervalMillis(final long datasetVersionCheckIntervalMillis) {
+            this.datasetVersionCheckIntervalMillis = datasetVersionCheckIntervalMillis;
+            return this;
+        }
+
+        /**
+         * Set whether identical PIF searches that run at the same time should share a single request to the server.
+         * Every caller still receives its own copy of the result. This is enabled by default.
+         *
+         * @param coalesceRequests True to coalesce identical concurrent searches.
+         * @return This object.
+         */
+        public Builder setCoalesceRequests(final boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+
+        /**
+         * Enable batching of single PIF searches and set the maximum number of searches that are sent together in
+         * one multi-search request. Searches made within the linger time of each other are batched. A search that the
+         * server does not run fails with a {@link MultiSearchElementException}, and if a retry policy is set then a
+         * search that can be retried is added to a later batch. A value of one or less disables batching, which is
+         * the default.
+         *
+         * @param batchMaxSize Maximum number of searches in a batch.
+         * @return This object.
+         */
+        public Builder setBatchMaxSize(final int batchMaxSize) {
+            this.batchMaxSize = batchMaxSize;
+            return this;
+        }
+
+        /**
+         * Set the number of milliseconds that a batch waits for more searches after its first search is added.
+         *
+         * @param batchLingerMillis Linger time of a batch in milliseconds.
+         * @return This object.
+         */
+        public Builder setBatchLingerMillis(final long batchLingerMillis) {
+            this.batchLingerMillis = batchLingerMillis;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of queries to send in a single multi-search request. Larger multi-queries are split
+         * into several requests that run in parallel, and their results are combined in the original order. A
+         * non-positive value means no limit, which is the default.
+         *
+         * @param multiSearchMaxQueries Maximum number of queries in a multi-search request.
+         * @return This object.
+         */
+        public Builder setMultiSearchMaxQueries(final int multiSearchMaxQueries) {
+            this.multiSearchMaxQueries = multiSearchMaxQueries;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of bytes in the payload of a single multi-search request. Larger multi-queries are
+         * split into several requests that run in parallel, and their results are combined in the original order. A
+         * non-positive value means no limit, which is the default.
+         *
+         * @param multiSearchMaxPayloadBytes Maximum number of bytes in a multi-search payload.
+         * @return This object.
+         */
+        public Builder setMultiSearchMaxPayloadBytes(final long multiSearchMaxPayloadBytes) {
+            this.multiSearchMaxPayloadBytes = multiSearchMaxPayloadBytes;
+            return this;
+        }
+
+        /**
+         * Set the policy for resending the queries of a multi-search that fail or are not executed. By default these
+         * queries are not resent. The limit on Retry-After waits in the policy does not apply, since the status of a
+         * query does not come with a Retry-After header.
+         *
+         * @param multiSearchRetryPolicy {@link RetryPolicy} to use or a null pointer to disable retries.
+         * @return This object.
+         */
+        public Builder setMultiSearchRetryPolicy(final RetryPolicy multiSearchRetryPolicy) {
+            this.multiSearchRetryPolicy = multiSearchRetryPolicy;
+            return this;
+        }
+
+        /**
+         * Set the policy for resending requests that fail with a retryable error, such as a dropped connection or a
+         * 502, 503 or 429 response. By default requests are not resent.
+         *
+         * @param retryPolicy {@link RetryPolicy} to use or a null pointer to disable retries.
+         * @return This object.
+         */
+        public Builder setRetryPolicy(final RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Set the policy of the circuit breaker that stops sending requests to the host while it is failing. By
+         * default there is no circuit breaker.
+         *
+         * @param circuitBreakerPolicy {@link CircuitBreakerPolicy} to use or a null pointer to disable the breaker.
+         * @return This object.
+         */
+        public Builder setCircuitBreakerPolicy(final CircuitBreakerPolicy circuitBreakerPolicy) {
+            this.circuitBreakerPolicy = circuitBreakerPolicy;
+            return this;
+        }
+
+        /**
+         * Set the policy for hedging single PIF searches. A search that has not been answered within a percentile of
+         * recent latencies is sent a second time and the first response to arrive is used. By default searches are
+         * not hedged. Searches that are batched are never hedged.
+         *
+         * @param hedgingPolicy {@link HedgingPolicy} to use or a null pointer to disable hedging.
+         * @return This object.
+         */
+        public Builder setHedgingPolicy(final HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Set the policy for client-side flow control. Requests are held back by a rate limit and by a concurrency
+         * limit that adapts to how the server responds, and fail with a {@link RequestThrottledException} if they
+         * cannot be sent in time. The limits apply to this client only. By default there is no flow control.
+         *
+         * @param flowControlPolicy {@link FlowControlPolicy} to use or a null pointer to disable flow control.
+         * @return This object.
+         */
+        public Builder setFlowControlPolicy(final FlowControlPolicy flowControlPolicy) {
+            this.flowControlPolicy = flowControlPolicy;
+            return this;
+        }
+
+        /**
+         * Set the number of bytes of request buffers that are kept for reuse. Request bodies are serialized into
+         * fixed-size segments that are returned to a pool once they have been sent, so the body of a small query
+         * typically reuses a single segment and a large multi-query never needs one large array. The default is one
+         * megabyte. Zero disables reuse.
+         *
+         * @param requestBufferPoolBytes Maximum number of bytes to keep in the pool.
+         * @return This object.
+         */
+        public Builder setRequestBufferPoolBytes(final long requestBufferPoolBytes) {
+            this.requestBufferPoolBytes = requestBufferPoolBytes;
+            return this;
+        }
+
+        /**
+         * Set the policy for compressing request and response bodies. Responses are requested with the encodings that
+         * the policy accepts and are decompressed as they are read. The full decompressed body of each response is
+         * buffered before it is decoded. By default nothing is compressed.
+         *
+         * @param compressionPolicy {@link CompressionPolicy} to use or a null pointer to disable compression.
+         * @return This object.
+         */
+        public Builder setCompressionPolicy(final CompressionPolicy compressionPolicy) {
+            this.compressionPolicy = compressionPolicy;
+            return this;
+        }
+
+        /**
+         * Set the wire format for queries and results. With a binary format such as {@link SearchCodecs#SMILE}, the
+         * client asks for responses in that format and still accepts JSON. If the server rejects a request in the
+         * binary format with a 415 response, the request is sent again as JSON and JSON is used from then on. By
+         * default JSON is used.
+         *
+         * @param codec {@link SearchCodec} to use.
+         * @return This object.
+         */
+        public Builder setCodec(final SearchCodec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /** Host to connect to. */
+        private String host;
+
+        /** Project to connect to. */
+        private String project;
+
+        /** API key for making the connection. */
+        private String apiKey;
+
+        /** Transport that sends requests or a null pointer for the default HTTP transport. */
+        private SearchTransport transport;
+
+        /** Maximum number of open connections. */
+        private int maxConnections = 100;
+
+        /** Maximum number of open connections per route. */
+        private int maxConnectionsPerRoute = 50;
+
+        /** Maximum lifetime of a connection in milliseconds. */
+        private long connectionTimeToLiveMillis = -1;
+
+        /** Keep-alive time in milliseconds when the server does not specify one. */
+        private long keepAliveMillis = 30000;
+
+        /** Idle timeout of a pooled connection in milliseconds. */
+        private long idleConnectionTimeoutMillis = 60000;
+
+        /** Number of I/O reactor threads. */
+        private int ioThreadCount = Runtime.getRuntime().availableProcessors();
+
+        /** Executor for decoding responses. */
+        private Executor executor;
+
+        /** Maximum number of bytes in the result cache. */
+        private long cacheMaximumWeightBytes;
+
+        /** Time to live of a cache entry in milliseconds. */
+        private long cacheTimeToLiveMillis = 5 * 60 * 1000;
+
+        /** Policy for background refreshes of cached results. */
+        private RefreshPolicy refreshPolicy;
+
+        /** Directory of the disk cache. */
+        private Path diskCacheDirectory;
+
+        /** Maximum number of bytes in the disk cache. */
+        private long diskCacheMaximumBytes = 1024L * 1024 * 1024;
+
+        /** Time to live of a disk cache entry in milliseconds. */
+        private long diskCacheTimeToLiveMillis = 24 * 60 * 60 * 1000;
+
+        /** Whether to record the dataset versions of cached results. */
+        private boolean trackDatasetVersions;
+
+        /** Number of milliseconds between background checks of dataset versions. */
+        private long datasetVersionCheckIntervalMillis;
+
+        /** Whether to coalesce identical concurrent searches. */
+        private boolean coalesceRequests = true;
+
+        /** Maximum number of searches in a batch. */
+        private int batchMaxSize;
+
+        /** Number of milliseconds that a batch waits for more searches. */
+        private long batchLingerMillis = 5;
+
+        /** Maximum number of queries in a multi-search request. */
+        private int multiSearchMaxQueries;
+
+        /** Maximum number of bytes in a multi-search payload. */
+        private long multiSearchMaxPayloadBytes;
+
+        /** Policy for resending failed multi-search queries. */
+        private RetryPolicy multiSearchRetryPolicy;
+
+        /** Policy for resending failed requests. */
+        private RetryPolicy retryPolicy;
+
+        /** Policy of the circuit breaker. */
+        private CircuitBreakerPolicy circuitBreakerPolicy;
+
+        /** Policy for hedging single searches. */
+        private HedgingPolicy hedgingPolicy;
+
+        /** Policy for client-side flow control. */
+        private FlowControlPolicy flowControlPolicy;
+
+        /** Maximum number of bytes of request buffers to keep for reuse. */
+        private long requestBufferPoolBytes = 1024 * 1024;
+
+        /** Policy for compressing request and response bodies. */
+        private CompressionPolicy compressionPolicy;
+
+        /** Wire format for queries and results. */
+        private SearchCodec codec;
+    }
+
+    /**
+     * Function that decodes the body of an HTTP response.
+     *
+     * @param <T> Type of the decoded value.
+     * @author Kyle Michel
+     */
+    @FunctionalInterface
+    private interface ResponseDecoder<T> {
+
+        /**
+         * Decode the input body.
+         *
+         * @param body Array with the body of the response.
+         * @return Decoded value.
+         * @throws IOException if thrown while decoding the body.
+         */
+        T decode(byte[] body) throws IOException;
+    }
+
+    /**
+     * Object that wraps the response received from an API request.
+     *
+     * @author Kyle Michel
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class PifSearchResponseWrapper {
+
+        /** Results field. */
         @JsonProperty("results")
         public PifSearchResult pifSearchResult;
     }
 
+    /**
+     * Object that wraps the response received from an API request whose hits are bound to a record class.
+     *
+     * @param <R> Type of the record class.
+     * @author Kyle Michel
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class ProjectedSearchResponseWrapper<R> {
+
+        /** Results field. */
+        @JsonProperty("results")
+        public ProjectedSearchResult<R> projectedSearchResult;
+    }
+
     /**
      * Object that wraps the response received from an API request.
      *
@@ -0,0 +1,47 @@
+package io.citrine.jcc.core;
+
+/**
+ * Base class for errors reported by {@link CitrinationClient}. Each error records whether the same request could
+ * succeed if it were sent again, so that callers can decide whether to retry without inspecting the cause.
+ *
+ * @author Kyle Michel
+ */
+public class CitrinationException extends RuntimeException {
+
+    /**
+     * Constructor.
+     *
+     * @param message String with the description of the error.
+     * @param retryable Whether the request could succeed if it were sent again.
+     */
+    public CitrinationException(final String message, final boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param message String with the description of the error.
+     * @param cause {@link Throwable} that caused the error.
+     * @param retryable Whether the request could succeed if it were sent again.
+     */
+    public CitrinationException(final String message, final Throwable cause, final boolean retryable) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    /**
+     * Get whether the request that failed could succeed if it were sent again.
+     *
+     * @return True if the request can be retried.
+     */
+    public boolean isRetryable() {
+        return this.retryable;
+    }
+
+    private static final long serialVersionUID = -4316981577853011376L;
+
+    /** Whether the request could succeed if it were sent again. */
+    private final boolean retryable;
+}
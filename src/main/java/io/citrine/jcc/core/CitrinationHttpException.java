@@ -0,0 +1,74 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.HttpStatus;
+
+/**
+ * Error that is thrown when the server responds with a status other than 200. Responses that indicate a temporary
+ * problem on the server (408, 429, 502, 503 and 504) are marked as retryable.
+ *
+ * @author Kyle Michel
+ */
+public class CitrinationHttpException extends CitrinationException {
+
+    /**
+     * Constructor.
+     *
+     * @param statusCode Status code of the response.
+     * @param reasonPhrase String with the reason phrase of the response.
+     * @param retryAfterMillis Number of milliseconds that the server asked the client to wait before retrying, or a
+     *                         null pointer if the server did not say.
+     */
+    public CitrinationHttpException(final int statusCode, final String reasonPhrase, final Long retryAfterMillis) {
+        super("Received " + statusCode + " response: " + reasonPhrase, isRetryableStatus(statusCode));
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Get the status code of the response.
+     *
+     * @return Status code of the response.
+     */
+    public int getStatusCode() {
+        return this.statusCode;
+    }
+
+    /**
+     * Get the number of milliseconds that the server asked the client to wait before retrying.
+     *
+     * @return Number of milliseconds to wait or a null pointer if the server did not say.
+     */
+    public Long getRetryAfterMillis() {
+        return this.retryAfterMillis;
+    }
+
+    /**
+     * Determine whether a response with the input status code indicates a temporary problem.
+     *
+     * @param statusCode Status code of the response.
+     * @return True if the request can be retried.
+     */
+    private static boolean isRetryableStatus(final int statusCode) {
+        switch (statusCode) {
+            case HttpStatus.SC_REQUEST_TIMEOUT:
+            case TOO_MANY_REQUESTS:
+            case HttpStatus.SC_BAD_GATEWAY:
+            case HttpStatus.SC_SERVICE_UNAVAILABLE:
+            case HttpStatus.SC_GATEWAY_TIMEOUT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Status code for a response that is sent when the client is making too many requests. */
+    static final int TOO_MANY_REQUESTS = 429;
+
+    private static final long serialVersionUID = 2785023335297916432L;
+
+    /** Status code of the response. */
+    private final int statusCode;
+
+    /** Number of milliseconds that the server asked the client to wait before retrying. */
+    private final Long retryAfterMillis;
+}
@@ -0,0 +1,202 @@
+package io.citrine.jcc.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jcc.search.pif.result.ColumnarSearchResult;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Class that reads every hit of a query into a single {@link ColumnarSearchResult} by requesting consecutive pages.
+ * Pages are requested ahead of the reader in the same way as {@link PifSearchHitScanner}, but each page is read
+ * straight into columns as it arrives instead of being bound to hit objects. Short pages are completed in the same
+ * way as well.
+ *
+ * @author Kyle Michel
+ */
+class ColumnarScanner {
+
+    /**
+     * Constructor.
+     *
+     * @param bodyFetcher {@link BodyFetcher} used to request the body of a single page.
+     * @param from Index of the first hit to read.
+     * @param options {@link ScanOptions} with the settings for the scan.
+     */
+    ColumnarScanner(final BodyFetcher bodyFetcher, final int from, final ScanOptions options) {
+        this.bodyFetcher = bodyFetcher;
+        this.pageSize = options.getPageSize();
+        this.prefetchPages = options.getPrefetchPages();
+        this.nextFrom = from;
+        this.end = (options.getMaxHits() == null) ? Long.MAX_VALUE : from + options.getMaxHits();
+    }
+
+    /**
+     * Read all pages of the query. Pages that are still pending when this fails are cancelled.
+     *
+     * @return {@link ColumnarSearchResult} with the hits of all pages.
+     * @throws IOException if a page cannot be fetched or read.
+     */
+    ColumnarSearchResult scan() throws IOException {
+        final ColumnarSearchResult.Builder builder = new ColumnarSearchResult.Builder();
+        try {
+            fillWindow();
+            while (!this.pendingPages.isEmpty()) {
+                final PendingPage pendingPage = this.pendingPages.poll();
+                final int numHits = readPage(CitrinationClient.await(pendingPage.body), builder);
+                if (!this.totalKnown) {
+                    this.totalKnown = true;
+                    if (builder.getTotalNumHits() != null) {
+                        this.end = Math.min(this.end, builder.getTotalNumHits());
+                    }
+                }
+                if (numHits == 0) {
+
+                    // The result set shrank while scanning, so there is nothing more to read
+                    break;
+                }
+                if ((numHits < pendingPage.size) && (pendingPage.from + numHits < this.end)) {
+
+                    // The server returned fewer hits than were asked for, so request the rest before any later page
+                    this.pageSize = Math.min(this.pageSize, numHits);
+                    final long from = pendingPage.from + numHits;
+                    this.pendingPages.addFirst(fetch(from, (int) Math.min(pendingPage.size - numHits,
+                            this.end - from)));
+                }
+                fillWindow();
+            }
+        }
+        finally {
+            while (!this.pendingPages.isEmpty()) {
+                this.pendingPages.poll().body.cancel(true);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Read the body of a search response into the input builder.
+     *
+     * @param body Array with the body of a successful response.
+     * @param builder {@link ColumnarSearchResult.Builder} to add the hits to.
+     * @return Number of hits that were read.
+     * @throws IOException if thrown while reading the body.
+     */
+    static int readPage(final byte[] body, final ColumnarSearchResult.Builder builder) throws IOException {
+        int numHits = 0;
+        try (JsonParser parser = SearchCodecs.forBody(body).getObjectMapper().getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected the start of a search response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                if ((parser.nextToken() == JsonToken.START_OBJECT) && RESULTS_FIELD.equals(fieldName)) {
+                    numHits += builder.addPage(parser);
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return numHits;
+    }
+
+    /**
+     * Request pages until the window is full or all pages have been requested. Only the first page is requested
+     * until the total number of hits is known.
+     */
+    private void fillWindow() {
+        final int windowSize = this.totalKnown ? this.prefetchPages : 1;
+        while ((this.pendingPages.size() < windowSize) && (this.nextFrom < this.end)) {
+            final int size = (int) Math.min(this.pageSize, this.end - this.nextFrom);
+            this.pendingPages.add(fetch(this.nextFrom, size));
+            this.nextFrom += size;
+        }
+    }
+
+    /**
+     * Request the body of a single page.
+     *
+     * @param from Index of the first hit in the page.
+     * @param size Number of hits in the page.
+     * @return {@link PendingPage} with the request.
+     */
+    private PendingPage fetch(final long from, final int size) {
+        return new PendingPage(from, size, this.bodyFetcher.fetch((int) from, size));
+    }
+
+    /** Name of the field of a response with the search result. */
+    private static final String RESULTS_FIELD = "results";
+
+    /** Function used to request the body of a single page. */
+    private final BodyFetcher bodyFetcher;
+
+    /** Number of hits in each page. This shrinks if the server returns fewer hits than were asked for. */
+    private int pageSize;
+
+    /** Number of pages to keep in flight. */
+    private final int prefetchPages;
+
+    /** Bodies of pages that have been requested but not yet read, in order. */
+    private final Deque<PendingPage> pendingPages = new ArrayDeque<>();
+
+    /** Index of the first hit of the next page to request. */
+    private long nextFrom;
+
+    /** Index one past the last hit to read. */
+    private long end;
+
+    /** Whether the total number of hits is known. */
+    private boolean totalKnown;
+
+    /**
+     * Page that has been requested.
+     *
+     * @author Kyle Michel
+     */
+    private static class PendingPage {
+
+        /**
+         * Constructor.
+         *
+         * @param from Index of the first hit in the page.
+         * @param size Number of hits that were asked for.
+         * @param body {@link CompletableFuture} with the body of the response.
+         */
+        PendingPage(final long from, final int size, final CompletableFuture<byte[]> body) {
+            this.from = from;
+            this.size = size;
+            this.body = body;
+        }
+
+        /** Index of the first hit in the page. */
+        final long from;
+
+        /** Number of hits that were asked for. */
+        final int size;
+
+        /** Body of the response. */
+        final CompletableFuture<byte[]> body;
+    }
+
+    /**
+     * Function that requests the body of a single page of hits.
+     *
+     * @author Kyle Michel
+     */
+    @FunctionalInterface
+    interface BodyFetcher {
+
+        /**
+         * Request the body of a page of hits.
+         *
+         * @param from Index of the first hit in the page.
+         * @param size Number of hits in the page.
+         * @return {@link CompletableFuture} with the body of the response.
+         */
+        CompletableFuture<byte[]> fetch(int from, int size);
+    }
+}
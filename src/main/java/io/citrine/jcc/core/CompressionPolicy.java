@@ -0,0 +1,124 @@
+package io.citrine.jcc.core;
+
+import java.util.Objects;
+
+/**
+ * Policy that controls compression of the bodies of requests and responses. Responses are requested with an
+ * Accept-Encoding header that lists the enabled encodings and are decompressed as they are read off the connection.
+ * Every search buffers its full response before decoding it, since the same bytes may be retried, shared between
+ * coalesced callers, split out of a batch or saved in a cache, so a compressed response is always inflated in full
+ * in memory before it is parsed. Compression saves bandwidth rather than memory. Request bodies larger than a
+ * threshold can be compressed with gzip; this is disabled by default because a server has to opt in to accepting
+ * compressed requests.
+ *
+ * @author Kyle Michel
+ */
+public class CompressionPolicy {
+
+    /**
+     * Set whether to accept responses that are compressed with gzip.
+     *
+     * @param acceptGzip True to accept gzip responses.
+     * @return This object.
+     */
+    public CompressionPolicy setAcceptGzip(final boolean acceptGzip) {
+        this.acceptGzip = acceptGzip;
+        return this;
+    }
+
+    /**
+     * Get whether to accept responses that are compressed with gzip.
+     *
+     * @return True if gzip responses are accepted.
+     */
+    public boolean isAcceptGzip() {
+        return this.acceptGzip;
+    }
+
+    /**
+     * Set whether to accept responses that are compressed with deflate.
+     *
+     * @param acceptDeflate True to accept deflate responses.
+     * @return This object.
+     */
+    public CompressionPolicy setAcceptDeflate(final boolean acceptDeflate) {
+        this.acceptDeflate = acceptDeflate;
+        return this;
+    }
+
+    /**
+     * Get whether to accept responses that are compressed with deflate.
+     *
+     * @return True if deflate responses are accepted.
+     */
+    public boolean isAcceptDeflate() {
+        return this.acceptDeflate;
+    }
+
+    /**
+     * Set the size above which request bodies are compressed with gzip.
+     *
+     * @param requestCompressionThresholdBytes Number of bytes in the uncompressed body, or a non-positive value to
+     *                                         never compress requests.
+     * @return This object.
+     */
+    public CompressionPolicy setRequestCompressionThresholdBytes(final long requestCompressionThresholdBytes) {
+        this.requestCompressionThresholdBytes = requestCompressionThresholdBytes;
+        return this;
+    }
+
+    /**
+     * Get the size above which request bodies are compressed with gzip.
+     *
+     * @return Number of bytes in the uncompressed body, or a non-positive value if requests are never compressed.
+     */
+    public long getRequestCompressionThresholdBytes() {
+        return this.requestCompressionThresholdBytes;
+    }
+
+    /**
+     * Get the value of the Accept-Encoding header to send.
+     *
+     * @return String with the accepted encodings or a null pointer if no encodings are accepted.
+     */
+    String getAcceptEncoding() {
+        if (this.acceptGzip && this.acceptDeflate) {
+            return "gzip, deflate";
+        }
+        else if (this.acceptGzip) {
+            return "gzip";
+        }
+        else if (this.acceptDeflate) {
+            return "deflate";
+        }
+        return null;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof CompressionPolicy)) {
+            return false;
+        }
+        final CompressionPolicy rhsPolicy = (CompressionPolicy) rhs;
+        return (this.acceptGzip == rhsPolicy.acceptGzip)
+                && (this.acceptDeflate == rhsPolicy.acceptDeflate)
+                && (this.requestCompressionThresholdBytes == rhsPolicy.requestCompressionThresholdBytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.acceptGzip, this.acceptDeflate, this.requestCompressionThresholdBytes);
+    }
+
+    /** Whether gzip responses are accepted. */
+    private boolean acceptGzip = true;
+
+    /** Whether deflate responses are accepted. */
+    private boolean acceptDeflate = true;
+
+    /** Size above which request bodies are compressed. */
+    private long requestCompressionThresholdBytes;
+}
@@ -0,0 +1,214 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.entity.DeflateInputStreamFactory;
+import org.apache.http.client.entity.GZIPInputStreamFactory;
+import org.apache.http.client.entity.InputStreamFactory;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.function.LongConsumer;
+
+/**
+ * Helpers for decoding compressed response bodies and counting the bytes that pass through a stream.
+ *
+ * @author Kyle Michel
+ */
+final class ContentEncodings {
+
+    /**
+     * Wrap the entity of a response so that its content is decompressed as it is read. The number of bytes read
+     * before and after decompression is recorded in the input metrics.
+     *
+     * @param entity {@link HttpEntity} of a response.
+     * @param metrics {@link TransferMetrics} to record the sizes in.
+     * @return {@link HttpEntity} whose content is decoded, or a null pointer if the input entity is null.
+     */
+    static HttpEntity decode(final HttpEntity entity, final TransferMetrics metrics) {
+        return (entity == null) ? null : new DecodingEntity(entity, metrics);
+    }
+
+    /**
+     * Get the factory that decodes a content encoding.
+     *
+     * @param contentEncoding {@link Header} with the content encoding of an entity or a null pointer if there is none.
+     * @return {@link InputStreamFactory} that decodes the content, or a null pointer if the content is not encoded.
+     * @throws IOException if the content encoding is not supported.
+     */
+    private static InputStreamFactory decoderOf(final Header contentEncoding) throws IOException {
+        final String encoding = (contentEncoding == null)
+                ? ""
+                : contentEncoding.getValue().trim().toLowerCase(Locale.ROOT);
+        switch (encoding) {
+            case "":
+            case "identity":
+                return null;
+            case "gzip":
+            case "x-gzip":
+                return GZIPInputStreamFactory.getInstance();
+            case "deflate":
+                return DeflateInputStreamFactory.getInstance();
+            default:
+                throw new IOException("Unsupported content encoding: " + encoding);
+        }
+    }
+
+    // Make sure that objects of this class cannot be instantiated
+    private ContentEncodings() {}
+
+    /**
+     * Entity that decodes the content of another entity as it is read.
+     *
+     * @author Kyle Michel
+     */
+    private static class DecodingEntity extends HttpEntityWrapper {
+
+        /**
+         * Constructor.
+         *
+         * @param entity {@link HttpEntity} to decode.
+         * @param metrics {@link TransferMetrics} to record the sizes in.
+         */
+        DecodingEntity(final HttpEntity entity, final TransferMetrics metrics) {
+            super(entity);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            final InputStreamFactory decoder = decoderOf(this.wrappedEntity.getContentEncoding());
+            if (decoder == null) {
+                return new CountingInputStream(this.wrappedEntity.getContent(),
+                        length -> this.metrics.recordResponseBytes(length, length));
+            }
+            final InputStream received = new CountingInputStream(this.wrappedEntity.getContent(),
+                    length -> this.metrics.recordResponseBytes(length, 0));
+            return new CountingInputStream(decoder.create(received),
+                    length -> this.metrics.recordResponseBytes(0, length));
+        }
+
+        @Override
+        public long getContentLength() {
+            return (this.wrappedEntity.getContentEncoding() == null) ? this.wrappedEntity.getContentLength() : -1;
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public void writeTo(final OutputStream outputStream) throws IOException {
+            try (InputStream inputStream = getContent()) {
+                final byte[] buffer = new byte[4096];
+                int length;
+                while ((length = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, length);
+                }
+            }
+        }
+
+        /** Metrics to record the sizes in. */
+        private final TransferMetrics metrics;
+    }
+
+    /**
+     * Input stream that reports the number of bytes read through it.
+     *
+     * @author Kyle Michel
+     */
+    static class CountingInputStream extends FilterInputStream {
+
+        /**
+         * Constructor.
+         *
+         * @param inputStream {@link InputStream} to read from.
+         * @param counter {@link LongConsumer} that receives the number of bytes of each read.
+         */
+        CountingInputStream(final InputStream inputStream, final LongConsumer counter) {
+            super(inputStream);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                this.counter.accept(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int length = super.read(b, off, len);
+            if (length > 0) {
+                this.counter.accept(length);
+            }
+            return length;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long length = super.skip(n);
+            if (length > 0) {
+                this.counter.accept(length);
+            }
+            return length;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /** Receives the number of bytes of each read. */
+        private final LongConsumer counter;
+    }
+
+    /**
+     * Output stream that reports the number of bytes written through it. Closing this stream does not close the
+     * stream that it writes to.
+     *
+     * @author Kyle Michel
+     */
+    static class CountingOutputStream extends FilterOutputStream {
+
+        /**
+         * Constructor.
+         *
+         * @param outputStream {@link OutputStream} to write to.
+         * @param counter {@link LongConsumer} that receives the number of bytes of each write.
+         */
+        CountingOutputStream(final OutputStream outputStream, final LongConsumer counter) {
+            super(outputStream);
+            this.counter = counter;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.out.write(b);
+            this.counter.accept(1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            this.out.write(b, off, len);
+            this.counter.accept(len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        /** Receives the number of bytes of each write. */
+        private final LongConsumer counter;
+    }
+}
@@ -0,0 +1,174 @@
+package io.citrine.jcc.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jcc.search.core.query.DataQuery;
+import io.citrine.jcc.search.core.query.Filter;
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.MultiSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+import io.citrine.jcc.search.dataset.query.DatasetQuery;
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Helpers to find the dataset versions behind a search response and to check the current versions of datasets
+ * against the server.
+ *
+ * <p>The current version of a dataset is found with a query for a single record of that dataset that does not
+ * return the record itself. Search only returns records from the latest version of each dataset, so the version of
+ * that record is the current version. The queries for all datasets are sent together as one multi-search, which is
+ * split into several requests if it is larger than the limits of the client.
+ *
+ * @author Kyle Michel
+ */
+final class DatasetVersionProbe {
+
+    // Make sure that objects of this class cannot be instantiated
+    private DatasetVersionProbe() {}
+
+    /**
+     * Read the dataset and dataset version of every hit in the body of a search response. Only the dataset fields are
+     * read; everything else in the body is skipped.
+     *
+     * @param body Array with the body of a successful response.
+     * @return Map from each dataset in the response to its version. The version is a null pointer if a hit from the
+     * dataset did not include it or if hits from the dataset have different versions.
+     * @throws IOException if thrown while reading the body.
+     */
+    static Map<String, Long> readVersions(final byte[] body) throws IOException {
+        final Map<String, Long> versions = new HashMap<>();
+        try (JsonParser parser = SearchCodecs.forBody(body).getObjectMapper().getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected the start of a search response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                if ((parser.nextToken() == JsonToken.START_OBJECT) && RESULTS_FIELD.equals(fieldName)) {
+                    readResultVersions(parser, versions);
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Build the query that finds the current version of each of a list of datasets.
+     *
+     * @param datasets List with the ids of the datasets to check.
+     * @return {@link MultiQuery} with one query for each dataset, in the same order.
+     */
+    static MultiQuery<PifSystemReturningQuery> buildQuery(final List<String> datasets) {
+        final MultiQuery<PifSystemReturningQuery> multiQuery = new MultiQuery<>();
+        for (final String dataset : datasets) {
+            multiQuery.addQueries(new PifSystemReturningQuery()
+                    .setSize(1)
+                    .setReturnSystem(false)
+                    .setScoreRelevance(false)
+                    .addQuery(new DataQuery()
+                            .addDataset(new DatasetQuery()
+                                    .addId(new Filter().setEqual(dataset)))));
+        }
+        return multiQuery;
+    }
+
+    /**
+     * Read the current dataset versions from the result of the query that was built by {@link #buildQuery(List)}.
+     * Datasets whose queries failed are left out since their versions are unknown.
+     *
+     * @param datasets List with the ids of the datasets that were checked.
+     * @param result {@link MultiSearchResult} of the query.
+     * @return Map from each dataset that was checked to its current version, or to a null pointer if the dataset no
+     * longer has any records.
+     */
+    static Map<String, Long> readResult(final List<String> datasets,
+                                        final MultiSearchResult<PifSearchResult> result) {
+        final Map<String, Long> versions = new HashMap<>();
+        for (int i = 0; (i < datasets.size()) && (i < result.resultsLength()); ++i) {
+            final MultiSearchResultElement<PifSearchResult> element = result.getResults(i);
+            if ((element == null) || (element.getStatus() != MultiSearchResultElement.Status.SUCCESS)
+                    || (element.getResult() == null)) {
+                continue;
+            }
+            final PifSearchResult pifResult = element.getResult();
+            versions.put(datasets.get(i),
+                    (pifResult.getNumHits() == 0) ? null : pifResult.getHits(0).getDatasetVersion());
+        }
+        return versions;
+    }
+
+    /**
+     * Read the dataset versions of the hits of a result object.
+     *
+     * @param parser {@link JsonParser} at the start of the result object.
+     * @param versions Map to add the versions to.
+     * @throws IOException if thrown while reading the result.
+     */
+    private static void readResultVersions(final JsonParser parser, final Map<String, Long> versions)
+            throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.getCurrentName();
+            if ((parser.nextToken() == JsonToken.START_ARRAY) && HITS_FIELD.equals(fieldName)) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readHitVersion(parser, versions);
+                }
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Read the dataset version of a single hit.
+     *
+     * @param parser {@link JsonParser} at the start of the hit object.
+     * @param versions Map to add the version to.
+     * @throws IOException if thrown while reading the hit.
+     */
+    private static void readHitVersion(final JsonParser parser, final Map<String, Long> versions)
+            throws IOException {
+        String dataset = null;
+        Long version = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if (DATASET_FIELD.equals(fieldName) && (token == JsonToken.VALUE_STRING)) {
+                dataset = parser.getText();
+            }
+            else if (DATASET_VERSION_FIELD.equals(fieldName) && (token == JsonToken.VALUE_NUMBER_INT)) {
+                version = parser.getLongValue();
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        if (dataset != null) {
+            if (versions.containsKey(dataset) && !Objects.equals(versions.get(dataset), version)) {
+                version = null;
+            }
+            versions.put(dataset, version);
+        }
+    }
+
+    /** Name of the field of a response with the search result. */
+    private static final String RESULTS_FIELD = "results";
+
+    /** Name of the field of a search result with the hits. */
+    private static final String HITS_FIELD = "hits";
+
+    /** Name of the field of a hit with its dataset. */
+    private static final String DATASET_FIELD = "dataset";
+
+    /** Name of the field of a hit with its dataset version. */
+    private static final String DATASET_VERSION_FIELD = "datasetVersion";
+}
@@ -0,0 +1,293 @@
+package io.citrine.jcc.core;
+
+import java.util.Objects;
+
+/**
+ * Policy that controls how fast {@link CitrinationClient} sends requests. Two limits apply to every request:
+ *
+ * <ul>
+ *     <li>A token bucket caps the long-run request rate while still allowing short bursts.</li>
+ *     <li>An adaptive limit caps the number of requests in flight. It grows by one for each round of healthy requests
+ *     and shrinks by a constant factor when the server throttles the client (429 or 503), a request times out or
+ *     the latency of a request rises well above the lowest latency of the last two latency windows (additive
+ *     increase, multiplicative decrease). It shrinks at most once per latency window, so a burst of throttled
+ *     requests only counts once. This keeps throughput close to what the server can actually handle without manual
+ *     tuning.</li>
+ * </ul>
+ *
+ * <p>A request that cannot start right away waits in a queue for up to the maximum wait time, after which it fails
+ * with a {@link RequestThrottledException}. Setting a maximum wait of zero makes requests fail immediately instead.
+ *
+ * @author Kyle Michel
+ */
+public class FlowControlPolicy {
+
+    /**
+     * Set the maximum long-run number of requests per second.
+     *
+     * @param requestsPerSecond Number of requests per second or a non-positive value for no rate limit.
+     * @return This object.
+     */
+    public FlowControlPolicy setRequestsPerSecond(final double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+        return this;
+    }
+
+    /**
+     * Get the maximum long-run number of requests per second.
+     *
+     * @return Number of requests per second or a non-positive value for no rate limit.
+     */
+    public double getRequestsPerSecond() {
+        return this.requestsPerSecond;
+    }
+
+    /**
+     * Set the number of requests that can be sent at once after a quiet period, above the long-run rate.
+     *
+     * @param burstSize Size of a burst.
+     * @return This object.
+     * @throws IllegalArgumentException if the burst size is not positive.
+     */
+    public FlowControlPolicy setBurstSize(final int burstSize) {
+        if (burstSize <= 0) {
+            throw new IllegalArgumentException("Burst size must be positive");
+        }
+        this.burstSize = burstSize;
+        return this;
+    }
+
+    /**
+     * Get the number of requests that can be sent at once after a quiet period.
+     *
+     * @return Size of a burst.
+     */
+    public int getBurstSize() {
+        return this.burstSize;
+    }
+
+    /**
+     * Set the number of requests that can be in flight when the client starts.
+     *
+     * @param initialLimit Initial concurrency limit.
+     * @return This object.
+     * @throws IllegalArgumentException if the limit is not positive.
+     */
+    public FlowControlPolicy setInitialLimit(final int initialLimit) {
+        if (initialLimit <= 0) {
+            throw new IllegalArgumentException("Initial concurrency limit must be positive");
+        }
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    /**
+     * Get the number of requests that can be in flight when the client starts.
+     *
+     * @return Initial concurrency limit.
+     */
+    public int getInitialLimit() {
+        return this.initialLimit;
+    }
+
+    /**
+     * Set the smallest value that the concurrency limit can shrink to.
+     *
+     * @param minLimit Minimum concurrency limit.
+     * @return This object.
+     * @throws IllegalArgumentException if the limit is not positive.
+     */
+    public FlowControlPolicy setMinLimit(final int minLimit) {
+        if (minLimit <= 0) {
+            throw new IllegalArgumentException("Minimum concurrency limit must be positive");
+        }
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    /**
+     * Get the smallest value that the concurrency limit can shrink to.
+     *
+     * @return Minimum concurrency limit.
+     */
+    public int getMinLimit() {
+        return this.minLimit;
+    }
+
+    /**
+     * Set the largest value that the concurrency limit can grow to.
+     *
+     * @param maxLimit Maximum concurrency limit.
+     * @return This object.
+     * @throws IllegalArgumentException if the limit is not positive.
+     */
+    public FlowControlPolicy setMaxLimit(final int maxLimit) {
+        if (maxLimit <= 0) {
+            throw new IllegalArgumentException("Maximum concurrency limit must be positive");
+        }
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * Get the largest value that the concurrency limit can grow to.
+     *
+     * @return Maximum concurrency limit.
+     */
+    public int getMaxLimit() {
+        return this.maxLimit;
+    }
+
+    /**
+     * Set the factor that the concurrency limit is multiplied by when the server shows signs of overload.
+     *
+     * @param backoffRatio Factor between 0 and 1.
+     * @return This object.
+     * @throws IllegalArgumentException if the factor is not between 0 and 1.
+     */
+    public FlowControlPolicy setBackoffRatio(final double backoffRatio) {
+        if ((backoffRatio <= 0.0) || (backoffRatio >= 1.0)) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    /**
+     * Get the factor that the concurrency limit is multiplied by when the server shows signs of overload.
+     *
+     * @return Factor between 0 and 1.
+     */
+    public double getBackoffRatio() {
+        return this.backoffRatio;
+    }
+
+    /**
+     * Set how many times slower than the lowest latency of the last two latency windows a request must be to count
+     * as a sign of overload.
+     *
+     * @param latencyTolerance Ratio of the latency of a request to the lowest recent latency.
+     * @return This object.
+     * @throws IllegalArgumentException if the ratio is not greater than one.
+     */
+    public FlowControlPolicy setLatencyTolerance(final double latencyTolerance) {
+        if (latencyTolerance <= 1.0) {
+            throw new IllegalArgumentException("Latency tolerance must be greater than one");
+        }
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    /**
+     * Get how many times slower than the lowest latency of the last two latency windows a request must be to count
+     * as a sign of overload.
+     *
+     * @return Ratio of the latency of a request to the lowest recent latency.
+     */
+    public double getLatencyTolerance() {
+        return this.latencyTolerance;
+    }
+
+    /**
+     * Set the length of a latency window. The concurrency limit shrinks at most once per window, and the latency that
+     * requests are compared to is the lowest one of the last two windows, so it rises within two windows if every
+     * request gets slower for good.
+     *
+     * @param latencyWindowMillis Length of a latency window in milliseconds.
+     * @return This object.
+     * @throws IllegalArgumentException if the length is not positive.
+     */
+    public FlowControlPolicy setLatencyWindowMillis(final long latencyWindowMillis) {
+        if (latencyWindowMillis <= 0) {
+            throw new IllegalArgumentException("Latency window must be positive");
+        }
+        this.latencyWindowMillis = latencyWindowMillis;
+        return this;
+    }
+
+    /**
+     * Get the length of a latency window.
+     *
+     * @return Length of a latency window in milliseconds.
+     */
+    public long getLatencyWindowMillis() {
+        return this.latencyWindowMillis;
+    }
+
+    /**
+     * Set the longest time that a request waits for permission to be sent.
+     *
+     * @param maxWaitMillis Maximum wait in milliseconds, or zero to fail immediately.
+     * @return This object.
+     * @throws IllegalArgumentException if the wait is negative.
+     */
+    public FlowControlPolicy setMaxWaitMillis(final long maxWaitMillis) {
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Maximum wait cannot be negative");
+        }
+        this.maxWaitMillis = maxWaitMillis;
+        return this;
+    }
+
+    /**
+     * Get the longest time that a request waits for permission to be sent.
+     *
+     * @return Maximum wait in milliseconds, or zero to fail immediately.
+     */
+    public long getMaxWaitMillis() {
+        return this.maxWaitMillis;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof FlowControlPolicy)) {
+            return false;
+        }
+        final FlowControlPolicy rhsPolicy = (FlowControlPolicy) rhs;
+        return (Double.compare(this.requestsPerSecond, rhsPolicy.requestsPerSecond) == 0)
+                && (this.burstSize == rhsPolicy.burstSize)
+                && (this.initialLimit == rhsPolicy.initialLimit)
+                && (this.minLimit == rhsPolicy.minLimit)
+                && (this.maxLimit == rhsPolicy.maxLimit)
+                && (Double.compare(this.backoffRatio, rhsPolicy.backoffRatio) == 0)
+                && (Double.compare(this.latencyTolerance, rhsPolicy.latencyTolerance) == 0)
+                && (this.latencyWindowMillis == rhsPolicy.latencyWindowMillis)
+                && (this.maxWaitMillis == rhsPolicy.maxWaitMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.requestsPerSecond, this.burstSize, this.initialLimit, this.minLimit, this.maxLimit,
+                this.backoffRatio, this.latencyTolerance, this.latencyWindowMillis, this.maxWaitMillis);
+    }
+
+    /** Maximum long-run number of requests per second. */
+    private double requestsPerSecond;
+
+    /** Number of requests that can be sent at once after a quiet period. */
+    private int burstSize = 10;
+
+    /** Initial concurrency limit. */
+    private int initialLimit = 20;
+
+    /** Minimum concurrency limit. */
+    private int minLimit = 1;
+
+    /** Maximum concurrency limit. */
+    private int maxLimit = 200;
+
+    /** Factor that the limit is multiplied by on overload. */
+    private double backoffRatio = 0.9;
+
+    /** Ratio to the lowest recent latency that counts as overload. */
+    private double latencyTolerance = 2.0;
+
+    /** Length of a latency window in milliseconds. */
+    private long latencyWindowMillis = 5000;
+
+    /** Longest wait for permission to send a request in milliseconds. */
+    private long maxWaitMillis = 30000;
+}
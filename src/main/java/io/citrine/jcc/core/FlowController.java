@@ -0,0 +1,384 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.HttpStatus;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Applies a token bucket rate limit and an adaptive concurrency limit to requests. See {@link FlowControlPolicy} for
+ * how the limits behave. Requests that have to wait are queued in arrival order and never block a thread.
+ *
+ * @author Kyle Michel
+ */
+class FlowController {
+
+    /**
+     * Constructor.
+     *
+     * @param policy {@link FlowControlPolicy} with the settings.
+     * @param scheduler {@link ScheduledExecutorService} used to time out waiting requests and to wait for tokens.
+     * @param clock {@link LongSupplier} that returns the current time in milliseconds.
+     */
+    FlowController(final FlowControlPolicy policy, final ScheduledExecutorService scheduler,
+                   final LongSupplier clock) {
+        this.policy = policy;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.limit = Math.max(policy.getMinLimit(), Math.min(policy.getMaxLimit(), policy.getInitialLimit()));
+        this.tokens = policy.getBurstSize();
+        this.lastRefillMillis = clock.getAsLong();
+        this.windowStartMillis = this.lastRefillMillis;
+        this.nextDecreaseMillis = this.lastRefillMillis;
+    }
+
+    /**
+     * Run a request once the rate and concurrency limits allow it.
+     *
+     * @param request {@link Supplier} that sends the request.
+     * @param <T> Type of the result of the request.
+     * @return {@link CompletableFuture} with the result of the request. This completes exceptionally with a
+     * {@link RequestThrottledException} if the request could not start within the maximum wait.
+     */
+    <T> CompletableFuture<T> execute(final Supplier<CompletableFuture<T>> request) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final CompletableFuture<Void> permit = acquire();
+        result.whenComplete((value, throwable) -> permit.cancel(false));
+        permit.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            }
+            else if (result.isDone()) {
+                release();
+            }
+            else {
+                start(request, result);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get the current concurrency limit.
+     *
+     * @return Number of requests that can be in flight.
+     */
+    synchronized int getLimit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * Get the number of requests that are in flight.
+     *
+     * @return Number of requests in flight.
+     */
+    synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    /**
+     * Send a request that has been given permission to start, and update the limit once it completes.
+     *
+     * @param request {@link Supplier} that sends the request.
+     * @param result {@link CompletableFuture} to complete with the outcome.
+     * @param <T> Type of the result of the request.
+     */
+    private <T> void start(final Supplier<CompletableFuture<T>> request, final CompletableFuture<T> result) {
+        final long startMillis = this.clock.getAsLong();
+        final CompletableFuture<T> pending;
+        try {
+            pending = request.get();
+        }
+        catch (RuntimeException e) {
+            onComplete(startMillis, e);
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((value, throwable) -> pending.cancel(true));
+        pending.whenComplete((value, throwable) -> {
+            onComplete(startMillis, (throwable == null) ? null : CitrinationClient.unwrap(throwable));
+            if (throwable == null) {
+                result.complete(value);
+            }
+            else {
+                result.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    /**
+     * Ask for permission to start a request.
+     *
+     * @return {@link CompletableFuture} that completes once the request can start, or completes exceptionally with a
+     * {@link RequestThrottledException} if it cannot start within the maximum wait.
+     */
+    private CompletableFuture<Void> acquire() {
+        final Waiter waiter;
+        synchronized (this) {
+            if (this.waiters.isEmpty() && (this.inFlight < (int) this.limit) && takeToken()) {
+                this.inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (this.policy.getMaxWaitMillis() == 0) {
+                final CompletableFuture<Void> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(new RequestThrottledException("Request limit reached"));
+                return rejected;
+            }
+            waiter = new Waiter();
+            this.waiters.add(waiter);
+        }
+        try {
+            waiter.timeout = this.scheduler.schedule(() -> {
+                synchronized (this) {
+                    if (!this.waiters.remove(waiter)) {
+                        return;
+                    }
+                }
+                waiter.permit.completeExceptionally(new RequestThrottledException(
+                        "Request could not start within " + this.policy.getMaxWaitMillis() + " milliseconds"));
+            }, this.policy.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e) {
+            synchronized (this) {
+                this.waiters.remove(waiter);
+            }
+            waiter.permit.completeExceptionally(new RequestThrottledException("Client is closed"));
+            return waiter.permit;
+        }
+        drain();
+        return waiter.permit;
+    }
+
+    /**
+     * Give up a permission that was granted but not used.
+     */
+    private void release() {
+        synchronized (this) {
+            this.inFlight--;
+        }
+        drain();
+    }
+
+    /**
+     * Record the outcome of a request, adjust the concurrency limit and let waiting requests start.
+     *
+     * @param startMillis Time in milliseconds at which the request started.
+     * @param cause {@link Throwable} that the request failed with or a null pointer if it succeeded.
+     */
+    private void onComplete(final long startMillis, final Throwable cause) {
+        synchronized (this) {
+            final int inFlightBefore = this.inFlight;
+            this.inFlight--;
+            final long now = this.clock.getAsLong();
+            rollLatencyWindow(now);
+            if (isOverload(cause)) {
+                decreaseLimit(now);
+            }
+            else if (cause == null) {
+                final long latencyMillis = Math.max(1, now - startMillis);
+                this.windowMinLatencyMillis = Math.min(this.windowMinLatencyMillis, latencyMillis);
+                this.baselineLatencyMillis = Math.min(this.baselineLatencyMillis, latencyMillis);
+                if (latencyMillis > this.baselineLatencyMillis * this.policy.getLatencyTolerance()) {
+                    decreaseLimit(now);
+                }
+
+                // Only grow the limit if it is actually being used, otherwise it would grow without bound
+                else if (inFlightBefore * 2 >= this.limit) {
+                    this.limit = Math.min(this.policy.getMaxLimit(), this.limit + 1.0 / this.limit);
+                }
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Start a new latency window if the current one has ended. The baseline becomes the lowest latency of the last
+     * two windows, so it follows the latency up within two windows if every request gets slower for good. This must
+     * be called while holding the lock on this object.
+     *
+     * @param now Current time in milliseconds.
+     */
+    private void rollLatencyWindow(final long now) {
+        if (now - this.windowStartMillis < this.policy.getLatencyWindowMillis()) {
+            return;
+        }
+        this.baselineLatencyMillis = Math.min(this.previousWindowMinLatencyMillis, this.windowMinLatencyMillis);
+        this.previousWindowMinLatencyMillis = this.windowMinLatencyMillis;
+        this.windowMinLatencyMillis = Long.MAX_VALUE;
+        this.windowStartMillis = now;
+    }
+
+    /**
+     * Shrink the concurrency limit after a sign of overload, unless it has already shrunk within the last latency
+     * window. A burst of overloaded requests all stem from the same limit, so they only count once. This must be
+     * called while holding the lock on this object.
+     *
+     * @param now Current time in milliseconds.
+     */
+    private void decreaseLimit(final long now) {
+        if (now < this.nextDecreaseMillis) {
+            return;
+        }
+        this.limit = Math.max(this.policy.getMinLimit(), this.limit * this.policy.getBackoffRatio());
+        this.nextDecreaseMillis = now + this.policy.getLatencyWindowMillis();
+    }
+
+    /**
+     * Determine whether an error shows that the server is overloaded.
+     *
+     * @param cause {@link Throwable} to check.
+     * @return True if the server throttled the request or did not answer in time.
+     */
+    private static boolean isOverload(final Throwable cause) {
+        if (cause instanceof CitrinationHttpException) {
+            final int statusCode = ((CitrinationHttpException) cause).getStatusCode();
+            return (statusCode == CitrinationHttpException.TOO_MANY_REQUESTS)
+                    || (statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE);
+        }
+        return (cause instanceof InterruptedIOException) && (cause.getClass() != InterruptedIOException.class)
+                && !(cause instanceof CancellationException);
+    }
+
+    /**
+     * Let as many waiting requests start as the limits allow.
+     */
+    private void drain() {
+        final List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            while (!this.waiters.isEmpty() && (this.inFlight < (int) this.limit)) {
+                final Waiter waiter = this.waiters.peek();
+                if (waiter.permit.isDone()) {
+                    this.waiters.poll();
+                    continue;
+                }
+                if (!takeToken()) {
+                    scheduleRefill();
+                    break;
+                }
+                this.waiters.poll();
+                this.inFlight++;
+                granted.add(waiter);
+            }
+        }
+        for (Waiter i : granted) {
+            if (i.timeout != null) {
+                i.timeout.cancel(false);
+            }
+            if (!i.permit.complete(null)) {
+                release();
+            }
+        }
+    }
+
+    /**
+     * Take a token from the bucket. This must be called while holding the lock on this object.
+     *
+     * @return True if a token was available.
+     */
+    private boolean takeToken() {
+        if (this.policy.getRequestsPerSecond() <= 0) {
+            return true;
+        }
+        final long now = this.clock.getAsLong();
+        this.tokens = Math.min(this.policy.getBurstSize(),
+                this.tokens + (now - this.lastRefillMillis) * this.policy.getRequestsPerSecond() / 1000.0);
+        this.lastRefillMillis = now;
+        if (this.tokens < 1.0) {
+            return false;
+        }
+        this.tokens -= 1.0;
+        return true;
+    }
+
+    /**
+     * Schedule a call to {@link #drain()} for when the next token is available. This must be called while holding
+     * the lock on this object.
+     */
+    private void scheduleRefill() {
+        if (this.refillScheduled) {
+            return;
+        }
+        final long delayMillis = Math.max(1,
+                (long) Math.ceil((1.0 - this.tokens) * 1000.0 / this.policy.getRequestsPerSecond()));
+        try {
+            this.scheduler.schedule(() -> {
+                synchronized (this) {
+                    this.refillScheduled = false;
+                }
+                drain();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+            this.refillScheduled = true;
+        }
+        catch (RejectedExecutionException e) {
+
+            // The client is closing, so waiting requests will time out or be abandoned
+        }
+    }
+
+    /** Settings for flow control. */
+    private final FlowControlPolicy policy;
+
+    /** Scheduler used to time out waiting requests and to wait for tokens. */
+    private final ScheduledExecutorService scheduler;
+
+    /** Source of the current time in milliseconds. */
+    private final LongSupplier clock;
+
+    /** Requests that are waiting to start, in arrival order. */
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+    /** Current concurrency limit. */
+    private double limit;
+
+    /** Number of requests in flight. */
+    private int inFlight;
+
+    /** Lowest latency of a healthy request in the current and previous latency windows in milliseconds. */
+    private long baselineLatencyMillis = Long.MAX_VALUE;
+
+    /** Lowest latency of a healthy request in the current latency window in milliseconds. */
+    private long windowMinLatencyMillis = Long.MAX_VALUE;
+
+    /** Lowest latency of a healthy request in the previous latency window in milliseconds. */
+    private long previousWindowMinLatencyMillis = Long.MAX_VALUE;
+
+    /** Time in milliseconds at which the current latency window started. */
+    private long windowStartMillis;
+
+    /** Time in milliseconds before which the limit is not shrunk again. */
+    private long nextDecreaseMillis;
+
+    /** Number of tokens in the bucket. */
+    private double tokens;
+
+    /** Time in milliseconds at which tokens were last added to the bucket. */
+    private long lastRefillMillis;
+
+    /** Whether a call to drain has been scheduled for when the next token is available. */
+    private boolean refillScheduled;
+
+    /**
+     * Request that is waiting for permission to start.
+     *
+     * @author Kyle Michel
+     */
+    private static class Waiter {
+
+        /** Future that completes when the request can start. */
+        private final CompletableFuture<Void> permit = new CompletableFuture<>();
+
+        /** Task that fails the request if it waits too long. */
+        private volatile ScheduledFuture<?> timeout;
+    }
+}
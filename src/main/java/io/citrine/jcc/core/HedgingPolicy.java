@@ -0,0 +1,173 @@
+package io.citrine.jcc.core;
+
+import java.util.Objects;
+
+/**
+ * Policy that controls hedging of PIF searches. If a search has not been answered after a delay that is derived from
+ * recent latencies, a duplicate request is sent and whichever response arrives first is used, while the other request
+ * is cancelled. This trades a small amount of extra traffic for a large reduction in tail latency when slowness comes
+ * from individual server nodes rather than from the query itself.
+ *
+ * @author Kyle Michel
+ */
+public class HedgingPolicy {
+
+    /**
+     * Set the latency percentile after which a duplicate request is sent. For example, a value of 0.95 means that a
+     * search is hedged once it has taken longer than 95% of recent searches.
+     *
+     * @param percentile Percentile between 0 and 1.
+     * @return This object.
+     * @throws IllegalArgumentException if the percentile is not between 0 and 1.
+     */
+    public HedgingPolicy setPercentile(final double percentile) {
+        if ((percentile <= 0.0) || (percentile >= 1.0)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1");
+        }
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * Get the latency percentile after which a duplicate request is sent.
+     *
+     * @return Percentile between 0 and 1.
+     */
+    public double getPercentile() {
+        return this.percentile;
+    }
+
+    /**
+     * Set the smallest delay before a duplicate request is sent, regardless of recent latencies.
+     *
+     * @param minDelayMillis Minimum hedging delay in milliseconds.
+     * @return This object.
+     * @throws IllegalArgumentException if the delay is negative.
+     */
+    public HedgingPolicy setMinDelayMillis(final long minDelayMillis) {
+        if (minDelayMillis < 0) {
+            throw new IllegalArgumentException("Minimum hedging delay cannot be negative");
+        }
+        this.minDelayMillis = minDelayMillis;
+        return this;
+    }
+
+    /**
+     * Get the smallest delay before a duplicate request is sent.
+     *
+     * @return Minimum hedging delay in milliseconds.
+     */
+    public long getMinDelayMillis() {
+        return this.minDelayMillis;
+    }
+
+    /**
+     * Set the largest number of hedged requests as a fraction of all searches. Hedging stops whenever this budget is
+     * used up, which keeps it from doubling the load on a server that is slow across the board.
+     *
+     * @param maxHedgeRatio Maximum fraction of searches that are hedged.
+     * @return This object.
+     * @throws IllegalArgumentException if the ratio is not between 0 and 1.
+     */
+    public HedgingPolicy setMaxHedgeRatio(final double maxHedgeRatio) {
+        if ((maxHedgeRatio < 0.0) || (maxHedgeRatio > 1.0)) {
+            throw new IllegalArgumentException("Maximum hedge ratio must be between 0 and 1");
+        }
+        this.maxHedgeRatio = maxHedgeRatio;
+        return this;
+    }
+
+    /**
+     * Get the largest number of hedged requests as a fraction of all searches.
+     *
+     * @return Maximum fraction of searches that are hedged.
+     */
+    public double getMaxHedgeRatio() {
+        return this.maxHedgeRatio;
+    }
+
+    /**
+     * Set the number of recent latencies that must be known before any search is hedged.
+     *
+     * @param minSamples Minimum number of latency samples.
+     * @return This object.
+     * @throws IllegalArgumentException if the number of samples is negative.
+     */
+    public HedgingPolicy setMinSamples(final int minSamples) {
+        if (minSamples < 0) {
+            throw new IllegalArgumentException("Minimum number of samples cannot be negative");
+        }
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    /**
+     * Get the number of recent latencies that must be known before any search is hedged.
+     *
+     * @return Minimum number of latency samples.
+     */
+    public int getMinSamples() {
+        return this.minSamples;
+    }
+
+    /**
+     * Set the length of the window of recent latencies that the hedging delay is computed from.
+     *
+     * @param windowMillis Length of the window in milliseconds.
+     * @return This object.
+     * @throws IllegalArgumentException if the window is not positive.
+     */
+    public HedgingPolicy setWindowMillis(final long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Latency window must be positive");
+        }
+        this.windowMillis = windowMillis;
+        return this;
+    }
+
+    /**
+     * Get the length of the window of recent latencies that the hedging delay is computed from.
+     *
+     * @return Length of the window in milliseconds.
+     */
+    public long getWindowMillis() {
+        return this.windowMillis;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof HedgingPolicy)) {
+            return false;
+        }
+        final HedgingPolicy rhsPolicy = (HedgingPolicy) rhs;
+        return (Double.compare(this.percentile, rhsPolicy.percentile) == 0)
+                && (this.minDelayMillis == rhsPolicy.minDelayMillis)
+                && (Double.compare(this.maxHedgeRatio, rhsPolicy.maxHedgeRatio) == 0)
+                && (this.minSamples == rhsPolicy.minSamples)
+                && (this.windowMillis == rhsPolicy.windowMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.percentile, this.minDelayMillis, this.maxHedgeRatio, this.minSamples,
+                this.windowMillis);
+    }
+
+    /** Latency percentile after which a duplicate request is sent. */
+    private double percentile = 0.95;
+
+    /** Smallest hedging delay in milliseconds. */
+    private long minDelayMillis = 10;
+
+    /** Largest fraction of searches that are hedged. */
+    private double maxHedgeRatio = 0.05;
+
+    /** Number of latency samples needed before hedging starts. */
+    private int minSamples = 20;
+
+    /** Length of the window of recent latencies in milliseconds. */
+    private long windowMillis = 60000;
+}
@@ -0,0 +1,169 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.apache.http.nio.protocol.BasicAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Transport that sends requests over HTTP with an Apache async client. This is the transport that
+ * {@link CitrinationClient} uses unless another one is set.
+ *
+ * @author Kyle Michel
+ */
+class HttpSearchTransport implements SearchTransport {
+
+    /**
+     * Constructor.
+     *
+     * @param httpClient {@link CloseableHttpAsyncClient} that has been started. It is closed along with this object.
+     */
+    HttpSearchTransport(final CloseableHttpAsyncClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> execute(final HttpUriRequest request) {
+        final CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        final FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void failed(final Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        };
+        final Future<HttpResponse> pending = this.httpClient.execute(createProducer(request),
+                HttpAsyncMethods.createConsumer(), HttpClientContext.create(), callback);
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                pending.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeStreaming(final HttpUriRequest request) {
+        final StreamingResponseConsumer consumer = new StreamingResponseConsumer(STREAMING_BUFFER_SIZE);
+        final Future<HttpResponse> pending = this.httpClient.execute(
+                createProducer(request), consumer, HttpClientContext.create(), null);
+        final CompletableFuture<HttpResponse> result = consumer.getResponse().thenApply(response -> {
+            if (response.getEntity() != null) {
+                response.setEntity(new AbortingEntity(response.getEntity(), pending));
+            }
+            return response;
+        });
+        result.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                pending.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.httpClient.close();
+    }
+
+    /**
+     * Create the producer that sends a request. A {@link JsonEntity} body gets a producer of its own for each request,
+     * so the body is serialized as the connection takes it and the same entity can be sent by several requests at
+     * once.
+     *
+     * @param request {@link HttpUriRequest} to send.
+     * @return {@link HttpAsyncRequestProducer} for the request.
+     */
+    private static HttpAsyncRequestProducer createProducer(final HttpUriRequest request) {
+        if ((request instanceof HttpEntityEnclosingRequest)
+                && (((HttpEntityEnclosingRequest) request).getEntity() instanceof JsonEntity)) {
+            final HttpEntityEnclosingRequest enclosingRequest = (HttpEntityEnclosingRequest) request;
+            return new JsonRequestProducer(URIUtils.extractHost(request.getURI()), enclosingRequest,
+                    ((JsonEntity) enclosingRequest.getEntity()).newContentProducer());
+        }
+        return HttpAsyncMethods.create(request);
+    }
+
+    /** Number of bytes to buffer between the I/O reactor and the reader of a streaming response. */
+    private static final int STREAMING_BUFFER_SIZE = 64 * 1024;
+
+    /** Client that sends the requests. */
+    private final CloseableHttpAsyncClient httpClient;
+
+    /**
+     * Producer for a request whose body is sent by a {@link HttpAsyncContentProducer} other than its entity.
+     *
+     * @author Kyle Michel
+     */
+    private static class JsonRequestProducer extends BasicAsyncRequestProducer {
+
+        /**
+         * Constructor.
+         *
+         * @param target {@link HttpHost} to send the request to.
+         * @param request {@link HttpEntityEnclosingRequest} to send.
+         * @param producer {@link HttpAsyncContentProducer} that sends the body of the request.
+         */
+        JsonRequestProducer(final HttpHost target, final HttpEntityEnclosingRequest request,
+                            final HttpAsyncContentProducer producer) {
+            super(target, request, producer);
+        }
+    }
+
+    /**
+     * Entity whose content stream aborts the request when it is closed instead of reading the rest of the body.
+     *
+     * @author Kyle Michel
+     */
+    private static class AbortingEntity extends HttpEntityWrapper {
+
+        /**
+         * Constructor.
+         *
+         * @param entity {@link HttpEntity} with the streaming content.
+         * @param pending {@link Future} of the request to abort.
+         */
+        AbortingEntity(final HttpEntity entity, final Future<HttpResponse> pending) {
+            super(entity);
+            this.pending = pending;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public void close() {
+                    AbortingEntity.this.pending.cancel(true);
+                }
+            };
+        }
+
+        /** Request to abort when the content is closed. */
+        private final Future<HttpResponse> pending;
+    }
+}
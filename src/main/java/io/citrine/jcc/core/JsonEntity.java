@@ -0,0 +1,653 @@
+package io.citrine.jcc.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.citrine.jcc.search.core.query.MultiQuery;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.apache.http.util.Args;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request entity that serializes an object to JSON each time that it is sent, rather than holding a serialized copy
+ * of a large body for the life of the request. The entity is repeatable and can be sent by several requests at once,
+ * which retries and hedged requests rely on.
+ *
+ * <p>{@link #writeTo(OutputStream)} writes straight to the output stream of the connection through a
+ * {@link JsonGenerator}. The asynchronous client instead pulls the body on the I/O reactor thread, where a generator
+ * cannot be allowed to block, through a producer from {@link #newContentProducer()} or a stream from
+ * {@link #getContent()}. These serialize the body on demand, one part at a time, into fixed-size segments from a
+ * {@link BufferPool} that are returned to the pool as soon as they have been sent. The parts of a
+ * {@link MultiQuery} or a list are its elements, so a large multi-search is never held in memory as a whole; any other
+ * object is a single part.
+ *
+ * <p>Bodies up to {@link #SIZED_BODY_MAX_BYTES}, or up to the compression threshold if that is larger, are serialized
+ * once when the entity is created, sent from that copy with a Content-Length header, and available from
+ * {@link #getBody()} so that callers do not serialize them again. Serializing a larger body stops as soon as it passes
+ * that size, so each send of a large body is its only full serialization. Larger bodies are sent with chunked
+ * transfer encoding. Bodies above an optional threshold are compressed with gzip as they are written, and are also
+ * sent in chunks.
+ *
+ * @author Kyle Michel
+ */
+class JsonEntity extends AbstractHttpEntity {
+
+    /**
+     * Constructor for an entity that is never compressed and whose sizes are not recorded.
+     *
+     * @param writer {@link ObjectWriter} used to serialize the object.
+     * @param value Object to serialize.
+     * @param bufferPool {@link BufferPool} that supplies segments for the content.
+     * @throws IOException if the object cannot be serialized.
+     */
+    JsonEntity(final ObjectWriter writer, final Object value, final BufferPool bufferPool) throws IOException {
+        this(writer, value, bufferPool, 0, new TransferMetrics());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param writer {@link ObjectWriter} used to serialize the object.
+     * @param value Object to serialize.
+     * @param bufferPool {@link BufferPool} that supplies segments for the content.
+     * @param compressionThresholdBytes Size above which the body is compressed with gzip, or a non-positive value to
+     *                                  never compress it.
+     * @param metrics {@link TransferMetrics} to record the size of the body in each time that it is written.
+     * @throws IOException if the object cannot be serialized.
+     */
+    JsonEntity(final ObjectWriter writer, final Object value, final BufferPool bufferPool,
+               final long compressionThresholdBytes, final TransferMetrics metrics) throws IOException {
+        this.writer = writer;
+        this.value = value;
+        this.bufferPool = bufferPool;
+        this.metrics = metrics;
+        this.parts = partsOf(value);
+
+        // A body that does not fit is abandoned after at most this many bytes, so the only full serialization of a
+        // large body is the one that sends it
+        this.body = serialize(writer, value, Math.max(SIZED_BODY_MAX_BYTES, compressionThresholdBytes));
+        this.gzip = (compressionThresholdBytes > 0)
+                && ((this.body == null) || (this.body.length > compressionThresholdBytes));
+        this.contentLength = (this.gzip || (this.body == null)) ? -1 : this.body.length;
+        setChunked(this.contentLength < 0);
+        if (this.gzip) {
+            setContentEncoding("gzip");
+        }
+    }
+
+    /**
+     * Get the number of bytes in the serialized form of an object, without holding the serialized bytes in memory.
+     *
+     * @param writer {@link ObjectWriter} used to serialize the object.
+     * @param value Object to measure.
+     * @param limit Maximum number of bytes to count.
+     * @return Number of bytes in the serialized object, or -1 if it is larger than the limit.
+     * @throws IOException if the object cannot be serialized.
+     */
+    static long measure(final ObjectWriter writer, final Object value, final long limit) throws IOException {
+        final MeasuringOutputStream outputStream = new MeasuringOutputStream(limit, null);
+        try {
+            write(writer, value, outputStream);
+        }
+        catch (LimitExceededException e) {
+            return -1;
+        }
+        return outputStream.count;
+    }
+
+    /**
+     * Get the object that is serialized into the body of this entity.
+     *
+     * @return Object in the body.
+     */
+    Object getValue() {
+        return this.value;
+    }
+
+    /**
+     * Get the serialized body of this entity, before any compression, if it is small enough to have been kept. The
+     * returned array must not be modified.
+     *
+     * @return Array with the serialized body or a null pointer if the body is serialized each time that it is sent.
+     */
+    byte[] getBody() {
+        return this.body;
+    }
+
+    /**
+     * Get a producer that sends the body of this entity over a non-blocking connection. Each request that sends the
+     * entity needs its own producer, since the producer keeps track of how much of the body has been sent.
+     *
+     * @return {@link HttpAsyncContentProducer} for the body.
+     */
+    HttpAsyncContentProducer newContentProducer() {
+        return new ContentProducer();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return this.contentLength;
+    }
+
+    @Override
+    public InputStream getContent() {
+        return new ContentProducer();
+    }
+
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        Args.notNull(outputStream, "Output stream");
+        if (!this.gzip) {
+            writeValue(new ContentEncodings.CountingOutputStream(outputStream,
+                    length -> this.metrics.recordRequestBytes(length, length)));
+            return;
+        }
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(new ContentEncodings.CountingOutputStream(
+                outputStream, length -> this.metrics.recordRequestBytes(0, length)), GZIP_BUFFER_SIZE)) {
+            writeValue(new ContentEncodings.CountingOutputStream(gzipStream,
+                    length -> this.metrics.recordRequestBytes(length, 0)));
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Write the uncompressed body to an output stream without closing the stream.
+     *
+     * @param outputStream {@link OutputStream} to write to.
+     * @throws IOException if thrown from within this function.
+     */
+    private void writeValue(final OutputStream outputStream) throws IOException {
+        if (this.body != null) {
+            outputStream.write(this.body);
+        }
+        else {
+            write(this.writer, this.value, outputStream);
+        }
+    }
+
+    /**
+     * Serialize an object into an array, unless it is larger than a limit.
+     *
+     * @param writer {@link ObjectWriter} used to serialize the object.
+     * @param value Object to serialize.
+     * @param limit Maximum number of bytes to keep.
+     * @return Array with the serialized object, or a null pointer if it is larger than the limit.
+     * @throws IOException if the object cannot be serialized.
+     */
+    private static byte[] serialize(final ObjectWriter writer, final Object value, final long limit)
+            throws IOException {
+        final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        try {
+            write(writer, value, new MeasuringOutputStream(limit, copy));
+        }
+        catch (LimitExceededException e) {
+            return null;
+        }
+        return copy.toByteArray();
+    }
+
+    /**
+     * Serialize an object to an output stream without closing the stream.
+     *
+     * @param writer {@link ObjectWriter} used to serialize the object.
+     * @param value Object to serialize.
+     * @param outputStream {@link OutputStream} to write to.
+     * @throws IOException if thrown from within this function.
+     */
+    private static void write(final ObjectWriter writer, final Object value, final OutputStream outputStream)
+            throws IOException {
+        try (JsonGenerator generator = createGenerator(writer, outputStream)) {
+            writer.writeValue(generator, value);
+        }
+    }
+
+    /**
+     * Create a generator that writes to an output stream and leaves the stream open when it is closed.
+     *
+     * @param writer {@link ObjectWriter} whose format the generator writes.
+     * @param outputStream {@link OutputStream} to write to.
+     * @return {@link JsonGenerator} object.
+     * @throws IOException if thrown from within this function.
+     */
+    private static JsonGenerator createGenerator(final ObjectWriter writer, final OutputStream outputStream)
+            throws IOException {
+        final JsonGenerator generator = writer.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    /**
+     * Get the elements of an object that can be serialized one at a time.
+     *
+     * @param value Object that is serialized into the body.
+     * @return List with the queries of a non-empty {@link MultiQuery}, the elements of a list or a null pointer if the
+     * object is serialized in one part.
+     */
+    private static List<?> partsOf(final Object value) {
+        if (value instanceof MultiQuery) {
+            return (((MultiQuery<?>) value).queriesLength() == 0) ? null : ((MultiQuery<?>) value).getQueries();
+        }
+        return (value instanceof List) ? (List<?>) value : null;
+    }
+
+    /** Smallest limit in bytes on the bodies that are serialized up front and sent with a Content-Length header. */
+    static final long SIZED_BODY_MAX_BYTES = 64 * 1024;
+
+    /** Name of the field with the list of queries in a serialized {@link MultiQuery}. */
+    private static final String QUERIES_FIELD = "queries";
+
+    /** Number of bytes buffered by the gzip compressor. */
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    /** Writer used to serialize the object. */
+    private final ObjectWriter writer;
+
+    /** Object that is serialized into the body. */
+    private final Object value;
+
+    /** Elements of the object that are serialized one at a time, or a null pointer to serialize it in one part. */
+    private final List<?> parts;
+
+    /** Serialized body if it is small enough to keep, or a null pointer. */
+    private final byte[] body;
+
+    /** Pool that supplies segments for the content. */
+    private final BufferPool bufferPool;
+
+    /** Metrics to record the size of the body in. */
+    private final TransferMetrics metrics;
+
+    /** Whether the body is compressed with gzip. */
+    private final boolean gzip;
+
+    /** Number of bytes in the body or -1 if it is sent in chunks. */
+    private final long contentLength;
+
+    /**
+     * Output stream that counts the bytes written to it and optionally keeps a copy of them.
+     *
+     * @author Kyle Michel
+     */
+    private static class MeasuringOutputStream extends OutputStream {
+
+        /**
+         * Constructor.
+         *
+         * @param limit Number of bytes after which writes fail with a {@link LimitExceededException}.
+         * @param copy {@link ByteArrayOutputStream} to copy the bytes to, or a null pointer to discard them.
+         */
+        MeasuringOutputStream(final long limit, final ByteArrayOutputStream copy) {
+            this.limit = limit;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            add(1);
+            if (this.copy != null) {
+                this.copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            add(len);
+            if (this.copy != null) {
+                this.copy.write(b, off, len);
+            }
+        }
+
+        /**
+         * Add to the number of bytes written.
+         *
+         * @param length Number of bytes that were written.
+         * @throws LimitExceededException if the limit has been passed.
+         */
+        private void add(final int length) throws LimitExceededException {
+            this.count += length;
+            if (this.count > this.limit) {
+                throw new LimitExceededException();
+            }
+        }
+
+        /** Number of bytes after which writes fail. */
+        private final long limit;
+
+        /** Stream that receives a copy of the bytes, or a null pointer. */
+        private final ByteArrayOutputStream copy;
+
+        /** Number of bytes written. */
+        private long count;
+    }
+
+    /**
+     * Error that is thrown to stop measuring an object once it is known to be too large.
+     *
+     * @author Kyle Michel
+     */
+    private static class LimitExceededException extends IOException {
+
+        private static final long serialVersionUID = -1437820461502853947L;
+    }
+
+    /**
+     * Source of the body for a single request. It can be read as a stream or drained into a non-blocking connection.
+     * Whenever everything that has been serialized so far has been read, the next part of the body is serialized
+     * into segments from the pool, so at most one part is held in memory at a time. Closing the object returns its
+     * segments to the pool and starts the body over.
+     *
+     * @author Kyle Michel
+     */
+    private class ContentProducer extends InputStream implements HttpAsyncContentProducer {
+
+        @Override
+        public void produceContent(final ContentEncoder encoder, final IOControl ioControl) throws IOException {
+            while (fill()) {
+                final int length = segmentLength() - this.readPosition;
+                final int written = encoder.write(ByteBuffer.wrap(this.segments.get(this.readIndex),
+                        this.readPosition, length));
+                this.readPosition += written;
+                advance();
+                if (written < length) {
+
+                    // The connection cannot take more right now, so wait to be called again
+                    return;
+                }
+            }
+            encoder.complete();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            final int b = this.segments.get(this.readIndex)[this.readPosition++] & 0xff;
+            advance();
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            final int length = Math.min(len, segmentLength() - this.readPosition);
+            System.arraycopy(this.segments.get(this.readIndex), this.readPosition, b, off, length);
+            this.readPosition += length;
+            advance();
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return hasRemaining() ? segmentLength() - this.readPosition : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (this.generator != null) {
+                    this.generator.close();
+                }
+                if (this.gzipStream != null) {
+                    this.gzipStream.close();
+                }
+            }
+            finally {
+                releaseSegments();
+                this.generator = null;
+                this.gzipStream = null;
+                this.outputStream = null;
+                this.nextPart = 0;
+                this.finished = false;
+            }
+        }
+
+        /**
+         * Make sure that there are serialized bytes to read, serializing the next part of the body if needed.
+         *
+         * @return True if there are bytes to read or false if the whole body has been read.
+         * @throws IOException if thrown while serializing the body.
+         */
+        private boolean fill() throws IOException {
+            while (!hasRemaining()) {
+                releaseSegments();
+                if (this.finished) {
+                    return false;
+                }
+                writeNextPart();
+            }
+            return true;
+        }
+
+        /**
+         * Serialize the next part of the body into segments.
+         *
+         * @throws IOException if thrown while serializing the body.
+         */
+        private void writeNextPart() throws IOException {
+            if ((JsonEntity.this.body != null) && !JsonEntity.this.gzip) {
+
+                // A small body is read straight from the copy that was kept when the entity was created
+                this.segments.add(JsonEntity.this.body);
+                this.writePosition = JsonEntity.this.body.length;
+                this.pooled = false;
+                JsonEntity.this.metrics.recordRequestBytes(this.writePosition, this.writePosition);
+                this.finished = true;
+                return;
+            }
+            if (this.outputStream == null) {
+                this.outputStream = openStream();
+            }
+            if (JsonEntity.this.body != null) {
+                this.outputStream.write(JsonEntity.this.body);
+                finish();
+                return;
+            }
+            if (this.generator == null) {
+                this.generator = createGenerator(JsonEntity.this.writer, this.outputStream);
+            }
+            final List<?> parts = JsonEntity.this.parts;
+            if (parts == null) {
+                JsonEntity.this.writer.writeValue(this.generator, JsonEntity.this.value);
+                finish();
+                return;
+            }
+            if (this.nextPart == 0) {
+                if (JsonEntity.this.value instanceof MultiQuery) {
+                    this.generator.writeStartObject();
+                    this.generator.writeFieldName(QUERIES_FIELD);
+                }
+                this.generator.writeStartArray();
+            }
+            if (this.nextPart < parts.size()) {
+                JsonEntity.this.writer.writeValue(this.generator, parts.get(this.nextPart++));
+                this.generator.flush();
+                return;
+            }
+            this.generator.writeEndArray();
+            if (JsonEntity.this.value instanceof MultiQuery) {
+                this.generator.writeEndObject();
+            }
+            finish();
+        }
+
+        /**
+         * Open the stream that the uncompressed body is written to, which compresses it if needed and collects it in
+         * segments.
+         *
+         * @return {@link OutputStream} to write the uncompressed body to.
+         * @throws IOException if thrown from within this function.
+         */
+        private OutputStream openStream() throws IOException {
+            final OutputStream sink = new OutputStream() {
+                @Override
+                public void write(final int b) {
+                    append(new byte[] {(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(final byte[] b, final int off, final int len) {
+                    append(b, off, len);
+                }
+            };
+            final TransferMetrics metrics = JsonEntity.this.metrics;
+            if (!JsonEntity.this.gzip) {
+                return new ContentEncodings.CountingOutputStream(sink,
+                        length -> metrics.recordRequestBytes(length, length));
+            }
+            this.gzipStream = new GZIPOutputStream(new ContentEncodings.CountingOutputStream(sink,
+                    length -> metrics.recordRequestBytes(0, length)), GZIP_BUFFER_SIZE);
+            return new ContentEncodings.CountingOutputStream(this.gzipStream,
+                    length -> metrics.recordRequestBytes(length, 0));
+        }
+
+        /**
+         * Write out everything that is buffered once the last part has been serialized.
+         *
+         * @throws IOException if thrown from within this function.
+         */
+        private void finish() throws IOException {
+            if (this.generator != null) {
+                this.generator.close();
+                this.generator = null;
+            }
+            this.outputStream.flush();
+            if (this.gzipStream != null) {
+                this.gzipStream.close();
+                this.gzipStream = null;
+            }
+            this.finished = true;
+        }
+
+        /**
+         * Copy serialized bytes into the segments, taking new segments from the pool as needed.
+         *
+         * @param b Array with the bytes.
+         * @param off Offset of the first byte to copy.
+         * @param len Number of bytes to copy.
+         */
+        private void append(final byte[] b, final int off, final int len) {
+            int offset = off;
+            int remaining = len;
+            while (remaining > 0) {
+                if (this.segments.isEmpty() || (this.writePosition == this.segments.get(this.segments.size() - 1)
+                        .length)) {
+                    this.segments.add(JsonEntity.this.bufferPool.acquire());
+                    this.writePosition = 0;
+                }
+                final byte[] segment = this.segments.get(this.segments.size() - 1);
+                final int length = Math.min(remaining, segment.length - this.writePosition);
+                System.arraycopy(b, offset, segment, this.writePosition, length);
+                this.writePosition += length;
+                offset += length;
+                remaining -= length;
+            }
+        }
+
+        /**
+         * Determine whether there are serialized bytes left to read.
+         *
+         * @return True if there are bytes left.
+         */
+        private boolean hasRemaining() {
+            return (this.readIndex < this.segments.size()) && (this.readPosition < segmentLength());
+        }
+
+        /**
+         * Get the number of bytes in the segment being read.
+         *
+         * @return Number of readable bytes in the segment.
+         */
+        private int segmentLength() {
+            return (this.readIndex == this.segments.size() - 1)
+                    ? this.writePosition
+                    : this.segments.get(this.readIndex).length;
+        }
+
+        /**
+         * Move to the next segment once the one being read is done, returning it to the pool. The last segment is
+         * kept until the next part is serialized, since that part may continue it.
+         */
+        private void advance() {
+            if ((this.readPosition == segmentLength()) && (this.readIndex < this.segments.size() - 1)) {
+                JsonEntity.this.bufferPool.release(this.segments.set(this.readIndex++, null));
+                this.readPosition = 0;
+            }
+        }
+
+        /**
+         * Return the segments that have not been read yet to the pool and start with an empty list.
+         */
+        private void releaseSegments() {
+            if (this.pooled) {
+                for (int i = this.readIndex; i < this.segments.size(); ++i) {
+                    JsonEntity.this.bufferPool.release(this.segments.get(i));
+                }
+            }
+            this.segments.clear();
+            this.pooled = true;
+            this.readIndex = 0;
+            this.readPosition = 0;
+            this.writePosition = 0;
+        }
+
+        /** Segments with serialized bytes, in order. Segments that have been read are replaced with null pointers. */
+        private final List<byte[]> segments = new ArrayList<>();
+
+        /** Whether the segments came from the pool, rather than being the kept copy of the body. */
+        private boolean pooled = true;
+
+        /** Index of the segment being read. */
+        private int readIndex;
+
+        /** Position in the segment being read. */
+        private int readPosition;
+
+        /** Number of bytes written to the last segment. */
+        private int writePosition;
+
+        /** Stream that the uncompressed body is written to, or a null pointer if it has not been opened. */
+        private OutputStream outputStream;
+
+        /** Compressor that the body is written through, or a null pointer if it is not open. */
+        private GZIPOutputStream gzipStream;
+
+        /** Generator that writes the parts of the body, or a null pointer if it is not open. */
+        private JsonGenerator generator;
+
+        /** Index of the next part to serialize. */
+        private int nextPart;
+
+        /** Whether the whole body has been serialized. */
+        private boolean finished;
+    }
+}
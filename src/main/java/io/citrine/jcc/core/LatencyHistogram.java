@@ -0,0 +1,139 @@
+package io.citrine.jcc.core;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Histogram of recent request latencies. The window is divided into a fixed number of slots that each cover an equal
+ * span of time, and the oldest slot is cleared as time moves on, so percentiles always reflect roughly the last
+ * window of requests. Latencies are kept in buckets whose width grows geometrically, which bounds the relative error
+ * of a percentile to about 5% over a range of one millisecond to several minutes with a fixed amount of memory.
+ *
+ * @author Kyle Michel
+ */
+class LatencyHistogram {
+
+    /**
+     * Constructor.
+     *
+     * @param windowMillis Length of the window in milliseconds.
+     * @param clock {@link LongSupplier} that returns the current time in milliseconds.
+     */
+    LatencyHistogram(final long windowMillis, final LongSupplier clock) {
+        this.slotMillis = Math.max(1, windowMillis / SLOT_COUNT);
+        this.clock = clock;
+    }
+
+    /**
+     * Record the latency of a request.
+     *
+     * @param latencyMillis Latency of the request in milliseconds.
+     */
+    synchronized void record(final long latencyMillis) {
+        final long epoch = this.clock.getAsLong() / this.slotMillis;
+        final int slot = (int) (epoch % SLOT_COUNT);
+        if (this.slotEpochs[slot] != epoch) {
+            this.slotEpochs[slot] = epoch;
+            this.slotTotals[slot] = 0;
+            Arrays.fill(this.counts[slot], 0);
+        }
+        this.counts[slot][bucketOf(latencyMillis)]++;
+        this.slotTotals[slot]++;
+    }
+
+    /**
+     * Get the number of latencies in the window.
+     *
+     * @return Number of samples in the window.
+     */
+    synchronized long getSampleCount() {
+        final long epoch = this.clock.getAsLong() / this.slotMillis;
+        long total = 0;
+        for (int i = 0; i < SLOT_COUNT; ++i) {
+            if (epoch - this.slotEpochs[i] < SLOT_COUNT) {
+                total += this.slotTotals[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Get a percentile of the latencies in the window.
+     *
+     * @param percentile Percentile between 0 and 1.
+     * @return Upper bound of the latency at the percentile in milliseconds, or -1 if there are no samples.
+     */
+    synchronized long getPercentileMillis(final double percentile) {
+        final long epoch = this.clock.getAsLong() / this.slotMillis;
+        final long[] merged = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < SLOT_COUNT; ++i) {
+            if (epoch - this.slotEpochs[i] < SLOT_COUNT) {
+                for (int j = 0; j < BUCKET_COUNT; ++j) {
+                    merged[j] += this.counts[i][j];
+                }
+                total += this.slotTotals[i];
+            }
+        }
+        if (total == 0) {
+            return -1;
+        }
+        final long target = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += merged[i];
+            if (seen >= target) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Get the bucket that a latency falls into.
+     *
+     * @param latencyMillis Latency in milliseconds.
+     * @return Index of the bucket.
+     */
+    private static int bucketOf(final long latencyMillis) {
+        if (latencyMillis <= 1) {
+            return 0;
+        }
+        final int bucket = (int) Math.ceil(Math.log(latencyMillis) / LOG_GROWTH);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Get the largest latency that falls into a bucket.
+     *
+     * @param bucket Index of the bucket.
+     * @return Upper bound of the bucket in milliseconds.
+     */
+    private static long upperBoundOf(final int bucket) {
+        return (long) Math.floor(Math.exp(bucket * LOG_GROWTH) + 1e-9);
+    }
+
+    /** Number of slots that the window is divided into. */
+    private static final int SLOT_COUNT = 6;
+
+    /** Number of buckets in each slot. */
+    private static final int BUCKET_COUNT = 256;
+
+    /** Log of the ratio between the upper bounds of neighboring buckets. */
+    private static final double LOG_GROWTH = Math.log(1.05);
+
+    /** Span of time covered by each slot in milliseconds. */
+    private final long slotMillis;
+
+    /** Source of the current time in milliseconds. */
+    private final LongSupplier clock;
+
+    /** Epoch that each slot holds counts for. */
+    private final long[] slotEpochs = new long[SLOT_COUNT];
+
+    /** Total number of samples in each slot. */
+    private final long[] slotTotals = new long[SLOT_COUNT];
+
+    /** Counts for each bucket of each slot. */
+    private final long[][] counts = new long[SLOT_COUNT][BUCKET_COUNT];
+}
@@ -0,0 +1,124 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.BaseSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Functions to split a {@link MultiQuery} that is too large to send as a single request into several smaller ones,
+ * and to stitch the results of those requests back together in the original order.
+ *
+ * @author Kyle Michel
+ */
+class MultiQuerySplitter {
+
+    /**
+     * Split a multi-query into shards that each hold at most the maximum number of queries and whose payload is at
+     * most the maximum number of bytes. A query that is larger than the maximum payload on its own is sent in a shard
+     * by itself. Queries keep their relative order across shards.
+     *
+     * @param multiQuery {@link MultiQuery} to split.
+     * @param maxQueries Maximum number of queries in a shard, or a non-positive value for no limit.
+     * @param maxPayloadBytes Maximum number of bytes in the payload of a shard, or a non-positive value for no limit.
+     * @param payloadSize {@link ToLongFunction} that returns the number of bytes that a query adds to a payload. This
+     *                    is only called if there is a limit on the payload size.
+     * @param <T> Type of the queries.
+     * @return List with the shards. This holds the input object if it does not need to be split.
+     */
+    static <T> List<MultiQuery<T>> split(final MultiQuery<T> multiQuery, final int maxQueries,
+                                         final long maxPayloadBytes, final ToLongFunction<T> payloadSize) {
+        final List<T> queries = multiQuery.getQueries();
+        if ((queries == null) || (queries.size() <= 1)
+                || (((maxQueries <= 0) || (queries.size() <= maxQueries)) && (maxPayloadBytes <= 0))) {
+            return Collections.singletonList(multiQuery);
+        }
+        final List<MultiQuery<T>> shards = new ArrayList<>();
+        List<T> shard = new ArrayList<>();
+        long shardBytes = 0;
+        for (T query : queries) {
+            final long queryBytes = (maxPayloadBytes > 0) ? payloadSize.applyAsLong(query) : 0;
+            final boolean full = ((maxQueries > 0) && (shard.size() >= maxQueries))
+                    || ((maxPayloadBytes > 0) && (shardBytes + queryBytes > maxPayloadBytes));
+            if (full && !shard.isEmpty()) {
+                shards.add(new MultiQuery<T>().setQueries(shard));
+                shard = new ArrayList<>();
+                shardBytes = 0;
+            }
+            shard.add(query);
+            shardBytes += queryBytes;
+        }
+        if (shards.isEmpty()) {
+            return Collections.singletonList(multiQuery);
+        }
+        shards.add(new MultiQuery<T>().setQueries(shard));
+        return shards;
+    }
+
+    /**
+     * Stitch the results of several shards back into a single result. Shards that failed are replaced by one
+     * {@link MultiSearchResultElement.Status#ERROR} element per query that holds the error of the shard, and shards that returned fewer elements than
+     * they had queries are padded with {@link MultiSearchResultElement.Status#NOT_EXECUTED} elements, so that element
+     * i of the result always belongs to query i of the original multi-query. The took value of the result is the
+     * largest took of any shard and the total took is the sum over all shards.
+     *
+     * @param shards List with the shards that were sent, in order.
+     * @param results List with the result of each shard, or a null pointer for each shard that failed.
+     * @param errors List with the error of each shard that failed, or a null pointer for each shard that succeeded.
+     * @param <T> Type of the queries.
+     * @param <R> Type of the result of a single query.
+     * @return {@link MultiSearchResult} with the stitched results.
+     */
+    static <T, R extends BaseSearchResult<?>> MultiSearchResult<R> merge(final List<MultiQuery<T>> shards,
+                                                                         final List<MultiSearchResult<R>> results,
+                                                                         final List<Throwable> errors) {
+        final List<MultiSearchResultElement<R>> elements = new ArrayList<>();
+        Long took = null;
+        Long totalTook = null;
+        for (int i = 0; i < shards.size(); ++i) {
+            final int queryCount = shards.get(i).queriesLength();
+            final MultiSearchResult<R> result = results.get(i);
+            if (result == null) {
+                addElements(elements, queryCount, MultiSearchResultElement.Status.ERROR, errors.get(i));
+                continue;
+            }
+            if (result.getTook() != null) {
+                took = (took == null) ? result.getTook() : Math.max(took, result.getTook());
+                totalTook = ((totalTook == null) ? 0 : totalTook) + result.getTook();
+            }
+            final int resultCount = Math.min(result.resultsLength(), queryCount);
+            for (int j = 0; j < resultCount; ++j) {
+                elements.add(result.getResults(j));
+            }
+            addElements(elements, queryCount - resultCount, MultiSearchResultElement.Status.NOT_EXECUTED, null);
+        }
+        return new MultiSearchResult<R>()
+                .setTook(took)
+                .setTotalTook(totalTook)
+                .setResults(elements);
+    }
+
+    /**
+     * Add elements without a result to a list.
+     *
+     * @param elements List to add to.
+     * @param count Number of elements to add.
+     * @param status {@link MultiSearchResultElement.Status} of the new elements.
+     * @param error {@link Throwable} that kept the queries from being answered or a null pointer if not known.
+     * @param <R> Type of the result of a single query.
+     */
+    private static <R> void addElements(final List<MultiSearchResultElement<R>> elements, final int count,
+                                        final MultiSearchResultElement.Status status, final Throwable error) {
+        for (int i = 0; i < count; ++i) {
+            elements.add(new MultiSearchResultElement<R>().setStatus(status).setError(error));
+        }
+    }
+
+    // Make sure that objects of this class cannot be instantiated
+    private MultiQuerySplitter() {}
+}
@@ -0,0 +1,38 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+
+/**
+ * Error that is thrown when a single search was sent as part of a batched multi-search and the server did not return
+ * a result for it. Queries that were not executed are marked as retryable, while queries that failed with an error
+ * are not.
+ *
+ * @author Kyle Michel
+ */
+public class MultiSearchElementException extends CitrinationException {
+
+    /**
+     * Constructor.
+     *
+     * @param message String with the description of the error.
+     * @param status {@link MultiSearchResultElement.Status} that the server reported for the query.
+     */
+    public MultiSearchElementException(final String message, final MultiSearchResultElement.Status status) {
+        super(message, status == MultiSearchResultElement.Status.NOT_EXECUTED);
+        this.status = status;
+    }
+
+    /**
+     * Get the status that the server reported for the query.
+     *
+     * @return {@link MultiSearchResultElement.Status} of the query.
+     */
+    public MultiSearchResultElement.Status getStatus() {
+        return this.status;
+    }
+
+    private static final long serialVersionUID = 5270413869357460928L;
+
+    /** Status that the server reported for the query. */
+    private final MultiSearchResultElement.Status status;
+}
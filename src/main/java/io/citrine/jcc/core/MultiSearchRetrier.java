@@ -0,0 +1,243 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.BaseSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Resends the queries of a multi-search whose elements came back with a status of
+ * {@link MultiSearchResultElement.Status#ERROR} or {@link MultiSearchResultElement.Status#NOT_EXECUTED}, following a
+ * {@link RetryPolicy}. Queries that succeeded are never sent again. The outcome of each retry is written
+ * back into the original result at the index of its query.
+ *
+ * @param <T> Type of the queries.
+ * @param <R> Type of the result of a single query.
+ * @author Kyle Michel
+ */
+class MultiSearchRetrier<T, R extends BaseSearchResult<?>> {
+
+    /**
+     * Constructor.
+     *
+     * @param sender {@link Function} that sends a multi-query and returns its result.
+     * @param scheduler {@link ScheduledExecutorService} used to wait between retries.
+     * @param policy {@link RetryPolicy} that controls the retries.
+     */
+    MultiSearchRetrier(final Function<MultiQuery<T>, CompletableFuture<MultiSearchResult<R>>> sender,
+                       final ScheduledExecutorService scheduler, final RetryPolicy policy) {
+        this.sender = sender;
+        this.scheduler = scheduler;
+        this.policy = policy;
+    }
+
+    /**
+     * Send a multi-search and retry its failed queries until they all succeed or the policy runs out of attempts.
+     * Cancelling the returned future cancels whichever attempt is in flight.
+     *
+     * @param multiQuery {@link MultiQuery} to send.
+     * @return {@link CompletableFuture} with the result. This fails with the error of the first attempt if it fails,
+     * or with the error of a retry that is not retryable.
+     */
+    CompletableFuture<MultiSearchResult<R>> execute(final MultiQuery<T> multiQuery) {
+        final CompletableFuture<MultiSearchResult<R>> future = new CompletableFuture<>();
+        final CompletableFuture<MultiSearchResult<R>> pending;
+        try {
+            pending = this.sender.apply(multiQuery);
+        }
+        catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.whenComplete((value, throwable) -> pending.cancel(true));
+        pending.whenComplete((first, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(CitrinationClient.unwrap(throwable));
+            }
+            else {
+                attempt(multiQuery, first, future, 1, 0);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Schedule the next retry of the failed queries of a multi-search, or complete the future if there is nothing
+     * left to retry.
+     *
+     * @param multiQuery {@link MultiQuery} that was sent.
+     * @param result {@link MultiSearchResult} to update.
+     * @param future {@link CompletableFuture} to complete with the outcome.
+     * @param attempt Number of attempts that have been made so far.
+     * @param previousBackoffMillis Number of milliseconds waited before the previous retry, or zero if there was none.
+     */
+    private void attempt(final MultiQuery<T> multiQuery, final MultiSearchResult<R> result,
+                         final CompletableFuture<MultiSearchResult<R>> future, final int attempt,
+                         final long previousBackoffMillis) {
+        final List<Integer> failed = findFailed(multiQuery, result);
+        if (failed.isEmpty() || (attempt >= this.policy.getMaxAttempts())) {
+            future.complete(result);
+            return;
+        }
+        final long backoffMillis = this.policy.getBackoffMillis(previousBackoffMillis);
+        final Runnable send = () -> send(multiQuery, result, future, failed, attempt, backoffMillis);
+        if (backoffMillis <= 0) {
+            send.run();
+            return;
+        }
+        try {
+            this.scheduler.schedule(send, backoffMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e) {
+            future.complete(result);
+        }
+    }
+
+    /**
+     * Send the failed queries of a multi-search again and write their outcome back into the result.
+     *
+     * @param multiQuery {@link MultiQuery} that was sent.
+     * @param result {@link MultiSearchResult} to update.
+     * @param future {@link CompletableFuture} to complete with the outcome.
+     * @param failed List with the indices of the queries to send.
+     * @param attempt Number of attempts that have been made before this one.
+     * @param backoffMillis Number of milliseconds waited before this retry.
+     */
+    private void send(final MultiQuery<T> multiQuery, final MultiSearchResult<R> result,
+                      final CompletableFuture<MultiSearchResult<R>> future, final List<Integer> failed,
+                      final int attempt, final long backoffMillis) {
+        if (future.isDone()) {
+            return;
+        }
+        final List<T> queries = new ArrayList<>(failed.size());
+        for (int i : failed) {
+            queries.add(multiQuery.getQueries(i));
+        }
+        final CompletableFuture<MultiSearchResult<R>> pending;
+        try {
+            pending = this.sender.apply(new MultiQuery<T>().setQueries(queries));
+        }
+        catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        future.whenComplete((value, throwable) -> pending.cancel(true));
+        pending.whenComplete((retried, throwable) -> {
+            if (throwable == null) {
+                merge(result, failed, retried);
+            }
+            else {
+                final Throwable cause = CitrinationClient.unwrap(throwable);
+                if (!RequestRetrier.isRetryable(cause) || RequestRetrier.isClientRejection(cause)) {
+                    future.completeExceptionally(cause);
+                    return;
+                }
+                markFailed(result, failed, cause);
+            }
+            attempt(multiQuery, result, future, attempt + 1, backoffMillis);
+        });
+    }
+
+    /**
+     * Find the indices of the queries that need to be sent again.
+     *
+     * @param multiQuery {@link MultiQuery} that was sent.
+     * @param result {@link MultiSearchResult} that was received.
+     * @return List with the indices of the queries to retry, in order.
+     */
+    private List<Integer> findFailed(final MultiQuery<T> multiQuery, final MultiSearchResult<R> result) {
+        final List<Integer> failed = new ArrayList<>();
+        final int resultCount = result.resultsLength();
+        for (int i = 0; i < multiQuery.queriesLength(); ++i) {
+            if ((i >= resultCount) || isFailed(result.getResults(i))) {
+                failed.add(i);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Determine whether an element needs to be sent again.
+     *
+     * @param element {@link MultiSearchResultElement} to check.
+     * @return True if the query of the element failed or was not run.
+     */
+    private static boolean isFailed(final MultiSearchResultElement<?> element) {
+        return (element == null)
+                || (element.getStatus() == MultiSearchResultElement.Status.ERROR)
+                || (element.getStatus() == MultiSearchResultElement.Status.NOT_EXECUTED);
+    }
+
+    /**
+     * Write the outcome of a retry back into the original result.
+     *
+     * @param result {@link MultiSearchResult} to update.
+     * @param indices List with the index in the original result of each query that was retried.
+     * @param retried {@link MultiSearchResult} of the retry.
+     * @param <R> Type of the result of a single query.
+     */
+    private static <R extends BaseSearchResult<?>> void merge(final MultiSearchResult<R> result,
+                                                              final List<Integer> indices,
+                                                              final MultiSearchResult<R> retried) {
+        final List<MultiSearchResultElement<R>> elements = (result.getResults() == null)
+                ? new ArrayList<>()
+                : new ArrayList<>(result.getResults());
+        final int retriedCount = Math.min(indices.size(), retried.resultsLength());
+        for (int i = 0; i < retriedCount; ++i) {
+            final int index = indices.get(i);
+            while (elements.size() <= index) {
+                elements.add(new MultiSearchResultElement<R>().setStatus(MultiSearchResultElement.Status.NOT_EXECUTED));
+            }
+            elements.set(index, retried.getResults(i));
+        }
+        result.setResults(elements);
+        final Long retriedTook = (retried.getTotalTook() != null) ? retried.getTotalTook() : retried.getTook();
+        if (retriedTook != null) {
+            final Long totalTook = (result.getTotalTook() != null) ? result.getTotalTook() : result.getTook();
+            result.setTotalTook(((totalTook == null) ? 0 : totalTook) + retriedTook);
+        }
+    }
+
+    /**
+     * Mark the queries of a retry that failed as a whole with the error of the retry, so that the caller can see why
+     * they failed if there are no more retries.
+     *
+     * @param result {@link MultiSearchResult} to update.
+     * @param indices List with the index in the original result of each query that was retried.
+     * @param error {@link Throwable} that the retry failed with.
+     * @param <R> Type of the result of a single query.
+     */
+    private static <R extends BaseSearchResult<?>> void markFailed(final MultiSearchResult<R> result,
+                                                                   final List<Integer> indices,
+                                                                   final Throwable error) {
+        final List<MultiSearchResultElement<R>> elements = (result.getResults() == null)
+                ? new ArrayList<>()
+                : new ArrayList<>(result.getResults());
+        for (final int index : indices) {
+            while (elements.size() <= index) {
+                elements.add(null);
+            }
+            elements.set(index, new MultiSearchResultElement<R>()
+                    .setStatus(MultiSearchResultElement.Status.ERROR)
+                    .setError(error));
+        }
+        result.setResults(elements);
+    }
+
+    /** Function that sends a multi-query. */
+    private final Function<MultiQuery<T>, CompletableFuture<MultiSearchResult<R>>> sender;
+
+    /** Scheduler used to wait between retries. */
+    private final ScheduledExecutorService scheduler;
+
+    /** Policy that controls the retries. */
+    private final RetryPolicy policy;
+}
@@ -0,0 +1,254 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.pif.result.PifSearchHit;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator that walks over every hit of a query by requesting consecutive pages. Once the first page has told
+ * us the total number of hits, later pages are requested ahead of the consumer so that up to
+ * {@link ScanOptions#getPrefetchPages()} pages are in flight or waiting at any time. Hits are always returned in
+ * order, and pages that finish early are held until the consumer reaches them, so a slow page only delays the hits
+ * that come after it. If the server returns fewer hits than were asked for, for example because it caps the page
+ * size, the rest of the page is requested before any later page and later pages are made smaller to match.
+ *
+ * @author Kyle Michel
+ */
+class PifSearchHitScanner implements Spliterator<PifSearchHit>, AutoCloseable {
+
+    /**
+     * Constructor.
+     *
+     * @param pageFetcher {@link PageFetcher} used to request a single page.
+     * @param from Index of the first hit to return.
+     * @param options {@link ScanOptions} with the settings for the scan.
+     */
+    PifSearchHitScanner(final PageFetcher pageFetcher, final int from, final ScanOptions options) {
+        this.pageFetcher = pageFetcher;
+        this.pageSize = options.getPageSize();
+        this.prefetchPages = options.getPrefetchPages();
+        this.position = from;
+        this.nextFrom = from;
+        this.end = (options.getMaxHits() == null) ? Long.MAX_VALUE : from + options.getMaxHits();
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super PifSearchHit> action) {
+        while (!this.currentPage.hasNext()) {
+            if (!advancePage()) {
+                return false;
+            }
+        }
+        this.position++;
+        action.accept(this.currentPage.next());
+        return true;
+    }
+
+    @Override
+    public Spliterator<PifSearchHit> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.totalKnown ? Math.max(0, this.end - this.position) : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+
+    /**
+     * Cancel any pages that are still pending. Hits that have already been returned are not affected.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.currentPage = Collections.emptyIterator();
+        while (!this.pendingPages.isEmpty()) {
+            this.pendingPages.poll().result.cancel(true);
+        }
+    }
+
+    /**
+     * Move to the next page of hits, waiting for it if it has not arrived yet.
+     *
+     * @return True if a new page is available or false if all hits have been returned.
+     * @throws UncheckedIOException if the page could not be fetched.
+     */
+    private boolean advancePage() {
+        if (this.closed) {
+            return false;
+        }
+        fillWindow();
+        final PendingPage pendingPage = this.pendingPages.poll();
+        if (pendingPage == null) {
+            return false;
+        }
+        final PifSearchResult page = awaitPage(pendingPage.result);
+        if (!this.totalKnown) {
+            this.totalKnown = true;
+            if (page.getTotalNumHits() != null) {
+                this.end = Math.min(this.end, page.getTotalNumHits());
+            }
+            fillWindow();
+        }
+        if (page.getNumHits() == 0) {
+
+            // The result set shrank while scanning, so there is nothing more to return
+            close();
+            return false;
+        }
+        if ((page.getNumHits() < pendingPage.size) && (pendingPage.from + page.getNumHits() < this.end)) {
+
+            // The server returned fewer hits than were asked for, so request the rest before any later page
+            this.pageSize = Math.min(this.pageSize, page.getNumHits());
+            final long from = pendingPage.from + page.getNumHits();
+            this.pendingPages.addFirst(fetch(from, (int) Math.min(pendingPage.size - page.getNumHits(),
+                    this.end - from)));
+        }
+        this.currentPage = page.iterator();
+        return true;
+    }
+
+    /**
+     * Request pages until the window is full or all pages have been requested. Only the first page is requested
+     * until the total number of hits is known.
+     */
+    private void fillWindow() {
+        final int windowSize = this.totalKnown ? this.prefetchPages : 1;
+        while ((this.pendingPages.size() < windowSize) && (this.nextFrom < this.end)) {
+            final int size = (int) Math.min(this.pageSize, this.end - this.nextFrom);
+            this.pendingPages.add(fetch(this.nextFrom, size));
+            this.nextFrom += size;
+        }
+    }
+
+    /**
+     * Request a single page.
+     *
+     * @param from Index of the first hit in the page.
+     * @param size Number of hits in the page.
+     * @return {@link PendingPage} with the request.
+     */
+    private PendingPage fetch(final long from, final int size) {
+        return new PendingPage(from, size, this.pageFetcher.fetch((int) from, size));
+    }
+
+    /**
+     * Wait for a page to arrive.
+     *
+     * @param pendingPage {@link CompletableFuture} with the page.
+     * @return {@link PifSearchResult} with the page.
+     * @throws UncheckedIOException if the page could not be fetched.
+     */
+    private PifSearchResult awaitPage(final CompletableFuture<PifSearchResult> pendingPage) {
+        try {
+            return pendingPage.get();
+        }
+        catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Interrupted while waiting for page", e));
+        }
+        catch (ExecutionException e) {
+            close();
+            final Throwable cause = CitrinationClient.unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new UncheckedIOException("Failed to fetch page", (cause instanceof IOException)
+                    ? (IOException) cause
+                    : new IOException(cause));
+        }
+    }
+
+    /** Function used to request a single page. */
+    private final PageFetcher pageFetcher;
+
+    /** Number of hits in each page. This shrinks if the server returns fewer hits than were asked for. */
+    private int pageSize;
+
+    /** Number of pages to keep in flight. */
+    private final int prefetchPages;
+
+    /** Pages that have been requested but not yet consumed, in order. */
+    private final Deque<PendingPage> pendingPages = new ArrayDeque<>();
+
+    /** Hits in the page that is currently being consumed. */
+    private Iterator<PifSearchHit> currentPage = Collections.emptyIterator();
+
+    /** Index of the first hit of the next page to request. */
+    private long nextFrom;
+
+    /** Index one past the last hit to return. */
+    private long end;
+
+    /** Index of the next hit to hand to the consumer. */
+    private long position;
+
+    /** Whether the total number of hits is known. */
+    private boolean totalKnown;
+
+    /** Whether the scan has been closed. */
+    private boolean closed;
+
+    /**
+     * Page that has been requested.
+     *
+     * @author Kyle Michel
+     */
+    private static class PendingPage {
+
+        /**
+         * Constructor.
+         *
+         * @param from Index of the first hit in the page.
+         * @param size Number of hits that were asked for.
+         * @param result {@link CompletableFuture} with the page.
+         */
+        PendingPage(final long from, final int size, final CompletableFuture<PifSearchResult> result) {
+            this.from = from;
+            this.size = size;
+            this.result = result;
+        }
+
+        /** Index of the first hit in the page. */
+        final long from;
+
+        /** Number of hits that were asked for. */
+        final int size;
+
+        /** Page that was returned. */
+        final CompletableFuture<PifSearchResult> result;
+    }
+
+    /**
+     * Function that requests a single page of hits.
+     *
+     * @author Kyle Michel
+     */
+    @FunctionalInterface
+    interface PageFetcher {
+
+        /**
+         * Request a page of hits.
+         *
+         * @param from Index of the first hit in the page.
+         * @param size Number of hits in the page.
+         * @return {@link CompletableFuture} with the page.
+         */
+        CompletableFuture<PifSearchResult> fetch(int from, int size);
+    }
+}
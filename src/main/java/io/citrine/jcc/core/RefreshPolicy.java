@@ -0,0 +1,148 @@
+package io.citrine.jcc.core;
+
+import java.util.Objects;
+
+/**
+ * Policy that controls background refreshes of results in the in-process result cache. A cached result becomes
+ * stale once it is older than {@link #getStaleAfterMillis()}. A stale result is still returned right away until it
+ * expires from the cache, and the first caller to see it starts a refresh in the background so that later callers
+ * get the new result without waiting for the server. Results that are read often are refreshed a little before they
+ * become stale so that they are never served stale at all.
+ *
+ * <p>Only a limited number of refreshes run at once. Refreshes that would go over the limit are skipped and tried
+ * again on a later read, so a burst of results going stale at the same time cannot flood the server.
+ *
+ * @author Kyle Michel
+ */
+public class RefreshPolicy {
+
+    /**
+     * Set the age in milliseconds after which a cached result is refreshed the next time that it is read. This
+     * should be shorter than the cache time to live; a result that has expired from the cache is never served.
+     *
+     * @param staleAfterMillis Age of a stale result in milliseconds.
+     * @return This object.
+     * @throws IllegalArgumentException if the age is not positive.
+     */
+    public RefreshPolicy setStaleAfterMillis(final long staleAfterMillis) {
+        if (staleAfterMillis <= 0) {
+            throw new IllegalArgumentException("Stale age must be positive");
+        }
+        this.staleAfterMillis = staleAfterMillis;
+        return this;
+    }
+
+    /**
+     * Get the age in milliseconds after which a cached result is refreshed the next time that it is read.
+     *
+     * @return Age of a stale result in milliseconds.
+     */
+    public long getStaleAfterMillis() {
+        return this.staleAfterMillis;
+    }
+
+    /**
+     * Set how many milliseconds before it becomes stale a frequently read result is refreshed.
+     *
+     * @param refreshAheadMillis Number of milliseconds before a result becomes stale.
+     * @return This object.
+     * @throws IllegalArgumentException if the time is negative.
+     */
+    public RefreshPolicy setRefreshAheadMillis(final long refreshAheadMillis) {
+        if (refreshAheadMillis < 0) {
+            throw new IllegalArgumentException("Refresh ahead time cannot be negative");
+        }
+        this.refreshAheadMillis = refreshAheadMillis;
+        return this;
+    }
+
+    /**
+     * Get how many milliseconds before it becomes stale a frequently read result is refreshed.
+     *
+     * @return Number of milliseconds before a result becomes stale.
+     */
+    public long getRefreshAheadMillis() {
+        return this.refreshAheadMillis;
+    }
+
+    /**
+     * Set the number of times that a result must have been read since it was cached to be refreshed ahead of time.
+     *
+     * @param refreshAheadMinHits Minimum number of reads of a result.
+     * @return This object.
+     * @throws IllegalArgumentException if the number of reads is not positive.
+     */
+    public RefreshPolicy setRefreshAheadMinHits(final int refreshAheadMinHits) {
+        if (refreshAheadMinHits <= 0) {
+            throw new IllegalArgumentException("Minimum number of hits must be positive");
+        }
+        this.refreshAheadMinHits = refreshAheadMinHits;
+        return this;
+    }
+
+    /**
+     * Get the number of times that a result must have been read since it was cached to be refreshed ahead of time.
+     *
+     * @return Minimum number of reads of a result.
+     */
+    public int getRefreshAheadMinHits() {
+        return this.refreshAheadMinHits;
+    }
+
+    /**
+     * Set the largest number of refreshes that can run at the same time.
+     *
+     * @param maxConcurrentRefreshes Maximum number of refreshes in flight.
+     * @return This object.
+     * @throws IllegalArgumentException if the number of refreshes is not positive.
+     */
+    public RefreshPolicy setMaxConcurrentRefreshes(final int maxConcurrentRefreshes) {
+        if (maxConcurrentRefreshes <= 0) {
+            throw new IllegalArgumentException("Maximum number of concurrent refreshes must be positive");
+        }
+        this.maxConcurrentRefreshes = maxConcurrentRefreshes;
+        return this;
+    }
+
+    /**
+     * Get the largest number of refreshes that can run at the same time.
+     *
+     * @return Maximum number of refreshes in flight.
+     */
+    public int getMaxConcurrentRefreshes() {
+        return this.maxConcurrentRefreshes;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof RefreshPolicy)) {
+            return false;
+        }
+        final RefreshPolicy rhsPolicy = (RefreshPolicy) rhs;
+        return (this.staleAfterMillis == rhsPolicy.staleAfterMillis)
+                && (this.refreshAheadMillis == rhsPolicy.refreshAheadMillis)
+                && (this.refreshAheadMinHits == rhsPolicy.refreshAheadMinHits)
+                && (this.maxConcurrentRefreshes == rhsPolicy.maxConcurrentRefreshes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.staleAfterMillis, this.refreshAheadMillis, this.refreshAheadMinHits,
+                this.maxConcurrentRefreshes);
+    }
+
+    /** Age in milliseconds after which a cached result is stale. */
+    private long staleAfterMillis = 60000;
+
+    /** Number of milliseconds before a frequently read result becomes stale that it is refreshed. */
+    private long refreshAheadMillis = 10000;
+
+    /** Number of reads since a result was cached for it to be refreshed ahead of time. */
+    private int refreshAheadMinHits = 10;
+
+    /** Largest number of refreshes in flight. */
+    private int maxConcurrentRefreshes = 4;
+}
@@ -0,0 +1,172 @@
+package io.citrine.jcc.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sends a duplicate of a request that has not been answered within a percentile of recent latencies, and completes
+ * with whichever response arrives first. See {@link HedgingPolicy} for the settings.
+ *
+ * <p>The number of duplicates is limited by a budget that earns a fraction of a token for each request and spends a
+ * whole token for each duplicate, so the long-run fraction of hedged requests never exceeds the ratio in the policy
+ * and a sudden slowdown cannot double the traffic to the server.
+ *
+ * @author Kyle Michel
+ */
+class RequestHedger {
+
+    /**
+     * Constructor.
+     *
+     * @param policy {@link HedgingPolicy} with the settings.
+     * @param scheduler {@link ScheduledExecutorService} used to send duplicate requests.
+     * @param clock {@link LongSupplier} that returns the current time in milliseconds.
+     */
+    RequestHedger(final HedgingPolicy policy, final ScheduledExecutorService scheduler, final LongSupplier clock) {
+        this.policy = policy;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.histogram = new LatencyHistogram(policy.getWindowMillis(), clock);
+    }
+
+    /**
+     * Run a request with hedging.
+     *
+     * @param request {@link Supplier} that sends the request each time that it is called.
+     * @param <T> Type of the result of the request.
+     * @return {@link CompletableFuture} with the first result to arrive.
+     */
+    <T> CompletableFuture<T> execute(final Supplier<CompletableFuture<T>> request) {
+        earnBudget();
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger pendingCount = new AtomicInteger(1);
+        final CompletableFuture<T> primary = send(request, result, pendingCount);
+        result.whenComplete((value, throwable) -> primary.cancel(true));
+
+        final long delayMillis = getDelayMillis();
+        if ((delayMillis >= 0) && !result.isDone()) {
+            try {
+                final ScheduledFuture<?> hedge = this.scheduler.schedule(() -> {
+                    if (!result.isDone() && spendBudget()) {
+                        this.hedgeCount.increment();
+                        pendingCount.incrementAndGet();
+                        final CompletableFuture<T> duplicate = send(request, result, pendingCount);
+                        result.whenComplete((value, throwable) -> duplicate.cancel(true));
+                    }
+                }, delayMillis, TimeUnit.MILLISECONDS);
+                result.whenComplete((value, throwable) -> hedge.cancel(false));
+            }
+            catch (RejectedExecutionException e) {
+
+                // The client is closing, so just wait for the primary request
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of duplicate requests that have been sent.
+     *
+     * @return Number of hedged requests.
+     */
+    long getHedgeCount() {
+        return this.hedgeCount.sum();
+    }
+
+    /**
+     * Get the current delay before a duplicate request is sent.
+     *
+     * @return Delay in milliseconds or a negative value if requests should not be hedged yet.
+     */
+    long getDelayMillis() {
+        if (this.histogram.getSampleCount() < Math.max(1, this.policy.getMinSamples())) {
+            return -1;
+        }
+        final long percentileMillis = this.histogram.getPercentileMillis(this.policy.getPercentile());
+        return Math.max(this.policy.getMinDelayMillis(), percentileMillis);
+    }
+
+    /**
+     * Send one copy of a request. A successful response completes the shared result and has its latency recorded. A
+     * failure only completes the shared result if no other copy is still pending.
+     *
+     * @param request {@link Supplier} that sends the request.
+     * @param result {@link CompletableFuture} shared by all copies of the request.
+     * @param pendingCount Number of copies of the request that have not completed.
+     * @param <T> Type of the result of the request.
+     * @return {@link CompletableFuture} of this copy.
+     */
+    private <T> CompletableFuture<T> send(final Supplier<CompletableFuture<T>> request,
+                                          final CompletableFuture<T> result, final AtomicInteger pendingCount) {
+        final long startMillis = this.clock.getAsLong();
+        final CompletableFuture<T> pending;
+        try {
+            pending = request.get();
+        }
+        catch (RuntimeException e) {
+            if (pendingCount.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+            throw e;
+        }
+        pending.whenComplete((value, throwable) -> {
+            final int remaining = pendingCount.decrementAndGet();
+            if (throwable == null) {
+                this.histogram.record(this.clock.getAsLong() - startMillis);
+                result.complete(value);
+            }
+            else if (remaining == 0) {
+                result.completeExceptionally(throwable);
+            }
+        });
+        return pending;
+    }
+
+    /**
+     * Add the budget that a single request earns.
+     */
+    private synchronized void earnBudget() {
+        this.budget = Math.min(MAX_BUDGET, this.budget + this.policy.getMaxHedgeRatio());
+    }
+
+    /**
+     * Try to spend the budget for a single duplicate request.
+     *
+     * @return True if a duplicate can be sent.
+     */
+    private synchronized boolean spendBudget() {
+        if (this.budget < 1.0) {
+            return false;
+        }
+        this.budget -= 1.0;
+        return true;
+    }
+
+    /** Largest number of duplicate requests that can be saved up while traffic is healthy. */
+    private static final double MAX_BUDGET = 10.0;
+
+    /** Settings for hedging. */
+    private final HedgingPolicy policy;
+
+    /** Scheduler used to send duplicate requests. */
+    private final ScheduledExecutorService scheduler;
+
+    /** Source of the current time in milliseconds. */
+    private final LongSupplier clock;
+
+    /** Latencies of recent requests. */
+    private final LatencyHistogram histogram;
+
+    /** Number of duplicate requests that have been sent. */
+    private final LongAdder hedgeCount = new LongAdder();
+
+    /** Number of duplicate requests that can be sent right now. */
+    private double budget;
+}
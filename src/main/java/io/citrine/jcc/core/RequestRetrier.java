@@ -0,0 +1,194 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request through a circuit breaker and sends it again if it fails with a retryable error. Failures that
+ * suggest an unhealthy server (I/O errors, retryable responses and any 5xx response) count against the circuit
+ * breaker, and only a successful response resets it. Other outcomes, such as client errors and requests that the
+ * client rejected itself, leave the breaker as it was.
+ *
+ * @author Kyle Michel
+ */
+class RequestRetrier {
+
+    /**
+     * Constructor.
+     *
+     * @param retryPolicy {@link RetryPolicy} that controls retries, or a null pointer to send each request once.
+     * @param circuitBreaker {@link CircuitBreaker} of the host, or a null pointer if there is none.
+     * @param host String with the host that requests are sent to.
+     * @param scheduler {@link ScheduledExecutorService} used to wait between retries.
+     */
+    RequestRetrier(final RetryPolicy retryPolicy, final CircuitBreaker circuitBreaker, final String host,
+                   final ScheduledExecutorService scheduler) {
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.host = host;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Run a request.
+     *
+     * @param request {@link Supplier} that sends the request each time that it is called.
+     * @param <T> Type of the result of the request.
+     * @return {@link CompletableFuture} with the result of the first attempt that succeeds, or the error of the last
+     * attempt.
+     */
+    <T> CompletableFuture<T> execute(final Supplier<CompletableFuture<T>> request) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(request, result, 1, 0);
+        return result;
+    }
+
+    /**
+     * Make a single attempt at a request and schedule the next one if it fails with a retryable error.
+     *
+     * @param request {@link Supplier} that sends the request.
+     * @param result {@link CompletableFuture} to complete with the outcome.
+     * @param attempt Number of this attempt, starting from one.
+     * @param previousBackoffMillis Number of milliseconds waited before this attempt.
+     * @param <T> Type of the result of the request.
+     */
+    private <T> void attempt(final Supplier<CompletableFuture<T>> request, final CompletableFuture<T> result,
+                             final int attempt, final long previousBackoffMillis) {
+        if (result.isDone()) {
+            return;
+        }
+        if ((this.circuitBreaker != null) && !this.circuitBreaker.tryAcquire()) {
+            result.completeExceptionally(new CircuitOpenException(this.host));
+            return;
+        }
+        final CompletableFuture<T> pending;
+        try {
+            pending = request.get();
+        }
+        catch (RuntimeException e) {
+            onOutcome(e);
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((value, throwable) -> pending.cancel(true));
+        pending.whenComplete((value, throwable) -> {
+            final Throwable cause = (throwable == null) ? null : CitrinationClient.unwrap(throwable);
+            onOutcome(cause);
+            if (cause == null) {
+                result.complete(value);
+                return;
+            }
+            final long backoffMillis = nextBackoffMillis(cause, attempt, previousBackoffMillis);
+            if (backoffMillis < 0) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            try {
+                this.scheduler.schedule(() -> attempt(request, result, attempt + 1, backoffMillis),
+                        backoffMillis, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e) {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    /**
+     * Report the outcome of an attempt to the circuit breaker.
+     *
+     * @param cause {@link Throwable} that the attempt failed with or a null pointer if it succeeded.
+     */
+    private void onOutcome(final Throwable cause) {
+        if (this.circuitBreaker == null) {
+            return;
+        }
+        if (cause == null) {
+            this.circuitBreaker.onSuccess();
+        }
+        else if ((cause instanceof CancellationException) || isClientRejection(cause)) {
+
+            // The request never got an answer from the server, so it says nothing about its health
+            this.circuitBreaker.onAbandoned();
+        }
+        else if (isRetryable(cause) || ((cause instanceof CitrinationHttpException)
+                && (((CitrinationHttpException) cause).getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR))) {
+            this.circuitBreaker.onFailure();
+        }
+        else {
+            this.circuitBreaker.onAbandoned();
+        }
+    }
+
+    /**
+     * Get the number of milliseconds to wait before the next attempt.
+     *
+     * @param cause {@link Throwable} that the last attempt failed with.
+     * @param attempt Number of the last attempt.
+     * @param previousBackoffMillis Number of milliseconds waited before the last attempt.
+     * @return Number of milliseconds to wait or a negative value if the request should not be retried.
+     */
+    private long nextBackoffMillis(final Throwable cause, final int attempt, final long previousBackoffMillis) {
+        if ((this.retryPolicy == null) || (attempt >= this.retryPolicy.getMaxAttempts()) || !isRetryable(cause)
+                || isClientRejection(cause)) {
+            return -1;
+        }
+        long backoffMillis = this.retryPolicy.getBackoffMillis(previousBackoffMillis);
+        if (cause instanceof CitrinationHttpException) {
+            final Long retryAfterMillis = ((CitrinationHttpException) cause).getRetryAfterMillis();
+            if (retryAfterMillis != null) {
+                if (retryAfterMillis > this.retryPolicy.getMaxRetryAfterMillis()) {
+                    return -1;
+                }
+                backoffMillis = Math.max(backoffMillis, retryAfterMillis);
+            }
+        }
+        return backoffMillis;
+    }
+
+    /**
+     * Determine whether an error could go away if the request were sent again.
+     *
+     * @param cause {@link Throwable} to check.
+     * @return True if the error is retryable.
+     */
+    static boolean isRetryable(final Throwable cause) {
+        if (cause instanceof CitrinationException) {
+            return ((CitrinationException) cause).isRetryable();
+        }
+
+        // Timeouts are subclasses of InterruptedIOException, but an interrupted thread is not worth retrying
+        return (cause instanceof IOException) && (cause.getClass() != InterruptedIOException.class);
+    }
+
+    /**
+     * Determine whether a request was rejected by the client itself without reaching the server. Such a rejection
+     * says nothing about the health of the server, and retrying it right away would only add to the load that caused
+     * it.
+     *
+     * @param cause {@link Throwable} to check.
+     * @return True if the request was rejected by the client.
+     */
+    static boolean isClientRejection(final Throwable cause) {
+        return (cause instanceof CircuitOpenException) || (cause instanceof RequestThrottledException);
+    }
+
+    /** Policy that controls retries. */
+    private final RetryPolicy retryPolicy;
+
+    /** Circuit breaker of the host. */
+    private final CircuitBreaker circuitBreaker;
+
+    /** Host that requests are sent to. */
+    private final String host;
+
+    /** Scheduler used to wait between retries. */
+    private final ScheduledExecutorService scheduler;
+}
@@ -0,0 +1,21 @@
+package io.citrine.jcc.core;
+
+/**
+ * Error that is thrown without contacting the server because the client-side rate or concurrency limit was reached
+ * and the request could not start within the allowed wait.
+ *
+ * @author Kyle Michel
+ */
+public class RequestThrottledException extends CitrinationException {
+
+    /**
+     * Constructor.
+     *
+     * @param message String with the description of the error.
+     */
+    public RequestThrottledException(final String message) {
+        super(message, true);
+    }
+
+    private static final long serialVersionUID = 6617393021573390524L;
+}
@@ -0,0 +1,161 @@
+package io.citrine.jcc.core;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Policy that controls how requests that fail with a retryable error, or the queries of a multi-search that come back
+ * with a status of {@link io.citrine.jcc.search.core.result.MultiSearchResultElement.Status#ERROR} or
+ * {@link io.citrine.jcc.search.core.result.MultiSearchResultElement.Status#NOT_EXECUTED}, are sent again. Searches do
+ * not change any state on the server, so they are always safe to repeat. The wait before each retry uses
+ * decorrelated jitter: it is a random value between the base backoff and three times the previous wait, capped at the
+ * maximum backoff. If the server sends a Retry-After header then the client waits at least that long, and gives up
+ * instead if the server asks for a longer wait than the policy allows.
+ *
+ * @author Kyle Michel
+ */
+public class RetryPolicy {
+
+    /**
+     * Set the maximum number of times that a request is sent, including the first attempt.
+     *
+     * @param maxAttempts Maximum number of attempts.
+     * @return This object.
+     * @throws IllegalArgumentException if the number of attempts is not positive.
+     */
+    public RetryPolicy setMaxAttempts(final int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Maximum number of attempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of times that a request is sent, including the first attempt.
+     *
+     * @return Maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return this.maxAttempts;
+    }
+
+    /**
+     * Set the smallest number of milliseconds to wait before a retry.
+     *
+     * @param baseBackoffMillis Base backoff in milliseconds.
+     * @return This object.
+     * @throws IllegalArgumentException if the backoff is negative.
+     */
+    public RetryPolicy setBaseBackoffMillis(final long baseBackoffMillis) {
+        if (baseBackoffMillis < 0) {
+            throw new IllegalArgumentException("Base backoff cannot be negative");
+        }
+        this.baseBackoffMillis = baseBackoffMillis;
+        return this;
+    }
+
+    /**
+     * Get the smallest number of milliseconds to wait before a retry.
+     *
+     * @return Base backoff in milliseconds.
+     */
+    public long getBaseBackoffMillis() {
+        return this.baseBackoffMillis;
+    }
+
+    /**
+     * Set the largest number of milliseconds to wait before a retry, unless the server asks for a longer wait.
+     *
+     * @param maxBackoffMillis Maximum backoff in milliseconds.
+     * @return This object.
+     * @throws IllegalArgumentException if the backoff is negative.
+     */
+    public RetryPolicy setMaxBackoffMillis(final long maxBackoffMillis) {
+        if (maxBackoffMillis < 0) {
+            throw new IllegalArgumentException("Maximum backoff cannot be negative");
+        }
+        this.maxBackoffMillis = maxBackoffMillis;
+        return this;
+    }
+
+    /**
+     * Get the largest number of milliseconds to wait before a retry, unless the server asks for a longer wait.
+     *
+     * @return Maximum backoff in milliseconds.
+     */
+    public long getMaxBackoffMillis() {
+        return this.maxBackoffMillis;
+    }
+
+    /**
+     * Set the longest wait that the server can ask for with a Retry-After header. If the server asks for a longer
+     * wait then the request is not retried.
+     *
+     * @param maxRetryAfterMillis Maximum wait in milliseconds that the server can ask for.
+     * @return This object.
+     * @throws IllegalArgumentException if the wait is negative.
+     */
+    public RetryPolicy setMaxRetryAfterMillis(final long maxRetryAfterMillis) {
+        if (maxRetryAfterMillis < 0) {
+            throw new IllegalArgumentException("Maximum Retry-After wait cannot be negative");
+        }
+        this.maxRetryAfterMillis = maxRetryAfterMillis;
+        return this;
+    }
+
+    /**
+     * Get the longest wait that the server can ask for with a Retry-After header.
+     *
+     * @return Maximum wait in milliseconds that the server can ask for.
+     */
+    public long getMaxRetryAfterMillis() {
+        return this.maxRetryAfterMillis;
+    }
+
+    /**
+     * Get the number of milliseconds to wait before the next retry.
+     *
+     * @param previousBackoffMillis Number of milliseconds waited before the previous retry, or zero if this is the
+     *                              first retry.
+     * @return Number of milliseconds to wait.
+     */
+    public long getBackoffMillis(final long previousBackoffMillis) {
+        final long upper = Math.max(this.baseBackoffMillis, previousBackoffMillis * 3);
+        final long backoff = this.baseBackoffMillis
+                + ThreadLocalRandom.current().nextLong(upper - this.baseBackoffMillis + 1);
+        return Math.min(this.maxBackoffMillis, backoff);
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof RetryPolicy)) {
+            return false;
+        }
+        final RetryPolicy rhsPolicy = (RetryPolicy) rhs;
+        return (this.maxAttempts == rhsPolicy.maxAttempts)
+                && (this.baseBackoffMillis == rhsPolicy.baseBackoffMillis)
+                && (this.maxBackoffMillis == rhsPolicy.maxBackoffMillis)
+                && (this.maxRetryAfterMillis == rhsPolicy.maxRetryAfterMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.maxAttempts, this.baseBackoffMillis, this.maxBackoffMillis, this.maxRetryAfterMillis);
+    }
+
+    /** Maximum number of attempts. */
+    private int maxAttempts = 3;
+
+    /** Smallest backoff in milliseconds. */
+    private long baseBackoffMillis = 100;
+
+    /** Largest backoff in milliseconds. */
+    private long maxBackoffMillis = 10000;
+
+    /** Longest wait in milliseconds that the server can ask for. */
+    private long maxRetryAfterMillis = 30000;
+}
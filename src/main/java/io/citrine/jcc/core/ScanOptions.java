@@ -0,0 +1,108 @@
+package io.citrine.jcc.core;
+
+import java.util.Objects;
+
+/**
+ * Options that control how {@link CitrinationClient#scan(io.citrine.jcc.search.pif.query.PifSystemReturningQuery,
+ * ScanOptions)} pages through a result set.
+ *
+ * @author Kyle Michel
+ */
+public class ScanOptions {
+
+    /**
+     * Set the number of hits to request in each page.
+     *
+     * @param pageSize Number of hits in each page.
+     * @return This object.
+     * @throws IllegalArgumentException if the page size is not positive.
+     */
+    public ScanOptions setPageSize(final int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Get the number of hits to request in each page.
+     *
+     * @return Number of hits in each page.
+     */
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * Set the maximum number of pages that can be in flight or waiting to be consumed at one time.
+     *
+     * @param prefetchPages Number of pages to fetch ahead of the consumer.
+     * @return This object.
+     * @throws IllegalArgumentException if the number of pages is not positive.
+     */
+    public ScanOptions setPrefetchPages(final int prefetchPages) {
+        if (prefetchPages <= 0) {
+            throw new IllegalArgumentException("Number of prefetched pages must be positive");
+        }
+        this.prefetchPages = prefetchPages;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of pages that can be in flight or waiting to be consumed at one time.
+     *
+     * @return Number of pages to fetch ahead of the consumer.
+     */
+    public int getPrefetchPages() {
+        return this.prefetchPages;
+    }
+
+    /**
+     * Set the maximum number of hits to return from the scan. By default all hits are returned.
+     *
+     * @param maxHits Maximum number of hits to return or a null pointer to return all hits.
+     * @return This object.
+     */
+    public ScanOptions setMaxHits(final Long maxHits) {
+        this.maxHits = maxHits;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of hits to return from the scan.
+     *
+     * @return Maximum number of hits to return or a null pointer if all hits should be returned.
+     */
+    public Long getMaxHits() {
+        return this.maxHits;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof ScanOptions)) {
+            return false;
+        }
+        final ScanOptions rhsOptions = (ScanOptions) rhs;
+        return (this.pageSize == rhsOptions.pageSize)
+                && (this.prefetchPages == rhsOptions.prefetchPages)
+                && Objects.equals(this.maxHits, rhsOptions.maxHits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.pageSize, this.prefetchPages, this.maxHits);
+    }
+
+    /** Number of hits in each page. */
+    private int pageSize = 100;
+
+    /** Number of pages to fetch ahead of the consumer. */
+    private int prefetchPages = 4;
+
+    /** Maximum number of hits to return. */
+    private Long maxHits;
+}
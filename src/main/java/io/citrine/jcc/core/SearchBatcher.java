@@ -0,0 +1,319 @@
+package io.citrine.jcc.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects single PIF searches that are made within a short window and sends them together as one multi-search
+ * request. A batch is sent when it reaches its maximum size or when the linger time has passed since its first query
+ * was added, whichever happens first.
+ *
+ * <p>The response to a batch is split into one body per query, in the same format that the single search endpoint
+ * returns, so that callers decode it exactly as they would a response to a single search. Queries that the server
+ * reports as {@link MultiSearchResultElement.Status#ERROR} or {@link MultiSearchResultElement.Status#NOT_EXECUTED},
+ * or that are missing from the response, fail with a {@link MultiSearchElementException} without affecting the other
+ * queries in the batch. Queries that were not executed or are missing are marked as retryable. Queries that are
+ * cancelled while they wait for their batch are left out of it, and a batch whose queries were all cancelled is not
+ * sent.
+ *
+ * @author Kyle Michel
+ */
+class SearchBatcher {
+
+    /**
+     * Constructor.
+     *
+     * @param sender {@link Function} that sends a multi-search request and returns the body of the response.
+     * @param scheduler {@link ScheduledExecutorService} used to send batches once their linger time has passed.
+     * @param maxBatchSize Maximum number of queries in a batch.
+     * @param lingerMillis Number of milliseconds to wait for more queries before sending a batch.
+     */
+    SearchBatcher(final Function<MultiQuery<PifSystemReturningQuery>, CompletableFuture<byte[]>> sender,
+                  final ScheduledExecutorService scheduler, final int maxBatchSize, final long lingerMillis) {
+        this.sender = sender;
+        this.scheduler = scheduler;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * Add a query to the current batch.
+     *
+     * @param pifQuery {@link PifSystemReturningQuery} to run.
+     * @return {@link CompletableFuture} with the body of the response to the query, wrapped as it would be by the
+     * single search endpoint.
+     */
+    CompletableFuture<byte[]> submit(final PifSystemReturningQuery pifQuery) {
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        final List<Entry> ready;
+        synchronized (this) {
+            if (this.pending.isEmpty()) {
+                this.lingerTask = this.scheduler.schedule(this::flush, this.lingerMillis, TimeUnit.MILLISECONDS);
+            }
+            this.pending.add(new Entry(pifQuery, result));
+            ready = (this.pending.size() >= this.maxBatchSize) ? drain() : null;
+        }
+        if ((ready != null) && !ready.isEmpty()) {
+            send(ready);
+        }
+        return result;
+    }
+
+    /**
+     * Send all queries that are waiting in the current batch.
+     */
+    void flush() {
+        final List<Entry> ready;
+        synchronized (this) {
+            ready = drain();
+        }
+        if (!ready.isEmpty()) {
+            send(ready);
+        }
+    }
+
+    /**
+     * Fail all queries that are waiting in the current batch without sending them.
+     *
+     * @param cause {@link Throwable} to fail the queries with.
+     */
+    void abort(final Throwable cause) {
+        final List<Entry> aborted;
+        synchronized (this) {
+            aborted = drain();
+        }
+        aborted.forEach(i -> i.result.completeExceptionally(cause));
+    }
+
+    /**
+     * Remove all queries from the current batch. This must be called while holding the lock on this object.
+     *
+     * @return List with the queries that were removed, without those whose callers have cancelled them while they
+     * were waiting.
+     */
+    private List<Entry> drain() {
+        if (this.lingerTask != null) {
+            this.lingerTask.cancel(false);
+            this.lingerTask = null;
+        }
+        final List<Entry> ready = this.pending;
+        this.pending = new ArrayList<>();
+        ready.removeIf(i -> i.result.isCancelled());
+        return ready;
+    }
+
+    /**
+     * Send a batch of queries and route the results back to their callers.
+     *
+     * @param batch List with the queries to send.
+     */
+    private void send(final List<Entry> batch) {
+        final List<PifSystemReturningQuery> queries = new ArrayList<>(batch.size());
+        for (Entry i : batch) {
+            queries.add(i.query);
+        }
+        final CompletableFuture<byte[]> response;
+        try {
+            response = this.sender.apply(new MultiQuery<PifSystemReturningQuery>().setQueries(queries));
+        }
+        catch (RuntimeException e) {
+            batch.forEach(i -> i.result.completeExceptionally(e));
+            return;
+        }
+        response.whenComplete((body, throwable) -> {
+            if (throwable != null) {
+                batch.forEach(i -> i.result.completeExceptionally(throwable));
+                return;
+            }
+            try {
+                route(body, batch);
+            }
+            catch (IOException | RuntimeException e) {
+                batch.forEach(i -> i.result.completeExceptionally(e));
+            }
+        });
+    }
+
+    /**
+     * Split the body of a multi-search response and complete the future of each query in the batch.
+     *
+     * @param body Array with the body of the multi-search response.
+     * @param batch List with the queries in the batch, in the order that they were sent.
+     * @throws IOException if the body cannot be parsed.
+     */
+    private static void route(final byte[] body, final List<Entry> batch) throws IOException {
+        final JsonFactory factory = SearchCodecs.forBody(body).getObjectMapper().getFactory();
+        try (JsonParser parser = factory.createParser(body)) {
+            if (!moveToField(parser, RESULTS_FIELD) || (parser.nextToken() != JsonToken.START_OBJECT)
+                    || !moveToField(parser, RESULTS_FIELD) || (parser.nextToken() != JsonToken.START_ARRAY)) {
+                throw new IOException("Multi-search response does not contain a list of results");
+            }
+            int index = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (index >= batch.size()) {
+                    throw new IOException("Multi-search response contains more results than queries");
+                }
+                routeElement(factory, parser, batch.get(index++).result);
+            }
+            for (int i = index; i < batch.size(); ++i) {
+                batch.get(i).result.completeExceptionally(new MultiSearchElementException(
+                        "No result was returned for query " + i + " of batch",
+                        MultiSearchResultElement.Status.NOT_EXECUTED));
+            }
+        }
+    }
+
+    /**
+     * Read a single element of a multi-search response and complete the future of the matching query with it.
+     *
+     * @param factory {@link JsonFactory} for the format of the response.
+     * @param parser {@link JsonParser} positioned at the start of the element.
+     * @param result {@link CompletableFuture} of the query to complete.
+     * @throws IOException if the element cannot be parsed.
+     */
+    private static void routeElement(final JsonFactory factory, final JsonParser parser,
+                                     final CompletableFuture<byte[]> result) throws IOException {
+        byte[] resultBody = null;
+        MultiSearchResultElement.Status status = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if (RESULT_FIELD.equals(fieldName)) {
+                resultBody = wrapResult(factory, parser);
+            }
+            else if (STATUS_FIELD.equals(fieldName)) {
+                status = MultiSearchResultElement.Status.get(parser.getValueAsString());
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        if ((status == null) || (status == MultiSearchResultElement.Status.SUCCESS)) {
+            if (resultBody == null) {
+                result.completeExceptionally(new MultiSearchElementException(
+                        "No result was returned for query in batch", MultiSearchResultElement.Status.SUCCESS));
+            }
+            else {
+                result.complete(resultBody);
+            }
+        }
+        else if (status == MultiSearchResultElement.Status.NOT_EXECUTED) {
+            result.completeExceptionally(new MultiSearchElementException("Query in batch was not executed", status));
+        }
+        else {
+            result.completeExceptionally(new MultiSearchElementException(
+                    "Query in batch failed with status " + status, status));
+        }
+    }
+
+    /**
+     * Copy the value that the parser is positioned at into a new body that has the same format as a response from
+     * the single search endpoint.
+     *
+     * @param factory {@link JsonFactory} for the format of the response.
+     * @param parser {@link JsonParser} positioned at the start of a search result.
+     * @return Array with the wrapped search result.
+     * @throws IOException if the value cannot be copied.
+     */
+    private static byte[] wrapResult(final JsonFactory factory, final JsonParser parser) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JsonGenerator generator = factory.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeFieldName(RESULTS_FIELD);
+            generator.copyCurrentStructure(parser);
+            generator.writeEndObject();
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Advance the parser through the current object until it reaches the input field.
+     *
+     * @param parser {@link JsonParser} positioned at the start of an object or at one of its fields.
+     * @param name String with the name of the field to find.
+     * @return True if the parser is positioned at the field or false if the end of the object was reached.
+     * @throws IOException if thrown while reading from the parser.
+     */
+    private static boolean moveToField(final JsonParser parser, final String name) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        while (token == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.getCurrentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+        return false;
+    }
+
+    /** Name of the field that holds results. */
+    private static final String RESULTS_FIELD = "results";
+
+    /** Name of the field that holds the result of a single query in a multi-search response. */
+    private static final String RESULT_FIELD = "result";
+
+    /** Name of the field that holds the status of a single query in a multi-search response. */
+    private static final String STATUS_FIELD = "status";
+
+    /** Function that sends a multi-search request. */
+    private final Function<MultiQuery<PifSystemReturningQuery>, CompletableFuture<byte[]>> sender;
+
+    /** Scheduler used to send batches once their linger time has passed. */
+    private final ScheduledExecutorService scheduler;
+
+    /** Maximum number of queries in a batch. */
+    private final int maxBatchSize;
+
+    /** Number of milliseconds to wait for more queries before sending a batch. */
+    private final long lingerMillis;
+
+    /** Queries in the current batch. */
+    private List<Entry> pending = new ArrayList<>();
+
+    /** Task that sends the current batch once its linger time has passed. */
+    private ScheduledFuture<?> lingerTask;
+
+    /**
+     * Query that is waiting to be sent along with the future of its caller.
+     *
+     * @author Kyle Michel
+     */
+    private static class Entry {
+
+        /**
+         * Constructor.
+         *
+         * @param query {@link PifSystemReturningQuery} to run.
+         * @param result {@link CompletableFuture} to complete with the body of the result.
+         */
+        Entry(final PifSystemReturningQuery query, final CompletableFuture<byte[]> result) {
+            this.query = query;
+            this.result = result;
+        }
+
+        /** Query to run. */
+        private final PifSystemReturningQuery query;
+
+        /** Future to complete with the body of the result. */
+        private final CompletableFuture<byte[]> result;
+    }
+}
@@ -0,0 +1,27 @@
+package io.citrine.jcc.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Wire format that queries and results are encoded in. A codec pairs the media type that is sent in the Content-Type
+ * and Accept headers with the {@link ObjectMapper} that reads and writes that format. See {@link SearchCodecs} for
+ * the codecs that are available.
+ *
+ * @author Kyle Michel
+ */
+public interface SearchCodec {
+
+    /**
+     * Get the media type of the format.
+     *
+     * @return String with the media type.
+     */
+    String getMediaType();
+
+    /**
+     * Get the object mapper that reads and writes the format.
+     *
+     * @return {@link ObjectMapper} for the format.
+     */
+    ObjectMapper getObjectMapper();
+}
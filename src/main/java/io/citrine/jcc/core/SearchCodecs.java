@@ -0,0 +1,110 @@
+package io.citrine.jcc.core;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.http.entity.ContentType;
+
+/**
+ * Codecs for the wire formats that the client supports. {@link #JSON} is the default format and is always supported
+ * by the server. {@link #SMILE} is a binary encoding of the same data model that is much cheaper to parse and
+ * generate, at the cost of not being human readable.
+ *
+ * @author Kyle Michel
+ */
+public final class SearchCodecs {
+
+    /**
+     * Get the codec that can read a body, based on the leading bytes of the body.
+     *
+     * @param body Array with the body to read.
+     * @return {@link SearchCodec} for the format of the body.
+     */
+    public static SearchCodec forBody(final byte[] body) {
+        return ((body.length >= 3)
+                && (body[0] == SmileConstants.HEADER_BYTE_1)
+                && (body[1] == SmileConstants.HEADER_BYTE_2)
+                && (body[2] == SmileConstants.HEADER_BYTE_3)) ? SMILE : JSON;
+    }
+
+    /**
+     * Get the codec for a content type. Content types that are not recognized are treated as JSON.
+     *
+     * @param contentType String with the value of a Content-Type header, or a null pointer if there is none.
+     * @return {@link SearchCodec} for the content type.
+     */
+    public static SearchCodec forContentType(final String contentType) {
+        if (contentType == null) {
+            return JSON;
+        }
+        final String mediaType = ContentType.parse(contentType).getMimeType();
+        return SMILE.getMediaType().equalsIgnoreCase(mediaType) ? SMILE : JSON;
+    }
+
+    /**
+     * Apply the settings that all of the object mappers of the client share.
+     *
+     * @param objectMapper {@link ObjectMapper} to configure.
+     * @return The input object mapper.
+     */
+    private static ObjectMapper configure(final ObjectMapper objectMapper) {
+        return objectMapper
+                .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true)
+                .configure(DeserializationFeature.UNWRAP_SINGLE_VALUE_ARRAYS, true);
+    }
+
+    // Make sure that objects of this class cannot be instantiated
+    private SearchCodecs() {}
+
+    /** Codec for JSON. */
+    public static final SearchCodec JSON = new MapperCodec(ContentType.APPLICATION_JSON.getMimeType(),
+            configure(new ObjectMapper()));
+
+    /** Codec for Smile, the binary JSON format of Jackson. */
+    public static final SearchCodec SMILE = new MapperCodec("application/x-jackson-smile",
+            configure(new ObjectMapper(new SmileFactory())));
+
+    /**
+     * Codec that is backed by an object mapper.
+     *
+     * @author Kyle Michel
+     */
+    private static class MapperCodec implements SearchCodec {
+
+        /**
+         * Constructor.
+         *
+         * @param mediaType String with the media type of the format.
+         * @param objectMapper {@link ObjectMapper} that reads and writes the format.
+         */
+        MapperCodec(final String mediaType, final ObjectMapper objectMapper) {
+            this.mediaType = mediaType;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public String getMediaType() {
+            return this.mediaType;
+        }
+
+        @Override
+        public ObjectMapper getObjectMapper() {
+            return this.objectMapper;
+        }
+
+        @Override
+        public String toString() {
+            return this.mediaType;
+        }
+
+        /** Media type of the format. */
+        private final String mediaType;
+
+        /** Object mapper that reads and writes the format. */
+        private final ObjectMapper objectMapper;
+    }
+}
@@ -0,0 +1,44 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface for the layer that sends requests built by {@link CitrinationClient} and returns the responses. The
+ * default transport sends requests over HTTP with a pooled Apache client. Other transports can be set with
+ * {@link CitrinationClient.Builder#setTransport(SearchTransport)}, for example to answer requests in the same process
+ * when testing.
+ *
+ * <p>Requests and responses use the HttpCore message classes, so the client applies its status handling, content
+ * decoding and format negotiation in the same way whichever transport is used. Transports must return the status,
+ * headers and entity of each response unchanged.
+ *
+ * @author Kyle Michel
+ */
+public interface SearchTransport extends Closeable {
+
+    /**
+     * Send a request without blocking the calling thread. The entity of the response must be fully buffered by the
+     * time the returned future completes, so that it can be read on any thread. Cancelling the returned future should
+     * abort the request.
+     *
+     * @param request {@link HttpUriRequest} to send.
+     * @return {@link CompletableFuture} with the {@link HttpResponse} that was received. This completes exceptionally
+     * with an {@link java.io.IOException} if the request could not be sent.
+     */
+    CompletableFuture<HttpResponse> execute(HttpUriRequest request);
+
+    /**
+     * Send a request and return the response as soon as its headers are available, with an entity that streams the
+     * body as it arrives. Closing the content stream of the entity releases the request, and aborts it if the body
+     * has not been fully read.
+     *
+     * @param request {@link HttpUriRequest} to send.
+     * @return {@link CompletableFuture} with the {@link HttpResponse} that was received. This completes exceptionally
+     * with an {@link java.io.IOException} if the request could not be sent.
+     */
+    CompletableFuture<HttpResponse> executeStreaming(HttpUriRequest request);
+}
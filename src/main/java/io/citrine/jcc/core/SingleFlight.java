@@ -0,0 +1,177 @@
+package io.citrine.jcc.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls that share a key so that only the first one does any work. Callers that arrive while a
+ * call for the same key is in flight are attached to that call and receive its result. Once the call completes the
+ * key is released, so the next caller starts a new call.
+ *
+ * <p>Every caller receives its own dependent future, so cancelling one of them does not affect the shared call or
+ * any other caller. Once every caller of a call has cancelled, the future of the call is cancelled as well and the
+ * key is released. The shared value itself is handed to every caller and must therefore not be modified.
+ *
+ * @param <K> Type of the key.
+ * @param <V> Type of the value that is returned.
+ * @author Kyle Michel
+ */
+class SingleFlight<K, V> {
+
+    /**
+     * Run a call unless one with the same key is already in flight.
+     *
+     * @param key Key of the call.
+     * @param call {@link Supplier} that starts the call.
+     * @return {@link CompletableFuture} with the result of the call.
+     */
+    CompletableFuture<V> execute(final K key, final Supplier<CompletableFuture<V>> call) {
+        while (true) {
+            final Flight created = new Flight(key);
+            final Flight existing = this.inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                final CompletableFuture<V> attached = existing.attach();
+                if (attached != null) {
+                    this.coalescedCount.increment();
+                    return attached;
+                }
+
+                // Every caller of the existing call has cancelled, so it is being released
+                this.inFlight.remove(key, existing);
+                continue;
+            }
+            final CompletableFuture<V> attached = created.attach();
+            try {
+                created.start(call.get());
+            }
+            catch (RuntimeException e) {
+                this.inFlight.remove(key, created);
+                created.shared.completeExceptionally(e);
+            }
+            return attached;
+        }
+    }
+
+    /**
+     * Get the number of calls that were attached to a call that was already in flight.
+     *
+     * @return Number of coalesced calls.
+     */
+    long getCoalescedCount() {
+        return this.coalescedCount.sum();
+    }
+
+    /** Calls that are currently in flight. */
+    private final ConcurrentMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /** Number of calls that were attached to a call that was already in flight. */
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * Call that is in flight along with the number of callers that are still waiting for it.
+     *
+     * @author Kyle Michel
+     */
+    private class Flight {
+
+        /**
+         * Constructor.
+         *
+         * @param key Key of the call.
+         */
+        Flight(final K key) {
+            this.key = key;
+        }
+
+        /**
+         * Complete the shared future with the outcome of the call once it is done.
+         *
+         * @param future {@link CompletableFuture} of the call.
+         */
+        void start(final CompletableFuture<V> future) {
+            synchronized (this) {
+                this.call = future;
+            }
+            future.whenComplete((value, throwable) -> {
+
+                // Release the key before completing so that callers that run after completion start a new call
+                SingleFlight.this.inFlight.remove(this.key, this);
+                if (throwable != null) {
+                    this.shared.completeExceptionally(throwable);
+                }
+                else {
+                    this.shared.complete(value);
+                }
+            });
+            if (isAbandoned()) {
+                future.cancel(true);
+            }
+        }
+
+        /**
+         * Attach a caller to the call.
+         *
+         * @return {@link CompletableFuture} for the caller, or a null pointer if every earlier caller has cancelled
+         * and the call is being released.
+         */
+        synchronized CompletableFuture<V> attach() {
+            if (this.abandoned) {
+                return null;
+            }
+            ++this.callerCount;
+            final CompletableFuture<V> attached = this.shared.thenApply(value -> value);
+            attached.whenComplete((value, throwable) -> {
+                if (attached.isCancelled()) {
+                    detach();
+                }
+            });
+            return attached;
+        }
+
+        /**
+         * Detach a caller that cancelled, and cancel the call if it was the last one.
+         */
+        private void detach() {
+            final CompletableFuture<V> future;
+            synchronized (this) {
+                if ((--this.callerCount > 0) || this.shared.isDone()) {
+                    return;
+                }
+                this.abandoned = true;
+                future = this.call;
+            }
+            SingleFlight.this.inFlight.remove(this.key, this);
+            this.shared.cancel(true);
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+
+        /**
+         * Get whether every caller has cancelled.
+         *
+         * @return True if the call has been abandoned.
+         */
+        private synchronized boolean isAbandoned() {
+            return this.abandoned;
+        }
+
+        /** Key of the call. */
+        final K key;
+
+        /** Future that is completed with the outcome of the call and that every caller depends on. */
+        final CompletableFuture<V> shared = new CompletableFuture<>();
+
+        /** Future of the call, or a null pointer if it has not been started yet. */
+        private CompletableFuture<V> call;
+
+        /** Number of callers that have not cancelled. */
+        private int callerCount;
+
+        /** Whether every caller has cancelled. */
+        private boolean abandoned;
+    }
+}
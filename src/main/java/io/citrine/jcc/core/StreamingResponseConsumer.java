@@ -0,0 +1,92 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.ContentInputStream;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.util.SharedInputBuffer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Response consumer that makes the body of a response readable as a blocking stream while it is still arriving. The
+ * I/O reactor writes into a bounded buffer and suspends reading from the socket whenever the buffer is full, so the
+ * reader controls how much of the body is held in memory.
+ *
+ * @author Kyle Michel
+ */
+class StreamingResponseConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+    /**
+     * Constructor.
+     *
+     * @param bufferSize Number of bytes to buffer between the I/O reactor and the reader.
+     */
+    StreamingResponseConsumer(final int bufferSize) {
+        this.buffer = new SharedInputBuffer(bufferSize);
+    }
+
+    /**
+     * Get a future that completes as soon as the status line and headers of the response have been received. The
+     * entity of the response streams its content as it arrives.
+     *
+     * @return {@link CompletableFuture} with the {@link HttpResponse}.
+     */
+    CompletableFuture<HttpResponse> getResponse() {
+        return this.response;
+    }
+
+    @Override
+    protected void onResponseReceived(final HttpResponse response) {
+        this.httpResponse = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(final HttpEntity entity, final ContentType contentType) {
+        final BasicHttpEntity streamingEntity = new BasicHttpEntity();
+        streamingEntity.setContent(new ContentInputStream(this.buffer));
+        streamingEntity.setContentLength(entity.getContentLength());
+        streamingEntity.setContentType(entity.getContentType());
+        streamingEntity.setContentEncoding(entity.getContentEncoding());
+        this.httpResponse.setEntity(streamingEntity);
+        this.response.complete(this.httpResponse);
+    }
+
+    @Override
+    protected void onContentReceived(final ContentDecoder decoder, final IOControl ioControl) throws IOException {
+        this.buffer.consumeContent(decoder, ioControl);
+    }
+
+    @Override
+    protected HttpResponse buildResult(final HttpContext context) {
+        this.response.complete(this.httpResponse);
+        return this.httpResponse;
+    }
+
+    @Override
+    protected void releaseResources() {
+        if (getResult() == null) {
+            this.buffer.shutdown();
+            final Exception exception = getException();
+            this.response.completeExceptionally((exception == null)
+                    ? new CancellationException("Request was cancelled")
+                    : exception);
+        }
+    }
+
+    /** Buffer between the I/O reactor and the reader. */
+    private final SharedInputBuffer buffer;
+
+    /** Future that completes when the response headers have been received. */
+    private final CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+
+    /** Response that is being received. */
+    private HttpResponse httpResponse;
+}
@@ -0,0 +1,55 @@
+package io.citrine.jcc.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the number of bytes that are sent and received by a client, before and after compression.
+ *
+ * @author Kyle Michel
+ */
+class TransferMetrics {
+
+    /**
+     * Record bytes that were written to request bodies.
+     *
+     * @param uncompressedBytes Number of bytes before compression.
+     * @param sentBytes Number of bytes after compression.
+     */
+    void recordRequestBytes(final long uncompressedBytes, final long sentBytes) {
+        this.requestBytesUncompressed.add(uncompressedBytes);
+        this.requestBytesSent.add(sentBytes);
+    }
+
+    /**
+     * Record bytes that were read from response bodies.
+     *
+     * @param receivedBytes Number of bytes before decompression.
+     * @param decodedBytes Number of bytes after decompression.
+     */
+    void recordResponseBytes(final long receivedBytes, final long decodedBytes) {
+        this.responseBytesReceived.add(receivedBytes);
+        this.responseBytesDecoded.add(decodedBytes);
+    }
+
+    /**
+     * Get a snapshot of the counters.
+     *
+     * @return {@link TransferStats} with the current counters.
+     */
+    TransferStats snapshot() {
+        return new TransferStats(this.requestBytesUncompressed.sum(), this.requestBytesSent.sum(),
+                this.responseBytesReceived.sum(), this.responseBytesDecoded.sum());
+    }
+
+    /** Number of uncompressed request bytes. */
+    private final LongAdder requestBytesUncompressed = new LongAdder();
+
+    /** Number of request bytes sent. */
+    private final LongAdder requestBytesSent = new LongAdder();
+
+    /** Number of response bytes received. */
+    private final LongAdder responseBytesReceived = new LongAdder();
+
+    /** Number of decoded response bytes. */
+    private final LongAdder responseBytesDecoded = new LongAdder();
+}
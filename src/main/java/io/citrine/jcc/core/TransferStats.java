@@ -0,0 +1,82 @@
+package io.citrine.jcc.core;
+
+/**
+ * Snapshot of the number of bytes that a {@link CitrinationClient} has sent and received, before and after
+ * compression.
+ *
+ * @author Kyle Michel
+ */
+public class TransferStats {
+
+    /**
+     * Constructor.
+     *
+     * @param requestBytesUncompressed Number of bytes in request bodies before compression.
+     * @param requestBytesSent Number of bytes in request bodies as sent.
+     * @param responseBytesReceived Number of bytes in response bodies as received.
+     * @param responseBytesDecoded Number of bytes in response bodies after decompression.
+     */
+    public TransferStats(final long requestBytesUncompressed, final long requestBytesSent,
+                         final long responseBytesReceived, final long responseBytesDecoded) {
+        this.requestBytesUncompressed = requestBytesUncompressed;
+        this.requestBytesSent = requestBytesSent;
+        this.responseBytesReceived = responseBytesReceived;
+        this.responseBytesDecoded = responseBytesDecoded;
+    }
+
+    /**
+     * Get the number of bytes in request bodies before compression.
+     *
+     * @return Number of uncompressed request bytes.
+     */
+    public long getRequestBytesUncompressed() {
+        return this.requestBytesUncompressed;
+    }
+
+    /**
+     * Get the number of bytes in request bodies as they were sent.
+     *
+     * @return Number of request bytes sent.
+     */
+    public long getRequestBytesSent() {
+        return this.requestBytesSent;
+    }
+
+    /**
+     * Get the number of bytes in response bodies as they were received.
+     *
+     * @return Number of response bytes received.
+     */
+    public long getResponseBytesReceived() {
+        return this.responseBytesReceived;
+    }
+
+    /**
+     * Get the number of bytes in response bodies after decompression.
+     *
+     * @return Number of decoded response bytes.
+     */
+    public long getResponseBytesDecoded() {
+        return this.responseBytesDecoded;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferStats{requestBytesUncompressed=" + this.requestBytesUncompressed
+                + ", requestBytesSent=" + this.requestBytesSent
+                + ", responseBytesReceived=" + this.responseBytesReceived
+                + ", responseBytesDecoded=" + this.responseBytesDecoded + "}";
+    }
+
+    /** Number of uncompressed request bytes. */
+    private final long requestBytesUncompressed;
+
+    /** Number of request bytes sent. */
+    private final long requestBytesSent;
+
+    /** Number of response bytes received. */
+    private final long responseBytesReceived;
+
+    /** Number of decoded response bytes. */
+    private final long responseBytesDecoded;
+}
@@ -0,0 +1,168 @@
+package io.citrine.jcc.core.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Index of the dataset versions behind cached search responses. Each cached key is recorded with the version of
+ * every dataset that its hits came from, and the index keeps the newest version that it knows of for each dataset.
+ * When the current versions are checked against the server, only the keys that were built from a dataset version
+ * that is no longer current need to be removed from the caches, so the caches can keep entries for much longer than
+ * a blanket time to live would allow.
+ *
+ * <p>Responses without any hits are not recorded since they do not name a dataset. Those entries still expire
+ * according to the time to live of their cache.
+ *
+ * @author Kyle Michel
+ */
+public class DatasetVersionIndex {
+
+    /**
+     * Record the dataset versions of a cached response. This replaces anything that was recorded earlier for the same
+     * key. A response is rejected if it was built from an older version of a dataset than one that has already been
+     * seen, which happens when a saved response is read back after the dataset changed.
+     *
+     * @param key {@link SearchCacheKey} of the cached response.
+     * @param versions Map from each dataset in the response to its version. The version is a null pointer if the
+     *                 response did not include it.
+     * @return True if the response is current and was recorded, false if it is stale and should not be used.
+     */
+    public synchronized boolean record(final SearchCacheKey key, final Map<String, Long> versions) {
+        for (final Map.Entry<String, Long> entry : versions.entrySet()) {
+            final Long current = this.currentVersions.get(entry.getKey());
+            if ((current != null) && ((entry.getValue() == null) || (entry.getValue() < current))) {
+                remove(key);
+                return false;
+            }
+        }
+        remove(key);
+        if (versions.isEmpty()) {
+            return true;
+        }
+        this.keyVersions.put(key, new HashMap<>(versions));
+        for (final Map.Entry<String, Long> entry : versions.entrySet()) {
+            this.keysByDataset.computeIfAbsent(entry.getKey(), ignored -> new HashSet<>()).add(key);
+            if (entry.getValue() != null) {
+                this.currentVersions.merge(entry.getKey(), entry.getValue(), Math::max);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the datasets that at least one recorded response was built from.
+     *
+     * @return List with the ids of the datasets.
+     */
+    public synchronized List<String> getDatasets() {
+        return new ArrayList<>(this.keysByDataset.keySet());
+    }
+
+    /**
+     * Apply the current versions of a set of datasets. Every key that was built from a different version of one of
+     * these datasets is removed from the index and returned so that it can be removed from the caches. Datasets that
+     * are not in the input are left alone.
+     *
+     * @param versions Map from each dataset that was checked to its current version, or to a null pointer if the
+     *                 dataset no longer has any records.
+     * @return Set with the keys whose responses are stale.
+     */
+    public synchronized Set<SearchCacheKey> update(final Map<String, Long> versions) {
+        final Set<SearchCacheKey> stale = new HashSet<>();
+        for (final Map.Entry<String, Long> entry : versions.entrySet()) {
+            if (entry.getValue() == null) {
+                this.currentVersions.remove(entry.getKey());
+            }
+            else {
+                this.currentVersions.put(entry.getKey(), entry.getValue());
+            }
+            final Set<SearchCacheKey> keys = this.keysByDataset.get(entry.getKey());
+            if (keys != null) {
+                for (final SearchCacheKey key : keys) {
+                    if ((entry.getValue() == null)
+                            || !Objects.equals(entry.getValue(), this.keyVersions.get(key).get(entry.getKey()))) {
+                        stale.add(key);
+                    }
+                }
+            }
+        }
+        stale.forEach(this::remove);
+        return stale;
+    }
+
+    /**
+     * Remove every key that does not pass a test, such as keys that have been evicted from the caches.
+     *
+     * @param present {@link Predicate} that returns true for keys that should be kept.
+     * @return Number of keys that were removed.
+     */
+    public synchronized int retainAll(final Predicate<SearchCacheKey> present) {
+        int removed = 0;
+        for (final SearchCacheKey key : new ArrayList<>(this.keyVersions.keySet())) {
+            if (!present.test(key)) {
+                remove(key);
+                ++removed;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Remove the record for a key.
+     *
+     * @param key {@link SearchCacheKey} to remove.
+     */
+    public synchronized void invalidate(final SearchCacheKey key) {
+        remove(key);
+    }
+
+    /**
+     * Remove all records. The newest known version of each dataset is kept.
+     */
+    public synchronized void invalidateAll() {
+        this.keyVersions.clear();
+        this.keysByDataset.clear();
+    }
+
+    /**
+     * Get the number of keys that are recorded.
+     *
+     * @return Number of recorded keys.
+     */
+    public synchronized int size() {
+        return this.keyVersions.size();
+    }
+
+    /**
+     * Remove the record for a key. Must be called while holding the lock on this object.
+     *
+     * @param key {@link SearchCacheKey} to remove.
+     */
+    private void remove(final SearchCacheKey key) {
+        final Map<String, Long> versions = this.keyVersions.remove(key);
+        if (versions == null) {
+            return;
+        }
+        for (final String dataset : versions.keySet()) {
+            final Set<SearchCacheKey> keys = this.keysByDataset.get(dataset);
+            if ((keys != null) && keys.remove(key) && keys.isEmpty()) {
+                this.keysByDataset.remove(dataset);
+            }
+        }
+    }
+
+    /** Map from each recorded key to the versions of the datasets that its response was built from. */
+    private final Map<SearchCacheKey, Map<String, Long>> keyVersions = new HashMap<>();
+
+    /** Map from each dataset to the recorded keys whose responses include it. */
+    private final Map<String, Set<SearchCacheKey>> keysByDataset = new HashMap<>();
+
+    /** Map from each dataset to the newest version of it that has been seen. */
+    private final Map<String, Long> currentVersions = new HashMap<>();
+}
@@ -0,0 +1,1070 @@
+package io.citrine.jcc.core.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of search responses that is kept in a local directory so that it survives restarts. This is meant
+ * to sit under a {@link SearchResultCache}: lookups that miss in memory are tried here before going to the network.
+ *
+ * <p>Entries are appended to segment files. A segment is memory mapped once it is full, so reads from it are copies
+ * out of the page cache. Each record holds the full key, the versions of the datasets that the response was built
+ * from, the response body and a CRC32 checksum, and the in-memory index maps a 64-bit hash of the key to the location
+ * of its latest record. The dataset versions can be read back without the bodies with {@link #getDatasetVersions()},
+ * so that a {@link DatasetVersionIndex} also covers entries that were saved before a restart. Removing an entry
+ * appends a tombstone so that it stays removed after a restart. When the cache is closed, a compact index of every
+ * live entry is written so that the next open only has to scan records written after it. A crash at any point loses
+ * at most the records that had not reached the disk: records that fail their checksum end the scan of a segment and
+ * the segment is truncated there.
+ *
+ * <p>When the segments hold more than the maximum number of bytes, the oldest segment is compacted: entries that
+ * have been read since they were written are copied forward, and the segment is deleted. Entries that have not been
+ * read, or that have been replaced, removed or have expired, are dropped.
+ *
+ * <p>Only one cache can use a directory at a time. The directory is locked while the cache is open.
+ *
+ * @author Kyle Michel
+ */
+public class DiskSearchCache implements Closeable {
+
+    /**
+     * Constructor.
+     *
+     * @param directory {@link Path} of the directory to keep the cache in. It is created if it does not exist.
+     * @param maximumBytes Maximum number of bytes to hold in segment files.
+     * @param segmentBytes Number of bytes after which a segment is sealed and a new one is started.
+     * @param timeToLiveMillis Number of milliseconds after which an entry expires, or a non-positive value for no
+     *                         expiration.
+     * @throws IllegalArgumentException if the maximum size or the segment size is not positive.
+     * @throws IOException if the directory cannot be opened or is in use by another cache.
+     */
+    public DiskSearchCache(final Path directory, final long maximumBytes, final long segmentBytes,
+                           final long timeToLiveMillis) throws IOException {
+        this(directory, maximumBytes, segmentBytes, timeToLiveMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directory {@link Path} of the directory to keep the cache in. It is created if it does not exist.
+     * @param maximumBytes Maximum number of bytes to hold in segment files.
+     * @param segmentBytes Number of bytes after which a segment is sealed and a new one is started.
+     * @param timeToLiveMillis Number of milliseconds after which an entry expires, or a non-positive value for no
+     *                         expiration.
+     * @param clock {@link LongSupplier} with the current time in milliseconds.
+     * @throws IllegalArgumentException if the maximum size or the segment size is not positive.
+     * @throws IOException if the directory cannot be opened or is in use by another cache.
+     */
+    DiskSearchCache(final Path directory, final long maximumBytes, final long segmentBytes,
+                    final long timeToLiveMillis, final LongSupplier clock) throws IOException {
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("Maximum disk cache size must be positive");
+        }
+        if ((segmentBytes <= 0) || (segmentBytes > Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException("Disk cache segment size must be positive and less than 2 GiB");
+        }
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.segmentBytes = Math.min(segmentBytes, maximumBytes);
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.clock = clock;
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            this.lock = tryLock(this.lockChannel);
+            if (this.lock == null) {
+                throw new IOException("Disk cache directory is in use: " + directory);
+            }
+            load();
+        }
+        catch (IOException | RuntimeException e) {
+            closeSegments();
+            this.lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the body of the response that is saved for a key. Failures to read from the disk are counted as misses.
+     *
+     * @param key {@link SearchCacheKey} to look up.
+     * @return Array with the response body or a null pointer if there is no entry for the key.
+     */
+    public byte[] get(final SearchCacheKey key) {
+        final byte[] keyBytes = encodeKey(key);
+        final long hash = hash(keyBytes);
+        final Entry entry = this.index.get(hash);
+        if (entry == null) {
+            this.missCount.increment();
+            return null;
+        }
+        if (isExpired(entry)) {
+            if (this.index.remove(hash, entry)) {
+                this.evictionCount.increment();
+            }
+            this.missCount.increment();
+            return null;
+        }
+        byte[] body = null;
+        this.segmentLock.readLock().lock();
+        try {
+            final Segment segment = this.segments.get(entry.segmentId);
+            if (segment != null) {
+                body = readBody(segment, entry, keyBytes);
+            }
+        }
+        catch (IOException e) {
+            body = null;
+        }
+        finally {
+            this.segmentLock.readLock().unlock();
+        }
+        if (body == null) {
+            this.missCount.increment();
+            return null;
+        }
+        entry.accessed = true;
+        this.hitCount.increment();
+        return body;
+    }
+
+    /**
+     * Determine whether there is an unexpired entry for a key without reading it or updating the counters.
+     *
+     * @param key {@link SearchCacheKey} to check.
+     * @return True if an entry may exist for the key. Keys whose hashes collide with a saved key also return true.
+     */
+    public boolean containsKey(final SearchCacheKey key) {
+        final Entry entry = this.index.get(hash(encodeKey(key)));
+        return (entry != null) && !isExpired(entry);
+    }
+
+    /**
+     * Save the body of a response without any dataset versions, replacing any earlier entry for the same key.
+     *
+     * @param key {@link SearchCacheKey} of the request.
+     * @param body Array with the response body.
+     * @throws IOException if the entry cannot be written.
+     */
+    public void put(final SearchCacheKey key, final byte[] body) throws IOException {
+        put(key, body, Collections.emptyMap());
+    }
+
+    /**
+     * Save the body of a response with the versions of the datasets that it was built from, replacing any earlier
+     * entry for the same key. The oldest segments are compacted if this puts the cache over its maximum size.
+     *
+     * @param key {@link SearchCacheKey} of the request.
+     * @param body Array with the response body.
+     * @param versions Map from each dataset in the response to its version. The version is a null pointer if the
+     *                 response did not include it.
+     * @throws IOException if the entry cannot be written.
+     */
+    public void put(final SearchCacheKey key, final byte[] body, final Map<String, Long> versions)
+            throws IOException {
+        final byte[] keyBytes = encodeKey(key);
+        final byte[] versionBytes = encodeVersions(versions);
+        this.segmentLock.writeLock().lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.index.put(hash(keyBytes), append(keyBytes, versionBytes, body, this.clock.getAsLong()));
+            compactIfNeeded();
+        }
+        finally {
+            this.segmentLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the entry for a key. A tombstone is written so that the entry is not restored when the cache is opened
+     * again.
+     *
+     * @param key {@link SearchCacheKey} to remove.
+     * @throws IOException if the tombstone cannot be written.
+     */
+    public void invalidate(final SearchCacheKey key) throws IOException {
+        final byte[] keyBytes = encodeKey(key);
+        this.segmentLock.writeLock().lock();
+        try {
+            if (!this.closed && (this.index.remove(hash(keyBytes)) != null)) {
+                append(keyBytes, EMPTY_VERSIONS, null, this.clock.getAsLong());
+            }
+        }
+        finally {
+            this.segmentLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all entries and delete all segment files.
+     *
+     * @throws IOException if a file cannot be deleted.
+     */
+    public void invalidateAll() throws IOException {
+        this.segmentLock.writeLock().lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.index.clear();
+            Files.deleteIfExists(this.directory.resolve(INDEX_FILE));
+            for (final Segment segment : this.segments.values()) {
+                segment.close();
+                Files.deleteIfExists(segment.path);
+            }
+            this.segments.clear();
+            this.totalBytes = 0;
+            this.active = null;
+        }
+        finally {
+            this.segmentLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the dataset versions of every unexpired entry that was saved with at least one of them. Only the keys and
+     * versions of the records are read, not the bodies. Records that cannot be read are left out.
+     *
+     * @return Map from the key of each entry to the versions of the datasets that its response was built from.
+     */
+    public Map<SearchCacheKey, Map<String, Long>> getDatasetVersions() {
+        final Map<SearchCacheKey, Map<String, Long>> result = new HashMap<>();
+        this.segmentLock.readLock().lock();
+        try {
+            final long now = this.clock.getAsLong();
+            for (final Entry entry : this.index.values()) {
+                final Segment segment = this.segments.get(entry.segmentId);
+                if ((entry.versionsLength <= EMPTY_VERSIONS.length) || (segment == null) || isExpired(entry, now)) {
+                    continue;
+                }
+                final ByteBuffer buffer = ByteBuffer.allocate(entry.keyLength + entry.versionsLength);
+                if (segment.mapped != null) {
+                    final ByteBuffer record = segment.mapped.duplicate();
+                    record.position(entry.offset + HEADER_BYTES);
+                    record.limit(record.position() + buffer.capacity());
+                    buffer.put(record);
+                }
+                else {
+                    readFully(segment.channel, buffer, entry.offset + HEADER_BYTES);
+                }
+                buffer.flip();
+                try {
+                    final SearchCacheKey key = decodeKey(buffer, entry.keyLength);
+                    result.put(key, decodeVersions(buffer));
+                }
+                catch (BufferUnderflowException | IllegalArgumentException e) {
+                    // The record is checked against its checksum when its body is read, so it is not used either way
+                }
+            }
+        }
+        catch (IOException e) {
+            // Leave out the records that had not been read; they are still checked when their bodies are read
+        }
+        finally {
+            this.segmentLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Get the current counters of this cache.
+     *
+     * @return {@link SearchCacheStats} with the counters. The weight is the number of bytes in segment files.
+     */
+    public SearchCacheStats getStats() {
+        this.segmentLock.readLock().lock();
+        try {
+            return new SearchCacheStats(this.hitCount.sum(), this.missCount.sum(), this.evictionCount.sum(),
+                    this.index.size(), this.totalBytes);
+        }
+        finally {
+            this.segmentLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flush all segments to the disk, write the index and release the directory. Calls to this cache after it has
+     * been closed miss or do nothing.
+     *
+     * @throws IOException if the index cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        this.segmentLock.writeLock().lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                if (this.active != null) {
+                    this.active.channel.force(false);
+                }
+                writeIndex();
+            }
+            finally {
+                closeSegments();
+                this.index.clear();
+                this.lock.release();
+                this.lockChannel.close();
+            }
+        }
+        finally {
+            this.segmentLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Open the segments in the directory and build the index from the index file and the records written after it.
+     *
+     * @throws IOException if thrown while reading the directory.
+     */
+    private void load() throws IOException {
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(this.directory, "segment-*.dat")) {
+            for (final Path path : paths) {
+                final String name = path.getFileName().toString();
+                final int id;
+                try {
+                    id = Integer.parseInt(name.substring("segment-".length(), name.length() - ".dat".length()));
+                }
+                catch (NumberFormatException e) {
+                    continue;
+                }
+                this.segments.put(id, new Segment(id, path));
+            }
+        }
+        final Map<Integer, Long> indexedLengths = readIndex();
+        for (final Segment segment : this.segments.values()) {
+            final long start = indexedLengths.getOrDefault(segment.id, 0L);
+            segment.size = scan(segment, start);
+            this.totalBytes += segment.size;
+        }
+        if (!this.segments.isEmpty()) {
+            this.active = this.segments.lastEntry().getValue();
+            for (final Segment segment : this.segments.values()) {
+                if (segment != this.active) {
+                    segment.seal();
+                }
+            }
+        }
+        final long now = this.clock.getAsLong();
+        this.index.values().removeIf(entry -> isExpired(entry, now));
+    }
+
+    /**
+     * Read the index file into the index. The index is only used if it is intact and every segment that it refers to
+     * is at least as long as it was when the index was written.
+     *
+     * @return Map of segment ids to the number of bytes of each segment that are covered by the index. This is empty
+     * if the index is missing or cannot be used.
+     * @throws IOException if thrown while reading the index file.
+     */
+    private Map<Integer, Long> readIndex() throws IOException {
+        final Path path = this.directory.resolve(INDEX_FILE);
+        if (!Files.exists(path)) {
+            return new HashMap<>();
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 16) {
+            return new HashMap<>();
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - 4);
+        if ((buffer.getInt(buffer.limit() - 4) != (int) crc.getValue()) || (buffer.getInt() != INDEX_MAGIC)) {
+            return new HashMap<>();
+        }
+        final Map<Integer, Long> lengths = new HashMap<>();
+        final int segmentCount = buffer.getInt();
+        for (int i = 0; i < segmentCount; ++i) {
+            final int id = buffer.getInt();
+            final long length = buffer.getLong();
+            final Segment segment = this.segments.get(id);
+            if ((segment == null) || (segment.channel.size() < length)) {
+                return new HashMap<>();
+            }
+            lengths.put(id, length);
+        }
+        final Map<Long, Entry> entries = new HashMap<>();
+        final int entryCount = buffer.getInt();
+        for (int i = 0; i < entryCount; ++i) {
+            final long hash = buffer.getLong();
+            final Entry entry = new Entry(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                    buffer.getInt(), buffer.getLong());
+            if (!lengths.containsKey(entry.segmentId)) {
+                return new HashMap<>();
+            }
+            entries.put(hash, entry);
+        }
+        this.index.putAll(entries);
+        return lengths;
+    }
+
+    /**
+     * Write an index of every live entry. The index is written to a temporary file that then replaces the old index,
+     * so a crash while writing leaves either the old index or the new one.
+     *
+     * @throws IOException if the index cannot be written.
+     */
+    private void writeIndex() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(16 + 12 * this.segments.size() + 36 * this.index.size());
+        buffer.putInt(INDEX_MAGIC).putInt(this.segments.size());
+        for (final Segment segment : this.segments.values()) {
+            buffer.putInt(segment.id).putLong(segment.size);
+        }
+        final int countPosition = buffer.position();
+        buffer.putInt(0);
+        int entryCount = 0;
+        for (final Map.Entry<Long, Entry> indexEntry : this.index.entrySet()) {
+            final Entry entry = indexEntry.getValue();
+            if (this.segments.containsKey(entry.segmentId)) {
+                buffer.putLong(indexEntry.getKey()).putInt(entry.segmentId).putInt(entry.offset)
+                        .putInt(entry.keyLength).putInt(entry.versionsLength).putInt(entry.bodyLength)
+                        .putLong(entry.writtenAtMillis);
+                entryCount++;
+            }
+        }
+        buffer.putInt(countPosition, entryCount);
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        final Path temporary = this.directory.resolve(INDEX_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, this.directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Add the records of a segment to the index, starting at the input offset. The segment is truncated at the first
+     * record that is incomplete or fails its checksum.
+     *
+     * @param segment {@link Segment} to scan.
+     * @param start Offset of the first record to read.
+     * @return Number of valid bytes in the segment.
+     * @throws IOException if thrown while reading the segment.
+     */
+    private long scan(final Segment segment, final long start) throws IOException {
+        final long fileSize = segment.channel.size();
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = start;
+        while (position + HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(segment.channel, header, position);
+            header.flip();
+            final int magic = header.getInt();
+            final int keyLength = header.getInt();
+            final int versionsLength = header.getInt();
+            final int bodyLength = header.getInt();
+            final long writtenAtMillis = header.getLong();
+            final int checksum = header.getInt();
+            final long recordLength = (long) HEADER_BYTES + keyLength + versionsLength + Math.max(bodyLength, 0);
+            if ((magic != RECORD_MAGIC) || (keyLength < 0) || (versionsLength < 0) || (bodyLength < -1)
+                    || (position + recordLength > fileSize) || (position + recordLength > Integer.MAX_VALUE)) {
+                break;
+            }
+            final ByteBuffer content = ByteBuffer.allocate((int) (recordLength - HEADER_BYTES));
+            readFully(segment.channel, content, position + HEADER_BYTES);
+            if (checksum(header.array(), content.array(), 0, content.capacity()) != checksum) {
+                break;
+            }
+            final long hash = hash(content.array(), 0, keyLength);
+            if (bodyLength < 0) {
+                this.index.remove(hash);
+            }
+            else {
+                this.index.put(hash, new Entry(segment.id, (int) position, keyLength, versionsLength, bodyLength,
+                        writtenAtMillis));
+            }
+            position += recordLength;
+        }
+        if (position < fileSize) {
+            segment.channel.truncate(position);
+        }
+        return position;
+    }
+
+    /**
+     * Append a record to the active segment, starting a new segment if the active one is full.
+     *
+     * @param keyBytes Array with the encoded key.
+     * @param versionBytes Array with the encoded dataset versions.
+     * @param body Array with the response body or a null pointer to write a tombstone.
+     * @param writtenAtMillis Time that the entry was first written in milliseconds.
+     * @return {@link Entry} with the location of the record.
+     * @throws IOException if the record cannot be written.
+     */
+    private Entry append(final byte[] keyBytes, final byte[] versionBytes, final byte[] body,
+                         final long writtenAtMillis) throws IOException {
+        final int bodyLength = (body == null) ? -1 : body.length;
+        final long recordLength = (long) HEADER_BYTES + keyBytes.length + versionBytes.length
+                + Math.max(bodyLength, 0);
+        if ((this.active == null)
+                || ((this.active.size > 0) && (this.active.size + recordLength > this.segmentBytes))) {
+            startSegment();
+        }
+        if (this.active.size + recordLength > Integer.MAX_VALUE) {
+            throw new IOException("Disk cache record is too large");
+        }
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(RECORD_MAGIC)
+                .putInt(keyBytes.length)
+                .putInt(versionBytes.length)
+                .putInt(bodyLength)
+                .putLong(writtenAtMillis);
+        final CRC32 crc = new CRC32();
+        crc.update(header.array(), 4, HEADER_BYTES - 8);
+        crc.update(keyBytes);
+        crc.update(versionBytes);
+        if (body != null) {
+            crc.update(body);
+        }
+        header.putInt((int) crc.getValue());
+        header.flip();
+
+        final Segment segment = this.active;
+        final long position = segment.size;
+        final ByteBuffer[] buffers = (body == null)
+                ? new ByteBuffer[]{header, ByteBuffer.wrap(keyBytes), ByteBuffer.wrap(versionBytes)}
+                : new ByteBuffer[]{header, ByteBuffer.wrap(keyBytes), ByteBuffer.wrap(versionBytes),
+                        ByteBuffer.wrap(body)};
+        segment.channel.position(position);
+        long written = 0;
+        while (written < recordLength) {
+            written += segment.channel.write(buffers);
+        }
+        segment.size += recordLength;
+        this.totalBytes += recordLength;
+        return new Entry(segment.id, (int) position, keyBytes.length, versionBytes.length, bodyLength,
+                writtenAtMillis);
+    }
+
+    /**
+     * Seal the active segment and start a new one.
+     *
+     * @throws IOException if the new segment cannot be created.
+     */
+    private void startSegment() throws IOException {
+        if (this.active != null) {
+            this.active.channel.force(false);
+            this.active.seal();
+        }
+        final int id = this.segments.isEmpty() ? 0 : this.segments.lastKey() + 1;
+        final Segment segment = new Segment(id, this.directory.resolve(String.format("segment-%08d.dat", id)));
+        this.segments.put(id, segment);
+        this.active = segment;
+    }
+
+    /**
+     * Compact the oldest segments until the cache is under its maximum size. The active segment is never compacted.
+     *
+     * @throws IOException if a segment cannot be compacted.
+     */
+    private void compactIfNeeded() throws IOException {
+        while ((this.totalBytes > this.maximumBytes) && (this.segments.size() > 1)) {
+            final Segment oldest = this.segments.firstEntry().getValue();
+            final long now = this.clock.getAsLong();
+            final List<Map.Entry<Long, Entry>> survivors = new ArrayList<>();
+            final Iterator<Map.Entry<Long, Entry>> iterator = this.index.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<Long, Entry> indexEntry = iterator.next();
+                final Entry entry = indexEntry.getValue();
+                if (entry.segmentId != oldest.id) {
+                    continue;
+                }
+                if (entry.accessed && !isExpired(entry, now)) {
+                    survivors.add(indexEntry);
+                }
+                else {
+                    iterator.remove();
+                    this.evictionCount.increment();
+                }
+            }
+
+            // Copy entries that have been read forward with a fresh access bit, so they are dropped next time unless
+            // they are read again
+            for (final Map.Entry<Long, Entry> survivor : survivors) {
+                final Entry entry = survivor.getValue();
+                final ByteBuffer record = oldest.mapped.duplicate();
+                record.position(entry.offset + HEADER_BYTES);
+                final byte[] keyBytes = new byte[entry.keyLength];
+                final byte[] versionBytes = new byte[entry.versionsLength];
+                final byte[] body = new byte[entry.bodyLength];
+                record.get(keyBytes).get(versionBytes).get(body);
+                this.index.put(survivor.getKey(), append(keyBytes, versionBytes, body, entry.writtenAtMillis));
+            }
+            this.segments.remove(oldest.id);
+            this.totalBytes -= oldest.size;
+            oldest.close();
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    /**
+     * Read the body of a record after checking that it belongs to the input key and that it is intact.
+     *
+     * @param segment {@link Segment} with the record.
+     * @param entry {@link Entry} with the location of the record.
+     * @param keyBytes Array with the encoded key.
+     * @return Array with the body or a null pointer if the record does not match.
+     * @throws IOException if thrown while reading the segment.
+     */
+    private static byte[] readBody(final Segment segment, final Entry entry, final byte[] keyBytes)
+            throws IOException {
+        if (entry.keyLength != keyBytes.length) {
+            return null;
+        }
+        final byte[] record = new byte[HEADER_BYTES + entry.keyLength + entry.versionsLength + entry.bodyLength];
+        if (segment.mapped != null) {
+            final ByteBuffer buffer = segment.mapped.duplicate();
+            buffer.position(entry.offset);
+            buffer.get(record);
+        }
+        else {
+            readFully(segment.channel, ByteBuffer.wrap(record), entry.offset);
+        }
+        final ByteBuffer header = ByteBuffer.wrap(record, 0, HEADER_BYTES);
+        header.position(HEADER_BYTES - 4);
+        final int content = entry.keyLength + entry.versionsLength + entry.bodyLength;
+        if ((checksum(record, record, HEADER_BYTES, content) != header.getInt())
+                || !regionEquals(record, HEADER_BYTES, keyBytes)) {
+            return null;
+        }
+        final byte[] body = new byte[entry.bodyLength];
+        System.arraycopy(record, HEADER_BYTES + entry.keyLength + entry.versionsLength, body, 0, entry.bodyLength);
+        return body;
+    }
+
+    /**
+     * Get whether an entry has expired.
+     *
+     * @param entry {@link Entry} to check.
+     * @return True if the entry has expired.
+     */
+    private boolean isExpired(final Entry entry) {
+        return isExpired(entry, this.clock.getAsLong());
+    }
+
+    /**
+     * Get whether an entry has expired.
+     *
+     * @param entry {@link Entry} to check.
+     * @param now Current time in milliseconds.
+     * @return True if the entry has expired.
+     */
+    private boolean isExpired(final Entry entry, final long now) {
+        return (this.timeToLiveMillis > 0) && (now - entry.writtenAtMillis >= this.timeToLiveMillis);
+    }
+
+    /**
+     * Close the channels of all segments.
+     */
+    private void closeSegments() {
+        for (final Segment segment : this.segments.values()) {
+            try {
+                segment.close();
+            }
+            catch (IOException e) {
+                // The segment is closed as far as this cache is concerned
+            }
+        }
+    }
+
+    /**
+     * Try to lock a file.
+     *
+     * @param channel {@link FileChannel} of the file to lock.
+     * @return {@link FileLock} on the file or a null pointer if it is locked by another process or by this process.
+     * @throws IOException if thrown while locking the file.
+     */
+    private static FileLock tryLock(final FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        }
+        catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encode a key as the length of its URI followed by the URI and the payload.
+     *
+     * @param key {@link SearchCacheKey} to encode.
+     * @return Array with the encoded key.
+     */
+    private static byte[] encodeKey(final SearchCacheKey key) {
+        final byte[] uri = key.getUri().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(4 + uri.length + key.getPayload().length)
+                .putInt(uri.length)
+                .put(uri)
+                .put(key.getPayload())
+                .array();
+    }
+
+    /**
+     * Decode a key that was encoded with {@link #encodeKey(SearchCacheKey)}.
+     *
+     * @param buffer {@link ByteBuffer} positioned at the start of the encoded key.
+     * @param keyLength Number of bytes in the encoded key.
+     * @return {@link SearchCacheKey} that was decoded.
+     * @throws BufferUnderflowException if the buffer ends before the key.
+     * @throws IllegalArgumentException if the key is not valid.
+     */
+    private static SearchCacheKey decodeKey(final ByteBuffer buffer, final int keyLength) {
+        final int uriLength = buffer.getInt();
+        if ((uriLength < 0) || (uriLength > keyLength - 4)) {
+            throw new IllegalArgumentException("Invalid disk cache key");
+        }
+        final byte[] uri = new byte[uriLength];
+        final byte[] payload = new byte[keyLength - 4 - uriLength];
+        buffer.get(uri).get(payload);
+        return new SearchCacheKey(new String(uri, StandardCharsets.UTF_8), payload);
+    }
+
+    /**
+     * Encode dataset versions as the number of datasets followed by the length and UTF-8 bytes of each dataset id,
+     * a flag that is 1 if the version is known, and the version.
+     *
+     * @param versions Map from dataset ids to their versions, which may be null pointers.
+     * @return Array with the encoded versions.
+     */
+    private static byte[] encodeVersions(final Map<String, Long> versions) {
+        if (versions.isEmpty()) {
+            return EMPTY_VERSIONS;
+        }
+        final List<byte[]> datasets = new ArrayList<>(versions.size());
+        int length = 4;
+        for (final String dataset : versions.keySet()) {
+            final byte[] bytes = dataset.getBytes(StandardCharsets.UTF_8);
+            datasets.add(bytes);
+            length += 4 + bytes.length + 9;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length).putInt(versions.size());
+        int i = 0;
+        for (final Long version : versions.values()) {
+            final byte[] bytes = datasets.get(i++);
+            buffer.putInt(bytes.length).put(bytes)
+                    .put((byte) ((version == null) ? 0 : 1))
+                    .putLong((version == null) ? 0 : version);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decode dataset versions that were encoded with {@link #encodeVersions(Map)}.
+     *
+     * @param buffer {@link ByteBuffer} positioned at the start of the encoded versions.
+     * @return Map from dataset ids to their versions.
+     * @throws BufferUnderflowException if the buffer ends before the versions.
+     * @throws IllegalArgumentException if the versions are not valid.
+     */
+    private static Map<String, Long> decodeVersions(final ByteBuffer buffer) {
+        final int count = buffer.getInt();
+        if ((count < 0) || (count > buffer.remaining())) {
+            throw new IllegalArgumentException("Invalid disk cache dataset versions");
+        }
+        final Map<String, Long> versions = new HashMap<>();
+        for (int i = 0; i < count; ++i) {
+            final int length = buffer.getInt();
+            if ((length < 0) || (length > buffer.remaining())) {
+                throw new IllegalArgumentException("Invalid disk cache dataset versions");
+            }
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            final boolean known = buffer.get() != 0;
+            final long version = buffer.getLong();
+            versions.put(new String(bytes, StandardCharsets.UTF_8), known ? version : null);
+        }
+        return versions;
+    }
+
+    /**
+     * Compute the 64-bit hash of an encoded key.
+     *
+     * @param keyBytes Array with the encoded key.
+     * @return Hash of the key.
+     */
+    private static long hash(final byte[] keyBytes) {
+        return hash(keyBytes, 0, keyBytes.length);
+    }
+
+    /**
+     * Compute the 64-bit hash of a region of an array using FNV-1a followed by a final mix of the bits.
+     *
+     * @param bytes Array with the data to hash.
+     * @param offset Index of the first byte.
+     * @param length Number of bytes to hash.
+     * @return Hash of the region.
+     */
+    private static long hash(final byte[] bytes, final int offset, final int length) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = offset; i < offset + length; ++i) {
+            hash = (hash ^ (bytes[i] & 0xff)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Compute the checksum of a record from its header and content.
+     *
+     * @param header Array whose first bytes are the header of the record.
+     * @param content Array with the key, dataset versions and body of the record.
+     * @param offset Index of the first byte of the content.
+     * @param length Number of bytes of content.
+     * @return Checksum of the record.
+     */
+    private static int checksum(final byte[] header, final byte[] content, final int offset, final int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(header, 4, HEADER_BYTES - 8);
+        crc.update(content, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Get whether a region of an array is equal to another array.
+     *
+     * @param bytes Array with the region.
+     * @param offset Index of the first byte of the region.
+     * @param expected Array to compare the region to.
+     * @return True if the region is equal to the expected array.
+     */
+    private static boolean regionEquals(final byte[] bytes, final int offset, final byte[] expected) {
+        for (int i = 0; i < expected.length; ++i) {
+            if (bytes[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fill a buffer from a channel starting at the input position.
+     *
+     * @param channel {@link FileChannel} to read from.
+     * @param buffer {@link ByteBuffer} to fill.
+     * @param position Position in the channel to start reading from.
+     * @throws IOException if the end of the channel is reached before the buffer is full.
+     */
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            final int length = channel.read(buffer, offset);
+            if (length < 0) {
+                throw new IOException("Unexpected end of disk cache segment");
+            }
+            offset += length;
+        }
+    }
+
+    /** Default number of bytes after which a segment is sealed. */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    /** Number of bytes in the header of a record. */
+    private static final int HEADER_BYTES = 28;
+
+    /** Value at the start of each record. Records in an older format do not match, so their segments are dropped. */
+    private static final int RECORD_MAGIC = 0x4a434332;
+
+    /** Value at the start of the index file. */
+    private static final int INDEX_MAGIC = 0x4a434932;
+
+    /** Encoded dataset versions of an entry without any. */
+    private static final byte[] EMPTY_VERSIONS = new byte[4];
+
+    /** Name of the index file. */
+    private static final String INDEX_FILE = "index.dat";
+
+    /** Name of the file that is locked while the cache is open. */
+    private static final String LOCK_FILE = "lock";
+
+    /** Directory with the cache files. */
+    private final Path directory;
+
+    /** Maximum number of bytes in segment files. */
+    private final long maximumBytes;
+
+    /** Number of bytes after which a segment is sealed. */
+    private final long segmentBytes;
+
+    /** Number of milliseconds after which an entry expires. */
+    private final long timeToLiveMillis;
+
+    /** Source of the current time in milliseconds. */
+    private final LongSupplier clock;
+
+    /** Channel of the lock file. */
+    private final FileChannel lockChannel;
+
+    /** Lock on the directory. */
+    private final FileLock lock;
+
+    /** Map of key hashes to the location of their latest records. */
+    private final Map<Long, Entry> index = new ConcurrentHashMap<>();
+
+    /** Segments in the order that they were created. */
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    /** Lock that keeps segments from being closed while they are read. */
+    private final ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+
+    /** Number of lookups that found an entry. */
+    private final LongAdder hitCount = new LongAdder();
+
+    /** Number of lookups that did not find an entry. */
+    private final LongAdder missCount = new LongAdder();
+
+    /** Number of entries that were dropped because of size or age. */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /** Segment that new records are appended to, or a null pointer if there are no segments. */
+    private Segment active;
+
+    /** Number of bytes in all segments. */
+    private long totalBytes;
+
+    /** Whether this cache has been closed. */
+    private boolean closed;
+
+    /**
+     * Location of the latest record for a key.
+     *
+     * @author Kyle Michel
+     */
+    private static class Entry {
+
+        /**
+         * Constructor.
+         *
+         * @param segmentId Id of the segment with the record.
+         * @param offset Offset of the record in the segment.
+         * @param keyLength Number of bytes in the encoded key.
+         * @param versionsLength Number of bytes in the encoded dataset versions.
+         * @param bodyLength Number of bytes in the body.
+         * @param writtenAtMillis Time that the entry was first written in milliseconds.
+         */
+        Entry(final int segmentId, final int offset, final int keyLength, final int versionsLength,
+              final int bodyLength, final long writtenAtMillis) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.keyLength = keyLength;
+            this.versionsLength = versionsLength;
+            this.bodyLength = bodyLength;
+            this.writtenAtMillis = writtenAtMillis;
+        }
+
+        /** Id of the segment with the record. */
+        final int segmentId;
+
+        /** Offset of the record in the segment. */
+        final int offset;
+
+        /** Number of bytes in the encoded key. */
+        final int keyLength;
+
+        /** Number of bytes in the encoded dataset versions. */
+        final int versionsLength;
+
+        /** Number of bytes in the body. */
+        final int bodyLength;
+
+        /** Time that the entry was first written in milliseconds. */
+        final long writtenAtMillis;
+
+        /** Whether the entry has been read since it was last written or compacted. */
+        volatile boolean accessed;
+    }
+
+    /**
+     * Segment file that records are appended to.
+     *
+     * @author Kyle Michel
+     */
+    private static class Segment {
+
+        /**
+         * Constructor. The file is created if it does not exist.
+         *
+         * @param id Id of the segment.
+         * @param path {@link Path} of the segment file.
+         * @throws IOException if the file cannot be opened.
+         */
+        Segment(final int id, final Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Map the segment into memory. No more records may be appended after this is called.
+         *
+         * @throws IOException if the segment cannot be mapped.
+         */
+        void seal() throws IOException {
+            this.mapped = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.size);
+        }
+
+        /**
+         * Close the channel of the segment. The mapping, if any, is released when it is garbage collected.
+         *
+         * @throws IOException if thrown while closing the channel.
+         */
+        void close() throws IOException {
+            this.mapped = null;
+            this.channel.close();
+        }
+
+        /** Id of the segment. */
+        final int id;
+
+        /** Path of the segment file. */
+        final Path path;
+
+        /** Channel of the segment file. */
+        final FileChannel channel;
+
+        /** Mapping of a sealed segment or a null pointer if records are still being appended. */
+        volatile MappedByteBuffer mapped;
+
+        /** Number of valid bytes in the segment. */
+        long size;
+    }
+}
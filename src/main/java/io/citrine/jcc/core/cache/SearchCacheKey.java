@@ -0,0 +1,80 @@
+package io.citrine.jcc.core.cache;
+
+import java.util.Arrays;
+
+/**
+ * Key of an entry in a {@link SearchResultCache}. A key is made up of the URI that a request is sent to and the
+ * canonical serialized bytes of the query in that request, so two requests map to the same key only if they would
+ * send exactly the same payload to the same endpoint. The hash code is computed once when the key is created.
+ *
+ * @author Kyle Michel
+ */
+public final class SearchCacheKey {
+
+    /**
+     * Constructor. The input payload is owned by this object after this call and must not be modified.
+     *
+     * @param uri String with the URI that the request is sent to.
+     * @param payload Array with the serialized query.
+     */
+    public SearchCacheKey(final String uri, final byte[] payload) {
+        this.uri = uri;
+        this.payload = payload;
+        this.hash = 31 * uri.hashCode() + Arrays.hashCode(payload);
+    }
+
+    /**
+     * Get the URI that the request is sent to.
+     *
+     * @return String with the URI.
+     */
+    public String getUri() {
+        return this.uri;
+    }
+
+    /**
+     * Get the serialized query. The returned array must not be modified.
+     *
+     * @return Array with the serialized query.
+     */
+    public byte[] getPayload() {
+        return this.payload;
+    }
+
+    /**
+     * Get the approximate number of bytes that this key occupies.
+     *
+     * @return Number of bytes in this key.
+     */
+    public int weight() {
+        return 2 * this.uri.length() + this.payload.length;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof SearchCacheKey)) {
+            return false;
+        }
+        final SearchCacheKey rhsKey = (SearchCacheKey) rhs;
+        return (this.hash == rhsKey.hash)
+                && this.uri.equals(rhsKey.uri)
+                && Arrays.equals(this.payload, rhsKey.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    /** URI that the request is sent to. */
+    private final String uri;
+
+    /** Serialized query. */
+    private final byte[] payload;
+
+    /** Cached hash code. */
+    private final int hash;
+}
@@ -0,0 +1,104 @@
+package io.citrine.jcc.core.cache;
+
+/**
+ * Snapshot of the counters of a {@link SearchResultCache}.
+ *
+ * @author Kyle Michel
+ */
+public class SearchCacheStats {
+
+    /**
+     * Constructor.
+     *
+     * @param hitCount Number of lookups that found an entry.
+     * @param missCount Number of lookups that did not find an entry.
+     * @param evictionCount Number of entries that were evicted because of size or age.
+     * @param entryCount Approximate number of entries in the cache.
+     * @param weightBytes Approximate number of bytes held by the cache.
+     */
+    public SearchCacheStats(final long hitCount, final long missCount, final long evictionCount,
+                            final long entryCount, final long weightBytes) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.entryCount = entryCount;
+        this.weightBytes = weightBytes;
+    }
+
+    /**
+     * Get the number of lookups that found an entry.
+     *
+     * @return Number of cache hits.
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Get the number of lookups that did not find an entry.
+     *
+     * @return Number of cache misses.
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Get the fraction of lookups that found an entry.
+     *
+     * @return Hit rate between 0 and 1, or 1 if there have been no lookups.
+     */
+    public double getHitRate() {
+        final long requestCount = this.hitCount + this.missCount;
+        return (requestCount == 0) ? 1.0 : (double) this.hitCount / requestCount;
+    }
+
+    /**
+     * Get the number of entries that were evicted because of size or age.
+     *
+     * @return Number of evictions.
+     */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Get the approximate number of entries in the cache.
+     *
+     * @return Number of entries.
+     */
+    public long getEntryCount() {
+        return this.entryCount;
+    }
+
+    /**
+     * Get the approximate number of bytes held by the cache.
+     *
+     * @return Number of bytes.
+     */
+    public long getWeightBytes() {
+        return this.weightBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCacheStats{hitCount=" + this.hitCount + ", missCount=" + this.missCount
+                + ", evictionCount=" + this.evictionCount + ", entryCount=" + this.entryCount
+                + ", weightBytes=" + this.weightBytes + "}";
+    }
+
+    /** Number of cache hits. */
+    private final long hitCount;
+
+    /** Number of cache misses. */
+    private final long missCount;
+
+    /** Number of evictions. */
+    private final long evictionCount;
+
+    /** Number of entries. */
+    private final long entryCount;
+
+    /** Number of bytes held. */
+    private final long weightBytes;
+}
@@ -0,0 +1,204 @@
+package io.citrine.jcc.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process cache of search responses. Entries map a {@link SearchCacheKey} to the raw body of the response that
+ * was received for it, so every lookup decodes a fresh result object and callers can never see each other's changes.
+ * The cache is bounded by the total number of bytes held and uses a frequency-aware (W-TinyLFU) policy to decide
+ * which entries to admit and evict, so a burst of one-off queries does not flush out queries that are requested
+ * often.
+ *
+ * <p>Each entry also records when it was saved and how many times it has been read since, so that callers can decide
+ * when to refresh it before it expires.
+ *
+ * @author Kyle Michel
+ */
+public class SearchResultCache {
+
+    /**
+     * Constructor.
+     *
+     * @param maximumWeightBytes Maximum number of bytes to hold in the cache.
+     * @param timeToLiveMillis Number of milliseconds after which an entry expires, or a non-positive value for no
+     *                         expiration.
+     * @throws IllegalArgumentException if the maximum weight is not positive.
+     */
+    public SearchResultCache(final long maximumWeightBytes, final long timeToLiveMillis) {
+        this(maximumWeightBytes, timeToLiveMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumWeightBytes Maximum number of bytes to hold in the cache.
+     * @param timeToLiveMillis Number of milliseconds after which an entry expires, or a non-positive value for no
+     *                         expiration.
+     * @param clock {@link LongSupplier} that returns the current time in milliseconds.
+     * @throws IllegalArgumentException if the maximum weight is not positive.
+     */
+    SearchResultCache(final long maximumWeightBytes, final long timeToLiveMillis, final LongSupplier clock) {
+        if (maximumWeightBytes <= 0) {
+            throw new IllegalArgumentException("Maximum cache weight must be positive");
+        }
+        final Caffeine<SearchCacheKey, Entry> builder = Caffeine.newBuilder()
+                .executor(Runnable::run)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+                .maximumWeight(maximumWeightBytes)
+                .weigher((SearchCacheKey key, Entry value) ->
+                        key.weight() + value.body.length + ENTRY_OVERHEAD_BYTES)
+                .recordStats();
+        if (timeToLiveMillis > 0) {
+            builder.expireAfterWrite(timeToLiveMillis, TimeUnit.MILLISECONDS);
+        }
+        this.cache = builder.build();
+        this.clock = clock;
+    }
+
+    /**
+     * Get the body of the response that is cached for a key.
+     *
+     * @param key {@link SearchCacheKey} to look up.
+     * @return Array with the response body or a null pointer if there is no entry for the key. The returned array
+     * must not be modified.
+     */
+    public byte[] get(final SearchCacheKey key) {
+        final Entry entry = getEntry(key);
+        return (entry == null) ? null : entry.getBody();
+    }
+
+    /**
+     * Get the entry that is cached for a key, along with when it was saved. This counts as a read of the entry.
+     *
+     * @param key {@link SearchCacheKey} to look up.
+     * @return {@link Entry} for the key or a null pointer if there is no entry for the key.
+     */
+    public Entry getEntry(final SearchCacheKey key) {
+        final Entry entry = this.cache.getIfPresent(key);
+        if (entry != null) {
+            entry.hitCount.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Determine whether there is an entry for a key without updating the counters or the eviction policy.
+     *
+     * @param key {@link SearchCacheKey} to check.
+     * @return True if the cache holds an entry for the key.
+     */
+    public boolean containsKey(final SearchCacheKey key) {
+        return this.cache.asMap().containsKey(key);
+    }
+
+    /**
+     * Save the body of a response. The input array is owned by the cache after this call and must not be modified.
+     *
+     * @param key {@link SearchCacheKey} of the request.
+     * @param body Array with the response body.
+     */
+    public void put(final SearchCacheKey key, final byte[] body) {
+        this.cache.put(key, new Entry(body, this.clock.getAsLong()));
+    }
+
+    /**
+     * Remove the entry for a key.
+     *
+     * @param key {@link SearchCacheKey} to remove.
+     */
+    public void invalidate(final SearchCacheKey key) {
+        this.cache.invalidate(key);
+    }
+
+    /**
+     * Remove all entries from the cache.
+     */
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Get the current counters of this cache.
+     *
+     * @return {@link SearchCacheStats} with the counters.
+     */
+    public SearchCacheStats getStats() {
+        this.cache.cleanUp();
+        final CacheStats stats = this.cache.stats();
+        final long weightBytes = this.cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new SearchCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                this.cache.estimatedSize(), weightBytes);
+    }
+
+    /** Approximate number of bytes used by the cache to track each entry. */
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    /** Underlying cache. */
+    private final Cache<SearchCacheKey, Entry> cache;
+
+    /** Function that returns the current time in milliseconds. */
+    private final LongSupplier clock;
+
+    /**
+     * Body of a cached response along with when it was saved and how often it has been read since.
+     *
+     * @author Kyle Michel
+     */
+    public static final class Entry {
+
+        /**
+         * Constructor.
+         *
+         * @param body Array with the response body.
+         * @param writtenAtMillis Time in milliseconds at which the entry was saved.
+         */
+        private Entry(final byte[] body, final long writtenAtMillis) {
+            this.body = body;
+            this.writtenAtMillis = writtenAtMillis;
+        }
+
+        /**
+         * Get the body of the response.
+         *
+         * @return Array with the response body. The returned array must not be modified.
+         */
+        public byte[] getBody() {
+            return this.body;
+        }
+
+        /**
+         * Get the time at which the entry was saved.
+         *
+         * @return Time in milliseconds at which the entry was saved.
+         */
+        public long getWrittenAtMillis() {
+            return this.writtenAtMillis;
+        }
+
+        /**
+         * Get the number of times that the entry has been read since it was saved.
+         *
+         * @return Number of reads of the entry.
+         */
+        public int getHitCount() {
+            return this.hitCount.get();
+        }
+
+        /** Body of the response. */
+        private final byte[] body;
+
+        /** Time in milliseconds at which the entry was saved. */
+        private final long writtenAtMillis;
+
+        /** Number of reads of the entry since it was saved. */
+        private final AtomicInteger hitCount = new AtomicInteger();
+    }
+}
@@ -9,7 +9,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Base class for all analysis types.
@@ -53,7 +53,12 @@ public abstract class Analysis implements Serializable {
             return false;
         }
         final Analysis rhsAnalysis = (Analysis) rhs;
-        return Optional.ofNullable(this.path).equals(Optional.ofNullable(rhsAnalysis.path));
+        return Objects.equals(this.path, rhsAnalysis.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.path);
     }
 
     /**
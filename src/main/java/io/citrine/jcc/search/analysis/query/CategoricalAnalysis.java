@@ -7,7 +7,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for running a categorical analysis.
@@ -152,12 +152,18 @@ public class CategoricalAnalysis extends Analysis implements Serializable {
         }
         final CategoricalAnalysis rhsAnalysis = (CategoricalAnalysis) rhs;
         return super.equals(rhsAnalysis)
-                && Optional.ofNullable(this.size).equals(Optional.ofNullable(rhsAnalysis.size))
-                && Optional.ofNullable(this.minCount).equals(Optional.ofNullable(rhsAnalysis.minCount))
-                && Optional.ofNullable(this.missing).equals(Optional.ofNullable(rhsAnalysis.missing))
-                && Optional.ofNullable(this.includeNumeric).equals(Optional.ofNullable(rhsAnalysis.includeNumeric))
-                && Optional.ofNullable(this.traversalMode).equals(Optional.ofNullable(rhsAnalysis.traversalMode))
-                && Optional.ofNullable(this.matchType).equals(Optional.ofNullable(rhsAnalysis.matchType));
+                && Objects.equals(this.size, rhsAnalysis.size)
+                && Objects.equals(this.minCount, rhsAnalysis.minCount)
+                && Objects.equals(this.missing, rhsAnalysis.missing)
+                && Objects.equals(this.includeNumeric, rhsAnalysis.includeNumeric)
+                && Objects.equals(this.traversalMode, rhsAnalysis.traversalMode)
+                && Objects.equals(this.matchType, rhsAnalysis.matchType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.size, this.minCount, this.missing, this.includeNumeric,
+                this.traversalMode, this.matchType);
     }
 
     /**
@@ -7,7 +7,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for running a histogram analysis.
@@ -112,10 +112,15 @@ public class HistogramAnalysis extends Analysis implements Serializable {
         }
         final HistogramAnalysis rhsAnalysis = (HistogramAnalysis) rhs;
         return super.equals(rhsAnalysis)
-                && Optional.ofNullable(this.minCount).equals(Optional.ofNullable(rhsAnalysis.minCount))
-                && Optional.ofNullable(this.offset).equals(Optional.ofNullable(rhsAnalysis.offset))
-                && Optional.ofNullable(this.interval).equals(Optional.ofNullable(rhsAnalysis.interval))
-                && Optional.ofNullable(this.missing).equals(Optional.ofNullable(rhsAnalysis.missing));
+                && Objects.equals(this.minCount, rhsAnalysis.minCount)
+                && Objects.equals(this.offset, rhsAnalysis.offset)
+                && Objects.equals(this.interval, rhsAnalysis.interval)
+                && Objects.equals(this.missing, rhsAnalysis.missing);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.minCount, this.offset, this.interval, this.missing);
     }
 
     /**
@@ -9,7 +9,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for running a ranges analysis.
@@ -124,8 +124,13 @@ public class RangesAnalysis extends Analysis implements Serializable {
         }
         final RangesAnalysis rhsAnalysis = (RangesAnalysis) rhs;
         return super.equals(rhsAnalysis)
-                && Optional.ofNullable(this.ranges).equals(Optional.ofNullable(rhsAnalysis.ranges))
-                && Optional.ofNullable(this.missing).equals(Optional.ofNullable(rhsAnalysis.missing));
+                && Objects.equals(this.ranges, rhsAnalysis.ranges)
+                && Objects.equals(this.missing, rhsAnalysis.missing);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.ranges, this.missing);
     }
 
     /**
@@ -223,6 +228,11 @@ public class RangesAnalysis extends Analysis implements Serializable {
             return super.equals(rhsRange);
         }
 
+        @Override
+        public int hashCode() {
+            return super.hashCode();
+        }
+
         /**
          * Write this object to the output output stream.
          *
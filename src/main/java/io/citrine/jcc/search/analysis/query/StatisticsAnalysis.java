@@ -7,7 +7,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for running a statistics analysis.
@@ -32,8 +32,13 @@ public class StatisticsAnalysis extends Analysis implements Serializable {
         }
         final StatisticsAnalysis rhsAnalysis = (StatisticsAnalysis) rhs;
         return super.equals(rhsAnalysis)
-                && Optional.ofNullable(this.extended).equals(Optional.ofNullable(rhsAnalysis.extended))
-                && Optional.ofNullable(this.missing).equals(Optional.ofNullable(rhsAnalysis.missing));
+                && Objects.equals(this.extended, rhsAnalysis.extended)
+                && Objects.equals(this.missing, rhsAnalysis.missing);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.extended, this.missing);
     }
 
     /**
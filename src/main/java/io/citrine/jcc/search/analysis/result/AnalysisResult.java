@@ -34,6 +34,11 @@ public abstract class AnalysisResult implements Serializable {
         return true;
     }
 
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+
     /**
      * Write this object to the output output stream.
      *
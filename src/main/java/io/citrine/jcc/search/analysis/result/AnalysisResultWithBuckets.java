@@ -10,7 +10,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Base class for all results of analysis operations that produce buckets.
@@ -101,7 +101,12 @@ public abstract class AnalysisResultWithBuckets<T extends AnalysisResultWithBuck
         }
         final AnalysisResultWithBuckets rhsResult = (AnalysisResultWithBuckets) rhs;
         return super.equals(rhsResult)
-                && Optional.ofNullable(this.buckets).equals(Optional.ofNullable(rhsResult.buckets));
+                && Objects.equals(this.buckets, rhsResult.buckets);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.buckets);
     }
 
     /**
@@ -192,7 +197,12 @@ public abstract class AnalysisResultWithBuckets<T extends AnalysisResultWithBuck
             }
             final Bucket rhsBucket = (Bucket) rhs;
             return super.equals(rhsBucket)
-                    && Optional.ofNullable(this.count).equals(Optional.ofNullable(rhsBucket.count));
+                    && Objects.equals(this.count, rhsBucket.count);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), this.count);
         }
 
         /**
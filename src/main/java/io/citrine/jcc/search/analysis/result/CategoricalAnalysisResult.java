@@ -9,7 +9,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Results of a values analysis.
@@ -49,6 +49,11 @@ public class CategoricalAnalysisResult extends AnalysisResultWithBuckets<Categor
         return super.equals(rhsResult);
     }
 
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
     /**
      * Write this object to the output output stream.
      *
@@ -140,7 +145,12 @@ public class CategoricalAnalysisResult extends AnalysisResultWithBuckets<Categor
             }
             final Bucket rhsBucket = (Bucket) rhs;
             return super.equals(rhsBucket)
-                    && Optional.ofNullable(this.value).equals(Optional.ofNullable(rhsBucket.value));
+                    && Objects.equals(this.value, rhsBucket.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), this.value);
         }
 
         /**
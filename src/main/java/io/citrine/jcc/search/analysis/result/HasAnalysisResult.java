@@ -12,7 +12,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -96,7 +96,12 @@ public abstract class HasAnalysisResult implements Serializable {
             return false;
         }
         final HasAnalysisResult rhsHasAnalysis = (HasAnalysisResult) rhs;
-        return Optional.ofNullable(this.analysis).equals(Optional.ofNullable(rhsHasAnalysis.analysis));
+        return Objects.equals(this.analysis, rhsHasAnalysis.analysis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.analysis);
     }
 
     /**
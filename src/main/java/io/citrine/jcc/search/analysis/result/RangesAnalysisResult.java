@@ -9,7 +9,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Results of a ranges analysis.
@@ -49,6 +49,11 @@ public class RangesAnalysisResult extends AnalysisResultWithBuckets<RangesAnalys
         return super.equals(rhsResult);
     }
 
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
     /**
      * Write this object to the output output stream.
      *
@@ -160,8 +165,13 @@ public class RangesAnalysisResult extends AnalysisResultWithBuckets<RangesAnalys
             }
             final Bucket rhsBucket = (Bucket) rhs;
             return super.equals(rhsBucket)
-                    && Optional.ofNullable(this.min).equals(Optional.ofNullable(rhsBucket.min))
-                    && Optional.ofNullable(this.max).equals(Optional.ofNullable(rhsBucket.max));
+                    && Objects.equals(this.min, rhsBucket.min)
+                    && Objects.equals(this.max, rhsBucket.max);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), this.min, this.max);
         }
 
         /**
@@ -7,7 +7,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Result of a statistics analysis.
@@ -166,13 +166,19 @@ public class StatisticsAnalysisResult extends AnalysisResult implements Serializ
         }
         final StatisticsAnalysisResult rhsResult = (StatisticsAnalysisResult) rhs;
         return super.equals(rhsResult)
-                && Optional.ofNullable(this.count).equals(Optional.ofNullable(rhsResult.count))
-                && Optional.ofNullable(this.min).equals(Optional.ofNullable(rhsResult.min))
-                && Optional.ofNullable(this.max).equals(Optional.ofNullable(rhsResult.max))
-                && Optional.ofNullable(this.average).equals(Optional.ofNullable(rhsResult.average))
-                && Optional.ofNullable(this.sum).equals(Optional.ofNullable(rhsResult.sum))
-                && Optional.ofNullable(this.sumOfSquares).equals(Optional.ofNullable(rhsResult.sumOfSquares))
-                && Optional.ofNullable(this.variance).equals(Optional.ofNullable(rhsResult.variance));
+                && Objects.equals(this.count, rhsResult.count)
+                && Objects.equals(this.min, rhsResult.min)
+                && Objects.equals(this.max, rhsResult.max)
+                && Objects.equals(this.average, rhsResult.average)
+                && Objects.equals(this.sum, rhsResult.sum)
+                && Objects.equals(this.sumOfSquares, rhsResult.sumOfSquares)
+                && Objects.equals(this.variance, rhsResult.variance);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.count, this.min, this.max, this.average, this.sum,
+                this.sumOfSquares, this.variance);
     }
 
     /**
@@ -12,7 +12,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Base class for all queries against simple fields.
@@ -176,12 +176,17 @@ public abstract class AbstractFieldQuery implements Serializable, HasLogic, HasW
             return false;
         }
         final AbstractFieldQuery rhsQuery = (AbstractFieldQuery) rhs;
-        return Optional.ofNullable(this.sort).equals(Optional.ofNullable(rhsQuery.sort))
-                && Optional.ofNullable(this.logic).equals(Optional.ofNullable(rhsQuery.logic))
-                && Optional.ofNullable(this.weight).equals(Optional.ofNullable(rhsQuery.weight))
-                && Optional.ofNullable(this.simple).equals(Optional.ofNullable(rhsQuery.simple))
-                && Optional.ofNullable(this.simpleWeight).equals(Optional.ofNullable(rhsQuery.simpleWeight))
-                && Optional.ofNullable(this.analysis).equals(Optional.ofNullable(rhsQuery.analysis));
+        return Objects.equals(this.sort, rhsQuery.sort)
+                && Objects.equals(this.logic, rhsQuery.logic)
+                && Objects.equals(this.weight, rhsQuery.weight)
+                && Objects.equals(this.simple, rhsQuery.simple)
+                && Objects.equals(this.simpleWeight, rhsQuery.simpleWeight)
+                && Objects.equals(this.analysis, rhsQuery.analysis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.sort, this.logic, this.weight, this.simple, this.simpleWeight, this.analysis);
     }
 
     /**
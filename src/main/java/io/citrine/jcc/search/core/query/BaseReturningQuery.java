@@ -10,7 +10,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Base class for all queries against datasets and the items that they contain on Citrination.
@@ -232,14 +232,20 @@ public abstract class BaseReturningQuery extends DataScope implements Serializab
         }
         final BaseReturningQuery rhsQuery = (BaseReturningQuery) rhs;
         return super.equals(rhs)
-                && Optional.ofNullable(this.from).equals(Optional.ofNullable(rhsQuery.from))
-                && Optional.ofNullable(this.size).equals(Optional.ofNullable(rhsQuery.size))
-                && Optional.ofNullable(this.randomResults).equals(Optional.ofNullable(rhsQuery.randomResults))
-                && Optional.ofNullable(this.randomSeed).equals(Optional.ofNullable(rhsQuery.randomSeed))
-                && Optional.ofNullable(this.scoreRelevance).equals(Optional.ofNullable(rhsQuery.scoreRelevance))
-                && Optional.ofNullable(this.returnMaxScore).equals(Optional.ofNullable(rhsQuery.returnMaxScore))
-                && Optional.ofNullable(this.returnAnalysis).equals(Optional.ofNullable(rhsQuery.returnAnalysis))
-                && Optional.ofNullable(this.timeout).equals(Optional.ofNullable(rhsQuery.timeout));
+                && Objects.equals(this.from, rhsQuery.from)
+                && Objects.equals(this.size, rhsQuery.size)
+                && Objects.equals(this.randomResults, rhsQuery.randomResults)
+                && Objects.equals(this.randomSeed, rhsQuery.randomSeed)
+                && Objects.equals(this.scoreRelevance, rhsQuery.scoreRelevance)
+                && Objects.equals(this.returnMaxScore, rhsQuery.returnMaxScore)
+                && Objects.equals(this.returnAnalysis, rhsQuery.returnAnalysis)
+                && Objects.equals(this.timeout, rhsQuery.timeout);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.from, this.size, this.randomResults, this.randomSeed,
+                this.scoreRelevance, this.returnMaxScore, this.returnAnalysis, this.timeout);
     }
 
     /**
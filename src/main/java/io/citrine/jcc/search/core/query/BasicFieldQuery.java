@@ -17,7 +17,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -99,7 +99,12 @@ public class BasicFieldQuery extends AbstractFieldQuery implements Serializable,
         }
         final BasicFieldQuery rhsQuery = (BasicFieldQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.filter).equals(Optional.ofNullable(rhsQuery.filter));
+                && Objects.equals(this.filter, rhsQuery.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.filter);
     }
 
     @Override
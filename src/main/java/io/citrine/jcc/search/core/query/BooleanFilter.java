@@ -10,7 +10,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Filter that can be applied to boolean-valued fields.
@@ -144,10 +144,15 @@ public class BooleanFilter
             return false;
         }
         final BooleanFilter rhsFilter = (BooleanFilter) rhs;
-        return Optional.ofNullable(this.logic).equals(Optional.ofNullable(rhsFilter.logic))
-                && Optional.ofNullable(this.exists).equals(Optional.ofNullable(rhsFilter.exists))
-                && Optional.ofNullable(this.equal).equals(Optional.ofNullable(rhsFilter.equal))
-                && Optional.ofNullable(this.filter).equals(Optional.ofNullable(rhsFilter.filter));
+        return Objects.equals(this.logic, rhsFilter.logic)
+                && Objects.equals(this.exists, rhsFilter.exists)
+                && Objects.equals(this.equal, rhsFilter.equal)
+                && Objects.equals(this.filter, rhsFilter.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.logic, this.exists, this.equal, this.filter);
     }
 
     /**
@@ -14,7 +14,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query against dataset metadata, PIF content, file content, or some combination of those types.
@@ -368,14 +368,20 @@ public class DataQuery implements Serializable, HasLogic, HasWeight, HasSimple {
             return false;
         }
         final DataQuery rhsQuery = (DataQuery) rhs;
-        return Optional.ofNullable(this.logic).equals(Optional.ofNullable(rhsQuery.logic))
-                && Optional.ofNullable(this.weight).equals(Optional.ofNullable(rhsQuery.weight))
-                && Optional.ofNullable(this.simple).equals(Optional.ofNullable(rhsQuery.simple))
-                && Optional.ofNullable(this.simpleWeight).equals(Optional.ofNullable(rhsQuery.simpleWeight))
-                && Optional.ofNullable(this.dataset).equals(Optional.ofNullable(rhsQuery.dataset))
-                && Optional.ofNullable(this.system).equals(Optional.ofNullable(rhsQuery.system))
-                && Optional.ofNullable(this.file).equals(Optional.ofNullable(rhsQuery.file))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+        return Objects.equals(this.logic, rhsQuery.logic)
+                && Objects.equals(this.weight, rhsQuery.weight)
+                && Objects.equals(this.simple, rhsQuery.simple)
+                && Objects.equals(this.simpleWeight, rhsQuery.simpleWeight)
+                && Objects.equals(this.dataset, rhsQuery.dataset)
+                && Objects.equals(this.system, rhsQuery.system)
+                && Objects.equals(this.file, rhsQuery.file)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.logic, this.weight, this.simple, this.simpleWeight, this.dataset, this.system,
+                this.file, this.query);
     }
 
     /**
@@ -9,7 +9,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Definition of a data scope.
@@ -97,7 +97,12 @@ public class DataScope implements Serializable {
             return false;
         }
         final DataScope rhsScope = (DataScope) rhs;
-        return Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsScope.query));
+        return Objects.equals(this.query, rhsScope.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.query);
     }
 
     /**
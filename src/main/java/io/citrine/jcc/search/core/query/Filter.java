@@ -12,7 +12,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Filter that can be applied to any object.
@@ -296,14 +296,20 @@ public class Filter implements Serializable, HasLogic, HasWeight, HasFilter, Con
             return false;
         }
         final Filter rhsFilter = (Filter) rhs;
-        return Optional.ofNullable(this.logic).equals(Optional.ofNullable(rhsFilter.logic))
-                && Optional.ofNullable(this.weight).equals(Optional.ofNullable(rhsFilter.weight))
-                && Optional.ofNullable(this.exists).equals(Optional.ofNullable(rhsFilter.exists))
-                && Optional.ofNullable(this.equal).equals(Optional.ofNullable(rhsFilter.equal))
-                && Optional.ofNullable(this.min).equals(Optional.ofNullable(rhsFilter.min))
-                && Optional.ofNullable(this.max).equals(Optional.ofNullable(rhsFilter.max))
-                && Optional.ofNullable(this.exact).equals(Optional.ofNullable(rhsFilter.exact))
-                && Optional.ofNullable(this.filter).equals(Optional.ofNullable(rhsFilter.filter));
+        return Objects.equals(this.logic, rhsFilter.logic)
+                && Objects.equals(this.weight, rhsFilter.weight)
+                && Objects.equals(this.exists, rhsFilter.exists)
+                && Objects.equals(this.equal, rhsFilter.equal)
+                && Objects.equals(this.min, rhsFilter.min)
+                && Objects.equals(this.max, rhsFilter.max)
+                && Objects.equals(this.exact, rhsFilter.exact)
+                && Objects.equals(this.filter, rhsFilter.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.logic, this.weight, this.exists, this.equal, this.min, this.max, this.exact,
+                this.filter);
     }
 
     /**
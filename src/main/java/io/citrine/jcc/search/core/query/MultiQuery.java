@@ -9,7 +9,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Base class for all multi-search requests.
@@ -99,7 +99,12 @@ public class MultiQuery<T> implements Serializable {
             return false;
         }
         final MultiQuery rhsQuery = (MultiQuery) rhs;
-        return Optional.ofNullable(this.queries).equals(Optional.ofNullable(rhsQuery.queries));
+        return Objects.equals(this.queries, rhsQuery.queries);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.queries);
     }
 
     /**
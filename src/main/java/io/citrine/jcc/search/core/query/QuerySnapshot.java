@@ -0,0 +1,95 @@
+package io.citrine.jcc.search.core.query;
+
+import io.citrine.jpif.util.PifObjectMapper;
+
+/**
+ * Immutable snapshot of a query. The query is deep copied when the snapshot is taken, so later changes to the
+ * original object are not visible, and its hash code is computed once and cached. This makes snapshots cheap to use
+ * as keys in hash-based collections, for example to deduplicate or cache requests:
+ *
+ * <pre>
+ * {@code
+ * Map<QuerySnapshot<PifSystemReturningQuery>, PifSearchResult> cache = new HashMap<>();
+ * cache.put(QuerySnapshot.of(query), result);
+ * }
+ * </pre>
+ *
+ * @param <T> Type of the query.
+ * @author Kyle Michel
+ */
+public final class QuerySnapshot<T> {
+
+    /**
+     * Take a snapshot of a query.
+     *
+     * @param query Query to take a snapshot of.
+     * @param <T> Type of the query.
+     * @return New {@link QuerySnapshot} of the query.
+     * @throws RuntimeException if the query cannot be copied.
+     */
+    public static <T> QuerySnapshot<T> of(final T query) {
+        return new QuerySnapshot<>(copy(query));
+    }
+
+    /**
+     * Get a copy of the query in this snapshot. A new copy is returned on every call so that the snapshot cannot
+     * be modified.
+     *
+     * @return Copy of the query.
+     * @throws RuntimeException if the query cannot be copied.
+     */
+    public T get() {
+        return copy(this.query);
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof QuerySnapshot)) {
+            return false;
+        }
+        final QuerySnapshot rhsSnapshot = (QuerySnapshot) rhs;
+        return (this.hash == rhsSnapshot.hash) && this.query.equals(rhsSnapshot.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param query Query that is owned by this snapshot.
+     */
+    private QuerySnapshot(final T query) {
+        this.query = query;
+        this.hash = query.hashCode();
+    }
+
+    /**
+     * Deep copy a query.
+     *
+     * @param query Query to copy.
+     * @param <T> Type of the query.
+     * @return Copy of the query.
+     * @throws RuntimeException if the query cannot be copied.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(final T query) {
+        try {
+            return PifObjectMapper.deepCopy(query, (Class<T>) query.getClass());
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Failed to copy query", e);
+        }
+    }
+
+    /** Query that this snapshot holds. */
+    private final T query;
+
+    /** Cached hash code of the query. */
+    private final int hash;
+}
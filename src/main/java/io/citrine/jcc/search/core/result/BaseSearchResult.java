@@ -15,7 +15,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Base class for all search results.
@@ -210,10 +210,15 @@ public abstract class BaseSearchResult<T> extends HasAnalysisResult implements S
         }
         final BaseSearchResult rhsResult = (BaseSearchResult) rhs;
         return super.equals(rhsResult)
-                && Optional.ofNullable(this.took).equals(Optional.ofNullable(rhsResult.took))
-                && Optional.ofNullable(this.totalNumHits).equals(Optional.ofNullable(rhsResult.totalNumHits))
-                && Optional.ofNullable(this.maxScore).equals(Optional.ofNullable(rhsResult.maxScore))
-                && Optional.ofNullable(this.hits).equals(Optional.ofNullable(rhsResult.hits));
+                && Objects.equals(this.took, rhsResult.took)
+                && Objects.equals(this.totalNumHits, rhsResult.totalNumHits)
+                && Objects.equals(this.maxScore, rhsResult.maxScore)
+                && Objects.equals(this.hits, rhsResult.hits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.took, this.totalNumHits, this.maxScore, this.hits);
     }
 
     /**
@@ -11,7 +11,7 @@ import java.io.Serializable;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for all multi-search results.
@@ -43,6 +43,29 @@ public class MultiSearchResult<T extends BaseSearchResult<?>>
         return this.took;
     }
 
+    /**
+     * Set the total number of milliseconds that the server spent on the query. This differs from
+     * {@link #getTook()} when the query was split into several requests that ran in parallel, in which case took is
+     * the time of the slowest request and this is the sum over all requests.
+     *
+     * @param totalTook Total number of milliseconds spent on the query.
+     * @return This object.
+     */
+    public MultiSearchResult<T> setTotalTook(final Long totalTook) {
+        this.totalTook = totalTook;
+        return this;
+    }
+
+    /**
+     * Get the total number of milliseconds that the server spent on the query, summed over all requests that the
+     * query was split into.
+     *
+     * @return Long with the total number of milliseconds or a null pointer if that has not been set.
+     */
+    public Long getTotalTook() {
+        return this.totalTook;
+    }
+
     /**
      * Set the list of results that were returned. This overwrites any results that are already saved.
      *
@@ -119,8 +142,14 @@ public class MultiSearchResult<T extends BaseSearchResult<?>>
             return false;
         }
         final MultiSearchResult rhsResult = (MultiSearchResult) rhs;
-        return Optional.ofNullable(this.took).equals(Optional.ofNullable(rhsResult.took))
-                && Optional.ofNullable(this.results).equals(Optional.ofNullable(rhsResult.results));
+        return Objects.equals(this.took, rhsResult.took)
+                && Objects.equals(this.totalTook, rhsResult.totalTook)
+                && Objects.equals(this.results, rhsResult.results);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.took, this.totalTook, this.results);
     }
 
     /**
@@ -156,6 +185,9 @@ public class MultiSearchResult<T extends BaseSearchResult<?>>
     /** Number of milliseconds that the query took to execute. */
     private Long took;
 
+    /** Total number of milliseconds spent on the query across all requests. */
+    private Long totalTook;
+
     /** List of results that were generated. */
     private List<MultiSearchResultElement<T>> results;
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package io.citrine.jcc.search.core.result;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonValue;
 import io.citrine.jpif.util.PifSerializationUtil;
 
@@ -11,7 +12,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class to store the information in a single search result as a part of a multi-query.
@@ -61,6 +62,30 @@ public class MultiSearchResultElement<T> implements Serializable {
         return this;
     }
 
+    /**
+     * Get the error that kept the query from being sent or answered, if the failure happened on the client side, for
+     * example when the request that carried the query failed. This is not part of the response from the server, so
+     * it is not serialized and is ignored by {@link #equals(Object)}.
+     *
+     * @return {@link Throwable} with the error or a null pointer if the server reported the status of the query.
+     */
+    @JsonIgnore
+    public Throwable getError() {
+        return this.error;
+    }
+
+    /**
+     * Set the error that kept the query from being sent or answered.
+     *
+     * @param error {@link Throwable} with the error.
+     * @return This object.
+     */
+    @JsonIgnore
+    public MultiSearchResultElement<T> setError(final Throwable error) {
+        this.error = error;
+        return this;
+    }
+
     @Override
     public boolean equals(final Object rhs) {
         if (this == rhs) {
@@ -70,8 +95,13 @@ public class MultiSearchResultElement<T> implements Serializable {
             return false;
         }
         final MultiSearchResultElement rhsResult = (MultiSearchResultElement) rhs;
-        return Optional.ofNullable(this.result).equals(Optional.ofNullable(rhsResult.result))
-                && Optional.ofNullable(this.status).equals(Optional.ofNullable(rhsResult.status));
+        return Objects.equals(this.result, rhsResult.result)
+                && Objects.equals(this.status, rhsResult.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.result, this.status);
     }
 
     /**
@@ -110,6 +140,9 @@ public class MultiSearchResultElement<T> implements Serializable {
     /** Status for the query. */
     private Status status;
 
+    /** Error on the client side that kept the query from being answered. */
+    private transient Throwable error;
+
     /**
      * Enumeration of the statuses of a search result.
      *
@@ -20,7 +20,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for defining a query against dataset metadata on Citrination.
@@ -661,18 +661,24 @@ public class DatasetQuery implements Serializable, HasLogic, HasWeight, HasSimpl
             return false;
         }
         final DatasetQuery rhsQuery = (DatasetQuery) rhs;
-        return Optional.ofNullable(this.logic).equals(Optional.ofNullable(rhsQuery.logic))
-                && Optional.ofNullable(this.weight).equals(Optional.ofNullable(rhsQuery.weight))
-                && Optional.ofNullable(this.simple).equals(Optional.ofNullable(rhsQuery.simple))
-                && Optional.ofNullable(this.simpleWeight).equals(Optional.ofNullable(rhsQuery.simpleWeight))
-                && Optional.ofNullable(this.id).equals(Optional.ofNullable(rhsQuery.id))
-                && Optional.ofNullable(this.isFeatured).equals(Optional.ofNullable(rhsQuery.isFeatured))
-                && Optional.ofNullable(this.name).equals(Optional.ofNullable(rhsQuery.name))
-                && Optional.ofNullable(this.description).equals(Optional.ofNullable(rhsQuery.description))
-                && Optional.ofNullable(this.owner).equals(Optional.ofNullable(rhsQuery.owner))
-                && Optional.ofNullable(this.email).equals(Optional.ofNullable(rhsQuery.email))
-                && Optional.ofNullable(this.updatedAt).equals(Optional.ofNullable(rhsQuery.updatedAt))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+        return Objects.equals(this.logic, rhsQuery.logic)
+                && Objects.equals(this.weight, rhsQuery.weight)
+                && Objects.equals(this.simple, rhsQuery.simple)
+                && Objects.equals(this.simpleWeight, rhsQuery.simpleWeight)
+                && Objects.equals(this.id, rhsQuery.id)
+                && Objects.equals(this.isFeatured, rhsQuery.isFeatured)
+                && Objects.equals(this.name, rhsQuery.name)
+                && Objects.equals(this.description, rhsQuery.description)
+                && Objects.equals(this.owner, rhsQuery.owner)
+                && Objects.equals(this.email, rhsQuery.email)
+                && Objects.equals(this.updatedAt, rhsQuery.updatedAt)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.logic, this.weight, this.simple, this.simpleWeight, this.id, this.isFeatured,
+                this.name, this.description, this.owner, this.email, this.updatedAt, this.query);
     }
 
     /**
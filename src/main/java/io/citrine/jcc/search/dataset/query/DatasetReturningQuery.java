@@ -13,7 +13,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query used to return information about datasets. This class is meant to be backwards compatible for
@@ -139,7 +139,12 @@ public class DatasetReturningQuery extends BaseReturningQuery implements Seriali
         }
         final DatasetReturningQuery rhsQuery = (DatasetReturningQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.countPifs).equals(Optional.ofNullable(rhsQuery.countPifs));
+                && Objects.equals(this.countPifs, rhsQuery.countPifs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.countPifs);
     }
 
     /**
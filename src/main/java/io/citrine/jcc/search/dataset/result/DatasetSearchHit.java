@@ -8,7 +8,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class to store information about a single search hit with dataset information.
@@ -207,15 +207,21 @@ public class DatasetSearchHit implements Serializable {
             return false;
         }
         final DatasetSearchHit rhsHit = (DatasetSearchHit) rhs;
-        return Optional.ofNullable(this.id).equals(Optional.ofNullable(rhsHit.id))
-                && Optional.ofNullable(this.score).equals(Optional.ofNullable(rhsHit.score))
-                && Optional.ofNullable(this.isFeatured).equals(Optional.ofNullable(rhsHit.isFeatured))
-                && Optional.ofNullable(this.name).equals(Optional.ofNullable(rhsHit.name))
-                && Optional.ofNullable(this.description).equals(Optional.ofNullable(rhsHit.description))
-                && Optional.ofNullable(this.owner).equals(Optional.ofNullable(rhsHit.owner))
-                && Optional.ofNullable(this.email).equals(Optional.ofNullable(rhsHit.email))
-                && Optional.ofNullable(this.numPifs).equals(Optional.ofNullable(rhsHit.numPifs))
-                && Optional.ofNullable(this.updatedAt).equals(Optional.ofNullable(rhsHit.updatedAt));
+        return Objects.equals(this.id, rhsHit.id)
+                && Objects.equals(this.score, rhsHit.score)
+                && Objects.equals(this.isFeatured, rhsHit.isFeatured)
+                && Objects.equals(this.name, rhsHit.name)
+                && Objects.equals(this.description, rhsHit.description)
+                && Objects.equals(this.owner, rhsHit.owner)
+                && Objects.equals(this.email, rhsHit.email)
+                && Objects.equals(this.numPifs, rhsHit.numPifs)
+                && Objects.equals(this.updatedAt, rhsHit.updatedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, this.score, this.isFeatured, this.name, this.description, this.owner, this.email,
+                this.numPifs, this.updatedAt);
     }
 
     /**
@@ -88,6 +88,11 @@ public class DatasetSearchResult extends BaseSearchResult<DatasetSearchHit> impl
         return super.equals(rhs);
     }
 
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
     /**
      * Write this object to the output output stream.
      *
@@ -18,7 +18,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query against the content or metadata of a file on Citrination.
@@ -446,15 +446,21 @@ public class FileQuery implements Serializable, HasLogic, HasWeight, HasSimple {
             return false;
         }
         final FileQuery rhsQuery = (FileQuery) rhs;
-        return Optional.ofNullable(this.logic).equals(Optional.ofNullable(rhsQuery.logic))
-                && Optional.ofNullable(this.weight).equals(Optional.ofNullable(rhsQuery.weight))
-                && Optional.ofNullable(this.simple).equals(Optional.ofNullable(rhsQuery.simple))
-                && Optional.ofNullable(this.simpleWeight).equals(Optional.ofNullable(rhsQuery.simpleWeight))
-                && Optional.ofNullable(this.id).equals(Optional.ofNullable(rhsQuery.id))
-                && Optional.ofNullable(this.name).equals(Optional.ofNullable(rhsQuery.name))
-                && Optional.ofNullable(this.content).equals(Optional.ofNullable(rhsQuery.content))
-                && Optional.ofNullable(this.updatedAt).equals(Optional.ofNullable(rhsQuery.updatedAt))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+        return Objects.equals(this.logic, rhsQuery.logic)
+                && Objects.equals(this.weight, rhsQuery.weight)
+                && Objects.equals(this.simple, rhsQuery.simple)
+                && Objects.equals(this.simpleWeight, rhsQuery.simpleWeight)
+                && Objects.equals(this.id, rhsQuery.id)
+                && Objects.equals(this.name, rhsQuery.name)
+                && Objects.equals(this.content, rhsQuery.content)
+                && Objects.equals(this.updatedAt, rhsQuery.updatedAt)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.logic, this.weight, this.simple, this.simpleWeight, this.id, this.name, this.content,
+                this.updatedAt, this.query);
     }
 
     /**
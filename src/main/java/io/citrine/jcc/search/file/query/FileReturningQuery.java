@@ -10,7 +10,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query to return files on Citrination.
@@ -161,10 +161,14 @@ public class FileReturningQuery extends BaseReturningQuery implements Serializab
         }
         final FileReturningQuery rhsQuery = (FileReturningQuery) rhs;
         return super.equals(rhs)
-                && Optional.ofNullable(this.maxContentHighlights)
-                        .equals(Optional.ofNullable(rhsQuery.maxContentHighlights))
-                && Optional.ofNullable(this.highlightPreTag).equals(Optional.ofNullable(rhsQuery.highlightPreTag))
-                && Optional.ofNullable(this.highlightPostTag).equals(Optional.ofNullable(rhsQuery.highlightPostTag));
+                && Objects.equals(this.maxContentHighlights, rhsQuery.maxContentHighlights)
+                && Objects.equals(this.highlightPreTag, rhsQuery.highlightPreTag)
+                && Objects.equals(this.highlightPostTag, rhsQuery.highlightPostTag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.maxContentHighlights, this.highlightPreTag, this.highlightPostTag);
     }
 
     /**
@@ -9,7 +9,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * A single search hit for a file.
@@ -209,13 +209,19 @@ public class FileSearchHit implements Serializable {
             return false;
         }
         final FileSearchHit rhsHit = (FileSearchHit) rhs;
-        return Optional.ofNullable(this.datasetId).equals(Optional.ofNullable(rhsHit.datasetId))
-                && Optional.ofNullable(this.datasetVersion).equals(Optional.ofNullable(rhsHit.datasetVersion))
-                && Optional.ofNullable(this.id).equals(Optional.ofNullable(rhsHit.id))
-                && Optional.ofNullable(this.score).equals(Optional.ofNullable(rhsHit.score))
-                && Optional.ofNullable(this.name).equals(Optional.ofNullable(rhsHit.name))
-                && Optional.ofNullable(this.updatedAt).equals(Optional.ofNullable(rhsHit.updatedAt))
-                && Optional.ofNullable(this.highlights).equals(Optional.ofNullable(rhsHit.highlights));
+        return Objects.equals(this.datasetId, rhsHit.datasetId)
+                && Objects.equals(this.datasetVersion, rhsHit.datasetVersion)
+                && Objects.equals(this.id, rhsHit.id)
+                && Objects.equals(this.score, rhsHit.score)
+                && Objects.equals(this.name, rhsHit.name)
+                && Objects.equals(this.updatedAt, rhsHit.updatedAt)
+                && Objects.equals(this.highlights, rhsHit.highlights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.datasetId, this.datasetVersion, this.id, this.score, this.name, this.updatedAt,
+                this.highlights);
     }
 
     /**
@@ -88,6 +88,11 @@ public class FileSearchResult extends BaseSearchResult<FileSearchHit> implements
         return super.equals(rhs);
     }
 
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
     /**
      * Write this object to the output output stream.
      *
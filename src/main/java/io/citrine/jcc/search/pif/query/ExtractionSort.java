@@ -8,7 +8,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Definition of a sort operation on an extraction within a query.
@@ -66,8 +66,13 @@ public class ExtractionSort implements Serializable {
             return false;
         }
         final ExtractionSort rhsSort = (ExtractionSort) rhs;
-        return Optional.ofNullable(this.key).equals(Optional.ofNullable(rhsSort.key))
-                && Optional.ofNullable(this.order).equals(Optional.ofNullable(rhsSort.order));
+        return Objects.equals(this.key, rhsSort.key)
+                && Objects.equals(this.order, rhsSort.order);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.key, this.order);
     }
 
     /**
@@ -25,7 +25,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class used to match against a system.
@@ -1134,20 +1134,27 @@ public class PifSystemQuery extends BaseObjectQuery implements Serializable {
         }
         final PifSystemQuery rhsQuery = (PifSystemQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.uid).equals(Optional.ofNullable(rhsQuery.uid))
-                && Optional.ofNullable(this.updatedAt).equals(Optional.ofNullable(rhsQuery.updatedAt))
-                && Optional.ofNullable(this.names).equals(Optional.ofNullable(rhsQuery.names))
-                && Optional.ofNullable(this.ids).equals(Optional.ofNullable(rhsQuery.ids))
-                && Optional.ofNullable(this.classifications).equals(Optional.ofNullable(rhsQuery.classifications))
-                && Optional.ofNullable(this.source).equals(Optional.ofNullable(rhsQuery.source))
-                && Optional.ofNullable(this.quantity).equals(Optional.ofNullable(rhsQuery.quantity))
-                && Optional.ofNullable(this.chemicalFormula).equals(Optional.ofNullable(rhsQuery.chemicalFormula))
-                && Optional.ofNullable(this.composition).equals(Optional.ofNullable(rhsQuery.composition))
-                && Optional.ofNullable(this.properties).equals(Optional.ofNullable(rhsQuery.properties))
-                && Optional.ofNullable(this.preparation).equals(Optional.ofNullable(rhsQuery.preparation))
-                && Optional.ofNullable(this.references).equals(Optional.ofNullable(rhsQuery.references))
-                && Optional.ofNullable(this.subSystems).equals(Optional.ofNullable(rhsQuery.subSystems))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.uid, rhsQuery.uid)
+                && Objects.equals(this.updatedAt, rhsQuery.updatedAt)
+                && Objects.equals(this.names, rhsQuery.names)
+                && Objects.equals(this.ids, rhsQuery.ids)
+                && Objects.equals(this.classifications, rhsQuery.classifications)
+                && Objects.equals(this.source, rhsQuery.source)
+                && Objects.equals(this.quantity, rhsQuery.quantity)
+                && Objects.equals(this.chemicalFormula, rhsQuery.chemicalFormula)
+                && Objects.equals(this.composition, rhsQuery.composition)
+                && Objects.equals(this.properties, rhsQuery.properties)
+                && Objects.equals(this.preparation, rhsQuery.preparation)
+                && Objects.equals(this.references, rhsQuery.references)
+                && Objects.equals(this.subSystems, rhsQuery.subSystems)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.uid, this.updatedAt, this.names, this.ids, this.classifications,
+                this.source, this.quantity, this.chemicalFormula, this.composition, this.properties, this.preparation,
+                this.references, this.subSystems, this.query);
     }
 
     /**
@@ -14,7 +14,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for defining queries against PIF records on Citrination. This class is meant to be backwards compatible for
@@ -276,14 +276,18 @@ public class PifSystemReturningQuery extends BaseReturningQuery implements Seria
         }
         final PifSystemReturningQuery rhsQuery = (PifSystemReturningQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.returnSystem).equals(Optional.ofNullable(rhsQuery.returnSystem))
-                && Optional.ofNullable(this.addLatex).equals(Optional.ofNullable(rhsQuery.addLatex))
-                && Optional.ofNullable(this.returnExtraction).equals(Optional.ofNullable(rhsQuery.returnExtraction))
-                && Optional.ofNullable(this.returnExtractedPath)
-                        .equals(Optional.ofNullable(rhsQuery.returnExtractedPath))
-                && Optional.ofNullable(this.unwrapSingleValueExtractions)
-                        .equals(Optional.ofNullable(rhsQuery.unwrapSingleValueExtractions))
-                && Optional.ofNullable(this.extractionSort).equals(Optional.ofNullable(rhsQuery.extractionSort));
+                && Objects.equals(this.returnSystem, rhsQuery.returnSystem)
+                && Objects.equals(this.addLatex, rhsQuery.addLatex)
+                && Objects.equals(this.returnExtraction, rhsQuery.returnExtraction)
+                && Objects.equals(this.returnExtractedPath, rhsQuery.returnExtractedPath)
+                && Objects.equals(this.unwrapSingleValueExtractions, rhsQuery.unwrapSingleValueExtractions)
+                && Objects.equals(this.extractionSort, rhsQuery.extractionSort);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.returnSystem, this.addLatex, this.returnExtraction,
+                this.returnExtractedPath, this.unwrapSingleValueExtractions, this.extractionSort);
     }
 
     /**
@@ -16,7 +16,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for field operations against a chemical formula field.
@@ -198,7 +198,12 @@ public class ChemicalFieldQuery extends BaseFieldQuery implements Serializable,
         }
         final ChemicalFieldQuery rhsQuery = (ChemicalFieldQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.filter).equals(Optional.ofNullable(rhsQuery.filter));
+                && Objects.equals(this.filter, rhsQuery.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.filter);
     }
 
     /**
@@ -12,7 +12,7 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * ChemicalFilter that can be applied to any object.
@@ -191,14 +191,20 @@ public class ChemicalFilter implements Serializable, HasLogic, HasWeight, HasChe
             return false;
         }
         final ChemicalFilter rhsFilter = (ChemicalFilter) rhs;
-        return Optional.ofNullable(this.logic).equals(Optional.ofNullable(rhsFilter.logic))
-                && Optional.ofNullable(this.weight).equals(Optional.ofNullable(rhsFilter.weight))
-                && Optional.ofNullable(this.exists).equals(Optional.ofNullable(rhsFilter.exists))
-                && Optional.ofNullable(this.equal).equals(Optional.ofNullable(rhsFilter.equal))
-                && Optional.ofNullable(this.element).equals(Optional.ofNullable(rhsFilter.element))
-                && Optional.ofNullable(this.partial).equals(Optional.ofNullable(rhsFilter.partial))
-                && Optional.ofNullable(this.exact).equals(Optional.ofNullable(rhsFilter.exact))
-                && Optional.ofNullable(this.filter).equals(Optional.ofNullable(rhsFilter.filter));
+        return Objects.equals(this.logic, rhsFilter.logic)
+                && Objects.equals(this.weight, rhsFilter.weight)
+                && Objects.equals(this.exists, rhsFilter.exists)
+                && Objects.equals(this.equal, rhsFilter.equal)
+                && Objects.equals(this.element, rhsFilter.element)
+                && Objects.equals(this.partial, rhsFilter.partial)
+                && Objects.equals(this.exact, rhsFilter.exact)
+                && Objects.equals(this.filter, rhsFilter.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.logic, this.weight, this.exists, this.equal, this.element, this.partial, this.exact,
+                this.filter);
     }
 
     /**
@@ -13,7 +13,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query against a composition object.
@@ -560,16 +560,18 @@ public class CompositionQuery extends BaseObjectQuery implements Serializable {
         }
         final CompositionQuery rhsQuery = (CompositionQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.element).equals(Optional.ofNullable(rhsQuery.element))
-                && Optional.ofNullable(this.actualWeightPercent)
-                        .equals(Optional.ofNullable(rhsQuery.actualWeightPercent))
-                && Optional.ofNullable(this.actualAtomicPercent)
-                        .equals(Optional.ofNullable(rhsQuery.actualAtomicPercent))
-                && Optional.ofNullable(this.idealWeightPercent)
-                        .equals(Optional.ofNullable(rhsQuery.idealWeightPercent))
-                && Optional.ofNullable(this.idealAtomicPercent)
-                        .equals(Optional.ofNullable(rhsQuery.idealAtomicPercent))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.element, rhsQuery.element)
+                && Objects.equals(this.actualWeightPercent, rhsQuery.actualWeightPercent)
+                && Objects.equals(this.actualAtomicPercent, rhsQuery.actualAtomicPercent)
+                && Objects.equals(this.idealWeightPercent, rhsQuery.idealWeightPercent)
+                && Objects.equals(this.idealAtomicPercent, rhsQuery.idealAtomicPercent)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.element, this.actualWeightPercent, this.actualAtomicPercent,
+                this.idealWeightPercent, this.idealAtomicPercent, this.query);
     }
 
     /**
@@ -14,7 +14,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Base class for all field queries.
@@ -294,11 +294,17 @@ public abstract class BaseFieldQuery extends AbstractFieldQuery implements Seria
         }
         final BaseFieldQuery rhsQuery = (BaseFieldQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.extractAs).equals(Optional.ofNullable(rhsQuery.extractAs))
-                && Optional.ofNullable(this.extractAll).equals(Optional.ofNullable(rhsQuery.extractAll))
-                && Optional.ofNullable(this.extractWhenMissing).equals(Optional.ofNullable(rhsQuery.extractWhenMissing))
-                && Optional.ofNullable(this.length).equals(Optional.ofNullable(rhsQuery.length))
-                && Optional.ofNullable(this.offset).equals(Optional.ofNullable(rhsQuery.offset));
+                && Objects.equals(this.extractAs, rhsQuery.extractAs)
+                && Objects.equals(this.extractAll, rhsQuery.extractAll)
+                && Objects.equals(this.extractWhenMissing, rhsQuery.extractWhenMissing)
+                && Objects.equals(this.length, rhsQuery.length)
+                && Objects.equals(this.offset, rhsQuery.offset);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.extractAs, this.extractAll, this.extractWhenMissing, this.length,
+                this.offset);
     }
 
     /**
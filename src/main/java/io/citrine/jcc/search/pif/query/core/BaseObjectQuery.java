@@ -15,7 +15,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Base class for all PIF object queries.
@@ -360,16 +360,22 @@ public abstract class BaseObjectQuery implements Serializable, HasLogic, HasWeig
             return false;
         }
         final BaseObjectQuery rhsQuery = (BaseObjectQuery) rhs;
-        return Optional.ofNullable(this.logic).equals(Optional.ofNullable(rhsQuery.logic))
-                && Optional.ofNullable(this.weight).equals(Optional.ofNullable(rhsQuery.weight))
-                && Optional.ofNullable(this.simple).equals(Optional.ofNullable(rhsQuery.simple))
-                && Optional.ofNullable(this.simpleWeight).equals(Optional.ofNullable(rhsQuery.simpleWeight))
-                && Optional.ofNullable(this.extractAs).equals(Optional.ofNullable(rhsQuery.extractAs))
-                && Optional.ofNullable(this.extractAll).equals(Optional.ofNullable(rhsQuery.extractAll))
-                && Optional.ofNullable(this.extractWhenMissing).equals(Optional.ofNullable(rhsQuery.extractWhenMissing))
-                && Optional.ofNullable(this.tags).equals(Optional.ofNullable(rhsQuery.tags))
-                && Optional.ofNullable(this.length).equals(Optional.ofNullable(rhsQuery.length))
-                && Optional.ofNullable(this.offset).equals(Optional.ofNullable(rhsQuery.offset));
+        return Objects.equals(this.logic, rhsQuery.logic)
+                && Objects.equals(this.weight, rhsQuery.weight)
+                && Objects.equals(this.simple, rhsQuery.simple)
+                && Objects.equals(this.simpleWeight, rhsQuery.simpleWeight)
+                && Objects.equals(this.extractAs, rhsQuery.extractAs)
+                && Objects.equals(this.extractAll, rhsQuery.extractAll)
+                && Objects.equals(this.extractWhenMissing, rhsQuery.extractWhenMissing)
+                && Objects.equals(this.tags, rhsQuery.tags)
+                && Objects.equals(this.length, rhsQuery.length)
+                && Objects.equals(this.offset, rhsQuery.offset);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.logic, this.weight, this.simple, this.simpleWeight, this.extractAs, this.extractAll,
+                this.extractWhenMissing, this.tags, this.length, this.offset);
     }
 
     /**
@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query to execute against a classification field.
@@ -348,9 +348,14 @@ public class ClassificationQuery extends BaseObjectQuery implements Serializable
         }
         final ClassificationQuery rhsQuery = (ClassificationQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.name).equals(Optional.ofNullable(rhsQuery.name))
-                && Optional.ofNullable(this.value).equals(Optional.ofNullable(rhsQuery.value))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.name, rhsQuery.name)
+                && Objects.equals(this.value, rhsQuery.value)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.name, this.value, this.query);
     }
 
     /**
@@ -12,7 +12,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query against a {@link DisplayItem} object.
@@ -417,10 +417,15 @@ public class DisplayItemQuery extends BaseObjectQuery implements Serializable {
         }
         final DisplayItemQuery rhsQuery = (DisplayItemQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.number).equals(Optional.ofNullable(rhsQuery.number))
-                && Optional.ofNullable(this.title).equals(Optional.ofNullable(rhsQuery.title))
-                && Optional.ofNullable(this.caption).equals(Optional.ofNullable(rhsQuery.caption))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.number, rhsQuery.number)
+                && Objects.equals(this.title, rhsQuery.title)
+                && Objects.equals(this.caption, rhsQuery.caption)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.number, this.title, this.caption, this.query);
     }
 
     /**
@@ -16,7 +16,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for all field queries.
@@ -198,7 +198,12 @@ public class FieldQuery extends BaseFieldQuery implements Serializable, HasFilte
         }
         final FieldQuery rhsQuery = (FieldQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.filter).equals(Optional.ofNullable(rhsQuery.filter));
+                && Objects.equals(this.filter, rhsQuery.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.filter);
     }
 
     /**
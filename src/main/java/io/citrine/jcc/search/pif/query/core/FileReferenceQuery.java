@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query to execute against a file reference field.
@@ -558,11 +558,16 @@ public class FileReferenceQuery extends BaseObjectQuery implements Serializable
         }
         final FileReferenceQuery rhsQuery = (FileReferenceQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.relativePath).equals(Optional.ofNullable(rhsQuery.relativePath))
-                && Optional.ofNullable(this.mimeType).equals(Optional.ofNullable(rhsQuery.mimeType))
-                && Optional.ofNullable(this.sha256).equals(Optional.ofNullable(rhsQuery.sha256))
-                && Optional.ofNullable(this.md5).equals(Optional.ofNullable(rhsQuery.md5))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.relativePath, rhsQuery.relativePath)
+                && Objects.equals(this.mimeType, rhsQuery.mimeType)
+                && Objects.equals(this.sha256, rhsQuery.sha256)
+                && Objects.equals(this.md5, rhsQuery.md5)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.relativePath, this.mimeType, this.sha256, this.md5, this.query);
     }
 
     /**
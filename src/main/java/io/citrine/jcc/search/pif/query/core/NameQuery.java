@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query to execute against a name field.
@@ -488,11 +488,16 @@ public class NameQuery extends BaseObjectQuery implements Serializable {
         }
         final NameQuery rhsQuery = (NameQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.given).equals(Optional.ofNullable(rhsQuery.given))
-                && Optional.ofNullable(this.family).equals(Optional.ofNullable(rhsQuery.family))
-                && Optional.ofNullable(this.title).equals(Optional.ofNullable(rhsQuery.title))
-                && Optional.ofNullable(this.suffix).equals(Optional.ofNullable(rhsQuery.suffix))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.given, rhsQuery.given)
+                && Objects.equals(this.family, rhsQuery.family)
+                && Objects.equals(this.title, rhsQuery.title)
+                && Objects.equals(this.suffix, rhsQuery.suffix)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.given, this.family, this.title, this.suffix, this.query);
     }
 
     /**
@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query to execute against a pages field.
@@ -348,9 +348,14 @@ public class PagesQuery extends BaseObjectQuery implements Serializable {
         }
         final PagesQuery rhsQuery = (PagesQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.start).equals(Optional.ofNullable(rhsQuery.start))
-                && Optional.ofNullable(this.end).equals(Optional.ofNullable(rhsQuery.end))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.start, rhsQuery.start)
+                && Objects.equals(this.end, rhsQuery.end)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.start, this.end, this.query);
     }
 
     /**
@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query to match against process steps.
@@ -348,9 +348,14 @@ public class ProcessStepQuery extends BaseObjectQuery implements Serializable {
         }
         final ProcessStepQuery rhsQuery = (ProcessStepQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.name).equals(Optional.ofNullable(rhsQuery.name))
-                && Optional.ofNullable(this.details).equals(Optional.ofNullable(rhsQuery.details))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.name, rhsQuery.name)
+                && Objects.equals(this.details, rhsQuery.details)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.name, this.details, this.query);
     }
 
     /**
@@ -12,7 +12,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -511,10 +511,15 @@ public class PropertyQuery extends ValueQuery implements Serializable {
         }
         final PropertyQuery rhsQuery = (PropertyQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.conditions).equals(Optional.ofNullable(rhsQuery.conditions))
-                && Optional.ofNullable(this.dataType).equals(Optional.ofNullable(rhsQuery.dataType))
-                && Optional.ofNullable(this.references).equals(Optional.ofNullable(rhsQuery.references))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.conditions, rhsQuery.conditions)
+                && Objects.equals(this.dataType, rhsQuery.dataType)
+                && Objects.equals(this.references, rhsQuery.references)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.conditions, this.dataType, this.references, this.query);
     }
 
     /**
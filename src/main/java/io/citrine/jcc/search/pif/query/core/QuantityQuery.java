@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query against the quantity of a system.
@@ -628,19 +628,20 @@ public class QuantityQuery extends BaseObjectQuery implements Serializable {
         }
         final QuantityQuery rhsQuery = (QuantityQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.actualMassPercent)
-                        .equals(Optional.ofNullable(rhsQuery.actualMassPercent))
-                && Optional.ofNullable(this.actualVolumePercent)
-                        .equals(Optional.ofNullable(rhsQuery.actualVolumePercent))
-                && Optional.ofNullable(this.actualNumberPercent)
-                        .equals(Optional.ofNullable(rhsQuery.actualNumberPercent))
-                && Optional.ofNullable(this.idealMassPercent)
-                        .equals(Optional.ofNullable(rhsQuery.idealMassPercent))
-                && Optional.ofNullable(this.idealVolumePercent)
-                        .equals(Optional.ofNullable(rhsQuery.idealVolumePercent))
-                && Optional.ofNullable(this.idealNumberPercent)
-                        .equals(Optional.ofNullable(rhsQuery.idealNumberPercent))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.actualMassPercent, rhsQuery.actualMassPercent)
+                && Objects.equals(this.actualVolumePercent, rhsQuery.actualVolumePercent)
+                && Objects.equals(this.actualNumberPercent, rhsQuery.actualNumberPercent)
+                && Objects.equals(this.idealMassPercent, rhsQuery.idealMassPercent)
+                && Objects.equals(this.idealVolumePercent, rhsQuery.idealVolumePercent)
+                && Objects.equals(this.idealNumberPercent, rhsQuery.idealNumberPercent)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.actualMassPercent, this.actualVolumePercent,
+                this.actualNumberPercent, this.idealMassPercent, this.idealVolumePercent, this.idealNumberPercent,
+                this.query);
     }
 
     /**
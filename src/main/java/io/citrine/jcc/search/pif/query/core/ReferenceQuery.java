@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query against a reference.
@@ -1468,25 +1468,32 @@ public class ReferenceQuery extends BaseObjectQuery implements Serializable {
         }
         final ReferenceQuery rhsQuery = (ReferenceQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.doi).equals(Optional.ofNullable(rhsQuery.doi))
-                && Optional.ofNullable(this.isbn).equals(Optional.ofNullable(rhsQuery.isbn))
-                && Optional.ofNullable(this.issn).equals(Optional.ofNullable(rhsQuery.issn))
-                && Optional.ofNullable(this.url).equals(Optional.ofNullable(rhsQuery.url))
-                && Optional.ofNullable(this.title).equals(Optional.ofNullable(rhsQuery.title))
-                && Optional.ofNullable(this.publisher).equals(Optional.ofNullable(rhsQuery.publisher))
-                && Optional.ofNullable(this.journal).equals(Optional.ofNullable(rhsQuery.journal))
-                && Optional.ofNullable(this.volume).equals(Optional.ofNullable(rhsQuery.volume))
-                && Optional.ofNullable(this.issue).equals(Optional.ofNullable(rhsQuery.issue))
-                && Optional.ofNullable(this.year).equals(Optional.ofNullable(rhsQuery.year))
-                && Optional.ofNullable(this.figure).equals(Optional.ofNullable(rhsQuery.figure))
-                && Optional.ofNullable(this.table).equals(Optional.ofNullable(rhsQuery.table))
-                && Optional.ofNullable(this.pages).equals(Optional.ofNullable(rhsQuery.pages))
-                && Optional.ofNullable(this.authors).equals(Optional.ofNullable(rhsQuery.authors))
-                && Optional.ofNullable(this.editors).equals(Optional.ofNullable(rhsQuery.editors))
-                && Optional.ofNullable(this.affiliations).equals(Optional.ofNullable(rhsQuery.affiliations))
-                && Optional.ofNullable(this.acknowledgements).equals(Optional.ofNullable(rhsQuery.acknowledgements))
-                && Optional.ofNullable(this.references).equals(Optional.ofNullable(rhsQuery.references))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.doi, rhsQuery.doi)
+                && Objects.equals(this.isbn, rhsQuery.isbn)
+                && Objects.equals(this.issn, rhsQuery.issn)
+                && Objects.equals(this.url, rhsQuery.url)
+                && Objects.equals(this.title, rhsQuery.title)
+                && Objects.equals(this.publisher, rhsQuery.publisher)
+                && Objects.equals(this.journal, rhsQuery.journal)
+                && Objects.equals(this.volume, rhsQuery.volume)
+                && Objects.equals(this.issue, rhsQuery.issue)
+                && Objects.equals(this.year, rhsQuery.year)
+                && Objects.equals(this.figure, rhsQuery.figure)
+                && Objects.equals(this.table, rhsQuery.table)
+                && Objects.equals(this.pages, rhsQuery.pages)
+                && Objects.equals(this.authors, rhsQuery.authors)
+                && Objects.equals(this.editors, rhsQuery.editors)
+                && Objects.equals(this.affiliations, rhsQuery.affiliations)
+                && Objects.equals(this.acknowledgements, rhsQuery.acknowledgements)
+                && Objects.equals(this.references, rhsQuery.references)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.doi, this.isbn, this.issn, this.url, this.title, this.publisher,
+                this.journal, this.volume, this.issue, this.year, this.figure, this.table, this.pages, this.authors,
+                this.editors, this.affiliations, this.acknowledgements, this.references, this.query);
     }
 
     /**
@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Query against the source of a system.
@@ -348,9 +348,14 @@ public class SourceQuery extends BaseObjectQuery implements Serializable {
         }
         final SourceQuery rhsQuery = (SourceQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.producer).equals(Optional.ofNullable(rhsQuery.producer))
-                && Optional.ofNullable(this.url).equals(Optional.ofNullable(rhsQuery.url))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.producer, rhsQuery.producer)
+                && Objects.equals(this.url, rhsQuery.url)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.producer, this.url, this.query);
     }
 
     /**
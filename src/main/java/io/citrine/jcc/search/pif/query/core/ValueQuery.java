@@ -11,7 +11,7 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Class for querying against a single value.
@@ -492,11 +492,16 @@ public class ValueQuery extends BaseObjectQuery implements Serializable {
         }
         final ValueQuery rhsQuery = (ValueQuery) rhs;
         return super.equals(rhsQuery)
-                && Optional.ofNullable(this.name).equals(Optional.ofNullable(rhsQuery.name))
-                && Optional.ofNullable(this.value).equals(Optional.ofNullable(rhsQuery.value))
-                && Optional.ofNullable(this.file).equals(Optional.ofNullable(rhsQuery.file))
-                && Optional.ofNullable(this.units).equals(Optional.ofNullable(rhsQuery.units))
-                && Optional.ofNullable(this.query).equals(Optional.ofNullable(rhsQuery.query));
+                && Objects.equals(this.name, rhsQuery.name)
+                && Objects.equals(this.value, rhsQuery.value)
+                && Objects.equals(this.file, rhsQuery.file)
+                && Objects.equals(this.units, rhsQuery.units)
+                && Objects.equals(this.query, rhsQuery.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.name, this.value, this.file, this.units, this.query);
     }
 
     /**
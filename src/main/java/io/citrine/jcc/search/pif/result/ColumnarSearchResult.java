@@ -0,0 +1,347 @@
+package io.citrine.jcc.search.pif.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class to store the hits of one or more pages of a query as columns. Each hit is a row, and the values that were
+ * extracted from the hits are stored in one {@link ExtractedColumn} per {@code extractAs} key. Numeric values are held
+ * in primitive arrays rather than in a map of boxed values for each hit, so this is a compact way to read many hits
+ * whose extracted values are used as features.
+ *
+ * <p>Objects of this class are filled directly from the parser of a response with {@link Builder}, so no
+ * {@link PifSearchHit} objects are created. Systems and extracted paths in the response are skipped.
+ *
+ * @author Kyle Michel
+ */
+public class ColumnarSearchResult {
+
+    /**
+     * Constructor.
+     *
+     * @param took Number of milliseconds that the queries took to execute, summed over all pages.
+     * @param totalNumHits Total number of hits that matched the query.
+     * @param maxScore Maximum score of any hit.
+     * @param numRows Number of hits in this result.
+     * @param ids Array with the id of each hit.
+     * @param scores Array with the score of each hit.
+     * @param columns Map of extracted value keys to columns.
+     */
+    private ColumnarSearchResult(final Long took, final Long totalNumHits, final Double maxScore, final int numRows,
+                                 final String[] ids, final double[] scores,
+                                 final Map<String, ExtractedColumn> columns) {
+        this.took = took;
+        this.totalNumHits = totalNumHits;
+        this.maxScore = maxScore;
+        this.numRows = numRows;
+        this.ids = ids;
+        this.scores = scores;
+        this.columns = columns;
+    }
+
+    /**
+     * Get the number of milliseconds that the queries took to execute, summed over all pages.
+     *
+     * @return Number of milliseconds or a null pointer if not set.
+     */
+    public Long getTook() {
+        return this.took;
+    }
+
+    /**
+     * Get the total number of hits that matched the query. This can be larger than the number of rows.
+     *
+     * @return Total number of hits or a null pointer if not set.
+     */
+    public Long getTotalNumHits() {
+        return this.totalNumHits;
+    }
+
+    /**
+     * Get the maximum score of any hit.
+     *
+     * @return Maximum score or a null pointer if not set.
+     */
+    public Double getMaxScore() {
+        return this.maxScore;
+    }
+
+    /**
+     * Get the number of hits in this result.
+     *
+     * @return Number of rows.
+     */
+    public int getNumRows() {
+        return this.numRows;
+    }
+
+    /**
+     * Get the id of each hit. The array is not copied, so it must not be modified.
+     *
+     * @return Array with one id per row.
+     */
+    public String[] getIds() {
+        return this.ids;
+    }
+
+    /**
+     * Get the score of each hit. The array is not copied, so it must not be modified. Hits without a score hold
+     * {@link Double#NaN}.
+     *
+     * @return Array with one score per row.
+     */
+    public double[] getScores() {
+        return this.scores;
+    }
+
+    /**
+     * Get the keys of the extracted value columns in the order that they were first seen.
+     *
+     * @return Set with the names of the columns.
+     */
+    public Set<String> getColumnNames() {
+        return Collections.unmodifiableSet(this.columns.keySet());
+    }
+
+    /**
+     * Get the column of values that were extracted with the input key.
+     *
+     * @param name String with the key that the values were extracted as.
+     * @return {@link ExtractedColumn} with the values or a null pointer if no hit had a value for the key.
+     */
+    public ExtractedColumn getColumn(final String name) {
+        return this.columns.get(name);
+    }
+
+    /** Number of milliseconds that the queries took to execute. */
+    private final Long took;
+
+    /** Total number of hits that matched the query. */
+    private final Long totalNumHits;
+
+    /** Maximum score of any hit. */
+    private final Double maxScore;
+
+    /** Number of hits in this result. */
+    private final int numRows;
+
+    /** Id of each hit. */
+    private final String[] ids;
+
+    /** Score of each hit. */
+    private final double[] scores;
+
+    /** Map of extracted value keys to columns. */
+    private final Map<String, ExtractedColumn> columns;
+
+    /**
+     * Class that reads pages of search results into columns. Pages should be added in the order of their hits.
+     *
+     * @author Kyle Michel
+     */
+    public static class Builder {
+
+        /**
+         * Read a page of results from a parser. The current token of the parser must be the start of the result
+         * object, and the parser is left on the end of that object.
+         *
+         * @param parser {@link JsonParser} to read from.
+         * @return Number of hits that were read from the page.
+         * @throws IOException if thrown while reading from the parser or if the result is malformed.
+         */
+        public int addPage(final JsonParser parser) throws IOException {
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected the start of a search result");
+            }
+            final int firstRow = this.numRows;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (fieldName) {
+                    case TOOK_FIELD:
+                        this.took = (this.took == null) ? parser.getLongValue() : this.took + parser.getLongValue();
+                        break;
+                    case TOTAL_NUM_HITS_FIELD:
+                        this.totalNumHits = parser.getLongValue();
+                        break;
+                    case MAX_SCORE_FIELD:
+                        this.maxScore = (this.maxScore == null)
+                                ? parser.getDoubleValue()
+                                : Math.max(this.maxScore, parser.getDoubleValue());
+                        break;
+                    case HITS_FIELD:
+                        readHits(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return this.numRows - firstRow;
+        }
+
+        /**
+         * Get the total number of hits that matched the query, as reported by the last page that was added.
+         *
+         * @return Total number of hits or a null pointer if no page has reported it.
+         */
+        public Long getTotalNumHits() {
+            return this.totalNumHits;
+        }
+
+        /**
+         * Build the result from the pages that have been added.
+         *
+         * @return {@link ColumnarSearchResult} with the hits of all pages.
+         */
+        public ColumnarSearchResult build() {
+            final Map<String, ExtractedColumn> columns = new LinkedHashMap<>();
+            this.columns.forEach((name, column) -> columns.put(name, column.build(this.numRows)));
+            return new ColumnarSearchResult(this.took, this.totalNumHits, this.maxScore, this.numRows,
+                    Arrays.copyOf(this.ids, this.numRows), Arrays.copyOf(this.scores, this.numRows), columns);
+        }
+
+        /**
+         * Read the array of hits.
+         *
+         * @param parser {@link JsonParser} whose current token is the start of the array.
+         * @throws IOException if thrown while reading from the parser or if a hit is malformed.
+         */
+        private void readHits(final JsonParser parser) throws IOException {
+            if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a list of hits");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of search result");
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    readHit(parser);
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        /**
+         * Read a single hit into the next row.
+         *
+         * @param parser {@link JsonParser} whose current token is the start of the hit.
+         * @throws IOException if thrown while reading from the parser.
+         */
+        private void readHit(final JsonParser parser) throws IOException {
+            final int row = this.numRows;
+            ensureCapacity(row + 1);
+            this.scores[row] = Double.NaN;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (fieldName) {
+                    case ID_FIELD:
+                        this.ids[row] = parser.getValueAsString();
+                        break;
+                    case SCORE_FIELD:
+                        this.scores[row] = parser.getValueAsDouble(Double.NaN);
+                        break;
+                    case EXTRACTED_FIELD:
+                        readExtracted(row, parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            this.numRows = row + 1;
+        }
+
+        /**
+         * Read the extracted values of a hit into their columns.
+         *
+         * @param row Index of the row of the hit.
+         * @param parser {@link JsonParser} whose current token is the start of the extracted values.
+         * @throws IOException if thrown while reading from the parser.
+         */
+        private void readExtracted(final int row, final JsonParser parser) throws IOException {
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                this.columns.computeIfAbsent(name, ExtractedColumn.Builder::new).set(row, parser);
+            }
+        }
+
+        /**
+         * Grow the id and score arrays so that they have room for at least the input number of rows.
+         *
+         * @param minCapacity Minimum number of rows.
+         */
+        private void ensureCapacity(final int minCapacity) {
+            if (minCapacity > this.ids.length) {
+                final int capacity = Math.max(minCapacity, Math.max(INITIAL_CAPACITY, this.ids.length * 2));
+                this.ids = Arrays.copyOf(this.ids, capacity);
+                this.scores = Arrays.copyOf(this.scores, capacity);
+            }
+        }
+
+        /** Number of rows that are allocated the first time that the result grows. */
+        private static final int INITIAL_CAPACITY = 64;
+
+        /** Name of the field with the execution time. */
+        private static final String TOOK_FIELD = "took";
+
+        /** Name of the field with the total number of hits. */
+        private static final String TOTAL_NUM_HITS_FIELD = "totalNumHits";
+
+        /** Name of the field with the maximum score. */
+        private static final String MAX_SCORE_FIELD = "maxScore";
+
+        /** Name of the field with the list of hits. */
+        private static final String HITS_FIELD = "hits";
+
+        /** Name of the field with the id of a hit. */
+        private static final String ID_FIELD = "id";
+
+        /** Name of the field with the score of a hit. */
+        private static final String SCORE_FIELD = "score";
+
+        /** Name of the field with the extracted values of a hit. */
+        private static final String EXTRACTED_FIELD = "extracted";
+
+        /** Columns of extracted values in the order that they were first seen. */
+        private final Map<String, ExtractedColumn.Builder> columns = new LinkedHashMap<>();
+
+        /** Id of each hit. */
+        private String[] ids = new String[0];
+
+        /** Score of each hit. */
+        private double[] scores = new double[0];
+
+        /** Number of hits that have been read. */
+        private int numRows;
+
+        /** Sum of the execution times of the pages. */
+        private Long took;
+
+        /** Total number of hits reported by the last page. */
+        private Long totalNumHits;
+
+        /** Maximum score of any hit. */
+        private Double maxScore;
+    }
+}
@@ -0,0 +1,444 @@
+package io.citrine.jcc.search.pif.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column of the values that were extracted under a single key from every hit of a {@link ColumnarSearchResult}.
+ * Values are stored in a primitive array that matches the type of the column, and a bitmap marks the rows of hits
+ * that did not have a value for the key.
+ *
+ * <p>The type of a column is the narrowest type that holds all of its values: a column of integers is stored as
+ * {@link Type#LONG}, a column that mixes integers and decimals is stored as {@link Type#DOUBLE}, and a column with
+ * any value that is not a number is stored as {@link Type#STRING} using the text of each value. String columns are
+ * dictionary encoded, so each row holds an index into an array of the distinct values.
+ *
+ * @author Kyle Michel
+ */
+public class ExtractedColumn {
+
+    /**
+     * Constructor.
+     *
+     * @param name String with the key that the values were extracted as.
+     * @param type {@link Type} of the column.
+     * @param size Number of rows in the column.
+     * @param doubles Array with the values of a {@link Type#DOUBLE} column.
+     * @param longs Array with the values of a {@link Type#LONG} column.
+     * @param codes Array with the dictionary index of each value of a {@link Type#STRING} column.
+     * @param dictionary Array with the distinct values of a {@link Type#STRING} column.
+     * @param nulls {@link BitSet} with the rows that do not have a value.
+     */
+    ExtractedColumn(final String name, final Type type, final int size, final double[] doubles, final long[] longs,
+                    final int[] codes, final String[] dictionary, final BitSet nulls) {
+        this.name = name;
+        this.type = type;
+        this.size = size;
+        this.doubles = doubles;
+        this.longs = longs;
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.nulls = nulls;
+    }
+
+    /**
+     * Get the key that the values of this column were extracted as.
+     *
+     * @return String with the name of the column.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the type of the values in this column.
+     *
+     * @return {@link Type} of the column.
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Get the number of rows in this column. This is the same as the number of hits in the result.
+     *
+     * @return Number of rows.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Get whether a row does not have a value.
+     *
+     * @param row Index of the row.
+     * @return True if the hit at the input row did not have a value for this column.
+     */
+    public boolean isNull(final int row) {
+        return this.nulls.get(row);
+    }
+
+    /**
+     * Get the number of rows that do not have a value.
+     *
+     * @return Number of null rows.
+     */
+    public int getNullCount() {
+        return this.nulls.cardinality();
+    }
+
+    /**
+     * Get the values of a {@link Type#DOUBLE} column. The array is not copied, so it must not be modified. Null
+     * rows hold {@link Double#NaN}. The values of a {@link Type#LONG} column are converted into a new array.
+     *
+     * @return Array with one value per row.
+     * @throws IllegalStateException if this is a {@link Type#STRING} column.
+     */
+    public double[] getDoubles() {
+        switch (this.type) {
+            case DOUBLE:
+                return this.doubles;
+            case LONG:
+                final double[] converted = new double[this.size];
+                for (int i = 0; i < this.size; ++i) {
+                    converted[i] = this.nulls.get(i) ? Double.NaN : this.longs[i];
+                }
+                return converted;
+            default:
+                throw new IllegalStateException("Column " + this.name + " does not hold numbers");
+        }
+    }
+
+    /**
+     * Get the values of a {@link Type#LONG} column. The array is not copied, so it must not be modified. Null rows
+     * hold zero, so {@link #isNull(int)} must be used to tell them apart.
+     *
+     * @return Array with one value per row.
+     * @throws IllegalStateException if this is not a {@link Type#LONG} column.
+     */
+    public long[] getLongs() {
+        if (this.type != Type.LONG) {
+            throw new IllegalStateException("Column " + this.name + " does not hold integers");
+        }
+        return this.longs;
+    }
+
+    /**
+     * Get the dictionary index of each value of a {@link Type#STRING} column. The array is not copied, so it must
+     * not be modified. Null rows hold -1.
+     *
+     * @return Array with one index into {@link #getDictionary()} per row.
+     * @throws IllegalStateException if this is not a {@link Type#STRING} column.
+     */
+    public int[] getCodes() {
+        if (this.type != Type.STRING) {
+            throw new IllegalStateException("Column " + this.name + " does not hold strings");
+        }
+        return this.codes;
+    }
+
+    /**
+     * Get the distinct values of a {@link Type#STRING} column in the order that they were first seen. The array is
+     * not copied, so it must not be modified.
+     *
+     * @return Array with the distinct values.
+     * @throws IllegalStateException if this is not a {@link Type#STRING} column.
+     */
+    public String[] getDictionary() {
+        if (this.type != Type.STRING) {
+            throw new IllegalStateException("Column " + this.name + " does not hold strings");
+        }
+        return this.dictionary;
+    }
+
+    /**
+     * Get the value of a row as an object. This boxes the value, so the typed arrays should be preferred when
+     * reading many rows.
+     *
+     * @param row Index of the row.
+     * @return Long, Double or String with the value of the row, or a null pointer if the row does not have a value.
+     */
+    public Object getValue(final int row) {
+        if (this.nulls.get(row)) {
+            return null;
+        }
+        switch (this.type) {
+            case DOUBLE:
+                return this.doubles[row];
+            case LONG:
+                return this.longs[row];
+            default:
+                return this.dictionary[this.codes[row]];
+        }
+    }
+
+    /** Key that the values were extracted as. */
+    private final String name;
+
+    /** Type of the column. */
+    private final Type type;
+
+    /** Number of rows. */
+    private final int size;
+
+    /** Values of a double column. */
+    private final double[] doubles;
+
+    /** Values of a long column. */
+    private final long[] longs;
+
+    /** Dictionary index of each value of a string column. */
+    private final int[] codes;
+
+    /** Distinct values of a string column. */
+    private final String[] dictionary;
+
+    /** Rows that do not have a value. */
+    private final BitSet nulls;
+
+    /**
+     * Type of the values in a column.
+     *
+     * @author Kyle Michel
+     */
+    public enum Type {
+
+        /** Integer values stored as longs. */
+        LONG,
+
+        /** Numeric values stored as doubles. */
+        DOUBLE,
+
+        /** Values of any other type stored as dictionary encoded strings. */
+        STRING
+    }
+
+    /**
+     * Class that collects the values of a column as they are read. Values may be set for rows in any increasing
+     * order; rows that are skipped are null.
+     *
+     * @author Kyle Michel
+     */
+    static class Builder {
+
+        /**
+         * Constructor.
+         *
+         * @param name String with the key that the values are extracted as.
+         */
+        Builder(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * Set the value of a row from the current token of a parser. If the current token starts an object or an
+         * array then the whole value is consumed and stored as text.
+         *
+         * @param row Index of the row.
+         * @param parser {@link JsonParser} whose current token is the value.
+         * @throws IOException if thrown while reading the value.
+         */
+        void set(final int row, final JsonParser parser) throws IOException {
+            final JsonToken token = parser.getCurrentToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return;
+            }
+            ensureCapacity(row + 1);
+            if ((token == JsonToken.VALUE_NUMBER_INT)
+                    && (parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER)) {
+                setLong(row, parser.getLongValue());
+            }
+            else if (token.isNumeric()) {
+                setDouble(row, parser.getDoubleValue());
+            }
+            else if (token.isScalarValue()) {
+                setString(row, parser.getText());
+            }
+            else {
+                setString(row, parser.readValueAsTree().toString());
+            }
+            this.present.set(row);
+        }
+
+        /**
+         * Build the column.
+         *
+         * @param numRows Number of rows in the result.
+         * @return {@link ExtractedColumn} with the values that were set.
+         */
+        ExtractedColumn build(final int numRows) {
+            final BitSet nulls = new BitSet(numRows);
+            nulls.set(0, numRows);
+            nulls.andNot(this.present);
+            if (this.type == null) {
+                final double[] values = new double[numRows];
+                Arrays.fill(values, Double.NaN);
+                return new ExtractedColumn(this.name, Type.DOUBLE, numRows, values, null, null, null, nulls);
+            }
+            switch (this.type) {
+                case DOUBLE:
+                    final double[] values = Arrays.copyOf(this.doubles, numRows);
+                    for (int i = nulls.nextSetBit(0); i >= 0; i = nulls.nextSetBit(i + 1)) {
+                        values[i] = Double.NaN;
+                    }
+                    return new ExtractedColumn(this.name, Type.DOUBLE, numRows, values, null, null, null, nulls);
+                case LONG:
+                    return new ExtractedColumn(this.name, Type.LONG, numRows, null, Arrays.copyOf(this.longs, numRows),
+                            null, null, nulls);
+                default:
+                    final int[] codes = Arrays.copyOf(this.codes, numRows);
+                    for (int i = nulls.nextSetBit(0); i >= 0; i = nulls.nextSetBit(i + 1)) {
+                        codes[i] = -1;
+                    }
+                    return new ExtractedColumn(this.name, Type.STRING, numRows, null, null, codes,
+                            this.dictionary.toArray(new String[0]), nulls);
+            }
+        }
+
+        /**
+         * Set an integer value.
+         *
+         * @param row Index of the row.
+         * @param value Value to set.
+         */
+        private void setLong(final int row, final long value) {
+            if (this.type == null) {
+                this.type = Type.LONG;
+                this.longs = new long[this.capacity];
+            }
+            switch (this.type) {
+                case LONG:
+                    this.longs[row] = value;
+                    break;
+                case DOUBLE:
+                    this.doubles[row] = value;
+                    break;
+                default:
+                    this.codes[row] = encode(Long.toString(value));
+            }
+        }
+
+        /**
+         * Set a decimal value, converting the column to doubles if it holds integers.
+         *
+         * @param row Index of the row.
+         * @param value Value to set.
+         */
+        private void setDouble(final int row, final double value) {
+            if (this.type == null) {
+                this.type = Type.DOUBLE;
+                this.doubles = new double[this.capacity];
+            }
+            else if (this.type == Type.LONG) {
+                this.doubles = new double[this.capacity];
+                for (int i = this.present.nextSetBit(0); i >= 0; i = this.present.nextSetBit(i + 1)) {
+                    this.doubles[i] = this.longs[i];
+                }
+                this.longs = null;
+                this.type = Type.DOUBLE;
+            }
+            if (this.type == Type.DOUBLE) {
+                this.doubles[row] = value;
+            }
+            else {
+                this.codes[row] = encode(Double.toString(value));
+            }
+        }
+
+        /**
+         * Set a string value, converting the column to strings if it holds numbers.
+         *
+         * @param row Index of the row.
+         * @param value Value to set.
+         */
+        private void setString(final int row, final String value) {
+            if (this.type != Type.STRING) {
+                this.codes = new int[this.capacity];
+                for (int i = this.present.nextSetBit(0); i >= 0; i = this.present.nextSetBit(i + 1)) {
+                    this.codes[i] = encode((this.type == Type.LONG)
+                            ? Long.toString(this.longs[i])
+                            : Double.toString(this.doubles[i]));
+                }
+                this.longs = null;
+                this.doubles = null;
+                this.type = Type.STRING;
+            }
+            this.codes[row] = encode(value);
+        }
+
+        /**
+         * Get the dictionary index of a string, adding it to the dictionary if it is new.
+         *
+         * @param value String to encode.
+         * @return Index of the value in the dictionary.
+         */
+        private int encode(final String value) {
+            final Integer code = this.codesByValue.get(value);
+            if (code != null) {
+                return code;
+            }
+            this.codesByValue.put(value, this.dictionary.size());
+            this.dictionary.add(value);
+            return this.dictionary.size() - 1;
+        }
+
+        /**
+         * Grow the arrays of this column so that they have room for at least the input number of rows.
+         *
+         * @param minCapacity Minimum number of rows.
+         */
+        private void ensureCapacity(final int minCapacity) {
+            if (minCapacity <= this.capacity) {
+                return;
+            }
+            this.capacity = Math.max(minCapacity, Math.max(INITIAL_CAPACITY, this.capacity * 2));
+            if (this.longs != null) {
+                this.longs = Arrays.copyOf(this.longs, this.capacity);
+            }
+            if (this.doubles != null) {
+                this.doubles = Arrays.copyOf(this.doubles, this.capacity);
+            }
+            if (this.codes != null) {
+                this.codes = Arrays.copyOf(this.codes, this.capacity);
+            }
+        }
+
+        /** Number of rows that are allocated the first time that a column grows. */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /** Key that the values are extracted as. */
+        private final String name;
+
+        /** Rows that have a value. */
+        private final BitSet present = new BitSet();
+
+        /** Index of each distinct string value. */
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+
+        /** Distinct string values in the order that they were first seen. */
+        private final List<String> dictionary = new ArrayList<>();
+
+        /** Type of the column or a null pointer if no value has been set. */
+        private Type type;
+
+        /** Number of rows that the arrays have room for. */
+        private int capacity;
+
+        /** Values of a long column. */
+        private long[] longs;
+
+        /** Values of a double column. */
+        private double[] doubles;
+
+        /** Dictionary index of each value of a string column. */
+        private int[] codes;
+    }
+}
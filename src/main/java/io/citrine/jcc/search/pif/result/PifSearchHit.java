@@ -2,6 +2,10 @@ package io.citrine.jcc.search.pif.result;
 
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import io.citrine.jcc.util.MapUtil;
 import io.citrine.jpif.obj.common.Pio;
 import io.citrine.jpif.obj.system.System;
@@ -16,8 +20,9 @@ import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class to store a single PIF search hit.
@@ -132,20 +137,88 @@ public class PifSearchHit implements Serializable {
      * @param system {@link System} to save in the result
      * @return This object.
      */
+    @JsonIgnore
     public PifSearchHit setSystem(final System system) {
-        this.system = system;
+        synchronized (this) {
+            this.system = system;
+            this.systemTokens = null;
+        }
         return this;
     }
 
     /**
-     * Get the system that was matched.
+     * Save the tokens of the system that was matched without binding them. The tokens are bound to a {@link System}
+     * the first time that {@link #getSystem()} is called, so hits whose system is never read do not pay to build it.
+     *
+     * @param systemTokens {@link TokenBuffer} with the tokens of the system.
+     */
+    @JsonSetter("system")
+    protected void setSystemTokens(final TokenBuffer systemTokens) {
+        synchronized (this) {
+            this.system = null;
+            this.systemTokens = systemTokens;
+        }
+    }
+
+    /**
+     * Get the system that was matched. If the system was read from a response, it is bound on the first call to this
+     * method and the same object is returned from then on.
      *
      * @return {@link System} with the record that was matched or a null pointer if it has not been set.
+     * @throws RuntimeException if the saved tokens cannot be bound to a {@link System}.
      */
+    @JsonGetter
     public System getSystem() {
+        if (this.systemTokens != null) {
+            bindSystem();
+        }
         return this.system;
     }
 
+    /**
+     * Get whether the system of this hit has been bound to a {@link System} object. This is false only when the
+     * system was read from a response and {@link #getSystem()} has not been called since.
+     *
+     * @return True if the system is available without binding it.
+     */
+    @JsonIgnore
+    public boolean isSystemBound() {
+        return this.systemTokens == null;
+    }
+
+    /**
+     * Bind the saved system tokens to a {@link System} and drop the tokens.
+     *
+     * @throws RuntimeException if the tokens cannot be bound.
+     */
+    private synchronized void bindSystem() {
+        if (this.systemTokens == null) {
+            return;
+        }
+        this.system = readSystem(this.systemTokens);
+        this.systemTokens = null;
+    }
+
+    /**
+     * Bind the tokens of a system to a new {@link System} object.
+     *
+     * @param systemTokens {@link TokenBuffer} with the tokens of the system.
+     * @return {@link System} read from the tokens.
+     * @throws RuntimeException if the tokens cannot be bound.
+     */
+    private static System readSystem(final TokenBuffer systemTokens) {
+        try (JsonParser parser = systemTokens.asParser()) {
+            if (parser.getCodec() == null) {
+                parser.setCodec(PifObjectMapper.getInstance());
+            }
+            parser.nextToken();
+            return parser.readValueAs(System.class);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Failed to read system", e);
+        }
+    }
+
     /**
      * Set the map of extracted values.
      *
@@ -154,6 +227,7 @@ public class PifSearchHit implements Serializable {
      */
     public PifSearchHit setExtracted(final Map<String, Object> extracted) {
         this.extracted = extracted;
+        this.convertedValues = null;
         return this;
     }
 
@@ -165,6 +239,7 @@ public class PifSearchHit implements Serializable {
      */
     public PifSearchHit addExtracted(final Map<String, Object> extracted) {
         this.extracted = MapUtil.add(extracted, this.extracted);
+        this.convertedValues = null;
         return this;
     }
 
@@ -177,6 +252,7 @@ public class PifSearchHit implements Serializable {
      */
     public PifSearchHit addExtracted(final String key, final Object value) {
         this.extracted = MapUtil.add(key, value, this.extracted);
+        this.convertedValues = null;
         return this;
     }
 
@@ -213,7 +289,10 @@ public class PifSearchHit implements Serializable {
 
     /**
      * Get an extracted value and convert it to the type of valueClass. This method assumes that the value can be
-     * converted to the specified class by serialized the value to JSON then deserializing to the class type.
+     * converted to the specified class by serialized the value to JSON then deserializing to the class type. The
+     * value is converted on the first call for each key and class, and the same object is returned from then on
+     * until the extracted values of this hit are changed. That object is shared by every caller, so it must be treated
+     * as read-only; a caller that needs to modify it should modify a copy.
      *
      * @param key String with the key of the extracted value.
      * @param valueClass Class to convert the extracted value to.
@@ -223,7 +302,7 @@ public class PifSearchHit implements Serializable {
      */
     @JsonIgnore
     public <T extends Pio> T getExtractedValue(final String key, final Class<T> valueClass) {
-        return (this.extracted == null) ? null : convert(this.extracted.get(key), valueClass);
+        return (this.extracted == null) ? null : convertExtracted(key, valueClass);
     }
 
     /**
@@ -239,7 +318,8 @@ public class PifSearchHit implements Serializable {
     }
 
     /**
-     * Get an extracted value by its key or return a default value.
+     * Get an extracted value by its key or return a default value. Converted values are cached and shared in the same
+     * way as {@link #getExtractedValue(String, Class)}, so the returned object must be treated as read-only.
      *
      * @param key String with the key of the extracted value.
      * @param defaultValue String with the default value to return if the key does not exist.
@@ -250,7 +330,7 @@ public class PifSearchHit implements Serializable {
     @JsonIgnore
     public <T extends Pio> T getExtractedValueOrDefault(
             final String key, final T defaultValue, final Class<T> valueClass) {
-        final T converted = (this.extracted == null) ? defaultValue : convert(this.extracted.get(key), valueClass);
+        final T converted = (this.extracted == null) ? defaultValue : convertExtracted(key, valueClass);
         return (converted == null) ? defaultValue : converted;
     }
 
@@ -320,8 +400,53 @@ public class PifSearchHit implements Serializable {
     }
 
     /**
-     * Convert the input object to an instance of the specified class by serializing it to JSON then deserializing to
-     * the requested class.
+     * Convert an extracted value to an instance of the specified class, or get the result of an earlier conversion of
+     * the same key to the same class.
+     *
+     * @param key String with the key of the extracted value.
+     * @param objectClass Class to convert the extracted value to.
+     * @param <T> Type of the value to convert to.
+     * @return Converted value or a null pointer if the key is not available.
+     * @throws RuntimeException if the value cannot be converted.
+     */
+    private <T extends Pio> T convertExtracted(final String key, final Class<T> objectClass) {
+        final Object object = this.extracted.get(key);
+        if (object == null) {
+            return null;
+        }
+        final Map<String, Object> convertedValues = convertedValues(objectClass);
+        final Object converted = convertedValues.get(key);
+        return objectClass.cast((converted != null)
+                ? converted
+                : convertedValues.computeIfAbsent(key, k -> convert(object, objectClass)));
+    }
+
+    /**
+     * Get the cache of extracted values that have been converted to a class, creating it if needed.
+     *
+     * @param objectClass Class that the values were converted to.
+     * @return Map of extracted value keys to converted values.
+     */
+    private Map<String, Object> convertedValues(final Class<?> objectClass) {
+        Map<Class<?>, Map<String, Object>> convertedValues = this.convertedValues;
+        if (convertedValues == null) {
+            synchronized (this) {
+                convertedValues = this.convertedValues;
+                if (convertedValues == null) {
+                    convertedValues = new ConcurrentHashMap<>();
+                    this.convertedValues = convertedValues;
+                }
+            }
+        }
+        final Map<String, Object> classValues = convertedValues.get(objectClass);
+        return (classValues != null)
+                ? classValues
+                : convertedValues.computeIfAbsent(objectClass, k -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Convert the input object to an instance of the specified class. The object is written once to a token buffer
+     * which is then read as the requested class, so it is never serialized to text.
      *
      * @param object Object to convert.
      * @param objectClass Class to convert the extracted value to.
@@ -334,7 +459,7 @@ public class PifSearchHit implements Serializable {
             return null;
         }
         try {
-            return PifObjectMapper.deepCopy(object, objectClass);
+            return PifObjectMapper.getInstance().convertValue(object, objectClass);
         }
         catch (Exception e) {
             throw new RuntimeException("Failed to convert value", e);
@@ -350,14 +475,87 @@ public class PifSearchHit implements Serializable {
             return false;
         }
         final PifSearchHit rhsHit = (PifSearchHit) rhs;
-        return Optional.ofNullable(this.id).equals(Optional.ofNullable(rhsHit.id))
-                && Optional.ofNullable(this.dataset).equals(Optional.ofNullable(rhsHit.dataset))
-                && Optional.ofNullable(this.datasetVersion).equals(Optional.ofNullable(rhsHit.datasetVersion))
-                && Optional.ofNullable(this.score).equals(Optional.ofNullable(rhsHit.score))
-                && Optional.ofNullable(this.updatedAt).equals(Optional.ofNullable(rhsHit.updatedAt))
-                && Optional.ofNullable(this.system).equals(Optional.ofNullable(rhsHit.system))
-                && Optional.ofNullable(this.extracted).equals(Optional.ofNullable(rhsHit.extracted))
-                && Optional.ofNullable(this.extractedPath).equals(Optional.ofNullable(rhsHit.extractedPath));
+        return Objects.equals(this.id, rhsHit.id)
+                && Objects.equals(this.dataset, rhsHit.dataset)
+                && Objects.equals(this.datasetVersion, rhsHit.datasetVersion)
+                && Objects.equals(this.score, rhsHit.score)
+                && Objects.equals(this.updatedAt, rhsHit.updatedAt)
+                && Objects.equals(this.extracted, rhsHit.extracted)
+                && Objects.equals(this.extractedPath, rhsHit.extractedPath)
+                && systemEquals(rhsHit);
+    }
+
+    @Override
+    public int hashCode() {
+
+        // The system is left out so that hashing a hit never binds its system
+        return Objects.hash(this.id, this.dataset, this.datasetVersion, this.score, this.updatedAt, this.extracted,
+                this.extractedPath);
+    }
+
+    /**
+     * Determine whether the system of this hit is equal to the system of another hit without binding either of them.
+     * Two unbound systems are compared token by token, and two bound systems are compared as objects. If only one of
+     * them is bound, a temporary copy of the other is bound to compare against.
+     *
+     * @param rhs {@link PifSearchHit} to compare against.
+     * @return True if the systems are equal.
+     */
+    private boolean systemEquals(final PifSearchHit rhs) {
+
+        // Read the tokens first: once they are cleared, the bound system is visible
+        final TokenBuffer tokens = this.systemTokens;
+        final TokenBuffer rhsTokens = rhs.systemTokens;
+        if ((tokens != null) && (rhsTokens != null)) {
+            return tokensEqual(tokens, rhsTokens);
+        }
+        final System system = (tokens == null) ? this.system : readSystem(tokens);
+        final System rhsSystem = (rhsTokens == null) ? rhs.system : readSystem(rhsTokens);
+        return Objects.equals(system, rhsSystem);
+    }
+
+    /**
+     * Determine whether two token buffers hold the same sequence of tokens.
+     *
+     * @param lhs {@link TokenBuffer} to compare.
+     * @param rhs {@link TokenBuffer} to compare against.
+     * @return True if the tokens and their values are the same.
+     * @throws RuntimeException if the tokens cannot be read.
+     */
+    private static boolean tokensEqual(final TokenBuffer lhs, final TokenBuffer rhs) {
+        try (JsonParser lhsParser = lhs.asParser(); JsonParser rhsParser = rhs.asParser()) {
+            JsonToken token;
+            while ((token = lhsParser.nextToken()) != null) {
+                if (token != rhsParser.nextToken()) {
+                    return false;
+                }
+                switch (token) {
+                    case FIELD_NAME:
+                    case VALUE_STRING:
+                        if (!lhsParser.getText().equals(rhsParser.getText())) {
+                            return false;
+                        }
+                        break;
+                    case VALUE_NUMBER_INT:
+                    case VALUE_NUMBER_FLOAT:
+                        if (!lhsParser.getNumberValue().equals(rhsParser.getNumberValue())) {
+                            return false;
+                        }
+                        break;
+                    case VALUE_EMBEDDED_OBJECT:
+                        if (!Objects.equals(lhsParser.getEmbeddedObject(), rhsParser.getEmbeddedObject())) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return rhsParser.nextToken() == null;
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Failed to read system", e);
+        }
     }
 
     /**
@@ -405,12 +603,18 @@ public class PifSearchHit implements Serializable {
     /** The time that the record was updated. */
     private String updatedAt;
 
-    /** Pif system that was matched. */
+    /** Pif system that was matched, or a null pointer if it has not been bound yet. */
     private System system;
 
+    /** Tokens of the system that was matched while they have not been bound. */
+    private transient volatile TokenBuffer systemTokens;
+
     /** Map of extracted fields. */
     private Map<String, Object> extracted = new HashMap<>();
 
     /** Map of paths to extracted fields. */
     private Map<String, String> extractedPath;
+
+    /** Extracted values that have already been converted, keyed by their class and then by their extracted key. */
+    private transient volatile Map<Class<?>, Map<String, Object>> convertedValues;
 }
\ No newline at end of file
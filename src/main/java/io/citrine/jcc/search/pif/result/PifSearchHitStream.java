@@ -0,0 +1,262 @@
+package io.citrine.jcc.search.pif.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.citrine.jcc.search.analysis.result.AnalysisResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over the hits of a PIF search that decodes one {@link PifSearchHit} at a time from a JSON stream, so that
+ * only a single hit is held in memory regardless of the size of the page. The other fields of the result (took,
+ * total number of hits, max score and analyses) are available as soon as they have been read from the stream and
+ * are guaranteed to be available once all hits have been consumed. This object must be closed when it is no longer
+ * needed:
+ *
+ * <pre>
+ * {@code
+ * try (PifSearchHitStream hits = client.searchStreaming(query)) {
+ *     while (hits.hasNext()) {
+ *         PifSearchHit hit = hits.next();
+ *         // do work on hit
+ *     }
+ *     Long totalNumHits = hits.getTotalNumHits();
+ * }
+ * }
+ * </pre>
+ *
+ * @author Kyle Michel
+ */
+public class PifSearchHitStream implements Iterator<PifSearchHit>, Closeable {
+
+    /**
+     * Constructor.
+     *
+     * @param parser {@link JsonParser} that is positioned at the start of the object with the search result.
+     * @param objectMapper {@link ObjectMapper} to use to bind hits.
+     * @param resource {@link Closeable} to close along with this object, or a null pointer if there is none.
+     * @throws IllegalArgumentException if the parser is not positioned at the start of an object.
+     */
+    public PifSearchHitStream(final JsonParser parser, final ObjectMapper objectMapper, final Closeable resource) {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Parser must be positioned at the start of a search result");
+        }
+        this.parser = parser;
+        this.objectMapper = objectMapper;
+        this.resource = resource;
+        this.fields = objectMapper.createObjectNode();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if ((this.next == null) && !this.done) {
+            try {
+                this.next = readNextHit();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Failed to read search hit", e);
+            }
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public PifSearchHit next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final PifSearchHit hit = this.next;
+        this.next = null;
+        return hit;
+    }
+
+    /**
+     * Get a sequential {@link Stream} over the remaining hits. Closing the stream closes this object.
+     *
+     * @return {@link Stream} of {@link PifSearchHit} objects.
+     */
+    public Stream<PifSearchHit> stream() {
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Get the number of milliseconds that the query took to execute.
+     *
+     * @return Long with the number of milliseconds or a null pointer if that has not been read yet.
+     */
+    public Long getTook() {
+        return getSummary().getTook();
+    }
+
+    /**
+     * Get the total number of hits that were matched.
+     *
+     * @return Total number of records that were matched or a null pointer if that has not been read yet.
+     */
+    public Long getTotalNumHits() {
+        return getSummary().getTotalNumHits();
+    }
+
+    /**
+     * Get the max score.
+     *
+     * @return Double with the max score or a null pointer if that has not been read yet.
+     */
+    public Double getMaxScore() {
+        return getSummary().getMaxScore();
+    }
+
+    /**
+     * Get an analysis result by its name.
+     *
+     * @param name String with the name of the analysis.
+     * @return {@link AnalysisResult} with the input name or a null pointer if that has not been read yet.
+     */
+    public AnalysisResult getAnalysis(final String name) {
+        return getSummary().getAnalysis(name);
+    }
+
+    /**
+     * Get the names of the analyses that have been read.
+     *
+     * @return Set with the names of the analyses.
+     */
+    public Set<String> getAnalysisNames() {
+        return getSummary().getAnalysisNames();
+    }
+
+    /**
+     * Get whether all hits have been read from the stream.
+     *
+     * @return True if the stream has been fully consumed.
+     */
+    public boolean isDrained() {
+        return this.done;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.done = true;
+        this.next = null;
+        try {
+            this.parser.close();
+        }
+        finally {
+            if (this.resource != null) {
+                this.resource.close();
+            }
+        }
+    }
+
+    /**
+     * Get a {@link PifSearchResult} without hits that holds all other fields that have been read so far.
+     *
+     * @return {@link PifSearchResult} with the fields that are not hits.
+     * @throws UncheckedIOException if the fields cannot be converted.
+     */
+    private PifSearchResult getSummary() {
+        if (this.summary == null) {
+            try {
+                final PifSearchResult result = this.objectMapper.treeToValue(this.fields, PifSearchResult.class);
+                if (!this.done) {
+                    return result;
+                }
+                this.summary = result;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Failed to read search result", e);
+            }
+        }
+        return this.summary;
+    }
+
+    /**
+     * Advance the parser to the next hit and bind it. Fields of the result that are encountered along the way are
+     * saved so that they can be returned later.
+     *
+     * @return Next {@link PifSearchHit} or a null pointer if there are no more hits.
+     * @throws IOException if thrown while reading from the parser.
+     */
+    private PifSearchHit readNextHit() throws IOException {
+        while (true) {
+            final JsonToken token = this.parser.nextToken();
+            if (token == null) {
+                throw new IOException("Unexpected end of search result");
+            }
+            if (this.inHits) {
+                if (token == JsonToken.END_ARRAY) {
+                    this.inHits = false;
+                    continue;
+                }
+                return this.objectMapper.readValue(this.parser, PifSearchHit.class);
+            }
+            if (token == JsonToken.END_OBJECT) {
+                this.done = true;
+                close();
+                return null;
+            }
+            final String fieldName = this.parser.getCurrentName();
+            final JsonToken valueToken = this.parser.nextToken();
+            if (HITS_FIELD.equals(fieldName) && (valueToken == JsonToken.START_ARRAY)) {
+                this.inHits = true;
+            }
+            else {
+                this.fields.set(fieldName, this.objectMapper.readTree(this.parser));
+            }
+        }
+    }
+
+    /** Name of the field with the list of hits. */
+    private static final String HITS_FIELD = "hits";
+
+    /** Parser to read hits from. */
+    private final JsonParser parser;
+
+    /** Mapper to use to bind hits. */
+    private final ObjectMapper objectMapper;
+
+    /** Resource to close along with this object. */
+    private final Closeable resource;
+
+    /** Fields of the result other than the hits. */
+    private final ObjectNode fields;
+
+    /** Result with all fields other than the hits, built once the stream is done. */
+    private PifSearchResult summary;
+
+    /** Hit that has been read but not yet returned. */
+    private PifSearchHit next;
+
+    /** Whether the parser is currently inside of the array of hits. */
+    private boolean inHits;
+
+    /** Whether all hits have been read. */
+    private boolean done;
+
+    /** Whether this object has been closed. */
+    private boolean closed;
+}
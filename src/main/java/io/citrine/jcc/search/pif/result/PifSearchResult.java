@@ -88,6 +88,11 @@ public class PifSearchResult extends BaseSearchResult<PifSearchHit> implements S
         return super.equals(rhs);
     }
 
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
     /**
      * Write this object to the output output stream.
      *
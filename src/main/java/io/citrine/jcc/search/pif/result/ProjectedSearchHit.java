@@ -0,0 +1,210 @@
+package io.citrine.jcc.search.pif.result;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Class to store a single PIF search hit whose extracted values have been bound to a record class. The fields of the
+ * record class are matched to the names that were set with {@code extractAs} in the query, so a field that should
+ * receive the value extracted as "Band gap" should be named or annotated with that key, for example:
+ *
+ * <pre>
+ * {@code
+ * public class BandGapRecord {
+ *     @JsonProperty("Band gap")
+ *     public Double bandGap;
+ * }
+ * }
+ * </pre>
+ *
+ * @param <R> Type of the record that extracted values are bound to.
+ * @author Kyle Michel
+ */
+public class ProjectedSearchHit<R> {
+
+    /**
+     * Set the id of the record that was matched.
+     *
+     * @param id String with the id of the record.
+     * @return This object.
+     */
+    public ProjectedSearchHit<R> setId(final String id) {
+        this.id = id;
+        return this;
+    }
+
+    /**
+     * Get the id of the record that was matched.
+     *
+     * @return String with the id of the matched record or a null pointer if not set.
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Set the dataset of the record that was matched.
+     *
+     * @param dataset Dataset of the record.
+     * @return This object.
+     */
+    public ProjectedSearchHit<R> setDataset(final String dataset) {
+        this.dataset = dataset;
+        return this;
+    }
+
+    /**
+     * Get the dataset of the record that was matched.
+     *
+     * @return String with the dataset of the matched record or a null pointer if not set.
+     */
+    public String getDataset() {
+        return this.dataset;
+    }
+
+    /**
+     * Set the dataset version of the record that was matched.
+     *
+     * @param datasetVersion Long with the dataset version of the record.
+     * @return This object.
+     */
+    public ProjectedSearchHit<R> setDatasetVersion(final Long datasetVersion) {
+        this.datasetVersion = datasetVersion;
+        return this;
+    }
+
+    /**
+     * Get the dataset version of the record that was matched.
+     *
+     * @return Long with the dataset version of the matched record or a null pointer if not set.
+     */
+    public Long getDatasetVersion() {
+        return this.datasetVersion;
+    }
+
+    /**
+     * Set the score for a hit.
+     *
+     * @param score Double with the score for the hit.
+     * @return This object.
+     */
+    public ProjectedSearchHit<R> setScore(final Double score) {
+        this.score = score;
+        return this;
+    }
+
+    /**
+     * Get the score for a hit.
+     *
+     * @return Double with the score for the hit or a null pointer if not set.
+     */
+    public Double getScore() {
+        return this.score;
+    }
+
+    /**
+     * Set the time that the record was updated.
+     *
+     * @param updatedAt String with the time that the record was updated.
+     * @return This object.
+     */
+    public ProjectedSearchHit<R> setUpdatedAt(final String updatedAt) {
+        this.updatedAt = updatedAt;
+        return this;
+    }
+
+    /**
+     * Get the time that the record was updated.
+     *
+     * @return String with the time that the record was updated.
+     */
+    public String getUpdatedAt() {
+        return this.updatedAt;
+    }
+
+    /**
+     * Set the record with the extracted values of this hit.
+     *
+     * @param extracted Record with the extracted values.
+     * @return This object.
+     */
+    public ProjectedSearchHit<R> setExtracted(final R extracted) {
+        this.extracted = extracted;
+        return this;
+    }
+
+    /**
+     * Get the record with the extracted values of this hit.
+     *
+     * @return Record with the extracted values or a null pointer if no values were extracted.
+     */
+    public R getExtracted() {
+        return this.extracted;
+    }
+
+    /**
+     * Set the map of extracted value paths.
+     *
+     * @param extractedPath Map of extracted value names to paths.
+     * @return This object.
+     */
+    public ProjectedSearchHit<R> setExtractedPath(final Map<String, String> extractedPath) {
+        this.extractedPath = extractedPath;
+        return this;
+    }
+
+    /**
+     * Get the map of extracted value paths.
+     *
+     * @return Map of extracted field keys to paths.
+     */
+    public Map<String, String> getExtractedPath() {
+        return (this.extractedPath == null) ? Collections.emptyMap() : this.extractedPath;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        if (this == rhs) {
+            return true;
+        }
+        if ((rhs == null) || !(rhs instanceof ProjectedSearchHit)) {
+            return false;
+        }
+        final ProjectedSearchHit rhsHit = (ProjectedSearchHit) rhs;
+        return Objects.equals(this.id, rhsHit.id)
+                && Objects.equals(this.dataset, rhsHit.dataset)
+                && Objects.equals(this.datasetVersion, rhsHit.datasetVersion)
+                && Objects.equals(this.score, rhsHit.score)
+                && Objects.equals(this.updatedAt, rhsHit.updatedAt)
+                && Objects.equals(this.extracted, rhsHit.extracted)
+                && Objects.equals(this.extractedPath, rhsHit.extractedPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id, this.dataset, this.datasetVersion, this.score, this.updatedAt, this.extracted,
+                this.extractedPath);
+    }
+
+    /** Id of the record. */
+    private String id;
+
+    /** Dataset that the record belongs to. */
+    private String dataset;
+
+    /** Version of the dataset. */
+    private Long datasetVersion;
+
+    /** Score of the record. */
+    private Double score;
+
+    /** The time that the record was updated. */
+    private String updatedAt;
+
+    /** Record with the extracted values. */
+    private R extracted;
+
+    /** Map of paths to extracted fields. */
+    private Map<String, String> extractedPath;
+}
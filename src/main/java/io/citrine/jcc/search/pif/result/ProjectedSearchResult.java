@@ -0,0 +1,98 @@
+package io.citrine.jcc.search.pif.result;
+
+import io.citrine.jcc.search.analysis.result.AnalysisResult;
+import io.citrine.jcc.search.core.result.BaseSearchResult;
+
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class to store the results of a query whose extracted values have been bound to a record class. Unlike
+ * {@link PifSearchResult}, hits in this class do not keep a map of extracted values or the matched systems.
+ *
+ * <p>Objects of this class cannot be written with Java serialization since the record class of the hits is not
+ * known when they are read back.
+ *
+ * @param <R> Type of the record that extracted values are bound to.
+ * @author Kyle Michel
+ */
+public class ProjectedSearchResult<R> extends BaseSearchResult<ProjectedSearchHit<R>> {
+
+    @Override
+    public ProjectedSearchResult<R> setTook(final Long took) {
+        super.setTook(took);
+        return this;
+    }
+
+    @Override
+    public ProjectedSearchResult<R> setTotalNumHits(final Long totalNumHits) {
+        super.setTotalNumHits(totalNumHits);
+        return this;
+    }
+
+    @Override
+    public ProjectedSearchResult<R> setMaxScore(final Double maxScore) {
+        super.setMaxScore(maxScore);
+        return this;
+    }
+
+    @Override
+    public ProjectedSearchResult<R> setHits(final List<ProjectedSearchHit<R>> hits) {
+        super.setHits(hits);
+        return this;
+    }
+
+    @Override
+    public ProjectedSearchResult<R> addHits(final List<ProjectedSearchHit<R>> hits) {
+        super.addHits(hits);
+        return this;
+    }
+
+    @Override
+    public ProjectedSearchResult<R> addHits(final ProjectedSearchHit<R> hits) {
+        super.addHits(hits);
+        return this;
+    }
+
+    @Override
+    public ProjectedSearchResult<R> setAnalysis(final Map<String, AnalysisResult> analysis) {
+        super.setAnalysis(analysis);
+        return this;
+    }
+
+    @Override
+    public ProjectedSearchResult<R> addAnalysis(final Map<String, AnalysisResult> analysis) {
+        super.addAnalysis(analysis);
+        return this;
+    }
+
+    @Override
+    public ProjectedSearchResult<R> addAnalysis(final String name, final AnalysisResult analysis) {
+        super.addAnalysis(name, analysis);
+        return this;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+        return super.equals(rhs);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    /**
+     * Reject attempts to write this object with Java serialization.
+     *
+     * @param out {@link ObjectOutputStream} to write to.
+     * @throws NotSerializableException always.
+     */
+    private void writeObject(ObjectOutputStream out) throws NotSerializableException {
+        throw new NotSerializableException(ProjectedSearchResult.class.getName());
+    }
+
+    private static final long serialVersionUID = -6217452396431027564L;
+}
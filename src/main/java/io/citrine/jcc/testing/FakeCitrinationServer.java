@@ -0,0 +1,827 @@
+package io.citrine.jcc.testing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.citrine.jcc.core.SearchCodec;
+import io.citrine.jcc.core.SearchCodecs;
+import io.citrine.jcc.core.SearchTransport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory stand-in for the search API of Citrination, for testing and benchmarking the client without a network.
+ * The server answers PIF searches and multi-searches from a synthetic corpus of records that is generated from a
+ * seed, so the same settings always give the same records. Latency and failures can be added to every request.
+ *
+ * <p>The server can be reached in two ways. {@link #newTransport()} returns a {@link SearchTransport} that answers
+ * requests in the same process without opening any sockets, and {@link #start()} serves the same API over HTTP on
+ * the loopback interface for tests of the full HTTP stack. Requests and responses are encoded in the same formats as
+ * the real API, including Smile and gzip when the client asks for them.
+ *
+ * <p>Queries are only partly evaluated. Filters on dataset ids restrict the records that match, pagination and
+ * {@code returnSystem} are applied, and every {@code extractAs} name in a query is returned as an extracted value of
+ * each hit. All other criteria match every record.
+ *
+ * @author Kyle Michel
+ */
+public class FakeCitrinationServer implements Closeable {
+
+    /**
+     * Constructor.
+     *
+     * @param builder {@link Builder} with the settings of the server.
+     */
+    private FakeCitrinationServer(final Builder builder) {
+        this.numRecords = builder.numRecords;
+        this.numDatasets = builder.numDatasets;
+        this.latencyMillis = builder.latencyMillis;
+        this.latencyJitterMillis = builder.latencyJitterMillis;
+        this.errorRate = builder.errorRate;
+        this.errorStatus = builder.errorStatus;
+        this.retryAfterSeconds = builder.retryAfterSeconds;
+        this.random = new Random(builder.seed);
+        final Random corpusRandom = new Random(builder.seed);
+        this.formulas = new String[this.numRecords];
+        this.bandGaps = new double[this.numRecords];
+        this.formationEnergies = new double[this.numRecords];
+        for (int i = 0; i < this.numRecords; ++i) {
+            this.formulas[i] = ELEMENTS[corpusRandom.nextInt(ELEMENTS.length)]
+                    + ELEMENTS[corpusRandom.nextInt(ELEMENTS.length)] + (1 + corpusRandom.nextInt(3));
+            this.bandGaps[i] = Math.round(corpusRandom.nextDouble() * 600) / 100.0;
+            this.formationEnergies[i] = -Math.round(corpusRandom.nextDouble() * 400) / 100.0;
+        }
+    }
+
+    /**
+     * Start serving the API over HTTP on an ephemeral port of the loopback interface. Requests are handled on a pool
+     * of daemon threads, so a slow request does not hold up others.
+     *
+     * @return String with the host to pass to {@link io.citrine.jcc.core.CitrinationClient.Builder#setHost(String)}.
+     * @throws IOException if the server cannot be started.
+     * @throws IllegalStateException if the server has already been started.
+     */
+    public synchronized String start() throws IOException {
+        if (this.httpServer != null) {
+            throw new IllegalStateException("Server has already been started");
+        }
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::serve);
+        this.httpExecutor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "fake-citrination-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(this.httpExecutor);
+        server.start();
+        this.httpServer = server;
+        return getHost();
+    }
+
+    /**
+     * Get the host that the server is listening on.
+     *
+     * @return String with the scheme, address and port of the server.
+     * @throws IllegalStateException if the server has not been started.
+     */
+    public synchronized String getHost() {
+        if (this.httpServer == null) {
+            throw new IllegalStateException("Server has not been started");
+        }
+        final InetSocketAddress address = this.httpServer.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
+    /**
+     * Get a transport that answers requests from this server in the same process. Latency is added with a timer, so
+     * it does not block any threads. Each call returns a new transport that is closed by the client that uses it.
+     *
+     * @return {@link SearchTransport} backed by this server.
+     */
+    public SearchTransport newTransport() {
+        return new LoopbackSearchTransport(this);
+    }
+
+    /**
+     * Set the version of a dataset. Records of the dataset are returned with this version, which changes their ids.
+     * The default version of every dataset is 1.
+     *
+     * @param dataset String with the id of the dataset.
+     * @param version Version of the dataset.
+     * @return This object.
+     */
+    public FakeCitrinationServer setDatasetVersion(final String dataset, final long version) {
+        this.datasetVersions.put(dataset, version);
+        return this;
+    }
+
+    /**
+     * Get the number of requests that have been received, including requests that failed.
+     *
+     * @return Number of requests.
+     */
+    public long getRequestCount() {
+        return this.requestCount.sum();
+    }
+
+    /**
+     * Get the number of queries that have been answered. Each query of a multi-search is counted.
+     *
+     * @return Number of queries.
+     */
+    public long getQueryCount() {
+        return this.queryCount.sum();
+    }
+
+    /**
+     * Get the number of requests that were failed on purpose.
+     *
+     * @return Number of injected failures.
+     */
+    public long getErrorCount() {
+        return this.errorCount.sum();
+    }
+
+    /**
+     * Stop serving over HTTP, if the server was started. Transports that were returned by {@link #newTransport()}
+     * keep working until they are closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.httpServer != null) {
+            this.httpServer.stop(0);
+            this.httpExecutor.shutdownNow();
+            this.httpServer = null;
+        }
+    }
+
+    /**
+     * Answer a request.
+     *
+     * @param path String with the path of the request.
+     * @param contentType String with the Content-Type header of the request, or a null pointer if there is none.
+     * @param contentEncoding String with the Content-Encoding header of the request, or a null pointer if there is
+     *                        none.
+     * @param accept String with the Accept header of the request, or a null pointer if there is none.
+     * @param acceptEncoding String with the Accept-Encoding header of the request, or a null pointer if there is none.
+     * @param body Array with the body of the request.
+     * @return {@link Response} to send.
+     */
+    Response handle(final String path, final String contentType, final String contentEncoding, final String accept,
+                    final String acceptEncoding, final byte[] body) {
+        this.requestCount.increment();
+        final long latency = nextLatencyMillis();
+        if (nextFailure()) {
+            this.errorCount.increment();
+            return new Response(this.errorStatus, latency, null, null, new byte[0], this.retryAfterSeconds);
+        }
+        final JsonNode request;
+        try {
+            final byte[] decoded = isGzip(contentEncoding) ? gunzip(body) : body;
+            request = SearchCodecs.forContentType(contentType).getObjectMapper().readTree(decoded);
+        }
+        catch (IOException e) {
+            return new Response(400, latency, null, null, new byte[0], null);
+        }
+        final ObjectNode result;
+        if (PIF_SEARCH_PATH.equals(path)) {
+            result = search(request, latency);
+        }
+        else if (MULTI_PIF_SEARCH_PATH.equals(path)) {
+            result = multiSearch(request, latency);
+        }
+        else {
+            return new Response(404, latency, null, null, new byte[0], null);
+        }
+        final SearchCodec codec = ((accept != null) && accept.contains(SearchCodecs.SMILE.getMediaType()))
+                ? SearchCodecs.SMILE
+                : SearchCodecs.JSON;
+        try {
+            final byte[] encoded = codec.getObjectMapper().writeValueAsBytes(
+                    JsonNodeFactory.instance.objectNode().set(RESULTS_FIELD, result));
+            final boolean compress = (acceptEncoding != null) && acceptEncoding.contains("gzip");
+            return new Response(200, latency, codec.getMediaType(), compress ? "gzip" : null,
+                    compress ? gzip(encoded) : encoded, null);
+        }
+        catch (IOException e) {
+            return new Response(500, latency, null, null, new byte[0], null);
+        }
+    }
+
+    /**
+     * Answer a single PIF search.
+     *
+     * @param query {@link JsonNode} with the query.
+     * @param latency Number of milliseconds that the request takes.
+     * @return {@link ObjectNode} with the search result.
+     */
+    private ObjectNode search(final JsonNode query, final long latency) {
+        this.queryCount.increment();
+        final Set<String> datasets = new HashSet<>();
+        collectDatasetFilters(query.path("query"), datasets);
+        final List<String> extractAs = new ArrayList<>();
+        collectExtractAs(query, extractAs);
+        final boolean returnSystem = query.path("returnSystem").asBoolean(true);
+        final int from = query.path("from").asInt(query.path("fromIndex").asInt(0));
+        final int size = query.path("size").asInt(DEFAULT_SIZE);
+
+        final ArrayNode hits = JsonNodeFactory.instance.arrayNode();
+        int totalNumHits = 0;
+        for (int i = 0; i < this.numRecords; ++i) {
+            final String dataset = datasetOf(i);
+            if (!datasets.isEmpty() && !datasets.contains(dataset)) {
+                continue;
+            }
+            if ((totalNumHits >= from) && (totalNumHits < (long) from + size)) {
+                hits.add(buildHit(i, dataset, returnSystem, extractAs));
+            }
+            ++totalNumHits;
+        }
+        final ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.put("took", latency);
+        result.put("totalNumHits", totalNumHits);
+        result.put("maxScore", 1.0);
+        result.set("hits", hits);
+        return result;
+    }
+
+    /**
+     * Answer a multi-search.
+     *
+     * @param multiQuery {@link JsonNode} with the multi-query.
+     * @param latency Number of milliseconds that the request takes.
+     * @return {@link ObjectNode} with the multi-search result.
+     */
+    private ObjectNode multiSearch(final JsonNode multiQuery, final long latency) {
+        final ArrayNode results = JsonNodeFactory.instance.arrayNode();
+        for (final JsonNode query : multiQuery.path("queries")) {
+            final ObjectNode element = results.addObject();
+            element.put("status", "SUCCESS");
+            element.set("result", search(query, latency));
+        }
+        final ObjectNode result = JsonNodeFactory.instance.objectNode();
+        result.put("took", latency);
+        result.set("results", results);
+        return result;
+    }
+
+    /**
+     * Build the hit for a record.
+     *
+     * @param index Index of the record in the corpus.
+     * @param dataset String with the dataset of the record.
+     * @param returnSystem Whether to include the PIF system of the record.
+     * @param extractAs List with the names of the values to extract.
+     * @return {@link ObjectNode} with the hit.
+     */
+    private ObjectNode buildHit(final int index, final String dataset, final boolean returnSystem,
+                                final List<String> extractAs) {
+        final long version = this.datasetVersions.getOrDefault(dataset, 1L);
+        final ObjectNode hit = JsonNodeFactory.instance.objectNode();
+        hit.put("id", dataset + "/" + version + "/" + index);
+        hit.put("dataset", dataset);
+        hit.put("datasetVersion", version);
+        hit.put("score", 1.0 / (1 + index));
+        hit.put("updatedAt", "2018-01-01T00:00:00.000Z");
+        if (returnSystem) {
+            final ObjectNode system = hit.putObject("system");
+            system.put("category", "system.chemical");
+            system.put("uid", "record-" + index);
+            system.put("chemicalFormula", this.formulas[index]);
+            final ArrayNode properties = system.putArray("properties");
+            addProperty(properties, BAND_GAP, this.bandGaps[index], "eV");
+            addProperty(properties, FORMATION_ENERGY, this.formationEnergies[index], "eV/atom");
+        }
+        if (!extractAs.isEmpty()) {
+            final ObjectNode extracted = hit.putObject("extracted");
+            for (final String name : extractAs) {
+                if (FORMATION_ENERGY.equals(name)) {
+                    extracted.put(name, this.formationEnergies[index]);
+                }
+                else if (CHEMICAL_FORMULA.equals(name)) {
+                    extracted.put(name, this.formulas[index]);
+                }
+                else {
+                    extracted.put(name, this.bandGaps[index]);
+                }
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * Add a scalar property to a system.
+     *
+     * @param properties {@link ArrayNode} with the properties of the system.
+     * @param name String with the name of the property.
+     * @param value Value of the property.
+     * @param units String with the units of the property.
+     */
+    private static void addProperty(final ArrayNode properties, final String name, final double value,
+                                    final String units) {
+        final ObjectNode property = properties.addObject();
+        property.put("name", name);
+        property.putArray("scalars").addObject().put("value", Double.toString(value));
+        property.put("units", units);
+    }
+
+    /**
+     * Get the dataset of a record.
+     *
+     * @param index Index of the record in the corpus.
+     * @return String with the id of the dataset.
+     */
+    private String datasetOf(final int index) {
+        return Integer.toString(1 + (index % this.numDatasets));
+    }
+
+    /**
+     * Get the latency of the next request.
+     *
+     * @return Number of milliseconds that the request takes.
+     */
+    private long nextLatencyMillis() {
+        return this.latencyMillis + ((this.latencyJitterMillis > 0)
+                ? (long) (this.random.nextDouble() * this.latencyJitterMillis)
+                : 0);
+    }
+
+    /**
+     * Determine whether the next request fails.
+     *
+     * @return True if the request should fail.
+     */
+    private boolean nextFailure() {
+        return (this.errorRate > 0) && (this.random.nextDouble() < this.errorRate);
+    }
+
+    /**
+     * Serve a request that was received over HTTP.
+     *
+     * @param exchange {@link HttpExchange} with the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void serve(final HttpExchange exchange) throws IOException {
+        try {
+            final byte[] body;
+            try (InputStream inputStream = exchange.getRequestBody()) {
+                body = readAll(inputStream);
+            }
+            final Response response = handle(exchange.getRequestURI().getPath(),
+                    exchange.getRequestHeaders().getFirst("Content-Type"),
+                    exchange.getRequestHeaders().getFirst("Content-Encoding"),
+                    exchange.getRequestHeaders().getFirst("Accept"),
+                    exchange.getRequestHeaders().getFirst("Accept-Encoding"), body);
+            if (response.getLatencyMillis() > 0) {
+                Thread.sleep(response.getLatencyMillis());
+            }
+            if (response.getContentType() != null) {
+                exchange.getResponseHeaders().add("Content-Type", response.getContentType());
+            }
+            if (response.getContentEncoding() != null) {
+                exchange.getResponseHeaders().add("Content-Encoding", response.getContentEncoding());
+            }
+            if (response.getRetryAfterSeconds() != null) {
+                exchange.getResponseHeaders().add("Retry-After", response.getRetryAfterSeconds().toString());
+            }
+            exchange.sendResponseHeaders(response.getStatus(),
+                    (response.getBody().length == 0) ? -1 : response.getBody().length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response.getBody());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Add the ids of the datasets that a query filters on to a set. Only filters with an exact value are used.
+     *
+     * @param node {@link JsonNode} to search.
+     * @param datasets Set to add the dataset ids to.
+     */
+    private static void collectDatasetFilters(final JsonNode node, final Set<String> datasets) {
+        for (final JsonNode dataQuery : asArray(node)) {
+            for (final JsonNode datasetQuery : asArray(dataQuery.path("dataset"))) {
+                for (final JsonNode id : asArray(datasetQuery.path("id"))) {
+                    for (final JsonNode filter : asArray(id.path("filter"))) {
+                        if (filter.path("equal").isTextual()) {
+                            datasets.add(filter.path("equal").asText());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add every {@code extractAs} name in a query to a list.
+     *
+     * @param node {@link JsonNode} to search.
+     * @param extractAs List to add the names to.
+     */
+    private static void collectExtractAs(final JsonNode node, final List<String> extractAs) {
+        if (node.isObject()) {
+            node.fields().forEachRemaining(field -> {
+                if ("extractAs".equals(field.getKey()) && field.getValue().isTextual()) {
+                    extractAs.add(field.getValue().asText());
+                }
+                else {
+                    collectExtractAs(field.getValue(), extractAs);
+                }
+            });
+        }
+        else if (node.isArray()) {
+            node.forEach(child -> collectExtractAs(child, extractAs));
+        }
+    }
+
+    /**
+     * Get a node as an array, wrapping a single object in an array of one.
+     *
+     * @param node {@link JsonNode} to convert.
+     * @return {@link JsonNode} that can be iterated over.
+     */
+    private static JsonNode asArray(final JsonNode node) {
+        return node.isObject() ? JsonNodeFactory.instance.arrayNode().add(node) : node;
+    }
+
+    /**
+     * Determine whether a Content-Encoding header names gzip.
+     *
+     * @param contentEncoding String with the header value, or a null pointer if there is none.
+     * @return True if the content is compressed with gzip.
+     */
+    private static boolean isGzip(final String contentEncoding) {
+        return (contentEncoding != null) && contentEncoding.trim().toLowerCase().endsWith("gzip");
+    }
+
+    /**
+     * Compress an array with gzip.
+     *
+     * @param bytes Array to compress.
+     * @return Array with the compressed bytes.
+     * @throws IOException if the bytes cannot be compressed.
+     */
+    private static byte[] gzip(final byte[] bytes) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Decompress an array that was compressed with gzip.
+     *
+     * @param bytes Array to decompress.
+     * @return Array with the decompressed bytes.
+     * @throws IOException if the bytes are not valid gzip.
+     */
+    private static byte[] gunzip(final byte[] bytes) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return readAll(inputStream);
+        }
+    }
+
+    /**
+     * Read the rest of a stream.
+     *
+     * @param inputStream {@link InputStream} to read.
+     * @return Array with the bytes that were read.
+     * @throws IOException if the stream cannot be read.
+     */
+    static byte[] readAll(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int length;
+        while ((length = inputStream.read(buffer)) >= 0) {
+            outputStream.write(buffer, 0, length);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /** Path of the PIF search endpoint. */
+    static final String PIF_SEARCH_PATH = "/api/search/pif_search";
+
+    /** Path of the PIF multi-search endpoint. */
+    static final String MULTI_PIF_SEARCH_PATH = "/api/search/pif/multi_pif_search";
+
+    /** Name of the field of a response with the search result. */
+    private static final String RESULTS_FIELD = "results";
+
+    /** Name of the band gap property and extracted value. */
+    private static final String BAND_GAP = "Band gap";
+
+    /** Name of the formation energy property and extracted value. */
+    private static final String FORMATION_ENERGY = "Formation energy";
+
+    /** Name of the extracted value with the chemical formula. */
+    private static final String CHEMICAL_FORMULA = "Chemical formula";
+
+    /** Number of hits returned by a query that does not set a size. */
+    private static final int DEFAULT_SIZE = 10;
+
+    /** Elements that chemical formulas of the corpus are built from. */
+    private static final String[] ELEMENTS = {"Si", "Ge", "Ga", "As", "In", "P", "Zn", "O", "Ti", "N"};
+
+    /** Number of records in the corpus. */
+    private final int numRecords;
+
+    /** Number of datasets that the records are spread over. */
+    private final int numDatasets;
+
+    /** Smallest latency of a request in milliseconds. */
+    private final long latencyMillis;
+
+    /** Largest random latency added to each request in milliseconds. */
+    private final long latencyJitterMillis;
+
+    /** Fraction of requests that fail. */
+    private final double errorRate;
+
+    /** Status code of failed requests. */
+    private final int errorStatus;
+
+    /** Value of the Retry-After header of failed requests, or a null pointer for none. */
+    private final Integer retryAfterSeconds;
+
+    /** Random numbers for latency and failures. */
+    private final Random random;
+
+    /** Chemical formula of each record. */
+    private final String[] formulas;
+
+    /** Band gap of each record. */
+    private final double[] bandGaps;
+
+    /** Formation energy of each record. */
+    private final double[] formationEnergies;
+
+    /** Versions of datasets that are not at version 1. */
+    private final Map<String, Long> datasetVersions = new ConcurrentHashMap<>();
+
+    /** Number of requests received. */
+    private final LongAdder requestCount = new LongAdder();
+
+    /** Number of queries answered. */
+    private final LongAdder queryCount = new LongAdder();
+
+    /** Number of injected failures. */
+    private final LongAdder errorCount = new LongAdder();
+
+    /** HTTP server, or a null pointer if the server has not been started. */
+    private HttpServer httpServer;
+
+    /** Threads that handle HTTP requests. */
+    private ExecutorService httpExecutor;
+
+    /**
+     * Response to a request, along with how long it should take to arrive.
+     *
+     * @author Kyle Michel
+     */
+    static final class Response {
+
+        /**
+         * Constructor.
+         *
+         * @param status Status code of the response.
+         * @param latencyMillis Number of milliseconds that the request takes.
+         * @param contentType String with the content type of the body, or a null pointer if there is no body.
+         * @param contentEncoding String with the content encoding of the body, or a null pointer if it is not
+         *                        encoded.
+         * @param body Array with the body of the response.
+         * @param retryAfterSeconds Value of the Retry-After header, or a null pointer for none.
+         */
+        Response(final int status, final long latencyMillis, final String contentType, final String contentEncoding,
+                 final byte[] body, final Integer retryAfterSeconds) {
+            this.status = status;
+            this.latencyMillis = latencyMillis;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+            this.body = body;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        /**
+         * Get the status code of the response.
+         *
+         * @return Status code.
+         */
+        int getStatus() {
+            return this.status;
+        }
+
+        /**
+         * Get the number of milliseconds that the request takes.
+         *
+         * @return Latency in milliseconds.
+         */
+        long getLatencyMillis() {
+            return this.latencyMillis;
+        }
+
+        /**
+         * Get the content type of the body.
+         *
+         * @return String with the content type or a null pointer if there is no body.
+         */
+        String getContentType() {
+            return this.contentType;
+        }
+
+        /**
+         * Get the content encoding of the body.
+         *
+         * @return String with the content encoding or a null pointer if it is not encoded.
+         */
+        String getContentEncoding() {
+            return this.contentEncoding;
+        }
+
+        /**
+         * Get the body of the response.
+         *
+         * @return Array with the body.
+         */
+        byte[] getBody() {
+            return this.body;
+        }
+
+        /**
+         * Get the value of the Retry-After header.
+         *
+         * @return Number of seconds or a null pointer for none.
+         */
+        Integer getRetryAfterSeconds() {
+            return this.retryAfterSeconds;
+        }
+
+        /** Status code of the response. */
+        private final int status;
+
+        /** Number of milliseconds that the request takes. */
+        private final long latencyMillis;
+
+        /** Content type of the body. */
+        private final String contentType;
+
+        /** Content encoding of the body. */
+        private final String contentEncoding;
+
+        /** Body of the response. */
+        private final byte[] body;
+
+        /** Value of the Retry-After header. */
+        private final Integer retryAfterSeconds;
+    }
+
+    /**
+     * Builder for {@link FakeCitrinationServer} objects.
+     *
+     * @author Kyle Michel
+     */
+    public static class Builder {
+
+        /**
+         * Build the server. The server must be started with {@link FakeCitrinationServer#start()} before it can be
+         * reached over HTTP.
+         *
+         * @return {@link FakeCitrinationServer} with the settings of this builder.
+         */
+        public FakeCitrinationServer build() {
+            return new FakeCitrinationServer(this);
+        }
+
+        /**
+         * Set the number of records in the corpus. The default is 1000.
+         *
+         * @param numRecords Number of records.
+         * @return This object.
+         * @throws IllegalArgumentException if the number of records is negative.
+         */
+        public Builder setNumRecords(final int numRecords) {
+            if (numRecords < 0) {
+                throw new IllegalArgumentException("Number of records cannot be negative");
+            }
+            this.numRecords = numRecords;
+            return this;
+        }
+
+        /**
+         * Set the number of datasets that the records are spread over. Datasets have ids from 1 up to this number.
+         * The default is 10.
+         *
+         * @param numDatasets Number of datasets.
+         * @return This object.
+         * @throws IllegalArgumentException if the number of datasets is not positive.
+         */
+        public Builder setNumDatasets(final int numDatasets) {
+            if (numDatasets <= 0) {
+                throw new IllegalArgumentException("Number of datasets must be positive");
+            }
+            this.numDatasets = numDatasets;
+            return this;
+        }
+
+        /**
+         * Set the latency of every request. A random amount of up to the jitter is added to each request. The
+         * default is no latency.
+         *
+         * @param latencyMillis Latency in milliseconds.
+         * @param latencyJitterMillis Largest random latency to add in milliseconds.
+         * @return This object.
+         * @throws IllegalArgumentException if either value is negative.
+         */
+        public Builder setLatencyMillis(final long latencyMillis, final long latencyJitterMillis) {
+            if ((latencyMillis < 0) || (latencyJitterMillis < 0)) {
+                throw new IllegalArgumentException("Latency cannot be negative");
+            }
+            this.latencyMillis = latencyMillis;
+            this.latencyJitterMillis = latencyJitterMillis;
+            return this;
+        }
+
+        /**
+         * Set the fraction of requests that fail, and the status code and Retry-After header that they fail with.
+         * The default is for no requests to fail.
+         *
+         * @param errorRate Fraction of requests that fail, between 0 and 1.
+         * @param errorStatus Status code of failed requests.
+         * @param retryAfterSeconds Value of the Retry-After header of failed requests, or a null pointer for none.
+         * @return This object.
+         * @throws IllegalArgumentException if the rate is not between 0 and 1.
+         */
+        public Builder setErrors(final double errorRate, final int errorStatus, final Integer retryAfterSeconds) {
+            if ((errorRate < 0.0) || (errorRate > 1.0)) {
+                throw new IllegalArgumentException("Error rate must be between 0 and 1");
+            }
+            this.errorRate = errorRate;
+            this.errorStatus = errorStatus;
+            this.retryAfterSeconds = retryAfterSeconds;
+            return this;
+        }
+
+        /**
+         * Set the seed that the corpus, latencies and failures are generated from.
+         *
+         * @param seed Seed of the random numbers.
+         * @return This object.
+         */
+        public Builder setSeed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Number of records in the corpus. */
+        private int numRecords = 1000;
+
+        /** Number of datasets. */
+        private int numDatasets = 10;
+
+        /** Smallest latency in milliseconds. */
+        private long latencyMillis;
+
+        /** Largest random latency in milliseconds. */
+        private long latencyJitterMillis;
+
+        /** Fraction of requests that fail. */
+        private double errorRate;
+
+        /** Status code of failed requests. */
+        private int errorStatus = 503;
+
+        /** Retry-After header of failed requests. */
+        private Integer retryAfterSeconds;
+
+        /** Seed of the random numbers. */
+        private long seed = 1;
+    }
+}
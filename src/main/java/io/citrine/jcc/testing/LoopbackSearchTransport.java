@@ -0,0 +1,157 @@
+package io.citrine.jcc.testing;
+
+import io.citrine.jcc.core.SearchTransport;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport that answers requests from a {@link FakeCitrinationServer} in the same process. Responses are completed
+ * on a timer after the latency of the server, so waiting requests do not hold any threads.
+ *
+ * @author Kyle Michel
+ */
+class LoopbackSearchTransport implements SearchTransport {
+
+    /**
+     * Constructor.
+     *
+     * @param server {@link FakeCitrinationServer} that answers the requests.
+     */
+    LoopbackSearchTransport(final FakeCitrinationServer server) {
+        this.server = server;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> execute(final HttpUriRequest request) {
+        final CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        final FakeCitrinationServer.Response response;
+        try {
+            response = answer(request);
+        }
+        catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        if (response.getLatencyMillis() <= 0) {
+            result.complete(buildHttpResponse(response));
+            return result;
+        }
+        try {
+            final ScheduledFuture<?> pending = this.scheduler.schedule(
+                    () -> result.complete(buildHttpResponse(response)),
+                    response.getLatencyMillis(), TimeUnit.MILLISECONDS);
+            result.whenComplete((httpResponse, throwable) -> {
+                if (result.isCancelled()) {
+                    pending.cancel(false);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IOException("Transport has been closed", e));
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeStreaming(final HttpUriRequest request) {
+        return execute(request);
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Pass a request to the server.
+     *
+     * @param request {@link HttpUriRequest} to answer.
+     * @return {@link FakeCitrinationServer.Response} from the server.
+     * @throws IOException if the body of the request cannot be read.
+     */
+    private FakeCitrinationServer.Response answer(final HttpUriRequest request) throws IOException {
+        String contentType = headerValue(request.getFirstHeader(HttpHeaders.CONTENT_TYPE));
+        String contentEncoding = headerValue(request.getFirstHeader(HttpHeaders.CONTENT_ENCODING));
+        byte[] body = new byte[0];
+        if (request instanceof HttpEntityEnclosingRequest) {
+            final HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            if (entity != null) {
+                if (entity.getContentType() != null) {
+                    contentType = entity.getContentType().getValue();
+                }
+                if (entity.getContentEncoding() != null) {
+                    contentEncoding = entity.getContentEncoding().getValue();
+                }
+                try (InputStream inputStream = entity.getContent()) {
+                    body = FakeCitrinationServer.readAll(inputStream);
+                }
+            }
+        }
+        return this.server.handle(request.getURI().getPath(), contentType, contentEncoding,
+                headerValue(request.getFirstHeader(HttpHeaders.ACCEPT)),
+                headerValue(request.getFirstHeader(HttpHeaders.ACCEPT_ENCODING)), body);
+    }
+
+    /**
+     * Convert a response from the server to an HTTP response.
+     *
+     * @param response {@link FakeCitrinationServer.Response} to convert.
+     * @return {@link HttpResponse} with the status, headers and body of the response.
+     */
+    private static HttpResponse buildHttpResponse(final FakeCitrinationServer.Response response) {
+        final BasicHttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, response.getStatus(),
+                EnglishReasonPhraseCatalog.INSTANCE.getReason(response.getStatus(), Locale.ENGLISH));
+        final ByteArrayEntity entity = new ByteArrayEntity(response.getBody());
+        if (response.getContentType() != null) {
+            entity.setContentType(response.getContentType());
+            httpResponse.addHeader(HttpHeaders.CONTENT_TYPE, response.getContentType());
+        }
+        if (response.getContentEncoding() != null) {
+            entity.setContentEncoding(response.getContentEncoding());
+            httpResponse.addHeader(HttpHeaders.CONTENT_ENCODING, response.getContentEncoding());
+        }
+        if (response.getRetryAfterSeconds() != null) {
+            httpResponse.addHeader(HttpHeaders.RETRY_AFTER, response.getRetryAfterSeconds().toString());
+        }
+        httpResponse.setEntity(entity);
+        return httpResponse;
+    }
+
+    /**
+     * Get the value of a header.
+     *
+     * @param header {@link Header} to read, or a null pointer if it is missing.
+     * @return String with the value of the header or a null pointer if it is missing.
+     */
+    private static String headerValue(final Header header) {
+        return (header == null) ? null : header.getValue();
+    }
+
+    /** Server that answers the requests. */
+    private final FakeCitrinationServer server;
+
+    /** Timer that completes responses after the latency of the server. */
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "loopback-search-transport");
+        thread.setDaemon(true);
+        return thread;
+    });
+}
@@ -0,0 +1,113 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.core.cache.SearchCacheKey;
+import io.citrine.jcc.core.cache.SearchResultCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link CacheRefresher}.
+ *
+ * @author Kyle Michel
+ */
+public class CacheRefresherTest {
+
+    /**
+     * Test that an entry is refreshed once it is stale and that only one refresh runs for it at a time.
+     */
+    @Test
+    public void testStaleRefresh() {
+        final SearchResultCache cache = new SearchResultCache(1024 * 1024, 0);
+        cache.put(buildKey("a"), new byte[1]);
+        final AtomicLong now = new AtomicLong(cache.getEntry(buildKey("a")).getWrittenAtMillis());
+        final CacheRefresher refresher = new CacheRefresher(new RefreshPolicy().setStaleAfterMillis(100)
+                .setRefreshAheadMillis(0), Runnable::run, now::get);
+        final AtomicInteger refreshCount = new AtomicInteger();
+        final CompletableFuture<byte[]> pending = new CompletableFuture<>();
+
+        Assert.assertFalse(refresher.onHit(buildKey("a"), cache.getEntry(buildKey("a")), () -> {
+            refreshCount.incrementAndGet();
+            return pending;
+        }));
+        now.addAndGet(100);
+        for (int i = 0; i < 3; ++i) {
+            refresher.onHit(buildKey("a"), cache.getEntry(buildKey("a")), () -> {
+                refreshCount.incrementAndGet();
+                return pending;
+            });
+        }
+        Assert.assertEquals(1, refreshCount.get());
+
+        pending.complete(new byte[1]);
+        Assert.assertTrue(refresher.onHit(buildKey("a"), cache.getEntry(buildKey("a")),
+                () -> CompletableFuture.completedFuture(new byte[1])));
+        Assert.assertEquals(2, refresher.getRefreshCount());
+    }
+
+    /**
+     * Test that entries that are read often are refreshed before they become stale and that others are not.
+     */
+    @Test
+    public void testRefreshAhead() {
+        final SearchResultCache cache = new SearchResultCache(1024 * 1024, 0);
+        cache.put(buildKey("hot"), new byte[1]);
+        cache.put(buildKey("cold"), new byte[1]);
+        final long writtenAtMillis = cache.getEntry(buildKey("hot")).getWrittenAtMillis();
+        final CacheRefresher refresher = new CacheRefresher(new RefreshPolicy().setStaleAfterMillis(1000)
+                .setRefreshAheadMillis(200).setRefreshAheadMinHits(5), Runnable::run, () -> writtenAtMillis + 900);
+        for (int i = 0; i < 5; ++i) {
+            cache.getEntry(buildKey("hot"));
+        }
+        Assert.assertTrue(refresher.onHit(buildKey("hot"), cache.getEntry(buildKey("hot")),
+                () -> CompletableFuture.completedFuture(new byte[1])));
+        Assert.assertFalse(refresher.onHit(buildKey("cold"), cache.getEntry(buildKey("cold")),
+                () -> CompletableFuture.completedFuture(new byte[1])));
+    }
+
+    /**
+     * Test that refreshes over the limit are skipped and that permits are returned when refreshes finish or fail.
+     */
+    @Test
+    public void testConcurrencyLimit() {
+        final SearchResultCache cache = new SearchResultCache(1024 * 1024, 0);
+        final CacheRefresher refresher = new CacheRefresher(new RefreshPolicy().setStaleAfterMillis(1)
+                .setMaxConcurrentRefreshes(2), Runnable::run, () -> Long.MAX_VALUE / 2);
+        final List<CompletableFuture<byte[]>> pending = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            cache.put(buildKey("query" + i), new byte[1]);
+            refresher.onHit(buildKey("query" + i), cache.getEntry(buildKey("query" + i)), () -> {
+                final CompletableFuture<byte[]> future = new CompletableFuture<>();
+                pending.add(future);
+                return future;
+            });
+        }
+        Assert.assertEquals(2, pending.size());
+        Assert.assertEquals(3, refresher.getSkippedCount());
+
+        pending.get(0).completeExceptionally(new RuntimeException("refresh failed"));
+        Assert.assertTrue(refresher.onHit(buildKey("query0"), cache.getEntry(buildKey("query0")), () -> {
+            throw new IllegalStateException("cannot send");
+        }));
+        Assert.assertTrue(refresher.onHit(buildKey("query3"), cache.getEntry(buildKey("query3")),
+                CompletableFuture::new));
+        Assert.assertFalse(refresher.onHit(buildKey("query4"), cache.getEntry(buildKey("query4")),
+                CompletableFuture::new));
+    }
+
+    /**
+     * Build a key for a query.
+     *
+     * @param query String with the query.
+     * @return {@link SearchCacheKey} for the query.
+     */
+    private static SearchCacheKey buildKey(final String query) {
+        return new SearchCacheKey("http://localhost/api/search/pif_search", query.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,335 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.MultiSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests for {@link CitrinationClient} that run against a transport controlled by the test.
+ *
+ * @author Kyle Michel
+ */
+public class CitrinationClientTest {
+
+    /**
+     * Test that an asynchronous search completes once the transport has answered.
+     *
+     * @throws IOException if thrown while closing the client.
+     */
+    @Test
+    public void testSearchAsync() throws IOException {
+        final ManualTransport transport = new ManualTransport();
+        try (CitrinationClient client = buildClient(transport).build()) {
+            final CompletableFuture<PifSearchResult> result = client.searchAsync(new PifSystemReturningQuery());
+            Assert.assertEquals(1, transport.sent.size());
+            Assert.assertFalse(result.isDone());
+            transport.sent.get(0).complete(ok(EMPTY_RESPONSE));
+            Assert.assertEquals(0L, (long) result.join().getTotalNumHits());
+        }
+    }
+
+    /**
+     * Test that a blocking search rethrows the failure of its request without the wrappers added by the futures.
+     *
+     * @throws IOException if thrown while closing the client.
+     */
+    @Test
+    public void testSearchFailure() throws IOException {
+        final ManualTransport transport = new ManualTransport();
+        try (CitrinationClient client = buildClient(transport).build()) {
+            final IOException failure = new IOException("Connection reset");
+            CompletableFuture.runAsync(() -> transport.awaitSent(1).completeExceptionally(failure));
+            try {
+                client.search(new PifSystemReturningQuery().setSize(1));
+                Assert.fail("Expected the search to fail");
+            }
+            catch (IOException e) {
+                Assert.assertSame(failure, e);
+            }
+
+            final BasicHttpResponse notFound = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_FOUND,
+                    "Not Found");
+            CompletableFuture.runAsync(() -> transport.awaitSent(2).complete(notFound));
+            try {
+                client.search(new PifSystemReturningQuery().setSize(2));
+                Assert.fail("Expected the search to fail");
+            }
+            catch (CitrinationHttpException e) {
+                Assert.assertEquals(HttpStatus.SC_NOT_FOUND, e.getStatusCode());
+            }
+        }
+    }
+
+    /**
+     * Test that await unwraps failures into the exceptions of the blocking API.
+     */
+    @Test
+    public void testAwaitUnwrapsFailures() {
+        final IllegalStateException runtimeFailure = new IllegalStateException();
+        try {
+            CitrinationClient.await(CitrinationClient.failedFuture(new CompletionException(runtimeFailure)));
+            Assert.fail("Expected await to fail");
+        }
+        catch (IOException | RuntimeException e) {
+            Assert.assertSame(runtimeFailure, e);
+        }
+
+        final Exception checkedFailure = new Exception();
+        try {
+            CitrinationClient.await(CitrinationClient.failedFuture(checkedFailure));
+            Assert.fail("Expected await to fail");
+        }
+        catch (IOException e) {
+            Assert.assertSame(checkedFailure, e.getCause());
+        }
+    }
+
+    /**
+     * Test that interrupting a blocking search aborts its request and keeps the interrupt flag set.
+     *
+     * @throws IOException if thrown while closing the client.
+     */
+    @Test
+    public void testSearchInterrupted() throws IOException {
+        final ManualTransport transport = new ManualTransport();
+        try (CitrinationClient client = buildClient(transport).build()) {
+            Thread.currentThread().interrupt();
+            try {
+                client.search(new PifSystemReturningQuery());
+                Assert.fail("Expected the search to be interrupted");
+            }
+            catch (InterruptedIOException e) {
+                Assert.assertTrue(Thread.interrupted());
+            }
+            Assert.assertEquals(1, transport.sent.size());
+            Assert.assertTrue(transport.sent.get(0).isCancelled());
+        }
+    }
+
+    /**
+     * Test that closing the client closes its transport and fails searches that have not been sent yet.
+     *
+     * @throws IOException if thrown while closing the client.
+     */
+    @Test
+    public void testClose() throws IOException {
+        final ManualTransport transport = new ManualTransport();
+        final CitrinationClient client = buildClient(transport)
+                .setBatchMaxSize(10)
+                .setBatchLingerMillis(60000)
+                .build();
+        final CompletableFuture<PifSearchResult> result = client.searchAsync(new PifSystemReturningQuery());
+        client.close();
+        Assert.assertTrue(transport.closed);
+        Assert.assertTrue(transport.sent.isEmpty());
+        try {
+            result.join();
+            Assert.fail("Expected the search to fail");
+        }
+        catch (CompletionException e) {
+            Assert.assertTrue(CitrinationClient.unwrap(e) instanceof IOException);
+        }
+    }
+
+    /**
+     * Test that a batched search that the server did not execute is sent again in a later batch.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testBatchedSearchRetried() throws IOException {
+        final ManualTransport transport = new ManualTransport();
+        try (CitrinationClient client = buildClient(transport)
+                .setBatchMaxSize(2)
+                .setBatchLingerMillis(1)
+                .setRetryPolicy(new RetryPolicy().setBaseBackoffMillis(1).setMaxBackoffMillis(1))
+                .build()) {
+            CompletableFuture.runAsync(() -> {
+                transport.awaitSent(1).complete(ok("{\"results\":{\"results\":[{\"status\":\"NOT_EXECUTED\"}]}}"));
+                transport.awaitSent(2).complete(ok("{\"results\":{\"results\":[{\"status\":\"SUCCESS\","
+                        + "\"result\":{\"totalNumHits\":7,\"hits\":[]}}]}}"));
+            });
+            Assert.assertEquals(7L, (long) client.search(new PifSystemReturningQuery()).getTotalNumHits());
+            Assert.assertEquals(2, transport.sent.size());
+        }
+    }
+
+    /**
+     * Test that the slower copy of a hedged search is aborted on the transport once the other copy has answered.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testHedgedLoserIsAborted() throws IOException {
+        final ManualTransport transport = new ManualTransport();
+        try (CitrinationClient client = buildClient(transport)
+                .setHedgingPolicy(new HedgingPolicy()
+                        .setMinSamples(1)
+                        .setMinDelayMillis(5)
+                        .setMaxHedgeRatio(1.0))
+                .build()) {
+            final CompletableFuture<PifSearchResult> warmUp =
+                    client.searchAsync(new PifSystemReturningQuery().setSize(1));
+            transport.awaitSent(1).complete(ok(EMPTY_RESPONSE));
+            warmUp.join();
+
+            final CompletableFuture<PifSearchResult> result =
+                    client.searchAsync(new PifSystemReturningQuery().setSize(2));
+            final CompletableFuture<HttpResponse> primary = transport.sent.get(1);
+            transport.awaitSent(3).complete(ok(EMPTY_RESPONSE));
+            Assert.assertEquals(0, result.join().getNumHits());
+            Assert.assertTrue(primary.isCancelled());
+        }
+    }
+
+    /**
+     * Test that a split multi-search keeps the error of a shard that failed with a retryable error and fails as a
+     * whole when a shard fails with an error that is not retryable.
+     *
+     * @throws IOException if thrown while closing the client.
+     */
+    @Test
+    public void testMultiSearchShardFailures() throws IOException {
+        final ManualTransport transport = new ManualTransport();
+        try (CitrinationClient client = buildClient(transport).setMultiSearchMaxQueries(1).build()) {
+            final MultiQuery<PifSystemReturningQuery> multiQuery = new MultiQuery<PifSystemReturningQuery>()
+                    .setQueries(Arrays.asList(new PifSystemReturningQuery(), new PifSystemReturningQuery()));
+
+            final CompletableFuture<MultiSearchResult<PifSearchResult>> partial = client.searchAsync(multiQuery);
+            transport.awaitSent(1).complete(ok("{\"results\":{\"results\":[{\"status\":\"SUCCESS\","
+                    + "\"result\":{\"totalNumHits\":7,\"hits\":[]}}]}}"));
+            transport.awaitSent(2).complete(response(HttpStatus.SC_SERVICE_UNAVAILABLE));
+            final MultiSearchResult<PifSearchResult> result = partial.join();
+            Assert.assertEquals(7L, (long) result.getResults(0).getResult().getTotalNumHits());
+            Assert.assertEquals(MultiSearchResultElement.Status.ERROR, result.getResults(1).getStatus());
+            Assert.assertEquals(HttpStatus.SC_SERVICE_UNAVAILABLE,
+                    ((CitrinationHttpException) result.getResults(1).getError()).getStatusCode());
+
+            final CompletableFuture<MultiSearchResult<PifSearchResult>> failed = client.searchAsync(multiQuery);
+            transport.awaitSent(3).complete(response(HttpStatus.SC_UNAUTHORIZED));
+            transport.awaitSent(4).complete(ok("{\"results\":{\"results\":[]}}"));
+            try {
+                failed.join();
+                Assert.fail("Expected the multi-search to fail");
+            }
+            catch (CompletionException e) {
+                Assert.assertEquals(HttpStatus.SC_UNAUTHORIZED,
+                        ((CitrinationHttpException) CitrinationClient.unwrap(e)).getStatusCode());
+            }
+
+            final CompletableFuture<MultiSearchResult<PifSearchResult>> allFailed = client.searchAsync(multiQuery);
+            transport.awaitSent(5).complete(response(HttpStatus.SC_SERVICE_UNAVAILABLE));
+            transport.awaitSent(6).complete(response(HttpStatus.SC_BAD_GATEWAY));
+            try {
+                allFailed.join();
+                Assert.fail("Expected the multi-search to fail");
+            }
+            catch (CompletionException e) {
+                Assert.assertTrue(CitrinationClient.unwrap(e) instanceof CitrinationHttpException);
+            }
+        }
+    }
+
+    /**
+     * Get a builder for a client that sends its requests to the input transport.
+     *
+     * @param transport {@link SearchTransport} to send requests to.
+     * @return {@link CitrinationClient.Builder} for the client.
+     */
+    static CitrinationClient.Builder buildClient(final SearchTransport transport) {
+        return new CitrinationClient.Builder()
+                .setHost("http://localhost")
+                .setApiKey("key")
+                .setTransport(transport);
+    }
+
+    /**
+     * Build a successful response with a JSON body.
+     *
+     * @param body String with the body of the response.
+     * @return {@link HttpResponse} object.
+     */
+    static HttpResponse ok(final String body) {
+        final BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
+
+    /**
+     * Build a response with an empty body and the input status code.
+     *
+     * @param statusCode Status code of the response.
+     * @return {@link HttpResponse} object.
+     */
+    static HttpResponse response(final int statusCode) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, "Error");
+    }
+
+    /** Body of a search response without any hits. */
+    static final String EMPTY_RESPONSE = "{\"results\":{\"took\":1,\"totalNumHits\":0,\"hits\":[]}}";
+
+    /**
+     * Transport that records each request and leaves its response to be completed by the test.
+     *
+     * @author Kyle Michel
+     */
+    static class ManualTransport implements SearchTransport {
+
+        @Override
+        public CompletableFuture<HttpResponse> execute(final HttpUriRequest request) {
+            final CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+            this.sent.add(response);
+            return response;
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse> executeStreaming(final HttpUriRequest request) {
+            return execute(request);
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+
+        /**
+         * Wait until a number of requests have been sent and get the last of them.
+         *
+         * @param count Number of requests to wait for.
+         * @return {@link CompletableFuture} with the response to the request at that position.
+         */
+        CompletableFuture<HttpResponse> awaitSent(final int count) {
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (this.sent.size() < count) {
+                Assert.assertTrue("Timed out waiting for request " + count, System.currentTimeMillis() < deadline);
+                Thread.yield();
+            }
+            return this.sent.get(count - 1);
+        }
+
+        /** Responses to the requests that have been sent, in order. */
+        final List<CompletableFuture<HttpResponse>> sent = new CopyOnWriteArrayList<>();
+
+        /** Whether the transport has been closed. */
+        volatile boolean closed;
+    }
+}
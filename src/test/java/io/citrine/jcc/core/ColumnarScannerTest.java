@@ -0,0 +1,102 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.pif.result.ColumnarSearchResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tests for {@link ColumnarScanner}.
+ *
+ * @author Kyle Michel
+ */
+public class ColumnarScannerTest {
+
+    /**
+     * Test that every page is read into a single result in order.
+     *
+     * @throws IOException if thrown while scanning.
+     */
+    @Test
+    public void testScan() throws IOException {
+        final List<Integer> requested = new ArrayList<>();
+        final ColumnarSearchResult result = new ColumnarScanner((from, size) -> {
+            requested.add(from);
+            return CompletableFuture.completedFuture(buildPage(from, size, 250));
+        }, 0, new ScanOptions().setPageSize(40).setPrefetchPages(3)).scan();
+
+        Assert.assertEquals(250, result.getNumRows());
+        Assert.assertEquals(250L, (long) result.getTotalNumHits());
+        Assert.assertEquals(7, requested.size());
+        final long[] values = result.getColumn("index").getLongs();
+        for (int i = 0; i < 250; ++i) {
+            Assert.assertEquals(Integer.toString(i), result.getIds()[i]);
+            Assert.assertEquals(i, values[i]);
+        }
+    }
+
+    /**
+     * Test that the scan stops after the maximum number of hits and that a failed page fails the scan.
+     *
+     * @throws IOException if thrown while scanning.
+     */
+    @Test
+    public void testMaxHitsAndFailure() throws IOException {
+        final ColumnarSearchResult result = new ColumnarScanner(
+                (from, size) -> CompletableFuture.completedFuture(buildPage(from, size, 1000)),
+                10, new ScanOptions().setPageSize(100).setMaxHits(150L)).scan();
+        Assert.assertEquals(150, result.getNumRows());
+        Assert.assertEquals("10", result.getIds()[0]);
+        Assert.assertEquals("159", result.getIds()[149]);
+
+        try {
+            new ColumnarScanner((from, size) -> (from == 0)
+                    ? CompletableFuture.completedFuture(buildPage(from, size, 1000))
+                    : CitrinationClient.failedFuture(new IOException("page failed")),
+                    0, new ScanOptions().setPageSize(100)).scan();
+            Assert.fail("Expected the scan to fail");
+        }
+        catch (IOException e) {
+            Assert.assertEquals("page failed", e.getMessage());
+        }
+    }
+
+    /**
+     * Test that no hits are skipped when the server returns fewer hits than were asked for.
+     *
+     * @throws IOException if thrown while scanning.
+     */
+    @Test
+    public void testCappedPages() throws IOException {
+        final ColumnarSearchResult result = new ColumnarScanner(
+                (from, size) -> CompletableFuture.completedFuture(buildPage(from, Math.min(size, 30), 250)),
+                0, new ScanOptions().setPageSize(100).setPrefetchPages(2)).scan();
+        Assert.assertEquals(250, result.getNumRows());
+        for (int i = 0; i < 250; ++i) {
+            Assert.assertEquals(Integer.toString(i), result.getIds()[i]);
+        }
+    }
+
+    /**
+     * Build the body of a page of hits whose ids and extracted values are their indexes in the full result set.
+     *
+     * @param from Index of the first hit.
+     * @param size Number of hits requested.
+     * @param total Total number of hits in the result set.
+     * @return Array with the body of the response.
+     */
+    private static byte[] buildPage(final int from, final int size, final long total) {
+        final StringBuilder body = new StringBuilder("{\"results\":{\"totalNumHits\":").append(total)
+                .append(",\"hits\":[");
+        for (int i = from; (i < from + size) && (i < total); ++i) {
+            body.append((i == from) ? "" : ",")
+                    .append("{\"id\":\"").append(i).append("\",\"extracted\":{\"index\":").append(i).append("}}");
+        }
+        return body.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,78 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests for {@link ContentEncodings}.
+ *
+ * @author Kyle Michel
+ */
+public class ContentEncodingsTest {
+
+    /**
+     * Test that gzip and deflate responses are decoded and that both sizes are recorded.
+     *
+     * @throws IOException if thrown from within this function.
+     */
+    @Test
+    public void testDecode() throws IOException {
+        final ByteArrayOutputStream gzipBytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(gzipBytes)) {
+            outputStream.write(BODY);
+        }
+        final ByteArrayOutputStream deflateBytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream outputStream = new DeflaterOutputStream(deflateBytes)) {
+            outputStream.write(BODY);
+        }
+
+        final TransferMetrics metrics = new TransferMetrics();
+        Assert.assertArrayEquals(BODY, read(gzipBytes.toByteArray(), "gzip", metrics));
+        Assert.assertArrayEquals(BODY, read(deflateBytes.toByteArray(), "deflate", metrics));
+        Assert.assertArrayEquals(BODY, read(BODY, null, metrics));
+        Assert.assertEquals(gzipBytes.size() + deflateBytes.size() + BODY.length,
+                metrics.snapshot().getResponseBytesReceived());
+        Assert.assertEquals(3 * BODY.length, metrics.snapshot().getResponseBytesDecoded());
+    }
+
+    /**
+     * Test that an encoding that was not asked for is rejected.
+     *
+     * @throws IOException if thrown from within this function.
+     */
+    @Test(expected = IOException.class)
+    public void testUnsupportedEncoding() throws IOException {
+        read(BODY, "br", new TransferMetrics());
+    }
+
+    /**
+     * Decode the body of a response.
+     *
+     * @param body Array with the body as received.
+     * @param contentEncoding String with the content encoding of the body or a null pointer if there is none.
+     * @param metrics {@link TransferMetrics} to record the sizes in.
+     * @return Array with the decoded body.
+     * @throws IOException if thrown from within this function.
+     */
+    private static byte[] read(final byte[] body, final String contentEncoding, final TransferMetrics metrics)
+            throws IOException {
+        final ByteArrayEntity entity = new ByteArrayEntity(body);
+        entity.setContentEncoding(contentEncoding);
+        final HttpEntity decoded = ContentEncodings.decode(entity, metrics);
+        Assert.assertNull(decoded.getContentEncoding());
+        return EntityUtils.toByteArray(decoded);
+    }
+
+    /** Uncompressed body used by the tests. */
+    private static final byte[] BODY = new String(new char[1000]).replace("\0", "{\"hits\":[]}")
+            .getBytes(StandardCharsets.UTF_8);
+}
@@ -0,0 +1,74 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.MultiSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import io.citrine.jcc.search.pif.result.PifSearchHit;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link DatasetVersionProbe}.
+ *
+ * @author Kyle Michel
+ */
+public class DatasetVersionProbeTest {
+
+    /**
+     * Test that the dataset versions of the hits in a response are read and that conflicting versions are cleared.
+     *
+     * @throws IOException if thrown while reading the response.
+     */
+    @Test
+    public void testReadVersions() throws IOException {
+        final Map<String, Long> versions = DatasetVersionProbe.readVersions(("{\"results\":{\"took\":1,\"hits\":["
+                + "{\"id\":\"1/2/a\",\"dataset\":\"1\",\"datasetVersion\":2,\"system\":{\"uid\":\"a\"}},"
+                + "{\"id\":\"2/5/b\",\"datasetVersion\":5,\"dataset\":\"2\",\"extracted\":{\"dataset\":\"x\"}},"
+                + "{\"id\":\"3/1/c\",\"dataset\":\"3\",\"datasetVersion\":1},"
+                + "{\"id\":\"3/2/d\",\"dataset\":\"3\",\"datasetVersion\":2},"
+                + "{\"id\":\"4/1/e\",\"dataset\":\"4\"}],\"totalNumHits\":5}}").getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(4, versions.size());
+        Assert.assertEquals(2L, (long) versions.get("1"));
+        Assert.assertEquals(5L, (long) versions.get("2"));
+        Assert.assertNull(versions.get("3"));
+        Assert.assertTrue(versions.containsKey("4"));
+        Assert.assertNull(versions.get("4"));
+    }
+
+    /**
+     * Test that a query is built for each dataset and that the current versions are read from its result.
+     */
+    @Test
+    public void testProbe() {
+        final List<String> datasets = Arrays.asList("1", "2", "3");
+        final MultiQuery<PifSystemReturningQuery> multiQuery = DatasetVersionProbe.buildQuery(datasets);
+        Assert.assertEquals(3, multiQuery.queriesLength());
+        Assert.assertEquals(1, (int) multiQuery.getQueries(0).getSize());
+        Assert.assertFalse(multiQuery.getQueries(0).getReturnSystem());
+        Assert.assertEquals("2", multiQuery.getQueries(1).getQuery(0).getDataset(0).getId(0).getFilter(0).getEqual());
+
+        final MultiSearchResult<PifSearchResult> result = new MultiSearchResult<PifSearchResult>()
+                .addResults(new MultiSearchResultElement<PifSearchResult>()
+                        .setStatus(MultiSearchResultElement.Status.SUCCESS)
+                        .setResult((PifSearchResult) new PifSearchResult()
+                                .addHits(new PifSearchHit().setDataset("1").setDatasetVersion(7L))))
+                .addResults(new MultiSearchResultElement<PifSearchResult>()
+                        .setStatus(MultiSearchResultElement.Status.SUCCESS)
+                        .setResult(new PifSearchResult()))
+                .addResults(new MultiSearchResultElement<PifSearchResult>()
+                        .setStatus(MultiSearchResultElement.Status.ERROR));
+        final Map<String, Long> versions = DatasetVersionProbe.readResult(datasets, result);
+        Assert.assertEquals(2, versions.size());
+        Assert.assertEquals(7L, (long) versions.get("1"));
+        Assert.assertTrue(versions.containsKey("2"));
+        Assert.assertNull(versions.get("2"));
+    }
+}
@@ -0,0 +1,188 @@
+package io.citrine.jcc.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link FlowController}.
+ *
+ * @author Kyle Michel
+ */
+public class FlowControllerTest {
+
+    /**
+     * Start the scheduler.
+     */
+    @Before
+    public void setUp() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Stop the scheduler.
+     */
+    @After
+    public void tearDown() {
+        this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Test that a request fails right away when the limit is reached and waiting is disabled.
+     */
+    @Test
+    public void testFailFast() {
+        final FlowController controller = new FlowController(new FlowControlPolicy()
+                .setInitialLimit(1)
+                .setMaxWaitMillis(0), this.scheduler, System::currentTimeMillis);
+        final CompletableFuture<String> first = new CompletableFuture<>();
+        controller.execute(() -> first);
+        try {
+            controller.execute(() -> CompletableFuture.completedFuture("second")).join();
+            Assert.fail("Expected the request to be throttled");
+        }
+        catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof RequestThrottledException);
+            Assert.assertTrue(RequestRetrier.isRetryable(e.getCause()));
+        }
+    }
+
+    /**
+     * Test that a waiting request starts when a running request completes.
+     */
+    @Test
+    public void testQueue() {
+        final FlowController controller = new FlowController(new FlowControlPolicy()
+                .setInitialLimit(1), this.scheduler, System::currentTimeMillis);
+        final CompletableFuture<String> first = new CompletableFuture<>();
+        final CompletableFuture<String> firstResult = controller.execute(() -> first);
+        final CompletableFuture<String> secondResult =
+                controller.execute(() -> CompletableFuture.completedFuture("second"));
+        Assert.assertFalse(secondResult.isDone());
+        Assert.assertEquals(1, controller.getInFlight());
+
+        first.complete("first");
+        Assert.assertEquals("first", firstResult.join());
+        Assert.assertEquals("second", secondResult.join());
+        Assert.assertEquals(0, controller.getInFlight());
+    }
+
+    /**
+     * Test that a waiting request fails once the maximum wait has passed.
+     */
+    @Test
+    public void testTimeout() {
+        final FlowController controller = new FlowController(new FlowControlPolicy()
+                .setInitialLimit(1)
+                .setMaxWaitMillis(20), this.scheduler, System::currentTimeMillis);
+        controller.execute(CompletableFuture::new);
+        try {
+            controller.execute(() -> CompletableFuture.completedFuture("second")).join();
+            Assert.fail("Expected the request to time out");
+        }
+        catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof RequestThrottledException);
+        }
+    }
+
+    /**
+     * Test that the rate limit holds back requests beyond the burst until a token is added.
+     */
+    @Test
+    public void testRateLimit() {
+        final FlowController controller = new FlowController(new FlowControlPolicy()
+                .setRequestsPerSecond(50)
+                .setBurstSize(2), this.scheduler, System::currentTimeMillis);
+        controller.execute(() -> CompletableFuture.completedFuture("first")).join();
+        controller.execute(() -> CompletableFuture.completedFuture("second")).join();
+        final CompletableFuture<String> third = controller.execute(() -> CompletableFuture.completedFuture("third"));
+        Assert.assertFalse(third.isDone());
+        Assert.assertEquals("third", third.join());
+    }
+
+    /**
+     * Test that the limit shrinks once per window when the server throttles the client and grows again while
+     * requests are healthy.
+     */
+    @Test
+    public void testAdaptiveLimit() {
+        final AtomicLong now = new AtomicLong();
+        final FlowController controller = new FlowController(new FlowControlPolicy()
+                .setInitialLimit(10)
+                .setLatencyWindowMillis(100), this.scheduler, now::get);
+        final CompletableFuture<String> throttled = new CompletableFuture<>();
+        throttled.completeExceptionally(new CitrinationHttpException(429, "Too Many Requests", null));
+        for (int i = 0; i < 5; ++i) {
+            controller.execute(() -> throttled).exceptionally(e -> null).join();
+        }
+        Assert.assertEquals(9, controller.getLimit());
+
+        // Run enough concurrent requests to use the limit so that it grows
+        for (int round = 0; round < 20; ++round) {
+            final CompletableFuture<?>[] pending = new CompletableFuture<?>[9];
+            for (int i = 0; i < pending.length; ++i) {
+                pending[i] = new CompletableFuture<String>();
+                final CompletableFuture<?> request = pending[i];
+                controller.execute(() -> request);
+            }
+            now.addAndGet(10);
+            for (CompletableFuture<?> i : pending) {
+                i.complete(null);
+            }
+        }
+        Assert.assertTrue(controller.getLimit() > 9);
+
+        // A request that is far slower than usual counts as overload
+        final int limit = controller.getLimit();
+        runSlowRequest(controller, now);
+        Assert.assertTrue(controller.getLimit() < limit);
+    }
+
+    /**
+     * Test that the latency baseline follows a lasting slowdown rather than shrinking the limit to its minimum.
+     */
+    @Test
+    public void testLastingSlowdown() {
+        final AtomicLong now = new AtomicLong();
+        final FlowController controller = new FlowController(new FlowControlPolicy()
+                .setInitialLimit(10)
+                .setLatencyWindowMillis(100), this.scheduler, now::get);
+        final CompletableFuture<String> fast = new CompletableFuture<>();
+        controller.execute(() -> fast);
+        now.addAndGet(10);
+        fast.complete("fast");
+
+        for (int i = 0; i < 3; ++i) {
+            runSlowRequest(controller, now);
+        }
+        final int limit = controller.getLimit();
+        Assert.assertTrue(limit < 10);
+        for (int i = 0; i < 20; ++i) {
+            runSlowRequest(controller, now);
+        }
+        Assert.assertEquals(limit, controller.getLimit());
+    }
+
+    /**
+     * Run a request that takes one second.
+     *
+     * @param controller {@link FlowController} to run the request through.
+     * @param now {@link AtomicLong} with the current time of the controller in milliseconds.
+     */
+    private static void runSlowRequest(final FlowController controller, final AtomicLong now) {
+        final CompletableFuture<String> slow = new CompletableFuture<>();
+        controller.execute(() -> slow);
+        now.addAndGet(1000);
+        slow.complete("slow");
+    }
+
+    /** Scheduler used by the controller. */
+    private ScheduledExecutorService scheduler;
+}
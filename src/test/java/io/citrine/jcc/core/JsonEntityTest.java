@@ -0,0 +1,272 @@
+package io.citrine.jcc.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.citrine.jcc.search.core.query.MultiQuery;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.apache.http.util.EntityUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for {@link JsonEntity} and {@link BufferPool}.
+ *
+ * @author Kyle Michel
+ */
+public class JsonEntityTest {
+
+    /**
+     * Test that a small body is serialized once up front, kept and written the same way by both paths.
+     *
+     * @throws IOException if thrown from within this function.
+     */
+    @Test
+    public void testSmallBody() throws IOException {
+        final Map<String, Object> value = Collections.singletonMap("query", "band gap");
+        final byte[] expected = OBJECT_WRITER.writeValueAsBytes(value);
+        final BufferPool pool = new BufferPool(8, 1024);
+        final JsonEntity entity = new JsonEntity(OBJECT_WRITER, value, pool);
+        Assert.assertTrue(entity.isRepeatable());
+        Assert.assertFalse(entity.isChunked());
+        Assert.assertEquals(expected.length, entity.getContentLength());
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        entity.writeTo(outputStream);
+        Assert.assertArrayEquals(expected, outputStream.toByteArray());
+        Assert.assertArrayEquals(expected, EntityUtils.toByteArray(entity));
+        Assert.assertArrayEquals(expected, EntityUtils.toByteArray(entity));
+        Assert.assertArrayEquals(expected, entity.getBody());
+        Assert.assertEquals(0, pool.getFreeCount());
+    }
+
+    /**
+     * Test that a large body is sent in chunks and that its segments are reused.
+     *
+     * @throws IOException if thrown from within this function.
+     */
+    @Test
+    public void testLargeBody() throws IOException {
+        final List<String> value = new ArrayList<>();
+        for (int i = 0; i < 20000; ++i) {
+            value.add("value-" + i);
+        }
+        final byte[] expected = OBJECT_WRITER.writeValueAsBytes(value);
+        Assert.assertTrue(expected.length > JsonEntity.SIZED_BODY_MAX_BYTES);
+        final BufferPool pool = new BufferPool(1024, 1024 * 1024);
+        final JsonEntity entity = new JsonEntity(OBJECT_WRITER, value, pool);
+        Assert.assertTrue(entity.isChunked());
+        Assert.assertEquals(-1, entity.getContentLength());
+        Assert.assertEquals(expected.length, JsonEntity.measure(OBJECT_WRITER, value, Long.MAX_VALUE));
+        Assert.assertNull(entity.getBody());
+
+        Assert.assertArrayEquals(expected, EntityUtils.toByteArray(entity));
+        final int freeCount = pool.getFreeCount();
+        Assert.assertTrue(freeCount > 0);
+        Assert.assertArrayEquals(expected, EntityUtils.toByteArray(entity));
+        Assert.assertEquals(freeCount, pool.getFreeCount());
+    }
+
+    /**
+     * Test that a body up to a compression threshold above {@link JsonEntity#SIZED_BODY_MAX_BYTES} is kept, and that
+     * a larger body is only serialized in full when it is sent.
+     *
+     * @throws IOException if thrown from within this function.
+     */
+    @Test
+    public void testLargeCompressionThreshold() throws IOException {
+        final CountedValue value = new CountedValue();
+        for (int i = 0; i < 20000; ++i) {
+            value.values.add("value-" + i);
+        }
+        final byte[] expected = OBJECT_WRITER.writeValueAsBytes(value);
+        Assert.assertTrue(expected.length > JsonEntity.SIZED_BODY_MAX_BYTES);
+        final BufferPool pool = new BufferPool(1024, 1024 * 1024);
+
+        value.count = 0;
+        final JsonEntity kept = new JsonEntity(OBJECT_WRITER, value, pool, 1024 * 1024, new TransferMetrics());
+        Assert.assertFalse(kept.isChunked());
+        Assert.assertNull(kept.getContentEncoding());
+        Assert.assertArrayEquals(expected, kept.getBody());
+        Assert.assertArrayEquals(expected, EntityUtils.toByteArray(kept));
+        Assert.assertEquals(1, value.count);
+
+        value.count = 0;
+        final JsonEntity compressed = new JsonEntity(OBJECT_WRITER, value, pool, expected.length - 1,
+                new TransferMetrics());
+        Assert.assertTrue(compressed.isChunked());
+        Assert.assertEquals("gzip", compressed.getContentEncoding().getValue());
+        Assert.assertNull(compressed.getBody());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        compressed.writeTo(outputStream);
+        Assert.assertEquals(2, value.count);
+        Assert.assertArrayEquals(expected, readAll(new GZIPInputStream(
+                new ByteArrayInputStream(outputStream.toByteArray()))));
+    }
+
+    /**
+     * Test that closing a stream before it has been read returns its segments to the pool.
+     *
+     * @throws IOException if thrown from within this function.
+     */
+    @Test
+    public void testCloseEarly() throws IOException {
+        final BufferPool pool = new BufferPool(4, 1024);
+        final String element = new String(new char[(int) JsonEntity.SIZED_BODY_MAX_BYTES]).replace('\0', 'a');
+        final JsonEntity entity = new JsonEntity(OBJECT_WRITER, Collections.singletonList(element), pool);
+        try (InputStream inputStream = entity.getContent()) {
+            Assert.assertEquals('[', inputStream.read());
+            Assert.assertEquals('"', inputStream.read());
+        }
+        Assert.assertEquals(1024 / 4, pool.getFreeCount());
+    }
+
+    /**
+     * Test that a multi-query is produced one query at a time, and only as fast as the connection takes it.
+     *
+     * @throws IOException if thrown from within this function.
+     */
+    @Test
+    public void testProduceMultiQuery() throws IOException {
+        final MultiQuery<Map<String, Object>> value = new MultiQuery<>();
+        for (int i = 0; i < 5000; ++i) {
+            value.addQueries(Collections.singletonMap("query", "value-" + i));
+        }
+        final byte[] expected = OBJECT_WRITER.writeValueAsBytes(value);
+        Assert.assertTrue(expected.length > JsonEntity.SIZED_BODY_MAX_BYTES);
+        final BufferPool pool = new BufferPool(1024, 1024 * 1024);
+        final JsonEntity entity = new JsonEntity(OBJECT_WRITER, value, pool);
+        final HttpAsyncContentProducer producer = entity.newContentProducer();
+        final ThrottledEncoder encoder = new ThrottledEncoder();
+        int calls = 0;
+        while (!encoder.isCompleted()) {
+            encoder.budget = 100;
+            producer.produceContent(encoder, null);
+            Assert.assertTrue(pool.getFreeCount() <= 2);
+            ++calls;
+        }
+        producer.close();
+        Assert.assertArrayEquals(expected, encoder.written.toByteArray());
+        Assert.assertTrue(calls >= expected.length / 100);
+        Assert.assertArrayEquals(expected, EntityUtils.toByteArray(entity));
+    }
+
+    /**
+     * Test that a body above the compression threshold is compressed and that both sizes are recorded.
+     *
+     * @throws IOException if thrown from within this function.
+     */
+    @Test
+    public void testCompressedBody() throws IOException {
+        final List<String> value = Collections.nCopies(1000, "band gap");
+        final byte[] expected = OBJECT_WRITER.writeValueAsBytes(value);
+        final TransferMetrics metrics = new TransferMetrics();
+        final JsonEntity entity = new JsonEntity(OBJECT_WRITER, value, new BufferPool(1024, 0), 100, metrics);
+        Assert.assertTrue(entity.isChunked());
+        Assert.assertEquals("gzip", entity.getContentEncoding().getValue());
+
+        final byte[] compressed = EntityUtils.toByteArray(entity);
+        Assert.assertArrayEquals(expected, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        Assert.assertEquals(expected.length, metrics.snapshot().getRequestBytesUncompressed());
+        Assert.assertEquals(compressed.length, metrics.snapshot().getRequestBytesSent());
+        Assert.assertTrue(compressed.length < expected.length);
+
+        final JsonEntity small = new JsonEntity(OBJECT_WRITER, "band gap", new BufferPool(1024, 0), 100, metrics);
+        Assert.assertFalse(small.isChunked());
+        Assert.assertNull(small.getContentEncoding());
+    }
+
+    /**
+     * Read a stream to its end and close it.
+     *
+     * @param inputStream {@link InputStream} to read.
+     * @return Array with the bytes that were read.
+     * @throws IOException if thrown while reading the stream.
+     */
+    private static byte[] readAll(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (InputStream closed = inputStream) {
+            final byte[] buffer = new byte[1024];
+            int length;
+            while ((length = closed.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    /** Writer used to serialize test values. */
+    private static final ObjectWriter OBJECT_WRITER = new ObjectMapper().writer();
+
+    /**
+     * Value that counts how many times it has been serialized.
+     *
+     * @author Kyle Michel
+     */
+    public static class CountedValue {
+
+        /**
+         * Get the values to serialize and count the serialization.
+         *
+         * @return List with the values.
+         */
+        public List<String> getValues() {
+            ++this.count;
+            return this.values;
+        }
+
+        /** Values to serialize. */
+        private final List<String> values = new ArrayList<>();
+
+        /** Number of times that the value has been serialized. */
+        private int count;
+    }
+
+    /**
+     * Encoder that takes a limited number of bytes before it is full, like a connection whose send buffer fills up.
+     *
+     * @author Kyle Michel
+     */
+    private static class ThrottledEncoder implements ContentEncoder {
+
+        @Override
+        public int write(final ByteBuffer src) {
+            final int length = Math.min(this.budget, src.remaining());
+            final byte[] bytes = new byte[length];
+            src.get(bytes);
+            this.written.write(bytes, 0, length);
+            this.budget -= length;
+            return length;
+        }
+
+        @Override
+        public void complete() {
+            this.completed = true;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return this.completed;
+        }
+
+        /** Bytes that have been written. */
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        /** Number of bytes that can be written before the encoder is full. */
+        private int budget;
+
+        /** Whether the body is complete. */
+        private boolean completed;
+    }
+}
@@ -0,0 +1,87 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.MultiSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link MultiQuerySplitter}.
+ *
+ * @author Kyle Michel
+ */
+public class MultiQuerySplitterTest {
+
+    /**
+     * Test splitting on the number of queries and on the payload size.
+     */
+    @Test
+    public void testSplit() {
+        final MultiQuery<String> multiQuery = new MultiQuery<String>()
+                .setQueries(Arrays.asList("a", "bb", "ccc", "dddd", "eeeee"));
+
+        Assert.assertSame(multiQuery, MultiQuerySplitter.split(multiQuery, 0, 0, String::length).get(0));
+        Assert.assertEquals(1, MultiQuerySplitter.split(multiQuery, 5, 0, String::length).size());
+
+        final List<MultiQuery<String>> byCount = MultiQuerySplitter.split(multiQuery, 2, 0, String::length);
+        Assert.assertEquals(3, byCount.size());
+        Assert.assertEquals(Arrays.asList("a", "bb"), byCount.get(0).getQueries());
+        Assert.assertEquals(Arrays.asList("eeeee"), byCount.get(2).getQueries());
+
+        final List<MultiQuery<String>> bySize = MultiQuerySplitter.split(multiQuery, 0, 4, String::length);
+        Assert.assertEquals(4, bySize.size());
+        Assert.assertEquals(Arrays.asList("a", "bb"), bySize.get(0).getQueries());
+        Assert.assertEquals(Arrays.asList("ccc"), bySize.get(1).getQueries());
+        Assert.assertEquals(Arrays.asList("eeeee"), bySize.get(3).getQueries());
+    }
+
+    /**
+     * Test that results are stitched in order with failed and short shards filled in.
+     */
+    @Test
+    public void testMerge() {
+        final List<MultiQuery<String>> shards = Arrays.asList(
+                new MultiQuery<String>().setQueries(Arrays.asList("a", "b")),
+                new MultiQuery<String>().setQueries(Arrays.asList("c", "d")),
+                new MultiQuery<String>().setQueries(Arrays.asList("e", "f")));
+        final MultiSearchResult<PifSearchResult> first = new MultiSearchResult<PifSearchResult>()
+                .setTook(3L)
+                .addResults(buildElement(1L))
+                .addResults(buildElement(2L));
+        final MultiSearchResult<PifSearchResult> third = new MultiSearchResult<PifSearchResult>()
+                .setTook(7L)
+                .addResults(buildElement(5L));
+
+        final IOException failure = new IOException("Connection reset");
+        final MultiSearchResult<PifSearchResult> merged = MultiQuerySplitter.merge(shards,
+                Arrays.asList(first, null, third), Arrays.asList(null, failure, null));
+        Assert.assertEquals(6, merged.resultsLength());
+        Assert.assertEquals(Long.valueOf(7), merged.getTook());
+        Assert.assertEquals(Long.valueOf(10), merged.getTotalTook());
+        Assert.assertEquals(Long.valueOf(2), merged.getResults(1).getResult().getTook());
+        Assert.assertEquals(MultiSearchResultElement.Status.ERROR, merged.getResults(2).getStatus());
+        Assert.assertEquals(MultiSearchResultElement.Status.ERROR, merged.getResults(3).getStatus());
+        Assert.assertSame(failure, merged.getResults(3).getError());
+        Assert.assertNull(merged.getResults(1).getError());
+        Assert.assertEquals(Long.valueOf(5), merged.getResults(4).getResult().getTook());
+        Assert.assertEquals(MultiSearchResultElement.Status.NOT_EXECUTED, merged.getResults(5).getStatus());
+    }
+
+    /**
+     * Build a successful element.
+     *
+     * @param took Took value of the result in the element.
+     * @return {@link MultiSearchResultElement} with a result.
+     */
+    private static MultiSearchResultElement<PifSearchResult> buildElement(final long took) {
+        return new MultiSearchResultElement<PifSearchResult>()
+                .setStatus(MultiSearchResultElement.Status.SUCCESS)
+                .setResult(new PifSearchResult().setTook(took));
+    }
+}
@@ -0,0 +1,199 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.MultiSearchResult;
+import io.citrine.jcc.search.core.result.MultiSearchResultElement;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Tests for {@link MultiSearchRetrier}.
+ *
+ * @author Kyle Michel
+ */
+public class MultiSearchRetrierTest {
+
+    /**
+     * Start the scheduler.
+     */
+    @Before
+    public void setUp() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Stop the scheduler.
+     */
+    @After
+    public void tearDown() {
+        this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Test that only failed queries are resent and that their outcomes land at the right indices.
+     */
+    @Test
+    public void testRetryFailed() {
+        final MultiSearchResult<PifSearchResult> first = new MultiSearchResult<PifSearchResult>()
+                .setTook(5L)
+                .addResults(buildElement(MultiSearchResultElement.Status.SUCCESS, "a"))
+                .addResults(buildElement(MultiSearchResultElement.Status.ERROR, null))
+                .addResults(buildElement(MultiSearchResultElement.Status.NOT_EXECUTED, null))
+                .addResults(buildElement(MultiSearchResultElement.Status.SUCCESS, "d"));
+        final List<List<String>> sent = new ArrayList<>();
+        final MultiSearchRetrier<String, PifSearchResult> retrier = new MultiSearchRetrier<>(multiQuery -> {
+            sent.add(multiQuery.getQueries());
+            if (sent.size() == 1) {
+                return CompletableFuture.completedFuture(first);
+            }
+            final MultiSearchResult<PifSearchResult> result = new MultiSearchResult<PifSearchResult>().setTook(1L);
+            for (String query : multiQuery.getQueries()) {
+
+                // Query "c" only succeeds on the second retry
+                result.addResults(("c".equals(query) && (sent.size() < 3))
+                        ? buildElement(MultiSearchResultElement.Status.ERROR, null)
+                        : buildElement(MultiSearchResultElement.Status.SUCCESS, query));
+            }
+            return CompletableFuture.completedFuture(result);
+        }, this.scheduler, new RetryPolicy().setBaseBackoffMillis(1));
+
+        final MultiQuery<String> multiQuery = new MultiQuery<String>().setQueries(Arrays.asList("a", "b", "c", "d"));
+        final MultiSearchResult<PifSearchResult> result = retrier.execute(multiQuery).join();
+        Assert.assertEquals(Arrays.asList(multiQuery.getQueries(), Arrays.asList("b", "c"), Arrays.asList("c")),
+                sent);
+        Assert.assertEquals(4, result.resultsLength());
+        for (int i = 0; i < 4; ++i) {
+            Assert.assertEquals(MultiSearchResultElement.Status.SUCCESS, result.getResults(i).getStatus());
+            Assert.assertEquals(multiQuery.getQueries(i), result.getResults(i).getResult().getAnalysisNames()
+                    .iterator().next());
+        }
+        Assert.assertEquals(Long.valueOf(7), result.getTotalTook());
+    }
+
+    /**
+     * Test that retries stop once the maximum number of attempts is reached and that the queries keep the error of
+     * the last retry.
+     */
+    @Test
+    public void testMaxAttempts() {
+        final List<List<String>> sent = new ArrayList<>();
+        final IOException error = new IOException("Connection reset");
+        final MultiSearchRetrier<String, PifSearchResult> retrier = new MultiSearchRetrier<>(multiQuery -> {
+            sent.add(multiQuery.getQueries());
+            return (sent.size() == 1) ? CompletableFuture.completedFuture(buildFirst()) : failed(error);
+        }, this.scheduler, new RetryPolicy().setMaxAttempts(3).setBaseBackoffMillis(1));
+
+        final MultiSearchResult<PifSearchResult> result = retrier.execute(buildMultiQuery()).join();
+        Assert.assertEquals(3, sent.size());
+        Assert.assertEquals(MultiSearchResultElement.Status.ERROR, result.getResults(1).getStatus());
+        Assert.assertSame(error, result.getResults(1).getError());
+    }
+
+    /**
+     * Test that a retry that fails with an error that is not retryable fails the whole search with that error.
+     */
+    @Test
+    public void testNoRetry() {
+        final List<List<String>> sent = new ArrayList<>();
+        final CitrinationHttpException error = new CitrinationHttpException(401, "Unauthorized", null);
+        final MultiSearchRetrier<String, PifSearchResult> retrier = new MultiSearchRetrier<>(multiQuery -> {
+            sent.add(multiQuery.getQueries());
+            return (sent.size() == 1) ? CompletableFuture.completedFuture(buildFirst()) : failed(error);
+        }, this.scheduler, new RetryPolicy().setMaxAttempts(3).setBaseBackoffMillis(1));
+
+        try {
+            retrier.execute(buildMultiQuery()).join();
+            Assert.fail("Expected the multi-search to fail");
+        }
+        catch (CompletionException e) {
+            Assert.assertSame(error, e.getCause());
+        }
+        Assert.assertEquals(2, sent.size());
+    }
+
+    /**
+     * Test that cancelling the search cancels the retry that is in flight and stops any further retries.
+     */
+    @Test
+    public void testCancel() {
+        final List<CompletableFuture<MultiSearchResult<PifSearchResult>>> sent = new ArrayList<>();
+        final MultiSearchRetrier<String, PifSearchResult> retrier = new MultiSearchRetrier<>(multiQuery -> {
+            final CompletableFuture<MultiSearchResult<PifSearchResult>> pending = (sent.isEmpty())
+                    ? CompletableFuture.completedFuture(buildFirst())
+                    : new CompletableFuture<>();
+            sent.add(pending);
+            return pending;
+        }, this.scheduler, new RetryPolicy().setMaxAttempts(3).setBaseBackoffMillis(0));
+
+        final CompletableFuture<MultiSearchResult<PifSearchResult>> result = retrier.execute(buildMultiQuery());
+        Assert.assertEquals(2, sent.size());
+        result.cancel(true);
+        Assert.assertTrue(sent.get(1).isCancelled());
+        Assert.assertEquals(2, sent.size());
+    }
+
+    /**
+     * Build a multi-query with two queries.
+     *
+     * @return {@link MultiQuery} object.
+     */
+    private static MultiQuery<String> buildMultiQuery() {
+        return new MultiQuery<String>().setQueries(Arrays.asList("a", "b"));
+    }
+
+    /**
+     * Build the result of the first attempt at {@link #buildMultiQuery()}, in which the second query failed.
+     *
+     * @return {@link MultiSearchResult} object.
+     */
+    private static MultiSearchResult<PifSearchResult> buildFirst() {
+        return new MultiSearchResult<PifSearchResult>()
+                .addResults(buildElement(MultiSearchResultElement.Status.SUCCESS, "a"))
+                .addResults(buildElement(MultiSearchResultElement.Status.ERROR, null));
+    }
+
+    /**
+     * Get a future that has failed.
+     *
+     * @param cause {@link Throwable} to fail with.
+     * @return {@link CompletableFuture} that failed with the input cause.
+     */
+    private static CompletableFuture<MultiSearchResult<PifSearchResult>> failed(final Throwable cause) {
+        final CompletableFuture<MultiSearchResult<PifSearchResult>> result = new CompletableFuture<>();
+        result.completeExceptionally(cause);
+        return result;
+    }
+
+    /**
+     * Build an element of a multi-search result. The name of the query is saved as the name of an analysis so that
+     * the test can check which query the element belongs to.
+     *
+     * @param status {@link MultiSearchResultElement.Status} of the element.
+     * @param query String with the name of the query or a null pointer if the element has no result.
+     * @return {@link MultiSearchResultElement} object.
+     */
+    private static MultiSearchResultElement<PifSearchResult> buildElement(
+            final MultiSearchResultElement.Status status, final String query) {
+        final MultiSearchResultElement<PifSearchResult> element = new MultiSearchResultElement<PifSearchResult>()
+                .setStatus(status);
+        if (query != null) {
+            element.setResult(new PifSearchResult().addAnalysis(query, null));
+        }
+        return element;
+    }
+
+    /** Scheduler used by the retrier. */
+    private ScheduledExecutorService scheduler;
+}
@@ -0,0 +1,117 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.pif.result.PifSearchHit;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tests for {@link PifSearchHitScanner}.
+ *
+ * @author Kyle Michel
+ */
+public class PifSearchHitScannerTest {
+
+    /**
+     * Test that all hits are returned in order even when later pages finish before earlier ones.
+     */
+    @Test
+    public void testOrderedScan() {
+        final List<CompletableFuture<PifSearchResult>> requested = new ArrayList<>();
+        final PifSearchHitScanner scanner = new PifSearchHitScanner((from, size) -> {
+            final CompletableFuture<PifSearchResult> page = new CompletableFuture<>();
+            requested.add(page);
+            if (from == 0) {
+                page.complete(buildPage(from, size, 250));
+            }
+            else {
+
+                // Complete the pages that were requested so far in reverse order
+                CompletableFuture.runAsync(() -> {
+                    sleep(50 - from / 10);
+                    page.complete(buildPage(from, size, 250));
+                });
+            }
+            return page;
+        }, 0, new ScanOptions().setPageSize(40).setPrefetchPages(3));
+
+        final List<String> ids = StreamSupport.stream(scanner, false)
+                .map(PifSearchHit::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(250, ids.size());
+        for (int i = 0; i < ids.size(); ++i) {
+            Assert.assertEquals(Integer.toString(i), ids.get(i));
+        }
+        Assert.assertEquals(7, requested.size());
+    }
+
+    /**
+     * Test that the scan stops after the maximum number of hits.
+     */
+    @Test
+    public void testMaxHits() {
+        final PifSearchHitScanner scanner = new PifSearchHitScanner(
+                (from, size) -> CompletableFuture.completedFuture(buildPage(from, size, 1000)),
+                10, new ScanOptions().setPageSize(100).setMaxHits(150L));
+        final List<String> ids = StreamSupport.stream(scanner, false)
+                .map(PifSearchHit::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(150, ids.size());
+        Assert.assertEquals("10", ids.get(0));
+        Assert.assertEquals("159", ids.get(149));
+    }
+
+    /**
+     * Test that no hits are skipped when the server returns fewer hits than were asked for.
+     */
+    @Test
+    public void testCappedPages() {
+        final PifSearchHitScanner scanner = new PifSearchHitScanner(
+                (from, size) -> CompletableFuture.completedFuture(buildPage(from, Math.min(size, 30), 250)),
+                0, new ScanOptions().setPageSize(100).setPrefetchPages(2));
+
+        final List<String> ids = StreamSupport.stream(scanner, false)
+                .map(PifSearchHit::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(250, ids.size());
+        for (int i = 0; i < ids.size(); ++i) {
+            Assert.assertEquals(Integer.toString(i), ids.get(i));
+        }
+    }
+
+    /**
+     * Build a page of hits whose ids are their indexes in the full result set.
+     *
+     * @param from Index of the first hit.
+     * @param size Number of hits requested.
+     * @param total Total number of hits in the result set.
+     * @return {@link PifSearchResult} with the page.
+     */
+    private static PifSearchResult buildPage(final int from, final int size, final long total) {
+        final PifSearchResult page = new PifSearchResult().setTotalNumHits(total);
+        for (int i = from; (i < from + size) && (i < total); ++i) {
+            page.addHits(new PifSearchHit().setId(Integer.toString(i)));
+        }
+        return page;
+    }
+
+    /**
+     * Sleep without throwing a checked exception.
+     *
+     * @param millis Number of milliseconds to sleep.
+     */
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
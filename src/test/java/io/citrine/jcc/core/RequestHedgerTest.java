@@ -0,0 +1,147 @@
+package io.citrine.jcc.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link RequestHedger} and {@link LatencyHistogram}.
+ *
+ * @author Kyle Michel
+ */
+public class RequestHedgerTest {
+
+    /**
+     * Start the scheduler.
+     */
+    @Before
+    public void setUp() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Stop the scheduler.
+     */
+    @After
+    public void tearDown() {
+        this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Test percentiles of the histogram and that old samples leave the window.
+     */
+    @Test
+    public void testHistogram() {
+        final AtomicLong now = new AtomicLong(60000);
+        final LatencyHistogram histogram = new LatencyHistogram(60000, now::get);
+        Assert.assertEquals(-1, histogram.getPercentileMillis(0.5));
+        for (int i = 1; i <= 100; ++i) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(100, histogram.getSampleCount());
+        assertWithin(50, histogram.getPercentileMillis(0.5));
+        assertWithin(95, histogram.getPercentileMillis(0.95));
+        assertWithin(100, histogram.getPercentileMillis(1.0));
+
+        now.addAndGet(50000);
+        histogram.record(1000);
+        Assert.assertEquals(101, histogram.getSampleCount());
+        now.addAndGet(20000);
+        Assert.assertEquals(1, histogram.getSampleCount());
+        assertWithin(1000, histogram.getPercentileMillis(0.5));
+    }
+
+    /**
+     * Test that a slow request is hedged, the first response wins and the slow request is cancelled.
+     */
+    @Test
+    public void testHedge() {
+        final RequestHedger hedger = buildWarmHedger(1.0);
+        final List<CompletableFuture<String>> sent = new ArrayList<>();
+        final CompletableFuture<String> result = hedger.execute(() -> {
+            final CompletableFuture<String> pending = new CompletableFuture<>();
+            sent.add(pending);
+            if (sent.size() == 2) {
+                pending.complete("hedged");
+            }
+            return pending;
+        });
+        Assert.assertEquals("hedged", result.join());
+        Assert.assertEquals(2, sent.size());
+        Assert.assertTrue(sent.get(0).isCancelled());
+        Assert.assertEquals(1, hedger.getHedgeCount());
+    }
+
+    /**
+     * Test that no duplicates are sent once the budget has been used up.
+     */
+    @Test
+    public void testBudget() {
+        final RequestHedger hedger = buildWarmHedger(0.0);
+        final List<CompletableFuture<String>> sent = new ArrayList<>();
+        final CompletableFuture<String> result = hedger.execute(() -> {
+            final CompletableFuture<String> pending = new CompletableFuture<>();
+            sent.add(pending);
+            return pending;
+        });
+        sleep(100);
+        Assert.assertEquals(1, sent.size());
+        sent.get(0).complete("primary");
+        Assert.assertEquals("primary", result.join());
+        Assert.assertEquals(0, hedger.getHedgeCount());
+    }
+
+    /**
+     * Build a hedger that has seen enough fast requests to start hedging.
+     *
+     * @param maxHedgeRatio Maximum fraction of requests to hedge.
+     * @return {@link RequestHedger} object.
+     */
+    private RequestHedger buildWarmHedger(final double maxHedgeRatio) {
+        final RequestHedger hedger = new RequestHedger(new HedgingPolicy()
+                .setMinSamples(20)
+                .setMinDelayMillis(5)
+                .setMaxHedgeRatio(maxHedgeRatio), this.scheduler, System::currentTimeMillis);
+        for (int i = 0; i < 20; ++i) {
+            hedger.execute(() -> CompletableFuture.completedFuture("fast")).join();
+        }
+        Assert.assertTrue(hedger.getDelayMillis() >= 5);
+        return hedger;
+    }
+
+    /**
+     * Check that a percentile is within the precision of the histogram.
+     *
+     * @param expected Expected value.
+     * @param actual Value that was returned.
+     */
+    private static void assertWithin(final long expected, final long actual) {
+        Assert.assertTrue("Expected about " + expected + " but got " + actual,
+                (actual >= expected) && (actual <= expected * 1.06));
+    }
+
+    /**
+     * Sleep without throwing a checked exception.
+     *
+     * @param millis Number of milliseconds to sleep.
+     */
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Scheduler used by the hedger. */
+    private ScheduledExecutorService scheduler;
+}
@@ -0,0 +1,203 @@
+package io.citrine.jcc.core;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link RequestRetrier} and {@link CircuitBreaker}.
+ *
+ * @author Kyle Michel
+ */
+public class RequestRetrierTest {
+
+    /**
+     * Start the scheduler.
+     */
+    @Before
+    public void setUp() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Stop the scheduler.
+     */
+    @After
+    public void tearDown() {
+        this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Test that the backoff stays between the base backoff and three times the previous wait, and is capped.
+     */
+    @Test
+    public void testBackoff() {
+        final RetryPolicy policy = new RetryPolicy()
+                .setBaseBackoffMillis(100)
+                .setMaxBackoffMillis(1000);
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertEquals(100L, policy.getBackoffMillis(0));
+            final long second = policy.getBackoffMillis(200);
+            Assert.assertTrue((second >= 100) && (second <= 600));
+            final long capped = policy.getBackoffMillis(1000);
+            Assert.assertTrue((capped >= 100) && (capped <= 1000));
+        }
+    }
+
+    /**
+     * Test that retryable errors are retried until a request succeeds.
+     */
+    @Test
+    public void testRetryTransientErrors() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final RequestRetrier retrier = new RequestRetrier(new RetryPolicy().setMaxAttempts(4).setBaseBackoffMillis(1)
+                .setMaxBackoffMillis(5), null, "host", this.scheduler);
+        final String result = retrier.execute(() -> {
+            switch (attempts.incrementAndGet()) {
+                case 1:
+                    return failed(new CitrinationHttpException(503, "Service Unavailable", null));
+                case 2:
+                    return failed(new SocketTimeoutException("timed out"));
+                case 3:
+                    return failed(new CitrinationHttpException(429, "Too Many Requests", 1L));
+                default:
+                    return CompletableFuture.completedFuture("done");
+            }
+        }).join();
+        Assert.assertEquals("done", result);
+        Assert.assertEquals(4, attempts.get());
+    }
+
+    /**
+     * Test that errors that are not retryable, or that ask for too long a wait, fail immediately.
+     */
+    @Test
+    public void testNoRetry() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final RequestRetrier retrier = new RequestRetrier(new RetryPolicy().setBaseBackoffMillis(1)
+                .setMaxRetryAfterMillis(1000), null, "host", this.scheduler);
+        final CitrinationHttpException notFound = assertFails(retrier.execute(() -> {
+            attempts.incrementAndGet();
+            return failed(new CitrinationHttpException(404, "Not Found", null));
+        }));
+        Assert.assertEquals(404, notFound.getStatusCode());
+        Assert.assertFalse(notFound.isRetryable());
+        Assert.assertEquals("Received 404 response: Not Found", notFound.getMessage());
+        Assert.assertEquals(1, attempts.get());
+
+        final CitrinationHttpException unavailable = assertFails(retrier.execute(() -> {
+            attempts.incrementAndGet();
+            return failed(new CitrinationHttpException(503, "Service Unavailable", 60000L));
+        }));
+        Assert.assertTrue(unavailable.isRetryable());
+        Assert.assertEquals(2, attempts.get());
+    }
+
+    /**
+     * Test that the circuit opens after repeated failures, fails fast while open and closes only after a successful
+     * trial.
+     */
+    @Test
+    public void testCircuitBreaker() {
+        final AtomicLong now = new AtomicLong();
+        final CircuitBreaker breaker = new CircuitBreaker(new CircuitBreakerPolicy().setFailureThreshold(2)
+                .setOpenMillis(1000), now::get);
+        final RequestRetrier retrier = new RequestRetrier(null, breaker, "host", this.scheduler);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 2; ++i) {
+            assertFails(retrier.execute(() -> {
+                attempts.incrementAndGet();
+                return failed(new IOException("Connection reset"));
+            }));
+        }
+        Assert.assertTrue(breaker.isOpen());
+        Assert.assertTrue(assertFails(retrier.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture("done");
+        })) instanceof CircuitOpenException);
+        Assert.assertEquals(2, attempts.get());
+
+        // A failed trial keeps the circuit open and a good trial closes it
+        now.set(1000);
+        assertFails(retrier.execute(() -> failed(new IOException("Connection reset"))));
+        Assert.assertTrue(breaker.isOpen());
+        now.set(2000);
+
+        // A trial that the client rejected itself or that got a client error leaves the circuit open
+        assertFails(retrier.execute(() -> failed(new RequestThrottledException("Request limit reached"))));
+        Assert.assertTrue(breaker.isOpen());
+        assertFails(retrier.execute(() -> failed(new CitrinationHttpException(404, "Not Found", null))));
+        Assert.assertTrue(breaker.isOpen());
+        Assert.assertEquals("done", retrier.execute(() -> CompletableFuture.completedFuture("done")).join());
+        Assert.assertFalse(breaker.isOpen());
+
+        // Errors that are not retryable count against the circuit if they come from the server
+        for (int i = 0; i < 2; ++i) {
+            assertFails(retrier.execute(() -> failed(new CitrinationHttpException(501, "Not Implemented", null))));
+        }
+        Assert.assertTrue(breaker.isOpen());
+    }
+
+    /**
+     * Test reading the Retry-After header.
+     */
+    @Test
+    public void testParseRetryAfter() {
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 503, "Service Unavailable");
+        Assert.assertNull(CitrinationClient.parseRetryAfterMillis(response));
+        response.setHeader("Retry-After", "3");
+        Assert.assertEquals(Long.valueOf(3000), CitrinationClient.parseRetryAfterMillis(response));
+        response.setHeader("Retry-After", "Wed, 21 Oct 2015 07:28:00 GMT");
+        Assert.assertEquals(Long.valueOf(0), CitrinationClient.parseRetryAfterMillis(response));
+        response.setHeader("Retry-After", "soon");
+        Assert.assertNull(CitrinationClient.parseRetryAfterMillis(response));
+    }
+
+    /**
+     * Get a future that has failed.
+     *
+     * @param cause {@link Throwable} to fail with.
+     * @return {@link CompletableFuture} that failed with the input cause.
+     */
+    private static CompletableFuture<String> failed(final Throwable cause) {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        result.completeExceptionally(cause);
+        return result;
+    }
+
+    /**
+     * Check that a future fails and get the cause of the failure.
+     *
+     * @param future {@link CompletableFuture} to check.
+     * @param <T> Type of the cause.
+     * @return Cause of the failure.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T assertFails(final CompletableFuture<String> future) {
+        try {
+            future.join();
+            Assert.fail("Expected future to fail");
+            return null;
+        }
+        catch (CompletionException e) {
+            return (T) e.getCause();
+        }
+    }
+
+    /** Scheduler used by the retrier. */
+    private ScheduledExecutorService scheduler;
+}
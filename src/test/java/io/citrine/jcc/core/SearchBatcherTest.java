@@ -0,0 +1,164 @@
+package io.citrine.jcc.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Tests for {@link SearchBatcher}.
+ *
+ * @author Kyle Michel
+ */
+public class SearchBatcherTest {
+
+    /**
+     * Start the scheduler.
+     */
+    @Before
+    public void setUp() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Stop the scheduler.
+     */
+    @After
+    public void tearDown() {
+        this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Test that a full batch is sent at once and that each caller receives its own element of the response.
+     */
+    @Test
+    public void testFullBatch() throws IOException {
+        final List<MultiQuery<PifSystemReturningQuery>> sent = new ArrayList<>();
+        final SearchBatcher batcher = new SearchBatcher(multiQuery -> {
+            sent.add(multiQuery);
+            return CompletableFuture.completedFuture(MULTI_RESPONSE.getBytes(StandardCharsets.UTF_8));
+        }, this.scheduler, 3, 60000);
+
+        final CompletableFuture<byte[]> first = batcher.submit(new PifSystemReturningQuery().setSize(1));
+        final CompletableFuture<byte[]> second = batcher.submit(new PifSystemReturningQuery().setSize(2));
+        Assert.assertTrue(sent.isEmpty());
+        final CompletableFuture<byte[]> third = batcher.submit(new PifSystemReturningQuery().setSize(3));
+        Assert.assertEquals(1, sent.size());
+        Assert.assertEquals(3, sent.get(0).queriesLength());
+        Assert.assertEquals(Integer.valueOf(2), sent.get(0).getQueries(1).getSize());
+
+        final JsonNode firstBody = OBJECT_MAPPER.readTree(first.join());
+        Assert.assertEquals(1, firstBody.path("results").path("totalNumHits").asLong());
+        Assert.assertEquals("a", firstBody.path("results").path("hits").path(0).path("id").asText());
+        assertFails(second, "failed");
+        assertFails(third, "not executed");
+        Assert.assertFalse(((MultiSearchElementException) failure(second)).isRetryable());
+        Assert.assertTrue(((MultiSearchElementException) failure(third)).isRetryable());
+    }
+
+    /**
+     * Test that queries that were cancelled while waiting are left out of their batch, and that a batch whose
+     * queries were all cancelled is not sent.
+     */
+    @Test
+    public void testCancelledWhileWaiting() {
+        final List<MultiQuery<PifSystemReturningQuery>> sent = new ArrayList<>();
+        final SearchBatcher batcher = new SearchBatcher(multiQuery -> {
+            sent.add(multiQuery);
+            return CompletableFuture.completedFuture(MULTI_RESPONSE.getBytes(StandardCharsets.UTF_8));
+        }, this.scheduler, 100, 60000);
+
+        batcher.submit(new PifSystemReturningQuery().setSize(1)).cancel(true);
+        final CompletableFuture<byte[]> second = batcher.submit(new PifSystemReturningQuery().setSize(2));
+        batcher.flush();
+        Assert.assertEquals(1, sent.size());
+        Assert.assertEquals(1, sent.get(0).queriesLength());
+        Assert.assertEquals(Integer.valueOf(2), sent.get(0).getQueries(0).getSize());
+        Assert.assertNotNull(second.join());
+
+        batcher.submit(new PifSystemReturningQuery()).cancel(true);
+        batcher.flush();
+        Assert.assertEquals(1, sent.size());
+    }
+
+    /**
+     * Test that a partial batch is sent once the linger time has passed.
+     */
+    @Test
+    public void testLinger() {
+        final SearchBatcher batcher = new SearchBatcher(multiQuery -> CompletableFuture.completedFuture(
+                MULTI_RESPONSE.getBytes(StandardCharsets.UTF_8)), this.scheduler, 100, 10);
+        Assert.assertNotNull(batcher.submit(new PifSystemReturningQuery()).join());
+    }
+
+    /**
+     * Test that a failed batch request fails every caller in the batch.
+     */
+    @Test
+    public void testFailedBatch() {
+        final CompletableFuture<byte[]> response = new CompletableFuture<>();
+        final SearchBatcher batcher = new SearchBatcher(multiQuery -> response, this.scheduler, 2, 60000);
+        final CompletableFuture<byte[]> first = batcher.submit(new PifSystemReturningQuery());
+        final CompletableFuture<byte[]> second = batcher.submit(new PifSystemReturningQuery());
+        response.completeExceptionally(new IllegalStateException("batch failed"));
+        assertFails(first, "batch failed");
+        assertFails(second, "batch failed");
+    }
+
+    /**
+     * Check that a future failed with a message that contains the input string.
+     *
+     * @param future {@link CompletableFuture} to check.
+     * @param message String that must be part of the message of the failure.
+     */
+    private static void assertFails(final CompletableFuture<byte[]> future, final String message) {
+        try {
+            future.join();
+            Assert.fail("Expected future to fail");
+        }
+        catch (CompletionException e) {
+            Assert.assertTrue(e.getCause().getMessage().contains(message));
+        }
+    }
+
+    /**
+     * Get the error that a future failed with.
+     *
+     * @param future {@link CompletableFuture} that failed.
+     * @return {@link Throwable} that the future failed with.
+     */
+    private static Throwable failure(final CompletableFuture<byte[]> future) {
+        try {
+            future.join();
+        }
+        catch (CompletionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("Expected future to fail");
+    }
+
+    /** Response to a batch of three queries where only the first one succeeds. */
+    private static final String MULTI_RESPONSE = "{\"results\":{\"took\":5,\"results\":["
+            + "{\"result\":{\"took\":2,\"totalNumHits\":1,\"hits\":[{\"id\":\"a\"}]},\"status\":\"SUCCESS\"},"
+            + "{\"status\":\"ERROR\"},"
+            + "{\"status\":\"NOT_EXECUTED\"}]}}";
+
+    /** Mapper used to read bodies. */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /** Scheduler used by the batcher. */
+    private ScheduledExecutorService scheduler;
+}
@@ -0,0 +1,46 @@
+package io.citrine.jcc.core;
+
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Tests for {@link SearchCodecs}.
+ *
+ * @author Kyle Michel
+ */
+public class SearchCodecsTest {
+
+    /**
+     * Test that a query survives a round trip through Smile and that the format of a body is detected.
+     *
+     * @throws IOException if thrown in this test.
+     */
+    @Test
+    public void testSmileRoundTrip() throws IOException {
+        final PifSystemReturningQuery query;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("pifQuery.json")) {
+            query = SearchCodecs.JSON.getObjectMapper().readValue(inputStream, PifSystemReturningQuery.class);
+        }
+        final byte[] smile = SearchCodecs.SMILE.getObjectMapper().writeValueAsBytes(query);
+        final byte[] json = SearchCodecs.JSON.getObjectMapper().writeValueAsBytes(query);
+        Assert.assertSame(SearchCodecs.SMILE, SearchCodecs.forBody(smile));
+        Assert.assertSame(SearchCodecs.JSON, SearchCodecs.forBody(json));
+        Assert.assertTrue(smile.length < json.length);
+        Assert.assertEquals(query, SearchCodecs.forBody(smile).getObjectMapper()
+                .readValue(smile, PifSystemReturningQuery.class));
+    }
+
+    /**
+     * Test that the codec of a content type is found.
+     */
+    @Test
+    public void testForContentType() {
+        Assert.assertSame(SearchCodecs.SMILE, SearchCodecs.forContentType("application/x-jackson-smile"));
+        Assert.assertSame(SearchCodecs.JSON, SearchCodecs.forContentType("application/json; charset=UTF-8"));
+        Assert.assertSame(SearchCodecs.JSON, SearchCodecs.forContentType(null));
+    }
+}
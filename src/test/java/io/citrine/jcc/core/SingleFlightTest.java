@@ -0,0 +1,93 @@
+package io.citrine.jcc.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link SingleFlight}.
+ *
+ * @author Kyle Michel
+ */
+public class SingleFlightTest {
+
+    /**
+     * Test that concurrent calls with the same key share one call and that the key is released afterwards.
+     */
+    @Test
+    public void testCoalesce() {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final AtomicInteger callCount = new AtomicInteger();
+        final CompletableFuture<String> call = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = singleFlight.execute("a", () -> {
+            callCount.incrementAndGet();
+            return call;
+        });
+        final CompletableFuture<String> second = singleFlight.execute("a", () -> {
+            callCount.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        final CompletableFuture<String> other = singleFlight.execute("b", () -> {
+            callCount.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        Assert.assertEquals(2, callCount.get());
+        Assert.assertEquals(1, singleFlight.getCoalescedCount());
+        Assert.assertEquals("other", other.join());
+
+        // Cancelling one caller must not affect the other
+        first.cancel(true);
+        call.complete("value");
+        Assert.assertTrue(first.isCancelled());
+        Assert.assertEquals("value", second.join());
+
+        singleFlight.execute("a", () -> {
+            callCount.incrementAndGet();
+            return CompletableFuture.completedFuture("again");
+        });
+        Assert.assertEquals(3, callCount.get());
+    }
+
+    /**
+     * Test that the shared call is cancelled and the key is released once every caller has cancelled.
+     */
+    @Test
+    public void testCancelAll() {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CompletableFuture<String> call = new CompletableFuture<>();
+        final CompletableFuture<String> first = singleFlight.execute("a", () -> call);
+        final CompletableFuture<String> second = singleFlight.execute("a", () -> call);
+
+        first.cancel(true);
+        Assert.assertFalse(call.isCancelled());
+        second.cancel(true);
+        Assert.assertTrue(call.isCancelled());
+
+        final CompletableFuture<String> third = singleFlight.execute("a",
+                () -> CompletableFuture.completedFuture("again"));
+        Assert.assertEquals("again", third.join());
+    }
+
+    /**
+     * Test that a failure is delivered to every caller and releases the key.
+     */
+    @Test
+    public void testFailure() {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CompletableFuture<String> call = new CompletableFuture<>();
+        final CompletableFuture<String> first = singleFlight.execute("a", () -> call);
+        final CompletableFuture<String> second = singleFlight.execute("a", () -> call);
+        call.completeExceptionally(new IllegalStateException("failed"));
+        Assert.assertTrue(first.isCompletedExceptionally());
+        Assert.assertTrue(second.isCompletedExceptionally());
+
+        final CompletableFuture<String> third = singleFlight.execute("a", () -> {
+            throw new IllegalStateException("failed to start");
+        });
+        Assert.assertTrue(third.isCompletedExceptionally());
+        Assert.assertEquals("value", singleFlight.execute("a", () -> CompletableFuture.completedFuture("value")).join());
+    }
+}
@@ -0,0 +1,100 @@
+package io.citrine.jcc.core.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Tests for {@link DatasetVersionIndex}.
+ *
+ * @author Kyle Michel
+ */
+public class DatasetVersionIndexTest {
+
+    /**
+     * Test that only the keys built from a dataset that changed are returned as stale.
+     */
+    @Test
+    public void testUpdate() {
+        final DatasetVersionIndex index = new DatasetVersionIndex();
+        Assert.assertTrue(index.record(buildKey("a"), versions("1", 2L, "2", 5L)));
+        Assert.assertTrue(index.record(buildKey("b"), versions("1", 2L)));
+        Assert.assertTrue(index.record(buildKey("c"), versions("2", 5L)));
+        Assert.assertTrue(index.record(buildKey("d"), versions("3", 1L)));
+        Assert.assertEquals(4, index.size());
+
+        final Map<String, Long> current = versions("1", 2L, "2", 6L);
+        current.put("3", null);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(buildKey("a"), buildKey("c"), buildKey("d"))),
+                index.update(current));
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals(Collections.singletonList("1"), index.getDatasets());
+        Assert.assertTrue(index.update(versions("1", 2L)).isEmpty());
+    }
+
+    /**
+     * Test that a response from an older version of a dataset than one that has been seen is rejected.
+     */
+    @Test
+    public void testRejectStale() {
+        final DatasetVersionIndex index = new DatasetVersionIndex();
+        Assert.assertTrue(index.record(buildKey("a"), versions("1", 3L)));
+        Assert.assertFalse(index.record(buildKey("b"), versions("1", 2L)));
+        Assert.assertFalse(index.record(buildKey("c"), versions("1", null)));
+        Assert.assertEquals(1, index.size());
+
+        // The newest version is remembered after the keys that were built from it are gone
+        index.invalidateAll();
+        Assert.assertFalse(index.record(buildKey("b"), versions("1", 2L)));
+        index.update(versions("1", 4L));
+        Assert.assertFalse(index.record(buildKey("a"), versions("1", 3L)));
+        Assert.assertTrue(index.record(buildKey("a"), versions("1", 4L)));
+    }
+
+    /**
+     * Test that keys can be removed when they leave the caches.
+     */
+    @Test
+    public void testRetainAll() {
+        final DatasetVersionIndex index = new DatasetVersionIndex();
+        index.record(buildKey("a"), versions("1", 1L));
+        index.record(buildKey("b"), versions("2", 1L));
+        index.record(buildKey("c"), Collections.emptyMap());
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals(1, index.retainAll(key -> key.equals(buildKey("a"))));
+        Assert.assertEquals(Collections.singletonList("1"), index.getDatasets());
+        index.invalidate(buildKey("a"));
+        Assert.assertEquals(0, index.size());
+        Assert.assertTrue(index.getDatasets().isEmpty());
+    }
+
+    /**
+     * Build a key for a query.
+     *
+     * @param query String with the query.
+     * @return {@link SearchCacheKey} for the query.
+     */
+    private static SearchCacheKey buildKey(final String query) {
+        return new SearchCacheKey("http://localhost/api/search/pif_search", query.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Build a map of dataset versions.
+     *
+     * @param keysAndValues Alternating dataset ids and versions.
+     * @return Map from each dataset to its version.
+     */
+    private static Map<String, Long> versions(final Object... keysAndValues) {
+        final Map<String, Long> versions = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            versions.put((String) keysAndValues[i], (Long) keysAndValues[i + 1]);
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,202 @@
+package io.citrine.jcc.core.cache;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Tests for {@link DiskSearchCache}.
+ *
+ * @author Kyle Michel
+ */
+public class DiskSearchCacheTest {
+
+    /** Temporary directory for the cache. */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that entries, replacements and removals survive closing and reopening the cache.
+     *
+     * @throws IOException if thrown while using the cache.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        final Path directory = this.folder.getRoot().toPath();
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 256, 0)) {
+            for (int i = 0; i < 20; ++i) {
+                cache.put(buildKey("query" + i), buildBody("body" + i));
+            }
+            cache.put(buildKey("query3"), buildBody("replaced"));
+            cache.invalidate(buildKey("query4"));
+            Assert.assertArrayEquals(buildBody("body5"), cache.get(buildKey("query5")));
+            Assert.assertNull(cache.get(buildKey("other")));
+            Assert.assertEquals(19, cache.getStats().getEntryCount());
+        }
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 256, 0)) {
+            assertReopened(cache);
+            cache.put(buildKey("query20"), buildBody("body20"));
+        }
+
+        // Records written after the last index must also be found when the index is gone
+        Files.delete(directory.resolve("index.dat"));
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 256, 0)) {
+            assertReopened(cache);
+            Assert.assertArrayEquals(buildBody("body20"), cache.get(buildKey("query20")));
+        }
+    }
+
+    /**
+     * Test that a partly written record at the end of a segment is dropped when the cache is opened.
+     *
+     * @throws IOException if thrown while using the cache.
+     */
+    @Test
+    public void testTornWrite() throws IOException {
+        final Path directory = this.folder.getRoot().toPath();
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 1024 * 1024, 0)) {
+            cache.put(buildKey("query0"), buildBody("body0"));
+            cache.put(buildKey("query1"), buildBody("body1"));
+        }
+        final Path segment;
+        try (Stream<Path> paths = Files.list(directory)) {
+            segment = paths.filter(path -> path.getFileName().toString().startsWith("segment-")).findFirst().get();
+        }
+        final long validSize = Files.size(segment);
+        Files.write(segment, new byte[]{0x4a, 0x43, 0x43, 0x32, 0, 0, 0, 9, 1, 2}, StandardOpenOption.APPEND);
+
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 1024 * 1024, 0)) {
+            Assert.assertEquals(validSize, Files.size(segment));
+            Assert.assertArrayEquals(buildBody("body1"), cache.get(buildKey("query1")));
+            cache.put(buildKey("query2"), buildBody("body2"));
+            Assert.assertArrayEquals(buildBody("body2"), cache.get(buildKey("query2")));
+        }
+    }
+
+    /**
+     * Test that the cache stays near its maximum size and that entries that have been read survive compaction.
+     *
+     * @throws IOException if thrown while using the cache.
+     */
+    @Test
+    public void testCompaction() throws IOException {
+        final long maximumBytes = 8 * 1024;
+        try (DiskSearchCache cache = new DiskSearchCache(this.folder.getRoot().toPath(), maximumBytes, 1024, 0)) {
+            cache.put(buildKey("hot"), new byte[100]);
+            for (int i = 0; i < 200; ++i) {
+                Assert.assertNotNull(cache.get(buildKey("hot")));
+                cache.put(buildKey("query" + i), new byte[100]);
+            }
+            final SearchCacheStats stats = cache.getStats();
+            Assert.assertTrue(stats.getWeightBytes() <= maximumBytes);
+            Assert.assertTrue(stats.getEvictionCount() > 0);
+            Assert.assertNotNull(cache.get(buildKey("hot")));
+            Assert.assertNull(cache.get(buildKey("query0")));
+            Assert.assertNotNull(cache.get(buildKey("query199")));
+        }
+    }
+
+    /**
+     * Test that the dataset versions of entries survive closing and reopening the cache, with and without the index.
+     *
+     * @throws IOException if thrown while using the cache.
+     */
+    @Test
+    public void testDatasetVersions() throws IOException {
+        final Path directory = this.folder.getRoot().toPath();
+        final Map<SearchCacheKey, Map<String, Long>> expected = new HashMap<>();
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 256, 0)) {
+            for (int i = 0; i < 10; ++i) {
+                final Map<String, Long> versions = new HashMap<>();
+                versions.put("dataset" + i, (long) i);
+                versions.put("shared", (i == 5) ? null : 7L);
+                cache.put(buildKey("query" + i), buildBody("body" + i), versions);
+                expected.put(buildKey("query" + i), versions);
+            }
+            cache.put(buildKey("unversioned"), buildBody("body"));
+            cache.invalidate(buildKey("query3"));
+            expected.remove(buildKey("query3"));
+            Assert.assertArrayEquals(buildBody("body4"), cache.get(buildKey("query4")));
+            Assert.assertEquals(expected, cache.getDatasetVersions());
+        }
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 256, 0)) {
+            Assert.assertEquals(expected, cache.getDatasetVersions());
+            Assert.assertArrayEquals(buildBody("body"), cache.get(buildKey("unversioned")));
+        }
+        Files.delete(directory.resolve("index.dat"));
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 256, 0)) {
+            Assert.assertEquals(expected, cache.getDatasetVersions());
+            Assert.assertArrayEquals(buildBody("body9"), cache.get(buildKey("query9")));
+        }
+    }
+
+    /**
+     * Test that entries expire and that a directory cannot be opened twice.
+     *
+     * @throws IOException if thrown while using the cache.
+     */
+    @Test
+    public void testExpirationAndLock() throws IOException {
+        final AtomicLong now = new AtomicLong(1000);
+        final Path directory = this.folder.getRoot().toPath();
+        try (DiskSearchCache cache = new DiskSearchCache(directory, 1024 * 1024, 1024, 100, now::get)) {
+            cache.put(buildKey("query"), buildBody("body"));
+            now.addAndGet(99);
+            Assert.assertNotNull(cache.get(buildKey("query")));
+            now.addAndGet(1);
+            Assert.assertNull(cache.get(buildKey("query")));
+            Assert.assertEquals(0, cache.getStats().getEntryCount());
+
+            try {
+                new DiskSearchCache(directory, 1024 * 1024, 1024, 100).close();
+                Assert.fail("Expected the directory to be locked");
+            }
+            catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("in use"));
+            }
+        }
+    }
+
+    /**
+     * Check the entries that {@link #testReopen()} expects after reopening the cache.
+     *
+     * @param cache {@link DiskSearchCache} to check.
+     */
+    private static void assertReopened(final DiskSearchCache cache) {
+        Assert.assertArrayEquals(buildBody("body0"), cache.get(buildKey("query0")));
+        Assert.assertArrayEquals(buildBody("replaced"), cache.get(buildKey("query3")));
+        Assert.assertNull(cache.get(buildKey("query4")));
+        Assert.assertArrayEquals(buildBody("body19"), cache.get(buildKey("query19")));
+    }
+
+    /**
+     * Build a key for a query.
+     *
+     * @param query String with the query.
+     * @return {@link SearchCacheKey} for the query.
+     */
+    private static SearchCacheKey buildKey(final String query) {
+        return new SearchCacheKey("http://localhost/api/search/pif_search", query.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Build the body of a response.
+     *
+     * @param body String with the body.
+     * @return Array with the body.
+     */
+    private static byte[] buildBody(final String body) {
+        return ("{\"results\":\"" + body + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
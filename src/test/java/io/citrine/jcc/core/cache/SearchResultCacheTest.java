@@ -0,0 +1,81 @@
+package io.citrine.jcc.core.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link SearchResultCache}.
+ *
+ * @author Kyle Michel
+ */
+public class SearchResultCacheTest {
+
+    /**
+     * Test that keys with equal contents find the same entry and that hits and misses are counted.
+     */
+    @Test
+    public void testGetAndPut() {
+        final SearchResultCache cache = new SearchResultCache(1024 * 1024, 0);
+        final byte[] body = "{\"results\":{}}".getBytes(StandardCharsets.UTF_8);
+        Assert.assertNull(cache.get(buildKey("query")));
+        cache.put(buildKey("query"), body);
+        Assert.assertSame(body, cache.get(buildKey("query")));
+        Assert.assertNull(cache.get(buildKey("other")));
+
+        final SearchCacheStats stats = cache.getStats();
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(2, stats.getMissCount());
+        Assert.assertEquals(1, stats.getEntryCount());
+
+        cache.invalidate(buildKey("query"));
+        Assert.assertNull(cache.get(buildKey("query")));
+    }
+
+    /**
+     * Test that the number of bytes held by the cache stays under its limit.
+     */
+    @Test
+    public void testWeightBound() {
+        final long maximumWeightBytes = 16 * 1024;
+        final SearchResultCache cache = new SearchResultCache(maximumWeightBytes, 0);
+        for (int i = 0; i < 100; ++i) {
+            cache.put(buildKey("query" + i), new byte[1024]);
+        }
+        final SearchCacheStats stats = cache.getStats();
+        Assert.assertTrue(stats.getWeightBytes() <= maximumWeightBytes);
+        Assert.assertTrue(stats.getEvictionCount() > 0);
+        Assert.assertTrue(stats.getEntryCount() < 100);
+    }
+
+    /**
+     * Test that entries record when they were saved and how often they were read, and that they expire.
+     */
+    @Test
+    public void testEntry() {
+        final AtomicLong now = new AtomicLong(1000);
+        final SearchResultCache cache = new SearchResultCache(1024 * 1024, 100, now::get);
+        cache.put(buildKey("query"), new byte[1]);
+        now.addAndGet(50);
+        cache.get(buildKey("query"));
+        final SearchResultCache.Entry entry = cache.getEntry(buildKey("query"));
+        Assert.assertEquals(1000, entry.getWrittenAtMillis());
+        Assert.assertEquals(2, entry.getHitCount());
+
+        now.addAndGet(50);
+        Assert.assertNull(cache.getEntry(buildKey("query")));
+        Assert.assertFalse(cache.containsKey(buildKey("query")));
+    }
+
+    /**
+     * Build a key for a query.
+     *
+     * @param query String with the query.
+     * @return {@link SearchCacheKey} for the query.
+     */
+    private static SearchCacheKey buildKey(final String query) {
+        return new SearchCacheKey("http://localhost/api/search/pif_search", query.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,6 +1,10 @@
 package io.citrine.jcc.search.pif.query;
 
+import io.citrine.jcc.search.core.query.DataQuery;
+import io.citrine.jcc.search.core.query.Filter;
 import io.citrine.jcc.search.core.query.Logic;
+import io.citrine.jcc.search.core.query.QuerySnapshot;
+import io.citrine.jcc.search.pif.query.core.FieldQuery;
 import io.citrine.jpif.util.PifObjectMapper;
 import org.junit.Assert;
 import org.junit.Test;
@@ -53,4 +57,44 @@ public class PifSystemReturningQueryTest {
         Assert.assertEquals("Li",
                 pifSystemReturningQuery.getQuery(2).getSystem(1).getChemicalFormula(0).getFilter(0).getEqual());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that equal queries have equal hash codes.
+     *
+     * @throws IOException if thrown in this test.
+     */
+    @Test
+    public void testHashCode() throws IOException {
+        final PifSystemReturningQuery lhs = PifObjectMapper.getInstance().readValue(
+                this.getClass().getClassLoader().getResourceAsStream("pifQuery.json"), PifSystemReturningQuery.class);
+        final PifSystemReturningQuery rhs = PifObjectMapper.getInstance().readValue(
+                this.getClass().getClassLoader().getResourceAsStream("pifQuery.json"), PifSystemReturningQuery.class);
+        Assert.assertEquals(lhs, rhs);
+        Assert.assertEquals(lhs.hashCode(), rhs.hashCode());
+        rhs.setSize(99);
+        Assert.assertNotEquals(lhs.hashCode(), rhs.hashCode());
+    }
+
+    /**
+     * Test that a snapshot is not affected by changes to the original query and can be used as a map key.
+     */
+    @Test
+    public void testSnapshot() {
+        final PifSystemReturningQuery query = new PifSystemReturningQuery()
+                .setSize(10)
+                .addQuery(new DataQuery()
+                        .addSystem(new PifSystemQuery()
+                                .addNames(new FieldQuery()
+                                        .addFilter(new Filter().setEqual("lithium")))));
+        final QuerySnapshot<PifSystemReturningQuery> snapshot = QuerySnapshot.of(query);
+        Assert.assertEquals(QuerySnapshot.of(query), snapshot);
+        Assert.assertEquals(QuerySnapshot.of(query).hashCode(), snapshot.hashCode());
+
+        query.setSize(20);
+        Assert.assertNotEquals(QuerySnapshot.of(query), snapshot);
+        Assert.assertEquals(10, (int) snapshot.get().getSize());
+
+        snapshot.get().setSize(30);
+        Assert.assertEquals(10, (int) snapshot.get().getSize());
+    }
+}
@@ -0,0 +1,114 @@
+package io.citrine.jcc.search.pif.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Tests for {@link ColumnarSearchResult}.
+ *
+ * @author Kyle Michel
+ */
+public class ColumnarSearchResultTest {
+
+    /**
+     * Test that the hits of a page are read into rows and that missing values are marked as null.
+     *
+     * @throws IOException if thrown while reading the result.
+     */
+    @Test
+    public void testPage() throws IOException {
+        final ColumnarSearchResult.Builder builder = new ColumnarSearchResult.Builder();
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(
+                this.getClass().getClassLoader().getResourceAsStream("pifSearchResult.json"))) {
+            parser.nextToken();
+            Assert.assertEquals(2, builder.addPage(parser));
+        }
+        final ColumnarSearchResult result = builder.build();
+        Assert.assertEquals(12L, (long) result.getTook());
+        Assert.assertEquals(20L, (long) result.getTotalNumHits());
+        Assert.assertEquals(2, result.getNumRows());
+        Assert.assertArrayEquals(new String[]{"123/2/abc", "456/1/def"}, result.getIds());
+        Assert.assertArrayEquals(new double[]{1.5, 0.5}, result.getScores(), 1e-9);
+
+        final ExtractedColumn bandGap = result.getColumn("Band gap");
+        Assert.assertEquals(ExtractedColumn.Type.DOUBLE, bandGap.getType());
+        Assert.assertEquals(1.25, bandGap.getDoubles()[0], 1e-9);
+        Assert.assertTrue(Double.isNaN(bandGap.getDoubles()[1]));
+        Assert.assertTrue(bandGap.isNull(1));
+        Assert.assertEquals(1, bandGap.getNullCount());
+    }
+
+    /**
+     * Test that columns are widened as values of other types are read across pages.
+     *
+     * @throws IOException if thrown while reading the result.
+     */
+    @Test
+    public void testColumnTypes() throws IOException {
+        final ColumnarSearchResult.Builder builder = new ColumnarSearchResult.Builder();
+        addPage(builder, "{\"took\":1,\"hits\":[{\"id\":\"a\",\"extracted\":{\"n\":1,\"x\":2,\"s\":\"Si\"}},"
+                + "{\"id\":\"b\",\"extracted\":{\"n\":3,\"x\":2.5,\"s\":\"Ge\"}}]}");
+        addPage(builder, "{\"took\":2,\"hits\":[{\"id\":\"c\",\"extracted\":{\"x\":4,\"s\":\"Si\",\"t\":true}},"
+                + "{\"id\":\"d\",\"extracted\":{\"n\":5,\"x\":null,\"s\":[\"Si\",\"Ge\"]}}]}");
+        final ColumnarSearchResult result = builder.build();
+        Assert.assertEquals(3L, (long) result.getTook());
+        Assert.assertEquals(4, result.getNumRows());
+
+        final ExtractedColumn n = result.getColumn("n");
+        Assert.assertEquals(ExtractedColumn.Type.LONG, n.getType());
+        Assert.assertArrayEquals(new long[]{1, 3, 0, 5}, n.getLongs());
+        Assert.assertTrue(n.isNull(2));
+        Assert.assertTrue(Double.isNaN(n.getDoubles()[2]));
+
+        final ExtractedColumn x = result.getColumn("x");
+        Assert.assertEquals(ExtractedColumn.Type.DOUBLE, x.getType());
+        Assert.assertArrayEquals(new double[]{2, 2.5, 4, Double.NaN}, x.getDoubles(), 1e-9);
+
+        final ExtractedColumn s = result.getColumn("s");
+        Assert.assertEquals(ExtractedColumn.Type.STRING, s.getType());
+        Assert.assertArrayEquals(new String[]{"Si", "Ge", "[\"Si\",\"Ge\"]"}, s.getDictionary());
+        Assert.assertArrayEquals(new int[]{0, 1, 0, 2}, s.getCodes());
+
+        final ExtractedColumn t = result.getColumn("t");
+        Assert.assertEquals("true", t.getValue(2));
+        Assert.assertNull(t.getValue(0));
+        Assert.assertArrayEquals(new int[]{-1, -1, 0, -1}, t.getCodes());
+    }
+
+    /**
+     * Test that a column that mixes numbers and strings keeps the text of its numbers.
+     *
+     * @throws IOException if thrown while reading the result.
+     */
+    @Test
+    public void testMixedColumn() throws IOException {
+        final ColumnarSearchResult.Builder builder = new ColumnarSearchResult.Builder();
+        addPage(builder, "{\"hits\":[{\"extracted\":{\"v\":7}},{\"extracted\":{\"v\":\"n/a\"}},"
+                + "{\"extracted\":{\"v\":7}}]}");
+        final ExtractedColumn v = builder.build().getColumn("v");
+        Assert.assertEquals(ExtractedColumn.Type.STRING, v.getType());
+        Assert.assertArrayEquals(new String[]{"7", "n/a"}, v.getDictionary());
+        Assert.assertArrayEquals(new int[]{0, 1, 0}, v.getCodes());
+    }
+
+    /**
+     * Add a page to a builder.
+     *
+     * @param builder {@link ColumnarSearchResult.Builder} to add the page to.
+     * @param page String with the JSON of the page.
+     * @throws IOException if thrown while reading the page.
+     */
+    private static void addPage(final ColumnarSearchResult.Builder builder, final String page) throws IOException {
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(page)) {
+            parser.nextToken();
+            builder.addPage(parser);
+        }
+    }
+
+    /** Mapper to read results with. */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+}
@@ -0,0 +1,90 @@
+package io.citrine.jcc.search.pif.result;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.citrine.jcc.search.analysis.result.StatisticsAnalysisResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests for {@link PifSearchHitStream}.
+ *
+ * @author Kyle Michel
+ */
+public class PifSearchHitStreamTest {
+
+    /**
+     * Test that hits are returned in order and that fields on either side of the hits are available once the stream
+     * has been drained.
+     *
+     * @throws IOException if thrown while reading the result.
+     */
+    @Test
+    public void testIteration() throws IOException {
+        try (PifSearchHitStream hitStream = openStream()) {
+            Assert.assertTrue(hitStream.hasNext());
+            Assert.assertEquals(12L, (long) hitStream.getTook());
+            final PifSearchHit first = hitStream.next();
+            Assert.assertEquals("123/2/abc", first.getId());
+            Assert.assertEquals(2L, (long) first.getDatasetVersion());
+            Assert.assertEquals(1.25, (Double) first.getExtractedValue("Band gap"), 1e-9);
+            Assert.assertEquals("456/1/def", hitStream.next().getId());
+            Assert.assertFalse(hitStream.hasNext());
+            Assert.assertTrue(hitStream.isDrained());
+            Assert.assertEquals(20L, (long) hitStream.getTotalNumHits());
+            Assert.assertEquals(1.5, hitStream.getMaxScore(), 1e-9);
+            Assert.assertEquals(2L, (long) ((StatisticsAnalysisResult) hitStream.getAnalysis("Band gap")).getCount());
+        }
+    }
+
+    /**
+     * Test that the stream view returns the same hits as the iterator.
+     *
+     * @throws IOException if thrown while reading the result.
+     */
+    @Test
+    public void testStream() throws IOException {
+        final PifSearchHitStream hitStream = openStream();
+        try (Stream<PifSearchHit> stream = hitStream.stream()) {
+            Assert.assertEquals("123/2/abc,456/1/def",
+                    stream.map(PifSearchHit::getId).collect(Collectors.joining(",")));
+        }
+        Assert.assertEquals(20L, (long) hitStream.getTotalNumHits());
+    }
+
+    /**
+     * Test that no hits are returned after the stream has been closed.
+     *
+     * @throws IOException if thrown while reading the result.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testClose() throws IOException {
+        final PifSearchHitStream hitStream = openStream();
+        hitStream.next();
+        hitStream.close();
+        hitStream.next();
+    }
+
+    /**
+     * Open a stream over the test search result.
+     *
+     * @return {@link PifSearchHitStream} to test.
+     * @throws IOException if thrown while opening the result.
+     */
+    private PifSearchHitStream openStream() throws IOException {
+        final JsonParser parser = OBJECT_MAPPER.getFactory().createParser(
+                this.getClass().getClassLoader().getResourceAsStream("pifSearchResult.json"));
+        parser.nextToken();
+        return new PifSearchHitStream(parser, OBJECT_MAPPER, null);
+    }
+
+    /** Mapper to read results with. */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+}
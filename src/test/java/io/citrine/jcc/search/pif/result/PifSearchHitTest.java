@@ -0,0 +1,136 @@
+package io.citrine.jcc.search.pif.result;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.citrine.jpif.obj.system.System;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+
+/**
+ * Tests for {@link PifSearchHit}.
+ *
+ * @author Kyle Michel
+ */
+public class PifSearchHitTest {
+
+    /**
+     * Test that the system of a hit is only bound when it is requested and that the same object is returned after.
+     *
+     * @throws IOException if thrown while reading the hit.
+     */
+    @Test
+    public void testLazySystem() throws IOException {
+        final PifSearchHit hit = OBJECT_MAPPER.readValue(HIT, PifSearchHit.class);
+        Assert.assertEquals("123/2/abc", hit.getId());
+        Assert.assertEquals(1.25, (Double) hit.getExtractedValue("Band gap"), 1e-9);
+        Assert.assertFalse(hit.isSystemBound());
+
+        final System system = hit.getSystem();
+        Assert.assertTrue(hit.isSystemBound());
+        Assert.assertEquals("abc", system.getUid());
+        Assert.assertSame(system, hit.getSystem());
+    }
+
+    /**
+     * Test that setting a system replaces tokens that have not been bound.
+     *
+     * @throws IOException if thrown while reading the hit.
+     */
+    @Test
+    public void testSetSystem() throws IOException {
+        final PifSearchHit hit = OBJECT_MAPPER.readValue(HIT, PifSearchHit.class);
+        hit.setSystem(new System().setUid("def"));
+        Assert.assertTrue(hit.isSystemBound());
+        Assert.assertEquals("def", hit.getSystem().getUid());
+
+        final PifSearchHit noSystem = OBJECT_MAPPER.readValue("{\"id\":\"123/2/abc\",\"system\":null}",
+                PifSearchHit.class);
+        Assert.assertTrue(noSystem.isSystemBound());
+        Assert.assertNull(noSystem.getSystem());
+    }
+
+    /**
+     * Test that hits with unbound systems compare, serialize and round trip the same as hits with bound systems.
+     *
+     * @throws IOException if thrown while writing or reading the hit.
+     * @throws ClassNotFoundException if thrown while reading the hit.
+     */
+    @Test
+    public void testRoundTrip() throws IOException, ClassNotFoundException {
+        final PifSearchHit bound = OBJECT_MAPPER.readValue(HIT, PifSearchHit.class);
+        bound.getSystem();
+        Assert.assertEquals(bound, OBJECT_MAPPER.readValue(HIT, PifSearchHit.class));
+        Assert.assertEquals(bound.hashCode(), OBJECT_MAPPER.readValue(HIT, PifSearchHit.class).hashCode());
+
+        final PifSearchHit unbound = OBJECT_MAPPER.readValue(HIT, PifSearchHit.class);
+        Assert.assertEquals(bound, OBJECT_MAPPER.readValue(OBJECT_MAPPER.writeValueAsBytes(unbound),
+                PifSearchHit.class));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(OBJECT_MAPPER.readValue(HIT, PifSearchHit.class));
+        }
+        try (ObjectInputStream objectInputStream =
+                     new ObjectInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Assert.assertEquals(bound, objectInputStream.readObject());
+        }
+    }
+
+    /**
+     * Test that comparing and hashing hits does not bind their systems.
+     *
+     * @throws IOException if thrown while reading the hits.
+     */
+    @Test
+    public void testEqualsDoesNotBind() throws IOException {
+        final PifSearchHit first = OBJECT_MAPPER.readValue(HIT, PifSearchHit.class);
+        final PifSearchHit second = OBJECT_MAPPER.readValue(HIT, PifSearchHit.class);
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+        Assert.assertNotEquals(first, OBJECT_MAPPER.readValue(HIT.replace("Silicon", "Carbon"), PifSearchHit.class));
+
+        final PifSearchHit bound = OBJECT_MAPPER.readValue(HIT, PifSearchHit.class);
+        bound.getSystem();
+        Assert.assertEquals(bound, first);
+        Assert.assertEquals(first, bound);
+        Assert.assertFalse(first.isSystemBound());
+        Assert.assertFalse(second.isSystemBound());
+    }
+
+    /**
+     * Test that a typed extracted value is converted once, that the converted object is shared by later calls and
+     * that changing the extracted values clears it.
+     *
+     * @throws IOException if thrown while reading the hit.
+     */
+    @Test
+    public void testExtractedValueConversion() throws IOException {
+        final PifSearchHit hit = OBJECT_MAPPER.readValue(HIT, PifSearchHit.class);
+        final System system = hit.getExtractedValue("Composition", System.class);
+        Assert.assertEquals("def", system.getUid());
+        Assert.assertSame(system, hit.getExtractedValue("Composition", System.class));
+        Assert.assertSame(system, hit.getExtractedValueOrDefault("Composition", null, System.class));
+        Assert.assertNull(hit.getExtractedValue("Missing", System.class));
+        system.setUid("changed");
+        Assert.assertEquals("changed", hit.getExtractedValue("Composition", System.class).getUid());
+
+        hit.addExtracted("Composition", Collections.singletonMap("uid", "ghi"));
+        Assert.assertEquals("ghi", hit.getExtractedValue("Composition", System.class).getUid());
+    }
+
+    /** JSON with a single hit. */
+    private static final String HIT = "{\"id\":\"123/2/abc\",\"dataset\":\"123\",\"datasetVersion\":2,"
+            + "\"system\":{\"uid\":\"abc\",\"names\":[\"Silicon\"]},\"extracted\":{\"Band gap\":1.25,"
+            + "\"Composition\":{\"uid\":\"def\"}}}";
+
+    /** Object mapper used to read hits. */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+}
@@ -0,0 +1,85 @@
+package io.citrine.jcc.search.pif.result;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.citrine.jcc.search.analysis.result.StatisticsAnalysisResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+
+/**
+ * Tests for {@link ProjectedSearchResult}.
+ *
+ * @author Kyle Michel
+ */
+public class ProjectedSearchResultTest {
+
+    /**
+     * Test that extracted values are bound to the record class and that hits without extracted values are kept.
+     *
+     * @throws IOException if thrown while reading the result.
+     */
+    @Test
+    public void testProjection() throws IOException {
+        final ProjectedSearchResult<BandGapRecord> result = readResult();
+        Assert.assertEquals(12L, (long) result.getTook());
+        Assert.assertEquals(20L, (long) result.getTotalNumHits());
+        Assert.assertEquals(2, result.getNumHits());
+
+        final ProjectedSearchHit<BandGapRecord> first = result.getHits(0);
+        Assert.assertEquals("123/2/abc", first.getId());
+        Assert.assertEquals(2L, (long) first.getDatasetVersion());
+        Assert.assertEquals(1.25, first.getExtracted().bandGap, 1e-9);
+
+        final ProjectedSearchHit<BandGapRecord> second = result.getHits(1);
+        Assert.assertEquals("456/1/def", second.getId());
+        Assert.assertNull(second.getExtracted());
+        Assert.assertTrue(second.getExtractedPath().isEmpty());
+        Assert.assertEquals(2L, (long) ((StatisticsAnalysisResult) result.getAnalysis("Band gap")).getCount());
+    }
+
+    /**
+     * Test that writing a projected result with Java serialization fails.
+     *
+     * @throws IOException if thrown while reading the result.
+     */
+    @Test(expected = NotSerializableException.class)
+    public void testNotSerializable() throws IOException {
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            objectOutputStream.writeObject(readResult());
+        }
+    }
+
+    /**
+     * Read the test search result.
+     *
+     * @return {@link ProjectedSearchResult} to test.
+     * @throws IOException if thrown while reading the result.
+     */
+    private ProjectedSearchResult<BandGapRecord> readResult() throws IOException {
+        return OBJECT_MAPPER.readValue(this.getClass().getClassLoader().getResourceAsStream("pifSearchResult.json"),
+                OBJECT_MAPPER.getTypeFactory().constructParametricType(ProjectedSearchResult.class,
+                        BandGapRecord.class));
+    }
+
+    /**
+     * Record class that receives the band gap extracted from each hit.
+     *
+     * @author Kyle Michel
+     */
+    public static class BandGapRecord {
+
+        /** Value extracted as "Band gap". */
+        @JsonProperty("Band gap")
+        public Double bandGap;
+    }
+
+    /** Mapper to read results with. */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+}
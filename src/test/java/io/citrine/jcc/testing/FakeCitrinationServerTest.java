@@ -0,0 +1,287 @@
+package io.citrine.jcc.testing;
+
+import io.citrine.jcc.core.CitrinationClient;
+import io.citrine.jcc.core.CompressionPolicy;
+import io.citrine.jcc.core.RetryPolicy;
+import io.citrine.jcc.core.SearchCodecs;
+import io.citrine.jcc.search.core.query.DataQuery;
+import io.citrine.jcc.search.core.query.Filter;
+import io.citrine.jcc.search.core.query.MultiQuery;
+import io.citrine.jcc.search.core.result.MultiSearchResult;
+import io.citrine.jcc.search.dataset.query.DatasetQuery;
+import io.citrine.jcc.search.pif.query.PifSystemReturningQuery;
+import io.citrine.jcc.search.pif.result.PifSearchResult;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tests for {@link FakeCitrinationServer}.
+ *
+ * @author Kyle Michel
+ */
+public class FakeCitrinationServerTest {
+
+    /** Temporary directory for disk caches. */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that searches through the loopback transport filter on datasets and are paginated.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testLoopbackSearch() throws IOException {
+        final FakeCitrinationServer server = new FakeCitrinationServer.Builder()
+                .setNumRecords(100)
+                .setNumDatasets(4)
+                .build();
+        try (CitrinationClient client = buildClient(server).build()) {
+            final PifSearchResult result = client.search(buildQuery("2").setSize(10));
+            Assert.assertEquals(25L, (long) result.getTotalNumHits());
+            Assert.assertEquals(10, result.getNumHits());
+            for (int i = 0; i < result.getNumHits(); ++i) {
+                Assert.assertEquals("2", result.getHits(i).getDataset());
+                Assert.assertEquals(1L, (long) result.getHits(i).getDatasetVersion());
+            }
+            Assert.assertEquals(100L, (long) client.search(new PifSystemReturningQuery()).getTotalNumHits());
+            Assert.assertEquals(2, server.getQueryCount());
+        }
+    }
+
+    /**
+     * Test that the HTTP server returns the same hits as the loopback transport when responses are compressed and
+     * encoded with Smile.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testHttpSearch() throws IOException {
+        try (FakeCitrinationServer server = new FakeCitrinationServer.Builder().setNumRecords(50).build()) {
+            final String host = server.start();
+            final PifSystemReturningQuery query = buildQuery("3");
+            try (CitrinationClient httpClient = new CitrinationClient.Builder()
+                    .setHost(host)
+                    .setApiKey("key")
+                    .setCodec(SearchCodecs.SMILE)
+                    .setCompressionPolicy(new CompressionPolicy().setAcceptGzip(true))
+                    .build();
+                 CitrinationClient loopbackClient = buildClient(server).build()) {
+                final PifSearchResult httpResult = httpClient.search(query);
+                final PifSearchResult loopbackResult = loopbackClient.search(query);
+                Assert.assertEquals(5, httpResult.getNumHits());
+                Assert.assertEquals(loopbackResult.getNumHits(), httpResult.getNumHits());
+                for (int i = 0; i < httpResult.getNumHits(); ++i) {
+                    Assert.assertEquals(loopbackResult.getHits(i).getId(), httpResult.getHits(i).getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that each query of a multi-search is answered in order.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testMultiSearch() throws IOException {
+        final FakeCitrinationServer server = new FakeCitrinationServer.Builder()
+                .setNumRecords(30)
+                .setNumDatasets(3)
+                .build();
+        try (CitrinationClient client = buildClient(server).build()) {
+            final MultiSearchResult<PifSearchResult> result = client.search(new MultiQuery<PifSystemReturningQuery>()
+                    .addQueries(buildQuery("1"))
+                    .addQueries(buildQuery("3")));
+            Assert.assertEquals(2, result.resultsLength());
+            Assert.assertEquals("1", result.getResults(0).getResult().getHits(0).getDataset());
+            Assert.assertEquals("3", result.getResults(1).getResult().getHits(0).getDataset());
+            Assert.assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Test that a multi-search too large to be sent with a Content-Length header is streamed to the HTTP server,
+     * compressed and encoded with Smile, and that every query is answered.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testHttpLargeMultiSearch() throws IOException {
+        try (FakeCitrinationServer server = new FakeCitrinationServer.Builder()
+                .setNumRecords(30)
+                .setNumDatasets(3)
+                .build()) {
+            final String host = server.start();
+            final MultiQuery<PifSystemReturningQuery> multiQuery = new MultiQuery<>();
+            for (int i = 0; i < 5000; ++i) {
+                multiQuery.addQueries(buildQuery(Integer.toString(i % 3 + 1)));
+            }
+            try (CitrinationClient client = new CitrinationClient.Builder()
+                    .setHost(host)
+                    .setApiKey("key")
+                    .setCodec(SearchCodecs.SMILE)
+                    .setCompressionPolicy(new CompressionPolicy().setRequestCompressionThresholdBytes(1024))
+                    .build()) {
+                final MultiSearchResult<PifSearchResult> result = client.search(multiQuery);
+                Assert.assertEquals(5000, result.resultsLength());
+                Assert.assertEquals("2", result.getResults(4999).getResult().getHits(0).getDataset());
+            }
+        }
+    }
+
+    /**
+     * Test that failed requests are retried until they succeed.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testRetry() throws IOException {
+        final FakeCitrinationServer server = new FakeCitrinationServer.Builder()
+                .setErrors(0.5, 503, 0)
+                .setSeed(7)
+                .build();
+        try (CitrinationClient client = buildClient(server)
+                .setRetryPolicy(new RetryPolicy().setMaxAttempts(20).setBaseBackoffMillis(1).setMaxBackoffMillis(1))
+                .build()) {
+            for (int i = 0; i < 10; ++i) {
+                Assert.assertEquals(10, client.search(buildQuery(Integer.toString(1 + i))).getNumHits());
+            }
+        }
+        Assert.assertTrue(server.getErrorCount() > 0);
+        Assert.assertEquals(10 + server.getErrorCount(), server.getRequestCount());
+    }
+
+    /**
+     * Test that cached results of a dataset are invalidated when its version changes.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testDatasetVersions() throws IOException {
+        final FakeCitrinationServer server = new FakeCitrinationServer.Builder().setNumRecords(20).build();
+        try (CitrinationClient client = buildClient(server)
+                .setCacheMaximumWeightBytes(1024 * 1024)
+                .setTrackDatasetVersions(true)
+                .build()) {
+            client.search(buildQuery("1"));
+            client.search(buildQuery("2"));
+            Assert.assertEquals(0, client.revalidateCache());
+
+            server.setDatasetVersion("2", 2);
+            Assert.assertEquals(1, client.revalidateCache());
+            client.search(buildQuery("1"));
+            final long requestCount = server.getRequestCount();
+            Assert.assertEquals(2L, (long) client.search(buildQuery("2")).getHits(0).getDatasetVersion());
+            Assert.assertEquals(requestCount + 1, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Test that results saved in the disk cache before a restart are revalidated against the dataset versions.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testDiskDatasetVersions() throws IOException {
+        final FakeCitrinationServer server = new FakeCitrinationServer.Builder().setNumRecords(20).build();
+        final Path directory = this.folder.getRoot().toPath();
+        try (CitrinationClient client = buildDiskClient(server, directory).build()) {
+            client.search(buildQuery("1"));
+            client.search(buildQuery("2"));
+        }
+        server.setDatasetVersion("2", 2);
+        try (CitrinationClient client = buildDiskClient(server, directory).build()) {
+            Assert.assertEquals(1, client.revalidateCache());
+            final long requestCount = server.getRequestCount();
+            client.search(buildQuery("1"));
+            Assert.assertEquals(requestCount, server.getRequestCount());
+            Assert.assertEquals(2L, (long) client.search(buildQuery("2")).getHits(0).getDatasetVersion());
+            Assert.assertEquals(requestCount + 1, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Test that a result that is still being saved to the disk cache when a revalidation runs is checked by a later
+     * revalidation instead of being served after its dataset has changed.
+     *
+     * @throws IOException if thrown while searching.
+     */
+    @Test
+    public void testDiskSaveDuringRevalidation() throws IOException {
+        final FakeCitrinationServer server = new FakeCitrinationServer.Builder().setNumRecords(20).build();
+        final List<Runnable> saves = new ArrayList<>();
+        try (CitrinationClient client = buildClient(server)
+                .setDiskCacheDirectory(this.folder.getRoot().toPath())
+                .setTrackDatasetVersions(true)
+                .setExecutor(task -> {
+                    if (task instanceof CompletableFuture.AsynchronousCompletionTask) {
+                        task.run();
+                    }
+                    else {
+                        saves.add(task);
+                    }
+                })
+                .build()) {
+            client.search(buildQuery("2"));
+            server.setDatasetVersion("2", 2);
+            Assert.assertEquals(0, client.revalidateCache());
+            Assert.assertEquals(1, saves.size());
+            saves.get(0).run();
+
+            Assert.assertEquals(1, client.revalidateCache());
+            Assert.assertEquals(2L, (long) client.search(buildQuery("2")).getHits(0).getDatasetVersion());
+        }
+    }
+
+    /**
+     * Get a builder for a client that saves results with their dataset versions in a disk cache. Results are saved
+     * on the calling thread so that they are on the disk when the client is closed.
+     *
+     * @param server {@link FakeCitrinationServer} to send requests to.
+     * @param directory {@link Path} of the disk cache.
+     * @return {@link CitrinationClient.Builder} for the client.
+     */
+    private static CitrinationClient.Builder buildDiskClient(final FakeCitrinationServer server,
+                                                             final Path directory) {
+        return buildClient(server)
+                .setDiskCacheDirectory(directory)
+                .setTrackDatasetVersions(true)
+                .setExecutor(Runnable::run);
+    }
+
+    /**
+     * Get a builder for a client that sends its requests to a server through the loopback transport.
+     *
+     * @param server {@link FakeCitrinationServer} to send requests to.
+     * @return {@link CitrinationClient.Builder} for the client.
+     */
+    private static CitrinationClient.Builder buildClient(final FakeCitrinationServer server) {
+        return new CitrinationClient.Builder()
+                .setHost("http://localhost")
+                .setApiKey("key")
+                .setTransport(server.newTransport());
+    }
+
+    /**
+     * Build a query for the records of a dataset.
+     *
+     * @param dataset String with the id of the dataset.
+     * @return {@link PifSystemReturningQuery} for the records.
+     */
+    private static PifSystemReturningQuery buildQuery(final String dataset) {
+        return new PifSystemReturningQuery()
+                .setReturnSystem(false)
+                .addQuery(new DataQuery()
+                        .addDataset(new DatasetQuery()
+                                .addId(new Filter().setEqual(dataset))));
+    }
+}